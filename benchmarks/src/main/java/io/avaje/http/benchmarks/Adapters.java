@@ -0,0 +1,35 @@
+package io.avaje.http.benchmarks;
+
+import com.google.gson.Gson;
+import io.avaje.http.client.BodyAdapter;
+import io.avaje.http.client.JacksonBodyAdapter;
+import io.avaje.http.client.JsonbBodyAdapter;
+import io.avaje.http.client.gson.GsonBodyAdapter;
+import io.avaje.http.client.moshi.MoshiBodyAdapter;
+
+/**
+ * The BodyAdapters that are benchmarked.
+ */
+final class Adapters {
+
+  private Adapters() {
+  }
+
+  /**
+   * Return the BodyAdapter given the benchmark parameter name.
+   */
+  static BodyAdapter of(String name) {
+    switch (name) {
+      case "jsonb":
+        return new JsonbBodyAdapter();
+      case "jackson":
+        return new JacksonBodyAdapter();
+      case "gson":
+        return new GsonBodyAdapter(new Gson());
+      case "moshi":
+        return new MoshiBodyAdapter();
+      default:
+        throw new IllegalArgumentException("Unknown adapter " + name);
+    }
+  }
+}
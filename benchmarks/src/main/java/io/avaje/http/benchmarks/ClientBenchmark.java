@@ -0,0 +1,95 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.HttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End to end benchmark of the client request/response processing against an in-process
+ * {@link StubServer} for each of the supported BodyAdapters.
+ * <p>
+ * Run with {@code -prof gc} to include the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ClientBenchmark {
+
+  @Param({"jsonb", "jackson", "gson", "moshi"})
+  public String adapter;
+
+  @Param({"100"})
+  public int listSize;
+
+  private StubServer server;
+  private HttpClient client;
+
+  @Setup
+  public void setup() throws IOException {
+    server = StubServer.start(listSize);
+    client = HttpClient.builder()
+      .baseUrl(server.baseUrl())
+      .bodyAdapter(Adapters.of(adapter))
+      .requestLogging(false)
+      .build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    server.close();
+  }
+
+  @Benchmark
+  public Customer getBean() {
+    return client.request()
+      .path("customer")
+      .GET()
+      .bean(Customer.class);
+  }
+
+  @Benchmark
+  public List<Customer> getList() {
+    return client.request()
+      .path("customers")
+      .GET()
+      .list(Customer.class);
+  }
+
+  @Benchmark
+  public void getStream(Blackhole blackhole) {
+    try (Stream<Customer> stream = client.request()
+      .path("customers").path("stream")
+      .GET()
+      .stream(Customer.class)) {
+      stream.forEach(blackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public HttpResponse<String> getAsString() {
+    return client.request()
+      .path("hello")
+      .GET()
+      .asString();
+  }
+
+  @Benchmark
+  public Customer getAsyncBean() {
+    return client.request()
+      .path("customer")
+      .GET()
+      .async()
+      .bean(Customer.class)
+      .join();
+  }
+}
@@ -0,0 +1,41 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.jsonb.Json;
+
+/**
+ * Payload bean used by the benchmarks.
+ * <p>
+ * Uses public fields with a default constructor such that it can be read
+ * and written by each of the Jsonb, Jackson, Gson and Moshi adapters.
+ */
+@Json
+public class Customer {
+
+  public long id;
+  public String name;
+  public String email;
+  public boolean active;
+  public int rank;
+  public String notes;
+
+  public Customer() {
+  }
+
+  Customer(long id) {
+    this.id = id;
+    this.name = "customer-" + id;
+    this.email = "customer" + id + "@example.com";
+    this.active = id % 2 == 0;
+    this.rank = (int) (id % 100);
+    this.notes = "Some notes for customer " + id + " that pad out the payload a little";
+  }
+
+  String toJson() {
+    return "{\"id\":" + id
+      + ",\"name\":\"" + name
+      + "\",\"email\":\"" + email
+      + "\",\"active\":" + active
+      + ",\"rank\":" + rank
+      + ",\"notes\":\"" + notes + "\"}";
+  }
+}
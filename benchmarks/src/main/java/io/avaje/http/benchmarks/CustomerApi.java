@@ -0,0 +1,14 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.api.Client;
+import io.avaje.http.api.Get;
+
+/**
+ * Generated client API used by the benchmarks.
+ */
+@Client
+public interface CustomerApi {
+
+  @Get("customer")
+  Customer customer();
+}
@@ -0,0 +1,98 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.BodyAdapter;
+import io.avaje.http.client.BodyContent;
+import io.avaje.http.client.BodyReader;
+import io.avaje.jsonb.Types;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the per call cost of reading a {@code List<Map<String, Customer>>} response (no network).
+ * <ul>
+ *   <li>{@code inline} - builds the ParameterizedType on each call and looks up the BodyReader
+ *   by type, which is what generated clients did per request</li>
+ *   <li>{@code constant} - a static Type constant with the BodyReader looked up by type</li>
+ *   <li>{@code bound} - the BodyReader bound once, which is what generated clients now do</li>
+ * </ul>
+ * The {@code lookup*} benchmarks measure only obtaining the BodyReader and the {@code read*}
+ * benchmarks include reading the content. Run with {@code -prof gc} to include the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenericTypeBenchmark {
+
+  private static final Type TYPE = Types.newParameterizedType(List.class, Types.newParameterizedType(Map.class, String.class, Customer.class));
+
+  @Param({"jsonb", "jackson", "moshi"})
+  public String adapter;
+
+  @Param({"1", "10"})
+  public int size;
+
+  private BodyAdapter bodyAdapter;
+  private BodyReader<List<Map<String, Customer>>> boundReader;
+  private BodyContent content;
+
+  @Setup
+  public void setup() {
+    bodyAdapter = Adapters.of(adapter);
+    boundReader = bodyAdapter.beanReader(TYPE);
+    content = BodyContent.of(json(size).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String json(int size) {
+    final var sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append("{\"a\":").append(new Customer(i).toJson())
+        .append(",\"b\":").append(new Customer(i + 1000).toJson()).append('}');
+    }
+    return sb.append(']').toString();
+  }
+
+  private static Type inlineType() {
+    return Types.newParameterizedType(List.class, Types.newParameterizedType(Map.class, String.class, Customer.class));
+  }
+
+  @Benchmark
+  public BodyReader<List<Map<String, Customer>>> lookupInline() {
+    return bodyAdapter.beanReader(inlineType());
+  }
+
+  @Benchmark
+  public BodyReader<List<Map<String, Customer>>> lookupConstant() {
+    return bodyAdapter.beanReader(TYPE);
+  }
+
+  @Benchmark
+  public BodyReader<List<Map<String, Customer>>> lookupBound() {
+    return boundReader;
+  }
+
+  @Benchmark
+  public List<Map<String, Customer>> readInline() {
+    return bodyAdapter.<List<Map<String, Customer>>>beanReader(inlineType()).read(content);
+  }
+
+  @Benchmark
+  public List<Map<String, Customer>> readConstant() {
+    return bodyAdapter.<List<Map<String, Customer>>>beanReader(TYPE).read(content);
+  }
+
+  @Benchmark
+  public List<Map<String, Customer>> readBound() {
+    return boundReader.read(content);
+  }
+}
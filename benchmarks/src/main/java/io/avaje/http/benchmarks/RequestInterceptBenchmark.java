@@ -0,0 +1,69 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.HttpClient;
+import io.avaje.http.client.HttpClientRequest;
+import io.avaje.http.client.RequestIntercept;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the overhead of the request interceptor chain with zero, one and three interceptors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestInterceptBenchmark {
+
+  @Param({"0", "1", "3"})
+  public int interceptors;
+
+  private StubServer server;
+  private HttpClient client;
+
+  @Setup
+  public void setup() throws IOException {
+    server = StubServer.start(1);
+    final HttpClient.Builder builder = HttpClient.builder()
+      .baseUrl(server.baseUrl())
+      .bodyAdapter(Adapters.of("jsonb"))
+      .requestLogging(false);
+    for (int i = 0; i < interceptors; i++) {
+      builder.requestIntercept(new HeaderIntercept("X-Intercept-" + i));
+    }
+    client = builder.build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    server.close();
+  }
+
+  @Benchmark
+  public HttpResponse<String> getAsString() {
+    return client.request()
+      .path("hello")
+      .GET()
+      .asString();
+  }
+
+  static final class HeaderIntercept implements RequestIntercept {
+
+    private final String header;
+
+    HeaderIntercept(String header) {
+      this.header = header;
+    }
+
+    @Override
+    public void beforeRequest(HttpClientRequest request) {
+      request.header(header, "1");
+    }
+  }
+}
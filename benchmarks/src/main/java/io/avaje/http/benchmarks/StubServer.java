@@ -0,0 +1,94 @@
+package io.avaje.http.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server returning fixed payloads such that the benchmarks
+ * measure the client side request/response processing.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>{@code GET /customer} - a single JSON bean</li>
+ *   <li>{@code GET /customers} - a JSON array of beans</li>
+ *   <li>{@code GET /customers/stream} - new line delimited JSON beans</li>
+ *   <li>{@code GET /hello} - plain text</li>
+ * </ul>
+ */
+public final class StubServer implements AutoCloseable {
+
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  private StubServer(int listSize) throws IOException {
+    this.executor = Executors.newCachedThreadPool();
+    this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    this.server.setExecutor(executor);
+
+    final byte[] bean = new Customer(42).toJson().getBytes(StandardCharsets.UTF_8);
+    final StringBuilder list = new StringBuilder(listSize * 160).append('[');
+    final StringBuilder lines = new StringBuilder(listSize * 160);
+    for (int i = 0; i < listSize; i++) {
+      final String json = new Customer(i).toJson();
+      if (i > 0) {
+        list.append(',');
+      }
+      list.append(json);
+      lines.append(json).append('\n');
+    }
+    list.append(']');
+
+    final byte[] listBytes = list.toString().getBytes(StandardCharsets.UTF_8);
+    final byte[] streamBytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+    final byte[] hello = "Hello world".getBytes(StandardCharsets.UTF_8);
+
+    server.createContext("/customer", exchange -> send(exchange, "application/json", bean));
+    server.createContext("/customers", exchange -> {
+      if (exchange.getRequestURI().getPath().endsWith("/stream")) {
+        send(exchange, "application/x-ndjson", streamBytes);
+      } else {
+        send(exchange, "application/json", listBytes);
+      }
+    });
+    server.createContext("/hello", exchange -> send(exchange, "text/plain", hello));
+  }
+
+  /**
+   * Start the server on an ephemeral port with the given number of beans in list responses.
+   */
+  public static StubServer start(int listSize) throws IOException {
+    final StubServer stubServer = new StubServer(listSize);
+    stubServer.server.start();
+    return stubServer;
+  }
+
+  /**
+   * Return the base url of the running server.
+   */
+  public String baseUrl() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  private static void send(HttpExchange exchange, String contentType, byte[] body) throws IOException {
+    // drain any request body such that the connection can be reused
+    exchange.getRequestBody().readAllBytes();
+    exchange.getResponseHeaders().set("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+}
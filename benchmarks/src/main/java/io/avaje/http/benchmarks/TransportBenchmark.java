@@ -0,0 +1,63 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.HttpClient;
+import io.avaje.http.client.LoopbackTransport;
+import io.avaje.http.client.LoopbackTransport.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated client calls over the JDK HttpClient to the {@link StubServer} compared to the
+ * in-process {@link LoopbackTransport} (no sockets) such that the client overhead can be
+ * measured apart from the network.
+ * <p>
+ * Run with {@code -prof gc} to include the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransportBenchmark {
+
+  @Param({"jdk", "loopback"})
+  public String transport;
+
+  private StubServer server;
+  private HttpClient client;
+  private CustomerApi api;
+
+  @Setup
+  public void setup() throws IOException {
+    final HttpClient.Builder builder = HttpClient.builder()
+      .bodyAdapter(Adapters.of("jsonb"))
+      .requestLogging(false);
+
+    if ("loopback".equals(transport)) {
+      final String json = new Customer(42).toJson();
+      builder.baseUrl("http://loopback")
+        .transport(LoopbackTransport.of(request -> Response.json(json)));
+    } else {
+      server = StubServer.start(1);
+      builder.baseUrl(server.baseUrl());
+    }
+    client = builder.build();
+    api = client.create(CustomerApi.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  @Benchmark
+  public Customer customer() {
+    return api.customer();
+  }
+}
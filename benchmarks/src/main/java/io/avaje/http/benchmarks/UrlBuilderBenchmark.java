@@ -0,0 +1,38 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.UrlBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of building request URLs in the style of generated client methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlBuilderBenchmark {
+
+  private final String baseUrl = "http://localhost:8080";
+
+  @Benchmark
+  public String pathAndQuery() {
+    return UrlBuilder.of(baseUrl)
+      .path("api/customers")
+      .path(42L)
+      .path("orders")
+      .queryParam("status", "open")
+      .queryParam("sort", "created desc")
+      .build();
+  }
+
+  @Benchmark
+  public String literalPathOnly() {
+    return UrlBuilder.of(baseUrl)
+      .path("api/customers/active")
+      .build();
+  }
+}
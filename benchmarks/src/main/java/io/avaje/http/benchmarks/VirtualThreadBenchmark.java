@@ -0,0 +1,86 @@
+package io.avaje.http.benchmarks;
+
+import io.avaje.http.client.HttpClient;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent blocking generated client calls made from platform threads
+ * compared to virtual threads (requires JDK 21+ for the {@code virtual} mode).
+ * <p>
+ * Each operation makes {@code concurrency} concurrent calls and waits for them to complete.
+ * With {@code platform} the calls run on a cached pool of platform threads and the client
+ * uses the JDK HttpClient default executor, with {@code virtual} the calls run on virtual
+ * threads and the client uses its virtual thread defaults. Note that the operations per
+ * invocation match the default concurrency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Djdk.httpclient.connectionPoolSize=1000", "-Xss256k"})
+@OperationsPerInvocation(10_000)
+public class VirtualThreadBenchmark {
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"10000"})
+  public int concurrency;
+
+  private StubServer server;
+  private HttpClient client;
+  private CustomerApi api;
+  private ExecutorService callers;
+
+  @Setup
+  public void setup() throws IOException {
+    final boolean virtual = "virtual".equals(threads);
+    server = StubServer.start(1);
+    client = HttpClient.builder()
+      .baseUrl(server.baseUrl())
+      .bodyAdapter(Adapters.of("jsonb"))
+      .requestLogging(false)
+      .virtualThreads(virtual)
+      .build();
+    api = client.create(CustomerApi.class);
+    callers = virtual ? virtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+  }
+
+  @TearDown
+  public void tearDown() {
+    callers.shutdownNow();
+    client.close();
+    server.close();
+  }
+
+  @Benchmark
+  public long concurrentCalls() throws Exception {
+    final List<Future<Customer>> calls = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      calls.add(callers.submit(api::customer));
+    }
+    long sum = 0;
+    for (Future<Customer> call : calls) {
+      sum += call.get().id;
+    }
+    return sum;
+  }
+
+  private static ExecutorService virtualThreadPerTaskExecutor() {
+    try {
+      // the benchmarks compile for JDK 11 so obtain the JDK 21 executor reflectively
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("virtual threads require JDK 21+", e);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package io.avaje.http.client;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark the InterceptorChain in isolation (no network) such that with {@code -prof gc}
+ * the allocation per operation of the chain itself is reported.
+ * <p>
+ * With no interceptors the chain is expected to report zero bytes allocated per operation.
+ * <p>
+ * This is in the {@code io.avaje.http.client} package as the chain is package private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterceptorChainBenchmark {
+
+  private static final HttpResponse<?> RESPONSE = new StubResponse();
+
+  @Param({"0", "1", "3"})
+  public int interceptors;
+
+  private InterceptorChain chain;
+  private HttpClientRequest request;
+  private Supplier<HttpResponse<?>> call;
+
+  @Setup
+  public void setup() {
+    final List<RequestIntercept> list = new ArrayList<>();
+    for (int i = 0; i < interceptors; i++) {
+      list.add(new RequestIntercept() {});
+    }
+    chain = new InterceptorChain(list);
+    request = HttpClient.builder().baseUrl("http://localhost").requestLogging(false).build().request();
+    call = () -> RESPONSE;
+  }
+
+  @Benchmark
+  public HttpResponse<?> proceed() {
+    return chain.proceed(request, call);
+  }
+
+  private static final class StubResponse implements HttpResponse<String> {
+
+    @Override
+    public int statusCode() {
+      return 200;
+    }
+
+    @Override
+    public HttpRequest request() {
+      return null;
+    }
+
+    @Override
+    public Optional<HttpResponse<String>> previousResponse() {
+      return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+      return HttpHeaders.of(Map.of(), (a, b) -> true);
+    }
+
+    @Override
+    public String body() {
+      return "";
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+      return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+      return URI.create("http://localhost");
+    }
+
+    @Override
+    public java.net.http.HttpClient.Version version() {
+      return java.net.http.HttpClient.Version.HTTP_1_1;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package io.avaje.http.api;
+
+/**
+ * Reads and writes request and response bodies for binary media types such as
+ * {@link MediaType#APPLICATION_CBOR}, {@link MediaType#APPLICATION_SMILE} and
+ * {@link MediaType#APPLICATION_MSGPACK}.
+ *
+ * <p>Generated controllers use the BodyCodec for endpoints where {@link Produces} or
+ * {@link Consumes} specifies one of these binary media types. These endpoints negotiate
+ * with JSON remaining the default such that the same endpoint serves both public JSON
+ * clients and internal clients using the binary encoding:
+ *
+ * <ul>
+ *   <li>The response is written using the binary media type when the request {@code Accept}
+ *       header includes it, otherwise the response is written as JSON.
+ *   <li>The request body is read using the binary media type when the request
+ *       {@code Content-Type} is that media type, otherwise the body is read as JSON.
+ * </ul>
+ *
+ * <p>Typically this is implemented using a Jackson binary dataformat mapper like {@code
+ * CBORMapper} and provided as a bean.
+ *
+ * <pre>{@code
+ *
+ *  @Produces(MediaType.APPLICATION_CBOR)
+ *  @Consumes(MediaType.APPLICATION_CBOR)
+ *  @Path("/customers")
+ *  class CustomerController {
+ *    ...
+ *  }
+ *
+ *  @Bean
+ *  BodyCodec bodyCodec() {
+ *    var mapper = new CBORMapper();
+ *    return new BodyCodec() {
+ *      public <T> T read(String mediaType, byte[] content, Class<T> type) throws IOException {
+ *        return mapper.readValue(content, type);
+ *      }
+ *      public byte[] write(String mediaType, Object value) throws IOException {
+ *        return mapper.writeValueAsBytes(value);
+ *      }
+ *    };
+ *  }
+ *
+ * }</pre>
+ */
+public interface BodyCodec {
+
+  /**
+   * Read the request body content of the given media type as the given type.
+   *
+   * @param mediaType The binary media type of the content
+   * @param content The request body content
+   * @param type The type to read the content as
+   */
+  <T> T read(String mediaType, byte[] content, Class<T> type) throws java.io.IOException;
+
+  /**
+   * Write the value as response content of the given media type.
+   *
+   * @param mediaType The binary media type to write
+   * @param value The response value to write
+   */
+  byte[] write(String mediaType, Object value) throws java.io.IOException;
+
+  /**
+   * Return true if the Accept header value includes the given media type.
+   *
+   * <p>Media type parameters are ignored apart from a quality of zero which excludes the media
+   * type. Wildcards do not match such that a client must explicitly ask for the binary media type.
+   *
+   * @param accept The Accept header value (can be null)
+   * @param mediaType The media type to check for
+   */
+  static boolean accepts(String accept, String mediaType) {
+    if (accept == null) {
+      return false;
+    }
+    int start = 0;
+    while (start < accept.length()) {
+      int end = accept.indexOf(',', start);
+      if (end == -1) {
+        end = accept.length();
+      }
+      final int paramStart = accept.indexOf(';', start);
+      final int typeEnd = paramStart == -1 || paramStart > end ? end : paramStart;
+      if (regionMatches(accept, start, typeEnd, mediaType)) {
+        return typeEnd == end || !zeroQuality(accept, typeEnd, end);
+      }
+      start = end + 1;
+    }
+    return false;
+  }
+
+  /**
+   * Return true if the Content-Type header value is the given media type (ignoring parameters).
+   *
+   * @param contentType The Content-Type header value (can be null)
+   * @param mediaType The media type to check for
+   */
+  static boolean matches(String contentType, String mediaType) {
+    if (contentType == null) {
+      return false;
+    }
+    final int paramStart = contentType.indexOf(';');
+    return regionMatches(contentType, 0, paramStart == -1 ? contentType.length() : paramStart, mediaType);
+  }
+
+  private static boolean zeroQuality(String accept, int paramStart, int end) {
+    for (final String param : accept.substring(paramStart + 1, end).split(";")) {
+      final String trimmed = param.trim();
+      if (trimmed.startsWith("q=")) {
+        try {
+          return Double.parseDouble(trimmed.substring(2)) == 0;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static boolean regionMatches(String value, int start, int end, String mediaType) {
+    while (start < end && value.charAt(start) == ' ') {
+      start++;
+    }
+    while (end > start && value.charAt(end - 1) == ' ') {
+      end--;
+    }
+    return end - start == mediaType.length() && value.regionMatches(true, start, mediaType, 0, mediaType.length());
+  }
+}
@@ -0,0 +1,32 @@
+package io.avaje.http.api;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Limit the number of concurrent requests for the client method.
+ *
+ * <p>When the limit is reached requests fail fast rather than waiting. The limit is keyed by
+ * client interface and method. When put on the interface it applies to all methods.
+ *
+ * <pre>{@code
+ * @Client
+ * interface CustomerApi {
+ *
+ *   @Get("/{id}")
+ *   @Bulkhead(20)
+ *   Customer getById(long id);
+ * }
+ *
+ * }</pre>
+ */
+@Retention(SOURCE)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Bulkhead {
+
+  /** The maximum number of concurrent requests */
+  int value();
+}
@@ -0,0 +1,42 @@
+package io.avaje.http.api;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Apply a circuit breaker to the client request.
+ *
+ * <p>The circuit breaker is keyed by client interface and method such that each method has
+ * its own circuit breaker. When put on the interface it applies to all methods.
+ *
+ * <pre>{@code
+ * @Client
+ * interface CustomerApi {
+ *
+ *   @Get("/{id}")
+ *   @CircuitBreaker(failureThreshold = 5, openDuration = 30)
+ *   Customer getById(long id);
+ * }
+ *
+ * }</pre>
+ */
+@Retention(SOURCE)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface CircuitBreaker {
+
+  /** The number of consecutive failures that open the circuit */
+  int failureThreshold() default 5;
+
+  /** How long the circuit stays open before allowing a trial request */
+  long openDuration() default 30;
+
+  /** Unit of time of the openDuration */
+  ChronoUnit chronoUnit() default ChronoUnit.SECONDS;
+
+  /** The number of trial requests allowed when half open */
+  int halfOpenCalls() default 1;
+}
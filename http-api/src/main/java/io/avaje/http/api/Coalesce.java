@@ -0,0 +1,34 @@
+package io.avaje.http.api;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Coalesce concurrent identical GET requests for the client method onto a single in-flight
+ * request.
+ *
+ * <p>Requests are identical when they have the same url and request headers. Each caller
+ * reads its own result from the shared response. When put on the interface it applies to
+ * all GET methods.
+ *
+ * <pre>{@code
+ * @Client
+ * interface ProductApi {
+ *
+ *   @Get("/{id}")
+ *   @Coalesce
+ *   Product getById(long id);
+ * }
+ *
+ * }</pre>
+ */
+@Retention(SOURCE)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Coalesce {
+
+  /** Set false to not coalesce a method when the interface is annotated */
+  boolean value() default true;
+}
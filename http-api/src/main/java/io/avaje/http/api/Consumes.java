@@ -21,6 +21,9 @@ import java.lang.annotation.Target;
  * }
  *
  * }</pre>
+ *
+ * <p>A binary media type such as {@link MediaType#APPLICATION_CBOR} is negotiated with
+ * JSON via the request Content-Type header using a {@link BodyCodec}.
  */
 @Target({TYPE, METHOD})
 @Retention(RUNTIME)
@@ -99,5 +99,20 @@ public interface MediaType {
 	 * {@link String} representation of {@value #MULTIPART_RELATED} media type.
 	 */
 	String MULTIPART_RELATED = "multipart/related";
+
+  /**
+   * {@link String} representation of {@value #APPLICATION_CBOR} media type.
+   */
+  String APPLICATION_CBOR = "application/cbor";
+
+  /**
+   * {@link String} representation of {@value #APPLICATION_SMILE} media type.
+   */
+  String APPLICATION_SMILE = "application/x-jackson-smile";
+
+  /**
+   * {@link String} representation of {@value #APPLICATION_MSGPACK} media type.
+   */
+  String APPLICATION_MSGPACK = "application/msgpack";
   
 }
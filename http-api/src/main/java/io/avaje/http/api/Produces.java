@@ -23,6 +23,9 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
  *  }
  *
  * }</pre>
+ *
+ * <p>A binary media type such as {@link MediaType#APPLICATION_CBOR} is negotiated with
+ * JSON via the request Accept header using a {@link BodyCodec}.
  */
 @Target({TYPE, METHOD})
 @Retention(RUNTIME)
@@ -0,0 +1,51 @@
+package io.avaje.http.api;
+
+import static java.lang.annotation.RetentionPolicy.SOURCE;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Apply a client side rate limit to the client request.
+ *
+ * <p>Requests wait for a permit such that the send rate stays under the quota of the
+ * upstream and adapt to the {@code RateLimit-*} and {@code Retry-After} response headers.
+ * When put on a method it limits that method and when put on the interface the limit is
+ * shared by all the methods. The limit is shared by all instances of the client.
+ *
+ * <pre>{@code
+ * @Client
+ * @RateLimit(20)
+ * interface CustomerApi {
+ *
+ *   @Get("/{id}")
+ *   Customer getById(long id);
+ *
+ *   @Post
+ *   @RateLimit(value = 2, burst = 5)
+ *   void save(Customer customer);
+ * }
+ *
+ * }</pre>
+ */
+@Retention(SOURCE)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface RateLimit {
+
+  /** The number of requests per second */
+  double value();
+
+  /** The number of requests allowed in a burst after being idle */
+  int burst() default 1;
+
+  /** The maximum time to wait for a permit before failing */
+  long maxWait() default 30;
+
+  /** Unit of time of the maxWait */
+  ChronoUnit chronoUnit() default ChronoUnit.SECONDS;
+
+  /** Set to false to not adapt to the rate limit headers of responses */
+  boolean adaptive() default true;
+}
@@ -113,6 +113,16 @@ public class GsonBodyAdapter implements BodyAdapter {
         throw new RuntimeException(e);
       }
     }
+
+    @Override
+    public T read(InputStream content) {
+      try (InputStreamReader reader = new InputStreamReader(content, UTF_8)) {
+        final JsonReader jsonReader = gson.newJsonReader(reader);
+        return adapter.read(jsonReader);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
   }
 
   private static class Writer<T> implements BodyWriter<T> {
@@ -1,6 +1,7 @@
 package io.avaje.http.client.moshi;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -14,6 +15,8 @@ import io.avaje.http.client.BodyAdapter;
 import io.avaje.http.client.BodyContent;
 import io.avaje.http.client.BodyReader;
 import io.avaje.http.client.BodyWriter;
+import okio.BufferedSource;
+import okio.Okio;
 
 /**
  * Moshi BodyAdapter to read and write beans as JSON.
@@ -114,6 +117,15 @@ public final class MoshiBodyAdapter implements BodyAdapter {
         throw new UncheckedIOException(e);
       }
     }
+
+    @Override
+    public T read(InputStream content) {
+      try (BufferedSource source = Okio.buffer(Okio.source(content))) {
+        return reader.fromJson(source);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
   }
 
   private static class JWriter<T> implements BodyWriter<T> {
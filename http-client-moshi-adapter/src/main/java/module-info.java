@@ -4,4 +4,5 @@ module io.avaje.http.client.gson {
 
   requires transitive io.avaje.http.client;
   requires transitive com.squareup.moshi;
+  requires okio;
 }
@@ -16,7 +16,7 @@ final class OtelConfig {
   private final List<String> capturedRequestHeaders;
   private final List<String> capturedResponseHeaders;
   private final Set<String> knownMethods;
-  private final Set<String> sensitiveQueryParameters;
+  private final String[] sensitiveQueryParameters;
   private final Function<HttpClientRequest, String> urlTemplateResolver;
   private final boolean useLabelAsUrlTemplate;
 
@@ -30,7 +30,7 @@ final class OtelConfig {
     this.capturedRequestHeaders = List.copyOf(capturedRequestHeaders);
     this.capturedResponseHeaders = List.copyOf(capturedResponseHeaders);
     this.knownMethods = Set.copyOf(knownMethods);
-    this.sensitiveQueryParameters = Set.copyOf(sensitiveQueryParameters);
+    this.sensitiveQueryParameters = sensitiveQueryParameters.toArray(new String[0]);
     this.urlTemplateResolver = urlTemplateResolver;
     this.useLabelAsUrlTemplate = useLabelAsUrlTemplate;
   }
@@ -47,7 +47,7 @@ final class OtelConfig {
     return knownMethods;
   }
 
-  Set<String> sensitiveQueryParameters() {
+  String[] sensitiveQueryParameters() {
     return sensitiveQueryParameters;
   }
 
@@ -1,11 +1,11 @@
 package io.avaje.http.client.otel;
 
 import io.avaje.http.client.HttpClientRequest;
+import io.avaje.http.client.UrlTemplate;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
 
-import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
 import java.util.List;
@@ -30,15 +30,12 @@ final class OtelHttpAttributes {
   private OtelHttpAttributes() {
   }
 
-  static String spanName(HttpClientRequest request, OtelConfig config) {
-    final String method = request.method();
+  static String spanName(String method, String template, OtelConfig config) {
     final String nameMethod = method == null || !config.knownMethods().contains(method) ? "HTTP" : method;
-    final String template = urlTemplate(request, config);
     return template == null ? nameMethod : nameMethod + " " + template;
   }
 
-  static void onStart(Span span, HttpClientRequest request, int resendCount, OtelConfig config) {
-    final String method = request.method();
+  static void onStart(Span span, String method, int resendCount, UrlAttributes url, String template, OtelConfig config) {
     if (method != null) {
       if (config.knownMethods().contains(method)) {
         span.setAttribute(HTTP_REQUEST_METHOD, method);
@@ -52,18 +49,44 @@ final class OtelHttpAttributes {
       span.setAttribute(HTTP_REQUEST_RESEND_COUNT, (long) resendCount);
     }
 
-    final String fullUrl = request.url();
-    if (fullUrl != null) {
-      span.setAttribute(URL_FULL, UrlSanitizer.sanitize(fullUrl, config.sensitiveQueryParameters()));
-      addServerAttributes(span, fullUrl);
+    if (url != null) {
+      span.setAttribute(URL_FULL, url.full);
+      if (url.serverAddress != null) {
+        span.setAttribute(SERVER_ADDRESS, url.serverAddress);
+      }
+      if (url.serverPort > -1) {
+        span.setAttribute(SERVER_PORT, (long) url.serverPort);
+      }
     }
 
-    final String template = urlTemplate(request, config);
     if (template != null) {
       span.setAttribute(URL_TEMPLATE, template);
     }
   }
 
+  /**
+   * Return the url attributes (sanitized full url, server address and port) or null when the request has no url.
+   */
+  static UrlAttributes urlAttributes(String fullUrl, OtelConfig config) {
+    if (fullUrl == null) {
+      return null;
+    }
+    final String sanitized = UrlSanitizer.sanitize(fullUrl, config.sensitiveQueryParameters());
+    final int authorityStart = UrlSanitizer.authorityStart(fullUrl);
+    if (authorityStart == -1) {
+      return new UrlAttributes(fullUrl, sanitized, null, -1);
+    }
+    final int authorityEnd = UrlSanitizer.authorityEnd(fullUrl, authorityStart);
+    final int hostStart = UrlSanitizer.hostStart(fullUrl, authorityStart, authorityEnd);
+    final int hostEnd = UrlSanitizer.hostEnd(fullUrl, hostStart, authorityEnd);
+    final String host = hostEnd == hostStart ? null : fullUrl.substring(hostStart, hostEnd);
+    int port = hostEnd < authorityEnd ? parsePort(fullUrl, hostEnd + 1, authorityEnd) : -1;
+    if (port == -1) {
+      port = defaultPort(fullUrl, authorityStart - 3);
+    }
+    return new UrlAttributes(fullUrl, sanitized, host, port);
+  }
+
   static void captureRequestHeaders(Span span, HttpClientRequest request, OtelConfig config) {
     captureHeaders(span, "http.request.header.", request.headers(), config.capturedRequestHeaders());
   }
@@ -97,23 +120,26 @@ final class OtelHttpAttributes {
     span.setStatus(StatusCode.ERROR);
   }
 
-  private static void addServerAttributes(Span span, String rawUrl) {
-    try {
-      final URI uri = URI.create(rawUrl);
-      if (uri.getHost() != null) {
-        span.setAttribute(SERVER_ADDRESS, uri.getHost());
-      }
-      final int port = uri.getPort() == -1 ? defaultPort(uri.getScheme()) : uri.getPort();
-      if (port > -1) {
-        span.setAttribute(SERVER_PORT, (long) port);
+  private static int parsePort(String url, int start, int end) {
+    if (start == end || end - start > 5) {
+      return -1;
+    }
+    int port = 0;
+    for (int i = start; i < end; i++) {
+      final char ch = url.charAt(i);
+      if (ch < '0' || ch > '9') {
+        return -1;
       }
-    } catch (IllegalArgumentException e) {
-      // ignore invalid URLs
+      port = port * 10 + (ch - '0');
     }
+    return port;
   }
 
   private static void captureHeaders(
       Span span, String prefix, Map<String, List<String>> headers, List<String> capturedHeaders) {
+    if (capturedHeaders.isEmpty()) {
+      return;
+    }
     for (final String headerName : capturedHeaders) {
       final List<String> values = headerValues(headers, headerName);
       if (!values.isEmpty()) {
@@ -131,11 +157,11 @@ final class OtelHttpAttributes {
     return List.of();
   }
 
-  private static int defaultPort(String scheme) {
-    if ("http".equalsIgnoreCase(scheme)) {
+  private static int defaultPort(String url, int schemeEnd) {
+    if (schemeEnd == 4 && url.regionMatches(true, 0, "http", 0, 4)) {
       return 80;
     }
-    if ("https".equalsIgnoreCase(scheme)) {
+    if (schemeEnd == 5 && url.regionMatches(true, 0, "https", 0, 5)) {
       return 443;
     }
     return -1;
@@ -164,8 +190,35 @@ final class OtelHttpAttributes {
       template = request.label();
     }
     if (template == null || template.isBlank()) {
-      return null;
+      // the constant template of generated clients (or explicit use of UrlTemplate)
+      final UrlTemplate urlTemplate = request.urlTemplate();
+      return urlTemplate == null ? null : urlTemplate.template();
     }
     return template;
   }
+
+  /**
+   * The url attributes determined once per request and used for each send attempt.
+   */
+  static final class UrlAttributes {
+
+    private final String url;
+    private final String full;
+    private final String serverAddress;
+    private final int serverPort;
+
+    UrlAttributes(String url, String full, String serverAddress, int serverPort) {
+      this.url = url;
+      this.full = full;
+      this.serverAddress = serverAddress;
+      this.serverPort = serverPort;
+    }
+
+    /**
+     * Return true if these are the attributes of the given url.
+     */
+    boolean isFor(String fullUrl) {
+      return url.equals(fullUrl);
+    }
+  }
 }
@@ -10,7 +10,6 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.propagation.TextMapSetter;
 
 import java.net.http.HttpResponse;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -22,23 +21,33 @@ final class OtelRequestObserver implements RequestObserver {
     new TextMapSetter<HttpClientRequest>() {
       @Override
       public void set(HttpClientRequest carrier, String key, String value) {
-        final Map<String, List<String>> headers = carrier.headers();
-        if (headers.isEmpty()) {
+        // replace the value of an existing header (retry attempts) reusing its list
+        final List<String> values = existingHeader(carrier.headers(), key);
+        if (values == null) {
           carrier.header(key, value);
-          return;
+        } else {
+          values.clear();
+          values.add(value);
         }
-
-        String existingKey = null;
-        for (final String headerName : headers.keySet()) {
-          if (headerName.equalsIgnoreCase(key)) {
-            existingKey = headerName;
-            break;
-          }
-        }
-        headers.put(existingKey == null ? key : existingKey, new ArrayList<>(List.of(value)));
       }
     };
 
+  private static List<String> existingHeader(Map<String, List<String>> headers, String key) {
+    if (headers.isEmpty()) {
+      return null;
+    }
+    final List<String> values = headers.get(key);
+    if (values != null) {
+      return values;
+    }
+    for (final Map.Entry<String, List<String>> entry : headers.entrySet()) {
+      if (entry.getKey().equalsIgnoreCase(key)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
   private final Tracer tracer;
   private final io.opentelemetry.context.propagation.TextMapPropagator propagator;
   private final OtelConfig config;
@@ -51,49 +60,76 @@ final class OtelRequestObserver implements RequestObserver {
 
   @Override
   public Observation start(HttpClientRequest request) {
-    return new OtelObservation(Context.current());
+    return new OtelObservation(Context.current(), request);
   }
 
   private final class OtelObservation implements Observation {
 
     private final Context parentContext;
+    private final String method;
+    private final String template;
+    private final String spanName;
+    private volatile OtelHttpAttributes.UrlAttributes url;
 
-    private OtelObservation(Context parentContext) {
+    private OtelObservation(Context parentContext, HttpClientRequest request) {
       this.parentContext = parentContext;
+      this.method = request.method();
+      this.template = OtelHttpAttributes.urlTemplate(request, config);
+      this.spanName = OtelHttpAttributes.spanName(method, template, config);
     }
 
     @Override
     public Attempt startAttempt(HttpClientRequest request, int resendCount) {
-      final Span span = tracer.spanBuilder(OtelHttpAttributes.spanName(request, config))
+      return startAttempt(request, resendCount, request.url());
+    }
+
+    @Override
+    public Attempt startAttempt(HttpClientRequest request, int resendCount, String fullUrl) {
+      final Span span = tracer.spanBuilder(spanName)
         .setSpanKind(SpanKind.CLIENT)
         .setParent(parentContext)
         .startSpan();
 
-      final Context spanContext = parentContext.with(span);
-      OtelHttpAttributes.onStart(span, request, resendCount, config);
-      propagator.inject(spanContext, request, REQUEST_HEADER_SETTER);
+      propagator.inject(parentContext.with(span), request, REQUEST_HEADER_SETTER);
+      if (!span.isRecording()) {
+        // not sampled, skip all the attribute work
+        return new OtelAttempt(span, false);
+      }
+      OtelHttpAttributes.UrlAttributes attemptUrl = url;
+      if (attemptUrl == null || !attemptUrl.isFor(fullUrl)) {
+        // reused by the following attempts unless sent to another base url
+        attemptUrl = OtelHttpAttributes.urlAttributes(fullUrl, config);
+        url = attemptUrl;
+      }
+      OtelHttpAttributes.onStart(span, method, resendCount, attemptUrl, template, config);
       OtelHttpAttributes.captureRequestHeaders(span, request, config);
-      return new OtelAttempt(span);
+      return new OtelAttempt(span, true);
     }
   }
 
   private final class OtelAttempt implements Attempt {
 
     private final Span span;
+    private final boolean recording;
 
-    private OtelAttempt(Span span) {
+    private OtelAttempt(Span span, boolean recording) {
       this.span = span;
+      this.recording = recording;
     }
 
     @Override
     public void onResponse(HttpResponse<?> response) {
-      OtelHttpAttributes.onResponse(span, response, config);
+      if (recording) {
+        OtelHttpAttributes.onResponse(span, response, config);
+      }
       span.end();
     }
 
     @Override
     public void onError(Throwable error) {
-      OtelHttpAttributes.onError(span, error);
+      if (recording) {
+        OtelHttpAttributes.onError(span, error);
+      }
       span.end();
     }
   }
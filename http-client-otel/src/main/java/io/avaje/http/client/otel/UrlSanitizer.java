@@ -1,54 +1,124 @@
 package io.avaje.http.client.otel;
 
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.Set;
-
+/**
+ * Single pass redaction of the user info and sensitive query parameter values of a url.
+ * <p>
+ * The url is scanned in place and only copied when there is something to redact, such that
+ * the common case of nothing to redact returns the given url without allocation.
+ */
 final class UrlSanitizer {
 
+  private static final String REDACTED_USER_INFO = "REDACTED:REDACTED";
+  private static final String REDACTED = "REDACTED";
+
   private UrlSanitizer() {
   }
 
-  static String sanitize(String url, Set<String> sensitiveQueryParameters) {
-    try {
-      final URI uri = URI.create(url);
-      if (uri.getScheme() == null || uri.getHost() == null) {
-        return url;
+  static String sanitize(String url, String[] sensitiveQueryParameters) {
+    final int authorityStart = authorityStart(url);
+    if (authorityStart == -1) {
+      return url;
+    }
+    final int authorityEnd = authorityEnd(url, authorityStart);
+    final int hostStart = hostStart(url, authorityStart, authorityEnd);
+    if (hostStart == authorityEnd) {
+      // no host
+      return url;
+    }
+
+    StringBuilder sb = null;
+    if (hostStart > authorityStart) {
+      sb = new StringBuilder(url.length() + 16)
+        .append(url, 0, authorityStart)
+        .append(REDACTED_USER_INFO)
+        .append('@');
+    }
+    int copied = hostStart;
+
+    final int queryStart = url.indexOf('?', authorityEnd);
+    final int fragmentStart = url.indexOf('#', authorityEnd);
+    final int queryEnd = fragmentStart == -1 ? url.length() : fragmentStart;
+    if (queryStart != -1 && queryStart < queryEnd && sensitiveQueryParameters.length > 0) {
+      int pos = queryStart + 1;
+      while (pos < queryEnd) {
+        int partEnd = url.indexOf('&', pos);
+        if (partEnd == -1 || partEnd > queryEnd) {
+          partEnd = queryEnd;
+        }
+        final int equalsPos = url.indexOf('=', pos);
+        if (equalsPos != -1 && equalsPos < partEnd && isSensitive(url, pos, equalsPos, sensitiveQueryParameters)) {
+          if (sb == null) {
+            sb = new StringBuilder(url.length()).append(url, 0, hostStart);
+          }
+          sb.append(url, copied, equalsPos + 1).append(REDACTED);
+          copied = partEnd;
+        }
+        pos = partEnd + 1;
       }
-      final String query = sanitizeQuery(uri.getRawQuery(), sensitiveQueryParameters);
-      final String userInfo = uri.getRawUserInfo() == null ? null : "REDACTED:REDACTED";
-      return new URI(
-        uri.getScheme(),
-        userInfo,
-        uri.getHost(),
-        uri.getPort(),
-        uri.getRawPath(),
-        query,
-        uri.getRawFragment())
-        .toString();
-    } catch (IllegalArgumentException | URISyntaxException e) {
+    }
+    if (sb == null) {
       return url;
     }
+    return sb.append(url, copied, url.length()).toString();
   }
 
-  private static String sanitizeQuery(String rawQuery, Set<String> sensitiveQueryParameters) {
-    if (rawQuery == null || rawQuery.isEmpty()) {
-      return rawQuery;
+  private static boolean isSensitive(String url, int keyStart, int keyEnd, String[] sensitiveQueryParameters) {
+    final int keyLength = keyEnd - keyStart;
+    for (final String name : sensitiveQueryParameters) {
+      if (name.length() == keyLength && url.startsWith(name, keyStart)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return the start of the authority (after the scheme "://") or -1 when the url has no scheme.
+   */
+  static int authorityStart(String url) {
+    final int pos = url.indexOf("://");
+    if (pos < 1) {
+      return -1;
+    }
+    for (int i = 0; i < pos; i++) {
+      final char ch = url.charAt(i);
+      if (!(Character.isLetterOrDigit(ch) || ch == '+' || ch == '-' || ch == '.')) {
+        return -1;
+      }
     }
+    return pos + 3;
+  }
 
-    final String[] parts = rawQuery.split("&", -1);
-    for (int i = 0; i < parts.length; i++) {
-      parts[i] = sanitizeQueryPart(parts[i], sensitiveQueryParameters);
+  /**
+   * Return the end of the authority being the start of the path, query or fragment.
+   */
+  static int authorityEnd(String url, int authorityStart) {
+    for (int i = authorityStart; i < url.length(); i++) {
+      final char ch = url.charAt(i);
+      if (ch == '/' || ch == '?' || ch == '#') {
+        return i;
+      }
     }
-    return String.join("&", parts);
+    return url.length();
+  }
+
+  /**
+   * Return the start of the host being after any user info.
+   */
+  static int hostStart(String url, int authorityStart, int authorityEnd) {
+    final int at = url.lastIndexOf('@', authorityEnd - 1);
+    return at < authorityStart ? authorityStart : at + 1;
   }
 
-  private static String sanitizeQueryPart(String rawPart, Set<String> sensitiveQueryParameters) {
-    final int equalsPos = rawPart.indexOf('=');
-    final String key = equalsPos == -1 ? rawPart : rawPart.substring(0, equalsPos);
-    if (!sensitiveQueryParameters.contains(key) || equalsPos == -1) {
-      return rawPart;
+  /**
+   * Return the end of the host being the start of the port or the end of the authority.
+   */
+  static int hostEnd(String url, int hostStart, int authorityEnd) {
+    final int colon = url.lastIndexOf(':', authorityEnd - 1);
+    if (colon < hostStart || url.lastIndexOf(']', authorityEnd - 1) > colon) {
+      // no port, or the colon is within an IPv6 literal
+      return authorityEnd;
     }
-    return key + "=REDACTED";
+    return colon;
   }
 }
@@ -4,10 +4,14 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import io.avaje.http.client.HttpClient;
 import io.avaje.http.client.SimpleRetryHandler;
+import io.avaje.http.client.UrlTemplate;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
 import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.context.propagation.ContextPropagators;
@@ -16,6 +20,7 @@ import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
@@ -164,6 +169,65 @@ class AvajeHttpClientTelemetryTest {
       .containsExactly(StatusCode.ERROR, StatusCode.ERROR, StatusCode.UNSET);
   }
 
+  @Test
+  void urlTemplate_usedForSpanNameAndRedactsUrl() throws Exception {
+    server = server();
+    server.createContext("/customer", exchange -> write(exchange, 200, "ok"));
+    server.start();
+
+    final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    final HttpClient client = AvajeHttpClientTelemetry.create(openTelemetry(exporter))
+      .configure(HttpClient.builder().baseUrl(baseUrl()))
+      .build();
+
+    client.request()
+      .path(UrlTemplate.of("customer/{id}"), 42)
+      .queryParam("sig", "secret")
+      .queryParam("a", "b")
+      .GET()
+      .asString();
+
+    final SpanData span = exporter.getFinishedSpanItems().get(0);
+    assertThat(span.getName()).isEqualTo("GET /customer/{id}");
+    assertThat(span.getAttributes().get(AttributeKey.stringKey("url.template"))).isEqualTo("/customer/{id}");
+    assertThat(span.getAttributes().get(AttributeKey.stringKey("url.full"))).isEqualTo(baseUrl() + "/customer/42?sig=REDACTED&a=b");
+    assertThat(span.getAttributes().get(AttributeKey.stringKey("server.address"))).isEqualTo("127.0.0.1");
+    assertThat(span.getAttributes().get(AttributeKey.longKey("server.port"))).isEqualTo((long) server.getAddress().getPort());
+  }
+
+  @Test
+  void notSampled_propagatesWithoutRecording() throws Exception {
+    server = server();
+    server.createContext("/hello", exchange -> {
+      traceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+      write(exchange, 200, "hello");
+    });
+    server.start();
+
+    final InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    tracerProvider = SdkTracerProvider.builder()
+      .setSampler(Sampler.alwaysOff())
+      .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+      .build();
+    final OpenTelemetry openTelemetry = OpenTelemetrySdk.builder()
+      .setTracerProvider(tracerProvider)
+      .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+      .build();
+
+    final HttpClient client = AvajeHttpClientTelemetry.create(openTelemetry)
+      .configure(HttpClient.builder().baseUrl(baseUrl()))
+      .build();
+
+    final Span parent = Span.wrap(SpanContext.create(
+      "0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331", TraceFlags.getDefault(), TraceState.getDefault()));
+    try (Scope ignored = parent.makeCurrent()) {
+      client.request().path("hello").header("traceparent", "stale").GET().asString();
+    }
+
+    assertThat(traceparent.get()).startsWith("00-0af7651916cd43dd8448eb211c80319c-").endsWith("-00");
+    assertThat(exporter.getFinishedSpanItems()).isEmpty();
+  }
+
   private OpenTelemetry openTelemetry(InMemorySpanExporter exporter) {
     tracerProvider = SdkTracerProvider.builder()
       .addSpanProcessor(SimpleSpanProcessor.create(exporter))
@@ -21,6 +21,7 @@
  */
 module io.avaje.http.client {
 
+  uses io.avaje.http.client.ContentDecoder;
   uses io.avaje.http.client.HttpClient.GeneratedComponent;
 
   requires transitive java.net.http;
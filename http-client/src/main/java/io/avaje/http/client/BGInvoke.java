@@ -2,24 +2,19 @@ package io.avaje.http.client;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 final class BGInvoke {
 
+  private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+    final Thread thread = new Thread(runnable, "avaje-http-client-bg");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Run the task in the background without waiting for it to complete.
+   */
   static void invoke(Runnable task) {
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-    try {
-      executor.submit(task);
-    } finally {
-      executor.shutdown();
-      try {
-        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
-          executor.shutdownNow();
-        }
-      } catch (InterruptedException e) {
-        executor.shutdownNow();
-        Thread.currentThread().interrupt();
-      }
-    }
+    executor.execute(task);
   }
 }
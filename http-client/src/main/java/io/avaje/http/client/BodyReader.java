@@ -1,5 +1,9 @@
 package io.avaje.http.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
 /**
  * Read content as a java type.
  */
@@ -14,4 +18,29 @@ public interface BodyReader<T> {
    * Read the String content returning it as a java type.
    */
   T readBody(String content);
+
+  /**
+   * Read the content from the InputStream returning it as a java type.
+   * <p>
+   * The default implementation reads all the bytes and delegates to {@link #read(BodyContent)}.
+   * Implementations should override this to parse directly from the stream where supported.
+   */
+  default T read(InputStream content) {
+    try {
+      return read(BodyContent.of(content.readAllBytes()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Read the content from the InputStream given the content type of the response.
+   * <p>
+   * The default implementation ignores the content type and delegates to {@link #read(InputStream)}.
+   * Readers that support multiple content types (like {@link NegotiatingBodyAdapter}) use the
+   * content type to determine how to read the content.
+   */
+  default T read(InputStream content, String contentType) {
+    return read(content);
+  }
 }
@@ -0,0 +1,24 @@
+package io.avaje.http.client;
+
+/**
+ * Thrown when a request is not executed as the maximum number of concurrent requests
+ * for its key are already in flight.
+ * <p>
+ * Has a status code of 503 as the target is deemed unavailable.
+ */
+public final class BulkheadFullException extends HttpException {
+
+  private final String key;
+
+  BulkheadFullException(String key) {
+    super(503, "Bulkhead full for " + key);
+    this.key = key;
+  }
+
+  /**
+   * Return the bulkhead key.
+   */
+  public String key() {
+    return key;
+  }
+}
@@ -0,0 +1,177 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+import java.util.function.IntPredicate;
+
+/**
+ * Configuration of a circuit breaker.
+ * <p>
+ * A circuit breaker is created per key where the key is the request {@code label()} if
+ * set, otherwise the {@link UrlTemplate} path if used, otherwise the scheme and host of
+ * the request url.
+ * <p>
+ * After {@code failureThreshold} consecutive failures the circuit opens and requests fail
+ * fast with {@link CircuitBreakerOpenException} for the {@code openDuration}. After that
+ * the circuit is half open allowing {@code halfOpenCalls} trial requests. When these
+ * succeed the circuit closes and if any of them fail the circuit opens again.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .circuitBreaker(CircuitBreakerConfig.of(5, Duration.ofSeconds(30)))
+ *     .bulkhead(50)
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class CircuitBreakerConfig {
+
+  /**
+   * The state of a circuit breaker.
+   */
+  public enum State {
+
+    /**
+     * Requests are executed.
+     */
+    CLOSED,
+
+    /**
+     * Requests fail fast without being executed.
+     */
+    OPEN,
+
+    /**
+     * A limited number of trial requests are executed.
+     */
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final Duration openDuration;
+  private final int halfOpenCalls;
+  private final IntPredicate failureStatus;
+
+  private CircuitBreakerConfig(Builder builder) {
+    this.failureThreshold = builder.failureThreshold;
+    this.openDuration = builder.openDuration;
+    this.halfOpenCalls = builder.halfOpenCalls;
+    this.failureStatus = builder.failureStatus;
+  }
+
+  /**
+   * Return a new builder for CircuitBreakerConfig.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Create with the number of consecutive failures that open the circuit and the
+   * duration the circuit stays open.
+   */
+  public static CircuitBreakerConfig of(int failureThreshold, Duration openDuration) {
+    return builder().failureThreshold(failureThreshold).openDuration(openDuration).build();
+  }
+
+  /**
+   * Return the number of consecutive failures that open the circuit.
+   */
+  public int failureThreshold() {
+    return failureThreshold;
+  }
+
+  /**
+   * Return the duration the circuit stays open before allowing trial requests.
+   */
+  public Duration openDuration() {
+    return openDuration;
+  }
+
+  /**
+   * Return the number of trial requests allowed when half open.
+   */
+  public int halfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  /**
+   * Return true if the response status code is deemed a failure.
+   */
+  public boolean isFailure(int statusCode) {
+    return failureStatus.test(statusCode);
+  }
+
+  /**
+   * Return true if the other configuration has the same settings.
+   */
+  boolean sameAs(CircuitBreakerConfig other) {
+    if (other == this) {
+      return true;
+    }
+    return other != null
+      && failureThreshold == other.failureThreshold
+      && halfOpenCalls == other.halfOpenCalls
+      && openDuration.equals(other.openDuration)
+      && failureStatus == other.failureStatus;
+  }
+
+  /**
+   * Builder for CircuitBreakerConfig.
+   */
+  public static final class Builder {
+
+    private int failureThreshold = 5;
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenCalls = 1;
+    private IntPredicate failureStatus = status -> status >= 500;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the number of consecutive failures that open the circuit (defaults to 5).
+     */
+    public Builder failureThreshold(int failureThreshold) {
+      this.failureThreshold = failureThreshold;
+      return this;
+    }
+
+    /**
+     * Set the duration the circuit stays open (defaults to 30 seconds).
+     */
+    public Builder openDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+      return this;
+    }
+
+    /**
+     * Set the number of trial requests allowed when half open (defaults to 1).
+     */
+    public Builder halfOpenCalls(int halfOpenCalls) {
+      this.halfOpenCalls = halfOpenCalls;
+      return this;
+    }
+
+    /**
+     * Set the predicate that determines which response status codes are failures.
+     * <p>
+     * Defaults to 5xx responses. Requests failing with an exception are always failures.
+     */
+    public Builder failureStatus(IntPredicate failureStatus) {
+      this.failureStatus = failureStatus;
+      return this;
+    }
+
+    /**
+     * Build and return the CircuitBreakerConfig.
+     */
+    public CircuitBreakerConfig build() {
+      if (failureThreshold < 1 || halfOpenCalls < 1 || openDuration.isNegative()) {
+        throw new IllegalArgumentException("Require failureThreshold > 0, halfOpenCalls > 0 and non negative openDuration");
+      }
+      return new CircuitBreakerConfig(this);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package io.avaje.http.client;
+
+/**
+ * Thrown when a request is not executed as the circuit breaker for its key is open.
+ * <p>
+ * Has a status code of 503 as the target is deemed unavailable.
+ */
+public final class CircuitBreakerOpenException extends HttpException {
+
+  private final String key;
+
+  CircuitBreakerOpenException(String key) {
+    super(503, "Circuit breaker open for " + key);
+    this.key = key;
+  }
+
+  /**
+   * Return the circuit breaker key.
+   */
+  public String key() {
+    return key;
+  }
+}
@@ -0,0 +1,57 @@
+package io.avaje.http.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Decodes response content for a given <code>Content-Encoding</code> such as {@code zstd} or {@code br}.
+ * <p>
+ * Decoders for {@code gzip} and {@code deflate} are built in. Additional decoders can be registered
+ * via {@link HttpClient.Builder#contentDecoder(ContentDecoder)} or service loaded via
+ * {@code META-INF/services/io.avaje.http.client.ContentDecoder}.
+ * <p>
+ * The registered encodings are sent in the <code>Accept-Encoding</code> header of requests where
+ * the client reads the response content.
+ *
+ * <pre>{@code
+ *
+ *   public final class ZstdDecoder implements ContentDecoder {
+ *
+ *     @Override
+ *     public String encoding() {
+ *       return "zstd";
+ *     }
+ *
+ *     @Override
+ *     public InputStream decode(InputStream content) throws IOException {
+ *       return new ZstdInputStream(content);
+ *     }
+ *   }
+ *
+ * }</pre>
+ */
+public interface ContentDecoder {
+
+  /**
+   * Return the content encoding this decoder supports (e.g. {@code zstd}, {@code br}).
+   */
+  String encoding();
+
+  /**
+   * Return an InputStream that decodes the given encoded content as it is read.
+   */
+  InputStream decode(InputStream content) throws IOException;
+
+  /**
+   * Decode the given encoded content.
+   */
+  default byte[] decode(byte[] content) {
+    try (InputStream decoded = decode(new ByteArrayInputStream(content))) {
+      return decoded.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error while " + encoding() + " decoding content", e);
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cached response with its freshness and validators.
+ */
+final class DCacheEntry {
+
+  private final byte[] content;
+  private final String contentType;
+  private final String etag;
+  private final String lastModified;
+  private final long freshUntil;
+  private final long staleUntil;
+  private final AtomicBoolean revalidating = new AtomicBoolean();
+
+  DCacheEntry(byte[] content, String contentType, String etag, String lastModified, long freshUntil, long staleUntil) {
+    this.content = content;
+    this.contentType = contentType;
+    this.etag = etag;
+    this.lastModified = lastModified;
+    this.freshUntil = freshUntil;
+    this.staleUntil = staleUntil;
+  }
+
+  /**
+   * Return the entry for the response or null if the response is not cacheable.
+   *
+   * @param response The response
+   * @param content  The decoded response content
+   * @param now      The current time in epoch millis
+   */
+  static DCacheEntry of(HttpResponse<?> response, BodyContent content, long now) {
+    return response.statusCode() != 200 ? null : of(response.headers(), content, now);
+  }
+
+  static DCacheEntry of(HttpHeaders headers, BodyContent content, long now) {
+    final String vary = headers.firstValue("Vary").orElse(null);
+    if (vary != null && !"accept-encoding".equalsIgnoreCase(vary.trim())) {
+      return null;
+    }
+    final CacheControl cacheControl = CacheControl.of(headers);
+    if (cacheControl.noStore || cacheControl.privateOnly) {
+      // the cache is shared by all requests of the client
+      return null;
+    }
+    final String etag = headers.firstValue("ETag").orElse(null);
+    final String lastModified = headers.firstValue("Last-Modified").orElse(null);
+    final long freshMillis = cacheControl.freshMillis(headers, now);
+    if (freshMillis <= 0 && etag == null && lastModified == null) {
+      // nothing to gain from caching
+      return null;
+    }
+    final long freshUntil = now + Math.max(0, freshMillis);
+    return new DCacheEntry(content.content(), content.contentType(), etag, lastModified, freshUntil, freshUntil + cacheControl.staleWhileRevalidateMillis);
+  }
+
+  /**
+   * Return the entry with freshness updated from a 304 Not Modified response.
+   */
+  DCacheEntry revalidated(HttpHeaders headers, long now) {
+    final CacheControl cacheControl = CacheControl.of(headers);
+    final long freshUntil = now + Math.max(0, cacheControl.freshMillis(headers, now));
+    return new DCacheEntry(content, contentType,
+      headers.firstValue("ETag").orElse(etag),
+      headers.firstValue("Last-Modified").orElse(lastModified),
+      freshUntil, freshUntil + cacheControl.staleWhileRevalidateMillis);
+  }
+
+  boolean isFresh(long now) {
+    return now < freshUntil;
+  }
+
+  boolean isStaleWhileRevalidate(long now) {
+    return now < staleUntil;
+  }
+
+  /**
+   * Return true if the caller should perform the background revalidation.
+   */
+  boolean startRevalidation() {
+    return revalidating.compareAndSet(false, true);
+  }
+
+  void endRevalidation() {
+    revalidating.set(false);
+  }
+
+  boolean hasValidator() {
+    return etag != null || lastModified != null;
+  }
+
+  byte[] content() {
+    return content;
+  }
+
+  String contentType() {
+    return contentType;
+  }
+
+  String etag() {
+    return etag;
+  }
+
+  String lastModified() {
+    return lastModified;
+  }
+
+  long freshUntil() {
+    return freshUntil;
+  }
+
+  long staleUntil() {
+    return staleUntil;
+  }
+
+  /**
+   * Return the approximate memory used by the entry.
+   */
+  int weight() {
+    return content.length + 128;
+  }
+
+  private static final class CacheControl {
+
+    private boolean noStore;
+    private boolean privateOnly;
+    private boolean noCache;
+    private long maxAgeSeconds = -1;
+    private long staleWhileRevalidateMillis;
+
+    static CacheControl of(HttpHeaders headers) {
+      final CacheControl cacheControl = new CacheControl();
+      for (final String value : headers.allValues("Cache-Control")) {
+        for (final String directive : value.split(",")) {
+          cacheControl.parse(directive.trim().toLowerCase());
+        }
+      }
+      return cacheControl;
+    }
+
+    private void parse(String directive) {
+      if (directive.equals("no-store")) {
+        noStore = true;
+      } else if (directive.equals("private") || directive.startsWith("private=")) {
+        privateOnly = true;
+      } else if (directive.equals("no-cache") || directive.startsWith("no-cache=")) {
+        noCache = true;
+      } else if (directive.startsWith("max-age=")) {
+        maxAgeSeconds = seconds(directive.substring(8));
+      } else if (directive.startsWith("stale-while-revalidate=")) {
+        staleWhileRevalidateMillis = Math.max(0, seconds(directive.substring(23))) * 1000;
+      }
+    }
+
+    private static long seconds(String value) {
+      try {
+        return Long.parseLong(value.replace("\"", "").trim());
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+
+    long freshMillis(HttpHeaders headers, long now) {
+      if (noCache) {
+        return 0;
+      }
+      final long ageMillis = headers.firstValue("Age").map(CacheControl::seconds).orElse(0L) * 1000;
+      if (maxAgeSeconds >= 0) {
+        return maxAgeSeconds * 1000 - Math.max(0, ageMillis);
+      }
+      return headers.firstValue("Expires").map(expires -> expiresMillis(expires, now)).orElse(0L);
+    }
+
+    private static long expiresMillis(String expires, long now) {
+      try {
+        return ZonedDateTime.parse(expires, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now;
+      } catch (DateTimeParseException e) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package io.avaje.http.client;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A 200 response served from the response cache.
+ */
+final class DCachedResponse implements HttpResponse<byte[]> {
+
+  private final HttpRequest request;
+  private final DCacheEntry entry;
+  private final HttpHeaders headers;
+
+  DCachedResponse(HttpRequest request, DCacheEntry entry) {
+    this.request = request;
+    this.entry = entry;
+    this.headers = headers(entry);
+  }
+
+  private static HttpHeaders headers(DCacheEntry entry) {
+    final Map<String, List<String>> map = new LinkedHashMap<>();
+    if (entry.contentType() != null) {
+      map.put("Content-Type", List.of(entry.contentType()));
+    }
+    if (entry.etag() != null) {
+      map.put("ETag", List.of(entry.etag()));
+    }
+    if (entry.lastModified() != null) {
+      map.put("Last-Modified", List.of(entry.lastModified()));
+    }
+    return HttpHeaders.of(map, (name, value) -> true);
+  }
+
+  @Override
+  public int statusCode() {
+    return 200;
+  }
+
+  @Override
+  public HttpRequest request() {
+    return request;
+  }
+
+  @Override
+  public Optional<HttpResponse<byte[]>> previousResponse() {
+    return Optional.empty();
+  }
+
+  @Override
+  public HttpHeaders headers() {
+    return headers;
+  }
+
+  @Override
+  public byte[] body() {
+    return entry.content();
+  }
+
+  @Override
+  public Optional<SSLSession> sslSession() {
+    return Optional.empty();
+  }
+
+  @Override
+  public URI uri() {
+    return request.uri();
+  }
+
+  @Override
+  public HttpClient.Version version() {
+    return HttpClient.Version.HTTP_1_1;
+  }
+}
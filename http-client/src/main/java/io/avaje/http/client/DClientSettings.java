@@ -0,0 +1,112 @@
+package io.avaje.http.client;
+
+import java.util.concurrent.Executor;
+
+/**
+ * The resilience, caching and transport settings of the client built by DHttpClientBuilder.
+ * <p>
+ * Settings that are not set (null) use the defaults of DHttpClientContext.
+ */
+final class DClientSettings {
+
+  private DContentDecoders contentDecoders;
+  private boolean streamingRead;
+  private DIsolation isolation;
+  private Executor completionExecutor;
+  private DResponseCache responseCache;
+  private DCoalescer coalescer;
+  private HedgePolicy hedgePolicy;
+  private DEndpoints endpoints;
+  private HttpTransport transport;
+  private RateLimiter rateLimiter;
+
+  DClientSettings contentDecoders(DContentDecoders contentDecoders) {
+    this.contentDecoders = contentDecoders;
+    return this;
+  }
+
+  DClientSettings streamingRead(boolean streamingRead) {
+    this.streamingRead = streamingRead;
+    return this;
+  }
+
+  DClientSettings isolation(DIsolation isolation) {
+    this.isolation = isolation;
+    return this;
+  }
+
+  DClientSettings completionExecutor(Executor completionExecutor) {
+    this.completionExecutor = completionExecutor;
+    return this;
+  }
+
+  DClientSettings responseCache(DResponseCache responseCache) {
+    this.responseCache = responseCache;
+    return this;
+  }
+
+  DClientSettings coalescer(DCoalescer coalescer) {
+    this.coalescer = coalescer;
+    return this;
+  }
+
+  DClientSettings hedgePolicy(HedgePolicy hedgePolicy) {
+    this.hedgePolicy = hedgePolicy;
+    return this;
+  }
+
+  DClientSettings endpoints(DEndpoints endpoints) {
+    this.endpoints = endpoints;
+    return this;
+  }
+
+  DClientSettings transport(HttpTransport transport) {
+    this.transport = transport;
+    return this;
+  }
+
+  DClientSettings rateLimiter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+    return this;
+  }
+
+  DContentDecoders contentDecoders() {
+    return contentDecoders;
+  }
+
+  boolean streamingRead() {
+    return streamingRead;
+  }
+
+  DIsolation isolation() {
+    return isolation;
+  }
+
+  Executor completionExecutor() {
+    return completionExecutor;
+  }
+
+  DResponseCache responseCache() {
+    return responseCache;
+  }
+
+  DCoalescer coalescer() {
+    return coalescer;
+  }
+
+  HedgePolicy hedgePolicy() {
+    return hedgePolicy;
+  }
+
+  DEndpoints endpoints() {
+    return endpoints;
+  }
+
+  HttpTransport transport() {
+    return transport;
+  }
+
+  RateLimiter rateLimiter() {
+    return rateLimiter;
+  }
+}
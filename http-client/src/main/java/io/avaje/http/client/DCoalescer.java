@@ -0,0 +1,152 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical requests onto a single in-flight exchange.
+ * <p>
+ * The first request for a key (the leader) performs the exchange. Requests for the same
+ * key arriving while it is in flight share its response and decoded content. The key is
+ * removed before the exchange completes such that later requests perform a new exchange.
+ */
+final class DCoalescer {
+
+  private final ConcurrentHashMap<String, CompletableFuture<Exchange>> inFlight = new ConcurrentHashMap<>();
+  private final boolean coalesce;
+  private final Set<String> keyHeaders;
+
+  /**
+   * Create with the default for requests and the (lower case) header names included in
+   * the key. When keyHeaders is null all the request headers are included in the key.
+   */
+  DCoalescer(boolean coalesce, Set<String> keyHeaders) {
+    this.coalesce = coalesce;
+    this.keyHeaders = keyHeaders;
+  }
+
+  /**
+   * Return true if requests are coalesced by default.
+   */
+  boolean coalesce() {
+    return coalesce;
+  }
+
+  /**
+   * Return the key for the request made up of method, url and selected headers.
+   */
+  String key(String method, String url, Map<String, List<String>> headers) {
+    final StringBuilder key = new StringBuilder(method.length() + url.length() + 1).append(method).append(' ').append(url);
+    if (headers != null) {
+      for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+        final String name = header.getKey().toLowerCase(Locale.ROOT);
+        if (keyHeaders == null || keyHeaders.contains(name) || name.startsWith("if-")) {
+          key.append('\n').append(name).append(':').append(header.getValue());
+        }
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Perform the exchange or wait for the identical in-flight exchange.
+   */
+  Exchange execute(String key, Supplier<Exchange> exchange) {
+    final CompletableFuture<Exchange> leader = new CompletableFuture<>();
+    final CompletableFuture<Exchange> existing = inFlight.putIfAbsent(key, leader);
+    if (existing != null) {
+      return join(existing);
+    }
+    Exchange result = null;
+    Throwable error = null;
+    try {
+      result = exchange.get();
+      return result;
+    } catch (final Throwable e) {
+      error = e;
+      throw e;
+    } finally {
+      // always release the key and the requests waiting on the leader (including on Error)
+      inFlight.remove(key, leader);
+      if (error != null) {
+        leader.completeExceptionally(error);
+      } else {
+        leader.complete(result);
+      }
+    }
+  }
+
+  /**
+   * Perform the async exchange or share the identical in-flight exchange.
+   */
+  CompletableFuture<Exchange> executeAsync(String key, Supplier<CompletableFuture<Exchange>> exchange) {
+    final CompletableFuture<Exchange> leader = new CompletableFuture<>();
+    final CompletableFuture<Exchange> existing = inFlight.putIfAbsent(key, leader);
+    if (existing != null) {
+      return existing.copy();
+    }
+    CompletableFuture<Exchange> future;
+    try {
+      future = exchange.get();
+    } catch (final Throwable e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    future.whenComplete((result, error) -> {
+      inFlight.remove(key, leader);
+      if (error != null) {
+        leader.completeExceptionally(DHttpClientRequest.unwrapFutureError(error));
+      } else {
+        leader.complete(result);
+      }
+    });
+    return leader.copy();
+  }
+
+  int inFlight() {
+    return inFlight.size();
+  }
+
+  private static Exchange join(CompletableFuture<Exchange> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * The response and decoded content shared by the coalesced requests.
+   */
+  static final class Exchange {
+
+    private final HttpResponse<byte[]> response;
+    private final BodyContent content;
+
+    Exchange(HttpResponse<byte[]> response, BodyContent content) {
+      this.response = response;
+      this.content = content;
+    }
+
+    HttpResponse<byte[]> response() {
+      return response;
+    }
+
+    BodyContent content() {
+      return content;
+    }
+  }
+}
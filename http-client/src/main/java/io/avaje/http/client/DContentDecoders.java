@@ -0,0 +1,168 @@
+package io.avaje.http.client;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import io.avaje.applog.AppLog;
+
+/**
+ * The registered content decoders keyed by content encoding.
+ */
+final class DContentDecoders {
+
+  private static final System.Logger log = AppLog.getLogger("io.avaje.http.client");
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * The built-in gzip and deflate decoders.
+   */
+  static final DContentDecoders DEFAULT = new DContentDecoders(List.of(), false);
+
+  private final Map<String, ContentDecoder> decoders = new LinkedHashMap<>();
+  private final String acceptEncoding;
+
+  /**
+   * Create with the decoders, when negotiate is true the Accept-Encoding header is sent.
+   */
+  DContentDecoders(List<ContentDecoder> registered, boolean negotiate) {
+    add(new Gzip());
+    add(new Deflate());
+    for (ContentDecoder decoder : registered) {
+      add(decoder);
+    }
+    this.acceptEncoding = negotiate ? String.join(", ", decoders.keySet()) : null;
+  }
+
+  /**
+   * Create with the built-in decoders, the service loaded decoders and then the explicitly
+   * registered decoders (which take precedence).
+   */
+  static DContentDecoders load(List<ContentDecoder> registered, boolean negotiate) {
+    final var all = serviceLoad(ServiceLoader.load(ContentDecoder.class).iterator());
+    all.addAll(registered);
+    return new DContentDecoders(all, negotiate);
+  }
+
+  /**
+   * Service load the decoders skipping any that fail to load.
+   */
+  static List<ContentDecoder> serviceLoad(Iterator<ContentDecoder> iterator) {
+    final var all = new ArrayList<ContentDecoder>();
+    while (true) {
+      try {
+        if (!iterator.hasNext()) {
+          return all;
+        }
+        final ContentDecoder decoder = iterator.next();
+        log.log(DEBUG, "service loaded ContentDecoder for {0}", decoder.encoding());
+        all.add(decoder);
+      } catch (ServiceConfigurationError e) {
+        // typically the decoder library (zstd, brotli) is not on the classpath, skip
+        // this decoder and continue loading the others
+        log.log(WARNING, "Unable to service load ContentDecoder", e);
+      }
+    }
+  }
+
+  private void add(ContentDecoder decoder) {
+    decoders.put(decoder.encoding().toLowerCase(), decoder);
+  }
+
+  /**
+   * Return the value for the Accept-Encoding header or null when not negotiated.
+   */
+  String acceptEncoding() {
+    return acceptEncoding;
+  }
+
+  /**
+   * Return the decoder for the given content encoding or null if no decoding is required
+   * or supported.
+   */
+  ContentDecoder decoder(String encoding) {
+    if (encoding == null || encoding.isEmpty() || "identity".equals(encoding)) {
+      return null;
+    }
+    final ContentDecoder decoder = decoders.get(encoding);
+    return decoder != null ? decoder : decoders.get(encoding.trim().toLowerCase());
+  }
+
+  /**
+   * Return an InputStream that decodes the content lazily on first read.
+   */
+  static InputStream decode(ContentDecoder decoder, InputStream content) {
+    return new DecodingInputStream(content, decoder::decode);
+  }
+
+  private static final class Gzip implements ContentDecoder {
+
+    @Override
+    public String encoding() {
+      return "gzip";
+    }
+
+    @Override
+    public InputStream decode(InputStream content) throws IOException {
+      return new GZIPInputStream(content, BUFFER_SIZE);
+    }
+
+    @Override
+    public byte[] decode(byte[] content) {
+      return GzipUtil.gzipDecode(content);
+    }
+  }
+
+  /**
+   * Deflate decoder supporting both zlib wrapped (per the spec) and raw deflate content
+   * (as sent by some servers).
+   */
+  private static final class Deflate implements ContentDecoder {
+
+    @Override
+    public String encoding() {
+      return "deflate";
+    }
+
+    @Override
+    public InputStream decode(InputStream content) throws IOException {
+      final var input = new PushbackInputStream(content, 2);
+      final byte[] header = input.readNBytes(2);
+      input.unread(header);
+      final var inflater = new Inflater(!zlibHeader(header));
+      return new InflaterInputStream(input, inflater, BUFFER_SIZE) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            inflater.end();
+          }
+        }
+      };
+    }
+
+    private static boolean zlibHeader(byte[] header) {
+      if (header.length < 2) {
+        return false;
+      }
+      final int cmf = header[0] & 0xff;
+      final int flg = header[1] & 0xff;
+      return (cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package io.avaje.http.client;
+
+import io.avaje.applog.AppLog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Disk tier of the response cache holding entries evicted from memory.
+ * <p>
+ * Each entry is a file that is read via a memory mapped buffer. The index is held in
+ * memory with FIFO eviction bounded by bytes, cache files of a previous run are removed
+ * on startup. Failures to read or write are logged and otherwise treated as a miss.
+ * <p>
+ * File IO is done outside the lock such that virtual threads are not pinned.
+ */
+final class DDiskCache {
+
+  private static final System.Logger log = AppLog.getLogger("io.avaje.http.client");
+
+  private static final int MAGIC = 0x61484331;
+  private static final String SUFFIX = ".cache";
+
+  private final Path directory;
+  private final long maxBytes;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, Long> index = new LinkedHashMap<>();
+  private long bytes;
+
+  DDiskCache(Path directory, long maxBytes) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    try {
+      Files.createDirectories(directory);
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+        for (Path file : files) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to use response cache directory " + directory, e);
+    }
+  }
+
+  /**
+   * Return the entry for the key or null.
+   */
+  DCacheEntry get(String key) {
+    lock.lock();
+    try {
+      if (!index.containsKey(key)) {
+        return null;
+      }
+    } finally {
+      lock.unlock();
+    }
+    try (FileChannel channel = FileChannel.open(file(key), StandardOpenOption.READ)) {
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || !key.equals(readString(buffer))) {
+        return null;
+      }
+      final String contentType = readString(buffer);
+      final String etag = readString(buffer);
+      final String lastModified = readString(buffer);
+      final long freshUntil = buffer.getLong();
+      final long staleUntil = buffer.getLong();
+      final byte[] content = new byte[buffer.getInt()];
+      buffer.get(content);
+      return new DCacheEntry(content, contentType, etag, lastModified, freshUntil, staleUntil);
+    } catch (IOException | RuntimeException e) {
+      log.log(DEBUG, "Unable to read response cache entry {0} {1}", key, e);
+      return null;
+    }
+  }
+
+  /**
+   * Write the entry to disk.
+   */
+  void put(String key, DCacheEntry entry) {
+    final byte[] keyBytes = bytes(key);
+    final byte[] contentType = bytes(entry.contentType());
+    final byte[] etag = bytes(entry.etag());
+    final byte[] lastModified = bytes(entry.lastModified());
+    final int size = 4 + 16 + 16 + 4 + keyBytes.length + contentType.length + etag.length + lastModified.length + entry.content().length;
+    if (size > maxBytes) {
+      return;
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate(size)
+      .putInt(MAGIC)
+      .putInt(keyBytes.length).put(keyBytes)
+      .putInt(contentType.length).put(contentType)
+      .putInt(etag.length).put(etag)
+      .putInt(lastModified.length).put(lastModified)
+      .putLong(entry.freshUntil())
+      .putLong(entry.staleUntil())
+      .putInt(entry.content().length).put(entry.content())
+      .flip();
+    final Path file = file(key);
+    try {
+      final Path temp = Files.createTempFile(directory, "entry", ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.log(WARNING, "Unable to write response cache entry " + key, e);
+      return;
+    }
+    final List<String> evicted = new ArrayList<>();
+    lock.lock();
+    try {
+      final Long previous = index.remove(key);
+      if (previous != null) {
+        bytes -= previous;
+      }
+      index.put(key, (long) size);
+      bytes += size;
+      evict(evicted);
+    } finally {
+      lock.unlock();
+    }
+    for (String evictKey : evicted) {
+      try {
+        Files.deleteIfExists(file(evictKey));
+      } catch (IOException e) {
+        log.log(DEBUG, "Unable to delete response cache entry {0} {1}", evictKey, e);
+      }
+    }
+  }
+
+  private void evict(List<String> evicted) {
+    final Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+    while (bytes > maxBytes && it.hasNext()) {
+      final Map.Entry<String, Long> eldest = it.next();
+      it.remove();
+      bytes -= eldest.getValue();
+      evicted.add(eldest.getKey());
+    }
+  }
+
+  long bytes() {
+    lock.lock();
+    try {
+      return bytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Path file(String key) {
+    // keys with the same hash share a file, the key stored in the file is checked on read
+    return directory.resolve(Integer.toHexString(key.hashCode()) + "-" + key.length() + SUFFIX);
+  }
+
+  private static byte[] bytes(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    final int length = buffer.getInt();
+    if (length == 0) {
+      return null;
+    }
+    final byte[] value = new byte[length];
+    buffer.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,287 @@
+package io.avaje.http.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Client side load balancing across multiple base urls.
+ * <p>
+ * Endpoints are selected using power of two choices: two endpoints are picked at random
+ * and the one with the fewest outstanding requests is used (ties broken by the lower
+ * response time average). Endpoints are passively ejected for a period when they have
+ * consecutive errors (5xx or IOException) or when their response time average is an
+ * outlier compared to the other endpoints. At most half the endpoints are ejected.
+ */
+final class DEndpoints {
+
+  static final int FAILURE_THRESHOLD = 5;
+  static final int MIN_SAMPLES = 20;
+  private static final long BASE_EJECTION_NANOS = TimeUnit.SECONDS.toNanos(30);
+  private static final long MAX_EJECTION_NANOS = TimeUnit.MINUTES.toNanos(5);
+  private static final long LATENCY_MIN_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final int LATENCY_FACTOR = 3;
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final Supplier<List<String>> supplier;
+  private final AtomicLong refreshedAt = new AtomicLong(System.nanoTime());
+  private volatile Endpoint[] endpoints;
+
+  private DEndpoints(Supplier<List<String>> supplier, List<String> baseUrls) {
+    this.supplier = supplier;
+    this.endpoints = endpoints(baseUrls, new Endpoint[0]);
+  }
+
+  /**
+   * Create with a fixed list of base urls.
+   */
+  static DEndpoints of(List<String> baseUrls) {
+    return new DEndpoints(null, baseUrls);
+  }
+
+  /**
+   * Create with a supplier of the base urls that is read at most once per second.
+   */
+  static DEndpoints of(Supplier<List<String>> supplier) {
+    return new DEndpoints(supplier, supplier.get());
+  }
+
+  private static Endpoint[] endpoints(List<String> baseUrls, Endpoint[] existing) {
+    if (baseUrls == null || baseUrls.isEmpty()) {
+      throw new IllegalStateException("No base urls");
+    }
+    final Endpoint[] result = new Endpoint[baseUrls.size()];
+    for (int i = 0; i < result.length; i++) {
+      final String baseUrl = baseUrls.get(i);
+      Endpoint endpoint = null;
+      for (Endpoint e : existing) {
+        if (e.baseUrl.equals(baseUrl)) {
+          // keep the state of known endpoints
+          endpoint = e;
+          break;
+        }
+      }
+      result[i] = endpoint != null ? endpoint : new Endpoint(baseUrl);
+    }
+    return result;
+  }
+
+  private Endpoint[] current() {
+    if (supplier != null) {
+      final long last = refreshedAt.get();
+      final long now = System.nanoTime();
+      if (now - last > REFRESH_NANOS && refreshedAt.compareAndSet(last, now)) {
+        final List<String> baseUrls = supplier.get();
+        if (baseUrls != null && !baseUrls.isEmpty() && !baseUrls.equals(baseUrls(endpoints))) {
+          endpoints = endpoints(baseUrls, endpoints);
+        }
+      }
+    }
+    return endpoints;
+  }
+
+  private static List<String> baseUrls(Endpoint[] endpoints) {
+    final List<String> baseUrls = new ArrayList<>(endpoints.length);
+    for (Endpoint endpoint : endpoints) {
+      baseUrls.add(endpoint.baseUrl);
+    }
+    return baseUrls;
+  }
+
+  /**
+   * Return the current base urls.
+   */
+  List<String> baseUrls() {
+    return baseUrls(current());
+  }
+
+  /**
+   * Return the first base url.
+   */
+  String baseUrl() {
+    return endpoints[0].baseUrl;
+  }
+
+  /**
+   * Select an endpoint for a request.
+   */
+  Endpoint select() {
+    return select(null);
+  }
+
+  /**
+   * Select an endpoint preferring one other than the given endpoint (for a retry or hedge).
+   */
+  Endpoint select(Endpoint exclude) {
+    final Endpoint[] all = current();
+    final int size = all.length;
+    if (size == 1) {
+      return all[0];
+    }
+    final long now = System.nanoTime();
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    Endpoint best = null;
+    // two choices, a further two if both are not available
+    for (int i = 0; i < 4 && best == null; i += 2) {
+      final int first = random.nextInt(size);
+      int second = random.nextInt(size - 1);
+      if (second >= first) {
+        second++;
+      }
+      best = better(candidate(all[first], exclude, now), candidate(all[second], exclude, now));
+    }
+    if (best == null) {
+      // all ejected or excluded, use the least loaded available then any
+      for (Endpoint endpoint : all) {
+        best = better(best, candidate(endpoint, exclude, now));
+      }
+      if (best == null) {
+        best = exclude != null ? exclude : all[random.nextInt(size)];
+      }
+    }
+    return best;
+  }
+
+  private static Endpoint candidate(Endpoint endpoint, Endpoint exclude, long now) {
+    return endpoint == exclude || !endpoint.isAvailable(now) ? null : endpoint;
+  }
+
+  private static Endpoint better(Endpoint a, Endpoint b) {
+    if (a == null || b == null) {
+      return a == null ? b : a;
+    }
+    final int inFlightA = a.inFlight.get();
+    final int inFlightB = b.inFlight.get();
+    if (inFlightA != inFlightB) {
+      return inFlightA < inFlightB ? a : b;
+    }
+    return a.ewmaNanos <= b.ewmaNanos ? a : b;
+  }
+
+  /**
+   * Start a request to the endpoint.
+   */
+  void onStart(Endpoint endpoint) {
+    endpoint.inFlight.incrementAndGet();
+  }
+
+  /**
+   * The request was cancelled (a hedged attempt that lost).
+   */
+  void onCancel(Endpoint endpoint) {
+    endpoint.inFlight.decrementAndGet();
+  }
+
+  /**
+   * Complete a request to the endpoint.
+   *
+   * @param statusCode    The response status code or -1 for an IOException
+   * @param responseNanos The response time in nanos
+   */
+  void onComplete(Endpoint endpoint, int statusCode, long responseNanos) {
+    endpoint.inFlight.decrementAndGet();
+    if (statusCode == -1 || statusCode >= 500) {
+      if (endpoint.failures.incrementAndGet() >= FAILURE_THRESHOLD) {
+        eject(endpoint);
+      }
+      return;
+    }
+    if (endpoint.failures.get() != 0) {
+      endpoint.failures.set(0);
+    }
+    final long samples = endpoint.record(responseNanos);
+    if (samples >= MIN_SAMPLES && (samples & 15) == 0) {
+      checkLatencyOutlier(endpoint);
+    }
+  }
+
+  private void checkLatencyOutlier(Endpoint endpoint) {
+    final long now = System.nanoTime();
+    final List<Long> others = new ArrayList<>();
+    for (Endpoint other : endpoints) {
+      if (other != endpoint && other.samples >= MIN_SAMPLES && other.isAvailable(now)) {
+        others.add(other.ewmaNanos);
+      }
+    }
+    if (others.size() < 2) {
+      return;
+    }
+    others.sort(null);
+    final long median = others.get(others.size() / 2);
+    final long ewma = endpoint.ewmaNanos;
+    if (ewma > median * LATENCY_FACTOR && ewma - median > LATENCY_MIN_NANOS) {
+      eject(endpoint);
+    }
+  }
+
+  private void eject(Endpoint endpoint) {
+    final long now = System.nanoTime();
+    final Endpoint[] all = endpoints;
+    int ejected = 0;
+    for (Endpoint other : all) {
+      if (!other.isAvailable(now)) {
+        ejected++;
+      }
+    }
+    if (!endpoint.isAvailable(now) || (ejected + 1) * 2 > all.length) {
+      return;
+    }
+    final int ejections = endpoint.ejections.incrementAndGet();
+    endpoint.ejectedUntil = now + Math.min(MAX_EJECTION_NANOS, BASE_EJECTION_NANOS * ejections);
+    endpoint.ejected = true;
+    endpoint.failures.set(0);
+    endpoint.ewmaNanos = 0;
+    endpoint.samples = 0;
+  }
+
+  /**
+   * A base url with its outstanding requests and health.
+   */
+  static final class Endpoint {
+
+    private final String baseUrl;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private volatile long ewmaNanos;
+    private volatile long samples;
+    private volatile long ejectedUntil;
+    private volatile boolean ejected;
+
+    Endpoint(String baseUrl) {
+      this.baseUrl = baseUrl;
+    }
+
+    String baseUrl() {
+      return baseUrl;
+    }
+
+    int inFlight() {
+      return inFlight.get();
+    }
+
+    boolean isAvailable(long now) {
+      return !ejected || now - ejectedUntil >= 0;
+    }
+
+    /**
+     * Record the response time returning the number of samples (races lose samples only).
+     */
+    private long record(long nanos) {
+      final long ewma = ewmaNanos;
+      ewmaNanos = ewma == 0 ? nanos : ewma + (nanos - ewma) / 8;
+      final long count = samples + 1;
+      samples = count;
+      if (ejected && count >= MIN_SAMPLES) {
+        // healthy again after the ejection period, reduce the next ejection period
+        ejected = false;
+        ejections.updateAndGet(n -> n > 0 ? n - 1 : 0);
+      }
+      return count;
+    }
+  }
+}
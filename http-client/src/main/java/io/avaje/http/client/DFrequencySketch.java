@@ -0,0 +1,74 @@
+package io.avaje.http.client;
+
+/**
+ * Count-Min sketch of 4 bit counters estimating how often keys are used (TinyLFU).
+ * <p>
+ * The counters are halved after a sample of accesses such that the frequency reflects
+ * recent use. Not thread safe, guarded by the owning cache.
+ */
+final class DFrequencySketch {
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int[] SEEDS = {0x97cb3127, 0xb2bd5a43, 0x8b1b5d9b, 0xc2b2ae35};
+
+  private final long[] table;
+  private final int mask;
+  private final int sampleSize;
+  private int size;
+
+  DFrequencySketch(int expectedEntries) {
+    final int length = Integer.highestOneBit(Math.max(64, Math.min(expectedEntries, 1 << 20)) - 1) << 1;
+    this.table = new long[length];
+    this.mask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  /**
+   * Return the estimated frequency of the key (0 to 15).
+   */
+  int frequency(int hash) {
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      final int index = indexOf(hash, i);
+      final int offset = offsetOf(hash, i);
+      frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xF));
+    }
+    return frequency;
+  }
+
+  /**
+   * Increment the frequency of the key.
+   */
+  void increment(int hash) {
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      final int index = indexOf(hash, i);
+      final int offset = offsetOf(hash, i);
+      if (((table[index] >>> offset) & 0xF) != 0xF) {
+        table[index] += 1L << offset;
+        added = true;
+      }
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size /= 2;
+  }
+
+  private int indexOf(int hash, int i) {
+    int h = (hash ^ SEEDS[i]) * 0x9e3779b9;
+    h ^= h >>> 16;
+    return h & mask;
+  }
+
+  private static int offsetOf(int hash, int i) {
+    // each long holds 16 counters, use a different counter per row
+    return (((hash >>> (i * 8)) & 3) + (i << 2)) << 2;
+  }
+}
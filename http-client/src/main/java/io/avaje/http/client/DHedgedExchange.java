@@ -0,0 +1,128 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpResponse;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Races the attempts of a hedged request, the first response wins.
+ * <p>
+ * Hedged attempts are started after each hedge delay if no response has been received
+ * and the hedge budget allows. When a response is received the pending hedge timers and
+ * the in-flight exchanges of the other attempts are cancelled, and the body of a response
+ * that loses the race is closed.
+ */
+final class DHedgedExchange<T> {
+
+  /**
+   * Sends an attempt of the hedged request.
+   */
+  interface Attempt<T> {
+
+    /**
+     * Send the attempt (0 for the initial attempt).
+     */
+    CompletableFuture<HttpResponse<T>> send(int attempt, DHedgedExchange<T> exchange);
+  }
+
+  private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+  private final Queue<Future<?>> exchanges = new ConcurrentLinkedQueue<>();
+  private final Queue<CompletableFuture<Boolean>> timers = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  /**
+   * Start the initial attempt and schedule the hedged attempts.
+   */
+  CompletableFuture<HttpResponse<T>> start(Attempt<T> attempt, HedgePolicy policy, long delayNanos, Executor executor) {
+    startAttempt(attempt, 0);
+    for (int i = 1; i <= policy.maxHedges() && !result.isDone(); i++) {
+      final int attemptNumber = i;
+      final Runnable hedge = () -> {
+        if (!result.isDone() && policy.tryAcquireHedge()) {
+          startAttempt(attempt, attemptNumber);
+        }
+      };
+      if (delayNanos <= 0) {
+        hedge.run();
+      } else {
+        // completing the timer early cancels the scheduled timeout task
+        final CompletableFuture<Boolean> timer = new CompletableFuture<Boolean>()
+          .completeOnTimeout(Boolean.TRUE, delayNanos * i, TimeUnit.NANOSECONDS);
+        timers.add(timer);
+        timer.thenAccept(fire -> {
+          if (fire) {
+            executor.execute(hedge);
+          }
+        });
+      }
+    }
+    result.whenComplete((response, error) -> cancelTimers());
+    return result;
+  }
+
+  private void startAttempt(Attempt<T> attempt, int attemptNumber) {
+    inFlight.incrementAndGet();
+    attempt.send(attemptNumber, this).whenComplete((response, error) -> {
+      if (error == null) {
+        if (result.complete(response)) {
+          cancelExchanges();
+        } else {
+          discard(response);
+        }
+      } else if (inFlight.decrementAndGet() == 0) {
+        result.completeExceptionally(DHttpClientRequest.unwrapFutureError(error));
+      }
+    });
+  }
+
+  /**
+   * Register the in-flight exchange of an attempt such that it can be cancelled.
+   */
+  void register(Future<?> exchange) {
+    exchanges.add(exchange);
+    if (result.isDone()) {
+      // started concurrently with the winning response
+      exchange.cancel(true);
+    }
+  }
+
+  /**
+   * Return true if the hedged request has completed (another attempt won).
+   */
+  boolean isDone() {
+    return result.isDone();
+  }
+
+  private void cancelTimers() {
+    CompletableFuture<Boolean> timer;
+    while ((timer = timers.poll()) != null) {
+      timer.complete(Boolean.FALSE);
+    }
+  }
+
+  /**
+   * Close the body of a response that lost the race (InputStream, Stream etc).
+   */
+  private static void discard(HttpResponse<?> response) {
+    final Object body = response == null ? null : response.body();
+    if (body instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) body).close();
+      } catch (Exception e) {
+        // ignore, the response is not used
+      }
+    }
+  }
+
+  private void cancelExchanges() {
+    Future<?> exchange;
+    while ((exchange = exchanges.poll()) != null) {
+      exchange.cancel(true);
+    }
+  }
+}
@@ -5,6 +5,8 @@ import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 final class DHttpAsync implements HttpAsyncResponse {
@@ -33,13 +35,14 @@ final class DHttpAsync implements HttpAsyncResponse {
   public CompletableFuture<HttpResponse<Void>> asVoid() {
     // read the response content as bytes so that it is available for error response
     return request
-      .performSendAsync(true, HttpResponse.BodyHandlers.ofByteArray())
+      .acceptEncoding()
+      .performSendAsyncBytes()
       .thenApply(request::asyncVoid);
   }
 
   @Override
   public CompletableFuture<HttpResponse<String>> asString() {
-    return with(true, HttpResponse.BodyHandlers.ofString());
+    return request.acceptEncoding().performSendAsync(true, request.context().stringHandler());
   }
 
   @Override
@@ -49,7 +52,7 @@ final class DHttpAsync implements HttpAsyncResponse {
 
   @Override
   public CompletableFuture<HttpResponse<Stream<String>>> asLines() {
-    return with(false, HttpResponse.BodyHandlers.ofLines());
+    return asyncAsLines();
   }
 
   @Override
@@ -70,11 +73,17 @@ final class DHttpAsync implements HttpAsyncResponse {
 
   @Override
   public <E> CompletableFuture<HttpResponse<E>> as(Class<E> type) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamBean(type, httpResponse));
+    }
     return asyncAsBytes().thenApply(httpResponse -> request.asyncBean(type, httpResponse));
   }
 
   @Override
   public <E> CompletableFuture<HttpResponse<E>> as(Type type) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamBean(type, httpResponse));
+    }
     return asyncAsBytes().thenApply(httpResponse -> request.asyncBean(type, httpResponse));
   }
 
@@ -91,11 +100,17 @@ final class DHttpAsync implements HttpAsyncResponse {
 
   @Override
   public <E> CompletableFuture<HttpResponse<List<E>>> asList(Class<E> type) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamList(type, httpResponse));
+    }
     return asyncAsBytes().thenApply(httpResponse -> request.asyncList(type, httpResponse));
   }
 
   @Override
   public <E> CompletableFuture<HttpResponse<List<E>>> asList(Type type) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamList(type, httpResponse));
+    }
     return asyncAsBytes().thenApply(httpResponse -> request.asyncList(type, httpResponse));
   }
 
@@ -120,11 +135,67 @@ final class DHttpAsync implements HttpAsyncResponse {
     return asyncAsLines().thenApply(httpResponse -> request.asyncStream(type, httpResponse));
   }
 
+  @Override
+  public <E> CompletableFuture<HttpResponse<E>> as(BodyReader<E> reader) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamBean(reader, httpResponse));
+    }
+    return asyncAsBytes().thenApply(httpResponse -> request.asyncBean(reader, httpResponse));
+  }
+
+  @Override
+  public <E> CompletableFuture<HttpResponse<List<E>>> asList(BodyReader<List<E>> listReader) {
+    if (request.streamingRead()) {
+      return asyncReadStream(httpResponse -> request.asyncStreamList(listReader, httpResponse));
+    }
+    return asyncAsBytes().thenApply(httpResponse -> request.asyncList(listReader, httpResponse));
+  }
+
+  @Override
+  public <E> CompletableFuture<HttpResponse<Stream<E>>> asStream(BodyReader<E> reader) {
+    return asyncAsLines().thenApply(httpResponse -> request.asyncStream(reader, httpResponse));
+  }
+
+  @Override
+  public <E> CompletableFuture<E> bean(BodyReader<E> reader) {
+    return as(reader).thenApply(HttpResponse::body);
+  }
+
+  @Override
+  public <E> CompletableFuture<List<E>> list(BodyReader<List<E>> listReader) {
+    return asList(listReader).thenApply(HttpResponse::body);
+  }
+
+  @Override
+  public <E> CompletableFuture<Stream<E>> stream(BodyReader<E> reader) {
+    return asStream(reader).thenApply(HttpResponse::body);
+  }
+
+  @Override
+  public <E> Flow.Publisher<E> publisher(Class<E> type) {
+    return new NdJsonPublisher<>(request, request.context().beanReader(type));
+  }
+
+  @Override
+  public <E> Flow.Publisher<E> publisher(Type type) {
+    return new NdJsonPublisher<>(request, request.context().beanReader(type));
+  }
+
   private CompletableFuture<HttpResponse<byte[]>> asyncAsBytes() {
-    return request.performSendAsync(true, HttpResponse.BodyHandlers.ofByteArray());
+    return request.acceptEncoding().performSendAsyncBytes();
+  }
+
+  /**
+   * Read the content from the stream on the async executor rather than the completion thread
+   * of the HttpClient as the content is read from the network while it is parsed.
+   */
+  private <R> CompletableFuture<R> asyncReadStream(Function<HttpResponse<InputStream>, R> read) {
+    return request.acceptEncoding()
+      .performSendAsync(false, request.context().streamingReadHandler())
+      .thenApplyAsync(read, request.context().asyncExecutor());
   }
 
   private CompletableFuture<HttpResponse<Stream<String>>> asyncAsLines() {
-    return request.performSendAsync(false, HttpResponse.BodyHandlers.ofLines());
+    return request.acceptEncoding().performSendAsync(false, request.context().linesHandler());
   }
 }
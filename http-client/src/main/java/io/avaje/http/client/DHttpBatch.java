@@ -0,0 +1,238 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class DHttpBatch<T> implements HttpBatch<T> {
+
+  private final Executor executor;
+  private final List<Supplier<CompletableFuture<T>>> calls = new ArrayList<>();
+  private int maxConcurrency = 64;
+  private Duration deadline;
+
+  DHttpBatch(Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public HttpBatch<T> maxConcurrency(int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("maxConcurrency must be positive");
+    }
+    this.maxConcurrency = maxConcurrency;
+    return this;
+  }
+
+  @Override
+  public HttpBatch<T> deadline(Duration deadline) {
+    this.deadline = deadline;
+    return this;
+  }
+
+  @Override
+  public HttpBatch<T> add(Supplier<CompletableFuture<T>> call) {
+    calls.add(call);
+    return this;
+  }
+
+  @Override
+  public <I> HttpBatch<T> addAll(Collection<I> items, Function<I, CompletableFuture<T>> call) {
+    for (I item : items) {
+      calls.add(() -> call.apply(item));
+    }
+    return this;
+  }
+
+  @Override
+  public CompletableFuture<List<Result<T>>> execute() {
+    return new Execution<>(this, null).start();
+  }
+
+  @Override
+  public Flow.Publisher<Result<T>> publisher() {
+    final AtomicBoolean subscribed = new AtomicBoolean();
+    return subscriber -> {
+      // buffer for all the results such that submit() never blocks
+      final SubmissionPublisher<Result<T>> publisher = new SubmissionPublisher<>(executor, Math.max(1, calls.size()));
+      if (!subscribed.compareAndSet(false, true)) {
+        publisher.subscribe(subscriber);
+        publisher.closeExceptionally(new IllegalStateException("Only a single subscriber is supported"));
+        return;
+      }
+      publisher.subscribe(subscriber);
+      new Execution<>(this, publisher::submit).start().whenComplete((results, e) -> publisher.close());
+    };
+  }
+
+  /**
+   * A single execution of the calls of the batch.
+   */
+  private static final class Execution<T> {
+
+    private final List<Supplier<CompletableFuture<T>>> calls;
+    private final int size;
+    private final int maxConcurrency;
+    private final Consumer<Result<T>> listener;
+    private final AtomicReferenceArray<BatchResult<T>> results;
+    private final AtomicReferenceArray<CompletableFuture<T>> inFlight;
+    private final AtomicInteger remaining;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final CompletableFuture<List<Result<T>>> done = new CompletableFuture<>();
+    private final Duration deadline;
+    private final Executor executor;
+    private volatile boolean expired;
+    private int next;
+
+    Execution(DHttpBatch<T> batch, Consumer<Result<T>> listener) {
+      this.calls = List.copyOf(batch.calls);
+      this.size = calls.size();
+      this.maxConcurrency = batch.maxConcurrency;
+      this.deadline = batch.deadline;
+      this.executor = batch.executor;
+      this.listener = listener;
+      this.results = new AtomicReferenceArray<>(size);
+      this.inFlight = new AtomicReferenceArray<>(size);
+      this.remaining = new AtomicInteger(size);
+    }
+
+    CompletableFuture<List<Result<T>>> start() {
+      if (size == 0) {
+        done.complete(List.of());
+        return done;
+      }
+      if (deadline != null) {
+        CompletableFuture.delayedExecutor(deadline.toNanos(), TimeUnit.NANOSECONDS, executor).execute(this::expire);
+      }
+      drain();
+      return done;
+    }
+
+    /**
+     * Start calls while there is capacity (calls that complete inline do not recurse).
+     */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      do {
+        while (next < size && active.get() < maxConcurrency && !expired) {
+          active.incrementAndGet();
+          startCall(next++);
+        }
+      } while (wip.decrementAndGet() != 0);
+    }
+
+    private void startCall(int index) {
+      CompletableFuture<T> future;
+      try {
+        future = calls.get(index).get();
+      } catch (RuntimeException e) {
+        future = CompletableFuture.failedFuture(e);
+      }
+      inFlight.set(index, future);
+      future.whenComplete((value, error) -> {
+        inFlight.set(index, null);
+        complete(index, value, error == null ? null : DHttpClientRequest.unwrapFutureError(error));
+        active.decrementAndGet();
+        drain();
+      });
+    }
+
+    private void complete(int index, T value, Throwable error) {
+      if (setResult(index, value, error)) {
+        completeOne();
+      }
+    }
+
+    /**
+     * Set the result returning false if already completed (by the deadline).
+     */
+    private boolean setResult(int index, T value, Throwable error) {
+      final BatchResult<T> result = new BatchResult<>(index, value, error);
+      if (!results.compareAndSet(index, null, result)) {
+        return false;
+      }
+      if (listener != null) {
+        listener.accept(result);
+      }
+      return true;
+    }
+
+    private void completeOne() {
+      if (remaining.decrementAndGet() == 0) {
+        final List<Result<T>> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          list.add(results.get(i));
+        }
+        done.complete(list);
+      }
+    }
+
+    private void expire() {
+      expired = true;
+      final TimeoutException timeout = new TimeoutException("Batch deadline of " + deadline + " exceeded");
+      for (int i = 0; i < size; i++) {
+        final CompletableFuture<T> future = inFlight.get(i);
+        if (setResult(i, null, timeout)) {
+          if (future != null) {
+            future.cancel(true);
+          }
+          completeOne();
+        }
+      }
+    }
+  }
+
+  private static final class BatchResult<T> implements Result<T> {
+
+    private final int index;
+    private final T value;
+    private final Throwable error;
+
+    BatchResult(int index, T value, Throwable error) {
+      this.index = index;
+      this.value = value;
+      this.error = error;
+    }
+
+    @Override
+    public int index() {
+      return index;
+    }
+
+    @Override
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    @Override
+    public T value() {
+      return value;
+    }
+
+    @Override
+    public Throwable error() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return error == null ? "Result[" + index + "] " + value : "Result[" + index + "] error " + error;
+    }
+  }
+}
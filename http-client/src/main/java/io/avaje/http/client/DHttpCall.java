@@ -5,6 +5,7 @@ import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 final class DHttpCall implements HttpCallResponse {
@@ -110,6 +111,36 @@ final class DHttpCall implements HttpCallResponse {
     return new CallStream<>(type);
   }
 
+  @Override
+  public <E> HttpCall<HttpResponse<E>> as(BodyReader<E> reader) {
+    return new CallReader<>(() -> request.as(reader), () -> request.async().as(reader));
+  }
+
+  @Override
+  public <E> HttpCall<HttpResponse<List<E>>> asList(BodyReader<List<E>> listReader) {
+    return new CallReader<>(() -> request.asList(listReader), () -> request.async().asList(listReader));
+  }
+
+  @Override
+  public <E> HttpCall<HttpResponse<Stream<E>>> asStream(BodyReader<E> reader) {
+    return new CallReader<>(() -> request.asStream(reader), () -> request.async().asStream(reader));
+  }
+
+  @Override
+  public <E> HttpCall<E> bean(BodyReader<E> reader) {
+    return new CallReader<>(() -> request.bean(reader), () -> request.async().bean(reader));
+  }
+
+  @Override
+  public <E> HttpCall<List<E>> list(BodyReader<List<E>> listReader) {
+    return new CallReader<>(() -> request.list(listReader), () -> request.async().list(listReader));
+  }
+
+  @Override
+  public <E> HttpCall<Stream<E>> stream(BodyReader<E> reader) {
+    return new CallReader<>(() -> request.stream(reader), () -> request.async().stream(reader));
+  }
+
   private class CallVoid implements HttpCall<HttpResponse<Void>> {
     @Override
     public HttpResponse<Void> execute() {
@@ -350,6 +381,26 @@ final class DHttpCall implements HttpCallResponse {
     }
   }
 
+  private static final class CallReader<E> implements HttpCall<E> {
+    private final Supplier<E> execute;
+    private final Supplier<CompletableFuture<E>> async;
+
+    CallReader(Supplier<E> execute, Supplier<CompletableFuture<E>> async) {
+      this.execute = execute;
+      this.async = async;
+    }
+
+    @Override
+    public E execute() {
+      return execute.get();
+    }
+
+    @Override
+    public CompletableFuture<E> async() {
+      return async.get();
+    }
+  }
+
   private class CallHandler<E> implements HttpCall<HttpResponse<E>> {
     private final HttpResponse.BodyHandler<E> handler;
 
@@ -7,13 +7,16 @@ import java.net.ProxySelector;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
@@ -28,6 +31,19 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
   private java.net.http.HttpClient client;
   private String baseUrl = "";
   private boolean requestLogging = true;
+  private boolean streamingRead;
+  private boolean acceptEncoding;
+  private CircuitBreakerConfig circuitBreaker;
+  private int bulkhead;
+  private RateLimiter rateLimiter;
+  private ResponseCacheConfig responseCache;
+  private boolean coalesce;
+  private boolean virtualThreads = true;
+  private Set<String> coalesceKeyHeaders;
+  private HedgePolicy hedgePolicy;
+  private DEndpoints endpoints;
+  private WarmUpConfig warmUp;
+  private HttpTransport transport;
   private Duration connectionTimeout = Duration.ofSeconds(20);
   private Duration requestTimeout = Duration.ofSeconds(20);
   private BodyAdapter bodyAdapter;
@@ -40,6 +56,7 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
   private java.net.http.HttpClient.Redirect redirect = java.net.http.HttpClient.Redirect.NORMAL;
   private java.net.http.HttpClient.Version version;
   private Executor executor;
+  private Executor completionExecutor;
   private ProxySelector proxy;
   private SSLContext sslContext;
   private SSLParameters sslParameters;
@@ -49,6 +66,7 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
   private final List<RequestIntercept> interceptors = new ArrayList<>();
   private final List<RequestObserver> observers = new ArrayList<>();
   private final List<RequestListener> listeners = new ArrayList<>();
+  private final List<ContentDecoder> contentDecoders = new ArrayList<>();
   private final Set<String> suppressed = new HashSet<>();
 
   private void configureRetryHandler(BeanScope beanScope) {
@@ -104,7 +122,7 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     }
     if (executor != null) {
       builder.executor(executor);
-    } else if (Runtime.version().feature() >= 21) {
+    } else if (virtualThreads()) {
       builder.executor(JDK21Functions.getExecutor());
     }
     if (proxy != null) {
@@ -172,7 +190,7 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     if (bodyAdapter == null) {
       bodyAdapter = defaultBodyAdapter();
     }
-    return new DHttpClientContext(
+    final var context = new DHttpClientContext(
       httpClient,
       baseUrl,
       requestTimeout,
@@ -183,7 +201,26 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
       buildObserver(),
       authTokenProvider,
       backgroundRefreshDuration,
-      interceptors);
+      interceptors,
+      buildSettings(httpClient));
+    if (warmUp != null) {
+      DWarmUp.warmUp(context, warmUp);
+    }
+    return context;
+  }
+
+  private DClientSettings buildSettings(java.net.http.HttpClient httpClient) {
+    return new DClientSettings()
+      .contentDecoders(DContentDecoders.load(contentDecoders, acceptEncoding))
+      .streamingRead(streamingRead)
+      .isolation(new DIsolation(circuitBreaker, bulkhead))
+      .completionExecutor(completionExecutor(httpClient))
+      .responseCache(responseCache == null ? null : new DResponseCache(responseCache))
+      .coalescer(new DCoalescer(coalesce, coalesceKeyHeaders))
+      .hedgePolicy(hedgePolicy)
+      .endpoints(endpoints)
+      .transport(transport)
+      .rateLimiter(rateLimiter);
   }
 
   DHttpClientBuilder() {}
@@ -194,12 +231,34 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     return this;
   }
 
+  @Override
+  public HttpClient.Builder transport(HttpTransport transport) {
+    this.transport = transport;
+    return this;
+  }
+
   @Override
   public HttpClient.Builder baseUrl(String baseUrl) {
     this.baseUrl = baseUrl;
     return this;
   }
 
+  @Override
+  public HttpClient.Builder baseUrls(String... baseUrls) {
+    return baseUrls(DEndpoints.of(Arrays.asList(baseUrls)));
+  }
+
+  @Override
+  public HttpClient.Builder baseUrls(Supplier<List<String>> baseUrls) {
+    return baseUrls(DEndpoints.of(baseUrls));
+  }
+
+  private HttpClient.Builder baseUrls(DEndpoints endpoints) {
+    this.endpoints = endpoints;
+    this.baseUrl = endpoints.baseUrl();
+    return this;
+  }
+
   @Override
   public HttpClient.Builder connectionTimeout(Duration connectionTimeout) {
     this.connectionTimeout = connectionTimeout;
@@ -236,6 +295,63 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     return this;
   }
 
+  @Override
+  public HttpClient.Builder streamingRead(boolean streamingRead) {
+    this.streamingRead = streamingRead;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder circuitBreaker(CircuitBreakerConfig circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder bulkhead(int maxConcurrentRequests) {
+    this.bulkhead = maxConcurrentRequests;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder rateLimiter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder responseCache(ResponseCacheConfig responseCache) {
+    this.responseCache = responseCache;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder hedge(HedgePolicy hedgePolicy) {
+    this.hedgePolicy = hedgePolicy;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder warmUp(WarmUpConfig warmUp) {
+    this.warmUp = warmUp;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder coalesce(boolean coalesce) {
+    this.coalesce = coalesce;
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder coalesceKeyHeaders(String... headerNames) {
+    this.coalesceKeyHeaders = new HashSet<>();
+    for (String headerName : headerNames) {
+      coalesceKeyHeaders.add(headerName.toLowerCase(Locale.ROOT));
+    }
+    return this;
+  }
+
   @Override
   public HttpClient.Builder requestListener(RequestListener... requestListener) {
     Collections.addAll(listeners, requestListener);
@@ -266,6 +382,18 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     return this;
   }
 
+  @Override
+  public HttpClient.Builder contentDecoder(ContentDecoder contentDecoder) {
+    this.contentDecoders.add(contentDecoder);
+    return this;
+  }
+
+  @Override
+  public HttpClient.Builder acceptEncoding(boolean acceptEncoding) {
+    this.acceptEncoding = acceptEncoding;
+    return this;
+  }
+
   @Override
   public HttpClient.Builder cookieHandler(CookieHandler cookieHandler) {
     this.cookieHandler = cookieHandler;
@@ -290,6 +418,33 @@ final class DHttpClientBuilder implements HttpClient.Builder, HttpClient.Builder
     return this;
   }
 
+  @Override
+  public HttpClient.Builder virtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  private boolean virtualThreads() {
+    return virtualThreads && Runtime.version().feature() >= 21;
+  }
+
+  /**
+   * Return the executor for async completion, virtual threads rather than the common
+   * pool when a supplied client has no executor.
+   */
+  private Executor completionExecutor(java.net.http.HttpClient httpClient) {
+    if (completionExecutor == null && virtualThreads() && httpClient.executor().isEmpty()) {
+      return JDK21Functions.getExecutor();
+    }
+    return completionExecutor;
+  }
+
+  @Override
+  public HttpClient.Builder completionExecutor(Executor completionExecutor) {
+    this.completionExecutor = completionExecutor;
+    return this;
+  }
+
   @Override
   public HttpClient.Builder proxy(ProxySelector proxySelector) {
     this.proxy = proxySelector;
@@ -2,16 +2,27 @@ package io.avaje.http.client;
 
 import io.avaje.applog.AppLog;
 
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAccumulator;
 import java.util.concurrent.atomic.LongAdder;
@@ -34,11 +45,12 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
   private final BodyAdapter bodyAdapter;
   private final RequestListener requestListener;
   private final RequestObserver requestObserver;
-  private final List<RequestIntercept> requestIntercept;
+  private final InterceptorChain interceptorChain;
   private final RetryHandler retryHandler;
   private final boolean withAuthToken;
   private final AuthTokenProvider authTokenProvider;
   private final AtomicReference<AuthToken> tokenRef = new AtomicReference<>();
+  private final AtomicReference<CompletableFuture<AuthToken>> tokenRefresh = new AtomicReference<>();
   private final AtomicReference<Instant> backgroundRefreshLease = new AtomicReference<>();
   private final Duration backgroundRefreshDuration;
 
@@ -47,7 +59,25 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
   private final LongAdder metricResBytes = new LongAdder();
   private final LongAdder metricResMicros = new LongAdder();
   private final LongAccumulator metricResMaxMicros = new LongAccumulator(Math::max, 0);
+  private final LongAdder metricTokenRefresh = new LongAdder();
+  private final LongAdder metricTokenRefreshError = new LongAdder();
+  private final LongAdder metricTokenRefreshMicros = new LongAdder();
+  private final LongAdder metricWarmUp = new LongAdder();
+  private final LongAdder metricWarmUpError = new LongAdder();
+  private final LongAdder metricWarmUpMicros = new LongAdder();
+  private final DLatencyHistograms latency = new DLatencyHistograms();
   private final Function<HttpException, RuntimeException> errorHandler;
+  private final DContentDecoders contentDecoders;
+  private final boolean streamingRead;
+  private final DIsolation isolation;
+  private final Executor completionExecutor;
+  private final Executor asyncExecutor;
+  private final DResponseCache responseCache;
+  private final DCoalescer coalescer;
+  private final HedgePolicy hedgePolicy;
+  private final DEndpoints endpoints;
+  private final HttpTransport transport;
+  private final RateLimiter rateLimiter;
 
   private boolean closed;
 
@@ -62,7 +92,8 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
       RequestObserver requestObserver,
       AuthTokenProvider authTokenProvider,
       Duration backgroundRefreshDuration,
-      List<RequestIntercept> list) {
+      List<RequestIntercept> list,
+      DClientSettings settings) {
     this.httpClient = httpClient;
     this.baseUrl = baseUrl;
     this.requestTimeout = requestTimeout;
@@ -74,7 +105,22 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     this.authTokenProvider = authTokenProvider;
     this.backgroundRefreshDuration = backgroundRefreshDuration;
     this.withAuthToken = authTokenProvider != null;
-    this.requestIntercept = list;
+    this.interceptorChain = new InterceptorChain(list);
+    this.contentDecoders = settings.contentDecoders() == null ? DContentDecoders.DEFAULT : settings.contentDecoders();
+    this.streamingRead = settings.streamingRead();
+    this.isolation = settings.isolation() == null ? new DIsolation(null, 0) : settings.isolation();
+    this.completionExecutor = settings.completionExecutor();
+    this.asyncExecutor = completionExecutor != null ? completionExecutor : defaultExecutor(httpClient);
+    this.responseCache = settings.responseCache();
+    this.coalescer = settings.coalescer() == null ? new DCoalescer(false, null) : settings.coalescer();
+    this.hedgePolicy = settings.hedgePolicy();
+    this.endpoints = settings.endpoints();
+    this.transport = settings.transport() == null ? new DJdkTransport(httpClient) : settings.transport();
+    this.rateLimiter = settings.rateLimiter();
+  }
+
+  private static Executor defaultExecutor(java.net.http.HttpClient httpClient) {
+    return httpClient == null ? ForkJoinPool.commonPool() : httpClient.executor().orElse(ForkJoinPool.commonPool());
   }
 
   @Override
@@ -87,6 +133,11 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return DHttpApi.get(clientInterface, this, classLoader);
   }
 
+  @Override
+  public <T> HttpBatch<T> batch() {
+    return new DHttpBatch<>(asyncExecutor);
+  }
+
   @Override
   public HttpClientRequest request() {
     if (closed) {
@@ -104,7 +155,7 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
 
   @Override
   public UrlBuilder url() {
-    return UrlBuilder.of(baseUrl);
+    return UrlBuilder.of(endpoints == null ? baseUrl : endpoints.select().baseUrl());
   }
 
   public Function<HttpException, RuntimeException> errorMapper() {
@@ -116,6 +167,10 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return httpClient;
   }
 
+  HttpTransport transport() {
+    return transport;
+  }
+
   @Override
   public HttpClient.Metrics metrics() {
     return metrics(false);
@@ -123,24 +178,89 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
 
   @Override
   public HttpClient.Metrics metrics(boolean reset) {
+    final var metrics = new DMetrics(this, reset);
     if (reset) {
-      return new DMetrics(metricResTotal.sumThenReset(), metricResError.sumThenReset(), metricResBytes.sumThenReset(), metricResMicros.sumThenReset(), metricResMaxMicros.getThenReset());
+      requestObserver.onMetrics(metrics);
     }
-    return new DMetrics(metricResTotal.sum(), metricResError.sum(), metricResBytes.sum(), metricResMicros.sum(), metricResMaxMicros.get());
+    return metrics;
   }
 
-  List<RequestIntercept> interceptors() {
-    return requestIntercept;
+  InterceptorChain interceptors() {
+    return interceptorChain;
   }
 
   RequestObserver requestObserver() {
     return requestObserver;
   }
 
+  DIsolation isolation() {
+    return isolation;
+  }
+
+  /**
+   * Return the response cache (null when not enabled).
+   */
+  DResponseCache responseCache() {
+    return responseCache;
+  }
+
+  DCoalescer coalescer() {
+    return coalescer;
+  }
+
+  /**
+   * Return the hedge policy for GET and HEAD requests (null when not set).
+   */
+  HedgePolicy hedgePolicy() {
+    return hedgePolicy;
+  }
+
+  String baseUrl() {
+    return baseUrl;
+  }
+
+  DEndpoints endpoints() {
+    return endpoints;
+  }
+
+  /**
+   * Return the client rate limiter (or null when not rate limited).
+   */
+  RateLimiter rateLimiter() {
+    return rateLimiter;
+  }
+
+  /**
+   * Return the percentile response time in micros for the request key or -1 if unknown.
+   */
+  long latencyPercentile(String key, double percentile) {
+    return latency.percentile(key, percentile, HedgePolicy.MIN_SAMPLES);
+  }
+
+  /**
+   * Return the executor for async work such as delayed retries (never null).
+   */
+  Executor asyncExecutor() {
+    return asyncExecutor;
+  }
+
+  /**
+   * Return the future completing on the completion executor if one is configured.
+   */
+  <T> CompletableFuture<T> completeAsync(CompletableFuture<T> future) {
+    return completionExecutor == null ? future : future.whenCompleteAsync((result, error) -> { }, completionExecutor);
+  }
+
   void metricsString(int stringBody) {
     metricResBytes.add(stringBody);
   }
 
+  void metricsWarmUp(int count, int errors, long micros) {
+    metricWarmUp.add(count);
+    metricWarmUpError.add(errors);
+    metricWarmUpMicros.add(micros);
+  }
+
   static final class DMetrics implements HttpClient.Metrics {
 
     private final long totalCount;
@@ -148,18 +268,49 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     private final long responseBytes;
     private final long totalMicros;
     private final long maxMicros;
+    private final long tokenRefreshCount;
+    private final long tokenRefreshErrorCount;
+    private final long tokenRefreshMicros;
+    private final Map<String, HttpClient.Latency> latency;
+    private final long cacheHitCount;
+    private final long cacheMissCount;
+    private final long cacheRevalidatedCount;
+    private final long warmUpCount;
+    private final long warmUpErrorCount;
+    private final long warmUpMicros;
+
+    /**
+     * Read the metrics of the client resetting them if requested.
+     */
+    DMetrics(DHttpClientContext context, boolean reset) {
+      this.totalCount = sum(context.metricResTotal, reset);
+      this.errorCount = sum(context.metricResError, reset);
+      this.responseBytes = sum(context.metricResBytes, reset);
+      this.totalMicros = sum(context.metricResMicros, reset);
+      this.maxMicros = reset ? context.metricResMaxMicros.getThenReset() : context.metricResMaxMicros.get();
+      this.tokenRefreshCount = sum(context.metricTokenRefresh, reset);
+      this.tokenRefreshErrorCount = sum(context.metricTokenRefreshError, reset);
+      this.tokenRefreshMicros = sum(context.metricTokenRefreshMicros, reset);
+      this.latency = context.latency.snapshot(reset);
+      final DResponseCache cache = context.responseCache;
+      this.cacheHitCount = cache == null ? 0 : cache.hitCount(reset);
+      this.cacheMissCount = cache == null ? 0 : cache.missCount(reset);
+      this.cacheRevalidatedCount = cache == null ? 0 : cache.revalidatedCount(reset);
+      this.warmUpCount = sum(context.metricWarmUp, reset);
+      this.warmUpErrorCount = sum(context.metricWarmUpError, reset);
+      this.warmUpMicros = sum(context.metricWarmUpMicros, reset);
+    }
 
-    DMetrics(long totalCount, long errorCount, long responseBytes, long totalMicros, long maxMicros) {
-      this.totalCount = totalCount;
-      this.errorCount = errorCount;
-      this.responseBytes = responseBytes;
-      this.totalMicros = totalMicros;
-      this.maxMicros = maxMicros;
+    private static long sum(LongAdder adder, boolean reset) {
+      return reset ? adder.sumThenReset() : adder.sum();
     }
 
     @Override
     public String toString() {
-      return "totalCount:" + totalCount + " errorCount:" + errorCount + " responseBytes:" + responseBytes + " totalMicros:" + totalMicros + " avgMicros:" + avgMicros()+ " maxMicros:" + maxMicros;
+      return "totalCount:" + totalCount + " errorCount:" + errorCount + " responseBytes:" + responseBytes + " totalMicros:" + totalMicros + " avgMicros:" + avgMicros()+ " maxMicros:" + maxMicros
+        + " tokenRefreshCount:" + tokenRefreshCount + " tokenRefreshErrorCount:" + tokenRefreshErrorCount + " tokenRefreshMicros:" + tokenRefreshMicros
+        + " cacheHitCount:" + cacheHitCount + " cacheMissCount:" + cacheMissCount + " cacheRevalidatedCount:" + cacheRevalidatedCount
+        + " warmUpCount:" + warmUpCount + " warmUpErrorCount:" + warmUpErrorCount + " warmUpMicros:" + warmUpMicros;
     }
 
     @Override
@@ -191,6 +342,56 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     public long avgMicros() {
       return totalCount == 0 ? 0 : totalMicros / totalCount;
     }
+
+    @Override
+    public long tokenRefreshCount() {
+      return tokenRefreshCount;
+    }
+
+    @Override
+    public long tokenRefreshErrorCount() {
+      return tokenRefreshErrorCount;
+    }
+
+    @Override
+    public long tokenRefreshMicros() {
+      return tokenRefreshMicros;
+    }
+
+    @Override
+    public Map<String, HttpClient.Latency> latency() {
+      return latency;
+    }
+
+    @Override
+    public long cacheHitCount() {
+      return cacheHitCount;
+    }
+
+    @Override
+    public long cacheMissCount() {
+      return cacheMissCount;
+    }
+
+    @Override
+    public long cacheRevalidatedCount() {
+      return cacheRevalidatedCount;
+    }
+
+    @Override
+    public long warmUpCount() {
+      return warmUpCount;
+    }
+
+    @Override
+    public long warmUpErrorCount() {
+      return warmUpErrorCount;
+    }
+
+    @Override
+    public long warmUpMicros() {
+      return warmUpMicros;
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -235,11 +436,27 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
 
   @Override
   public byte[] decodeContent(String encoding, byte[] body) {
-    if ("gzip".equals(encoding)) {
-      return GzipUtil.gzipDecode(body);
-    }
-    // todo: register decoders with context and use them
-    return body;
+    final ContentDecoder decoder = contentDecoders.decoder(encoding);
+    return decoder == null ? body : decoder.decode(body);
+  }
+
+  /**
+   * Return true if bean and list responses are read from the InputStream by default.
+   */
+  boolean streamingRead() {
+    return streamingRead;
+  }
+
+  /**
+   * Return the Accept-Encoding header value based on the registered content decoders
+   * or null when Accept-Encoding negotiation is not enabled.
+   */
+  String acceptEncoding() {
+    return contentDecoders.acceptEncoding();
+  }
+
+  private ContentDecoder contentDecoder(HttpHeaders headers) {
+    return contentDecoders.decoder(firstHeader(headers, "Content-Encoding", "content-encoding"));
   }
 
   @Override
@@ -248,6 +465,119 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return encoding == null ? httpResponse.body() : decodeContent(encoding, httpResponse.body());
   }
 
+  /**
+   * Return a BodyHandler that provides the response content as an InputStream that decodes
+   * the content (given the <code>Content-Encoding</code>) as it is read.
+   */
+  HttpResponse.BodyHandler<InputStream> inputStreamHandler() {
+    return responseInfo -> {
+      final ContentDecoder decoder = contentDecoder(responseInfo.headers());
+      if (decoder != null) {
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), content -> DContentDecoders.decode(decoder, content));
+      }
+      return HttpResponse.BodySubscribers.ofInputStream();
+    };
+  }
+
+  /**
+   * Return a BodyHandler for streaming read that decodes the content as it is read and adds
+   * the (encoded) bytes read to the response bytes metric.
+   */
+  HttpResponse.BodyHandler<InputStream> streamingReadHandler() {
+    return responseInfo -> {
+      final ContentDecoder decoder = contentDecoder(responseInfo.headers());
+      return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), content -> {
+        final InputStream counting = new MetricInputStream(content, metricResBytes);
+        return decoder == null ? counting : DContentDecoders.decode(decoder, counting);
+      });
+    };
+  }
+
+  /**
+   * Return a BodyHandler that provides the response content as lines taking into account content encoding.
+   */
+  HttpResponse.BodyHandler<Stream<String>> linesHandler() {
+    return responseInfo -> {
+      final ContentDecoder decoder = contentDecoder(responseInfo.headers());
+      if (decoder != null) {
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), content -> lines(DContentDecoders.decode(decoder, content)));
+      }
+      return HttpResponse.BodyHandlers.ofLines().apply(responseInfo);
+    };
+  }
+
+  /**
+   * Return a BodyHandler that provides the response content as a String taking into account content encoding.
+   */
+  HttpResponse.BodyHandler<String> stringHandler() {
+    return responseInfo -> {
+      final ContentDecoder decoder = contentDecoder(responseInfo.headers());
+      if (decoder != null) {
+        final Charset charset = charset(firstHeader(responseInfo.headers(), "Content-Type", "content-type"));
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), content -> new String(decoder.decode(content), charset));
+      }
+      return HttpResponse.BodyHandlers.ofString().apply(responseInfo);
+    };
+  }
+
+  private static Charset charset(String contentType) {
+    if (contentType != null) {
+      final int pos = contentType.toLowerCase().indexOf("charset=");
+      if (pos > -1) {
+        final int end = contentType.indexOf(';', pos);
+        final String name = contentType.substring(pos + 8, end == -1 ? contentType.length() : end).trim().replace("\"", "");
+        try {
+          return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+          // fall through to the default
+        }
+      }
+    }
+    return StandardCharsets.UTF_8;
+  }
+
+  /**
+   * Adds the bytes read to the response bytes metric.
+   */
+  private static final class MetricInputStream extends FilterInputStream {
+
+    private final LongAdder bytes;
+
+    MetricInputStream(InputStream in, LongAdder bytes) {
+      super(in);
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        bytes.increment();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int count = super.read(b, off, len);
+      if (count > 0) {
+        bytes.add(count);
+      }
+      return count;
+    }
+  }
+
+  private static Stream<String> lines(InputStream content) {
+    final var reader = new BufferedReader(new InputStreamReader(content, StandardCharsets.UTF_8));
+    return reader.lines().onClose(() -> {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
   String firstHeader(HttpHeaders headers, String... names) {
     final Map<String, List<String>> map = headers.map();
     for (final String key : names) {
@@ -261,7 +591,7 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
 
   <T> HttpResponse<T> send(HttpRequest.Builder requestBuilder, HttpResponse.BodyHandler<T> bodyHandler) {
     try {
-      return httpClient.send(requestBuilder.build(), bodyHandler);
+      return transport.send(requestBuilder.build(), bodyHandler);
     } catch (final InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new HttpException(499, e);
@@ -272,8 +602,20 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
 
   <T> CompletableFuture<HttpResponse<T>> sendAsync(
       HttpRequest.Builder requestBuilder, HttpResponse.BodyHandler<T> bodyHandler) {
-    return httpClient
-        .sendAsync(requestBuilder.build(), bodyHandler)
+    return sendAsync(requestBuilder, bodyHandler, null);
+  }
+
+  /**
+   * Send async registering the in-flight exchange with the hedged request (if not null)
+   * such that it can be cancelled.
+   */
+  <T> CompletableFuture<HttpResponse<T>> sendAsync(
+      HttpRequest.Builder requestBuilder, HttpResponse.BodyHandler<T> bodyHandler, DHedgedExchange<?> hedged) {
+    final CompletableFuture<HttpResponse<T>> exchange = transport.sendAsync(requestBuilder.build(), bodyHandler);
+    if (hedged != null) {
+      hedged.register(exchange);
+    }
+    return exchange
         .handle(
             (r, e) -> {
               if (e != null) {
@@ -298,10 +640,26 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return bodyAdapter.beanReader(type);
   }
 
+  @SuppressWarnings("unchecked")
   <T> BodyReader<T> beanReader(Type type) {
+    if (type instanceof Class) {
+      return bodyAdapter.beanReader((Class<T>) type);
+    }
     return bodyAdapter.beanReader(type);
   }
 
+  <T> BodyReader<List<T>> listReader(Class<T> type) {
+    return bodyAdapter.listReader(type);
+  }
+
+  @SuppressWarnings("unchecked")
+  <T> BodyReader<List<T>> listReader(Type type) {
+    if (type instanceof Class) {
+      return bodyAdapter.listReader((Class<T>) type);
+    }
+    return bodyAdapter.listReader(type);
+  }
+
   <T> T readBean(Class<T> type, BodyContent content) {
     if (content.isEmpty()) {
       return null;
@@ -316,27 +674,42 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return bodyAdapter.listReader(type).read(content);
   }
 
-  @SuppressWarnings("unchecked")
   <T> T readBean(Type type, BodyContent content) {
     if (content.isEmpty()) {
       return null;
     }
-    return (T) bodyAdapter.beanReader(type).read(content);
+    return this.<T>beanReader(type).read(content);
   }
 
-  @SuppressWarnings("unchecked")
   <T> List<T> readList(Type type, BodyContent content) {
     if (content.isEmpty()) {
       return Collections.emptyList();
     }
-    return (List<T>) bodyAdapter.listReader(type).read(content);
+    return this.<T>listReader(type).read(content);
+  }
+
+  <T> T readBean(BodyReader<T> reader, BodyContent content) {
+    if (content.isEmpty()) {
+      return null;
+    }
+    return reader.read(content);
+  }
+
+  <T> List<T> readList(BodyReader<List<T>> listReader, BodyContent content) {
+    if (content.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return listReader.read(content);
   }
 
   void afterResponse(DHttpClientRequest request) {
     metricResTotal.add(1);
     metricResMicros.add(request.responseTimeMicros());
     metricResMaxMicros.accumulate(request.responseTimeMicros());
-    if (request.response().statusCode() >= 300) {
+    latency.record(request.isolationKey(), request.responseTimeMicros());
+    final int statusCode = request.response().statusCode();
+    // a 304 Not Modified response to a conditional request is not an error
+    if (statusCode >= 300 && statusCode != 304) {
       metricResError.add(1);
     }
     if (requestListener != null) {
@@ -353,11 +726,11 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
   private String authToken() {
     final AuthToken authToken = tokenRef.get();
     if (authToken == null) {
-      return obtainNewAuthToken();
+      return awaitNewAuthToken();
     }
     final Duration expiration = authToken.expiration();
     if (expiration.isNegative()) {
-      return obtainNewAuthToken();
+      return awaitNewAuthToken();
     }
     if (backgroundRefreshDuration != null && expiration.compareTo(backgroundRefreshDuration) < 0) {
       backgroundTokenRequest();
@@ -365,38 +738,96 @@ final class DHttpClientContext implements HttpClient, SpiHttpClient {
     return authToken.token();
   }
 
-  private String obtainNewAuthToken() {
-    final AuthToken authToken = authTokenProvider.obtainToken(request().skipAuthToken());
-    tokenRef.set(authToken);
-    return authToken.token();
+  /**
+   * Wait for a new token with concurrent callers sharing the single in-flight refresh.
+   */
+  private String awaitNewAuthToken() {
+    try {
+      return tokenRefresh(false).join().token();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
   }
 
-  private void backgroundTokenRequest() {
-    final Instant lease = backgroundRefreshLease.get();
-    if (lease != null && Instant.now().isBefore(lease)) {
-      // a refresh is already in progress
-      return;
+  /**
+   * Return the in-flight token refresh, or else start one.
+   * <p>
+   * Only the caller that registers the refresh obtains the token (either inline or in the
+   * background) and all other callers share the same future.
+   */
+  private CompletableFuture<AuthToken> tokenRefresh(boolean background) {
+    while (true) {
+      final CompletableFuture<AuthToken> inFlight = tokenRefresh.get();
+      if (inFlight != null) {
+        return inFlight;
+      }
+      final AuthToken current = tokenRef.get();
+      if (current != null && !requiresRefresh(current, background)) {
+        // a refresh completed since the caller read the token
+        return CompletableFuture.completedFuture(current);
+      }
+      final var refresh = new CompletableFuture<AuthToken>();
+      if (tokenRefresh.compareAndSet(null, refresh)) {
+        if (background) {
+          BGInvoke.invoke(() -> obtainNewAuthToken(refresh));
+        } else {
+          obtainNewAuthToken(refresh);
+        }
+        return refresh;
+      }
     }
-    // other requests should not trigger a refresh for the next 10 seconds
-    backgroundRefreshLease.set(Instant.now().plusMillis(10_000));
-    BGInvoke.invoke(this::backgroundNewTokenTask);
   }
 
-  private void backgroundNewTokenTask() {
+  private boolean requiresRefresh(AuthToken authToken, boolean background) {
+    final Duration expiration = authToken.expiration();
+    if (expiration.isNegative()) {
+      return true;
+    }
+    return background && backgroundRefreshDuration != null && expiration.compareTo(backgroundRefreshDuration) < 0;
+  }
+
+  private void obtainNewAuthToken(CompletableFuture<AuthToken> refresh) {
+    final long startNanos = System.nanoTime();
     try {
-      obtainNewAuthToken();
-    } catch (Exception e) {
-      log.log(WARNING, "Error refreshing AuthToken in background", e);
+      final AuthToken authToken = authTokenProvider.obtainToken(request().skipAuthToken());
+      tokenRef.set(authToken);
+      tokenRefresh.compareAndSet(refresh, null);
+      refresh.complete(authToken);
+    } catch (Throwable e) {
+      metricTokenRefreshError.increment();
+      tokenRefresh.compareAndSet(refresh, null);
+      refresh.completeExceptionally(e);
+    } finally {
+      metricTokenRefresh.increment();
+      metricTokenRefreshMicros.add((System.nanoTime() - startNanos) / 1000);
     }
   }
 
-  String maxResponseBody(String body) {
-    return body.length() > 1_000 ? body.substring(0, 1_000) + " <truncated> ..." : body;
+  private void backgroundTokenRequest() {
+    final Instant lease = backgroundRefreshLease.get();
+    if (lease != null && Instant.now().isBefore(lease)) {
+      // a refresh is already in progress or recently failed
+      return;
+    }
+    // other requests should not trigger a refresh for the next 10 seconds
+    backgroundRefreshLease.set(Instant.now().plusMillis(10_000));
+    tokenRefresh(true).whenComplete((token, e) -> {
+      if (e != null) {
+        log.log(WARNING, "Error refreshing AuthToken in background", e);
+      }
+    });
   }
 
   @Override
   public void close() {
     this.closed = true;
-    JDK21Functions.closeClient(httpClient);
+    transport.close();
   }
 }
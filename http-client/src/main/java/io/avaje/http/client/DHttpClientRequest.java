@@ -2,7 +2,10 @@ package io.avaje.http.client;
 
 import javax.net.ssl.SSLSession;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URLEncoder;
@@ -11,12 +14,14 @@ import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -28,6 +33,10 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
 
   private static final String CONTENT_TYPE = "Content-Type";
   private static final String CONTENT_ENCODING = "Content-Encoding";
+  private static final String ACCEPT = "Accept";
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
+  private static final String IF_NONE_MATCH = "If-None-Match";
+  private static final String IF_MODIFIED_SINCE = "If-Modified-Since";
   private static final String VERB_GET = "GET";
   private static final String VERB_POST = "POST";
   private static final String VERB_PUT = "PUT";
@@ -36,14 +45,28 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   private static final String VERB_PATCH = "PATCH";
   private static final String VERB_TRACE = "TRACE";
   private static final String VERB_QUERY = "QUERY";
+  private static final int MAX_RESPONSE_BODY = 1_000;
 
   private final DHttpClientContext context;
   private final UrlBuilder url;
   private Duration requestTimeout;
   private boolean gzip;
+  private boolean streamingRead;
+  private CircuitBreakerConfig circuitBreaker;
+  private int maxConcurrent;
+  private RateLimiter rateLimiter;
+  private boolean coalesce;
+  private boolean sharedContent;
+  private HedgePolicy hedgePolicy;
+  private DEndpoints.Endpoint endpoint;
+  private boolean endpointChecked;
+  private UrlTemplate urlTemplate;
+  private String isolationKey;
 
   private BodyContent encodedRequestBody;
   private HttpRequest.BodyPublisher body;
+  private Supplier<? extends InputStream> bodyStream;
+  private OutputStreamBodyWriter bodyWriter;
 
   private HttpRequest.Builder httpRequest;
 
@@ -56,6 +79,7 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   private HttpResponse<?> httpResponse;
   private BodyContent encodedResponseBody;
   private boolean loggableResponseBody;
+  private boolean acceptEncoding;
   private boolean skipAuthToken;
   private boolean suppressLogging;
   private long startAsyncNanos;
@@ -71,8 +95,13 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   DHttpClientRequest(DHttpClientContext context, Duration requestTimeout) {
     this.context = context;
     this.requestTimeout = requestTimeout;
-    this.url = context.url();
+    final DEndpoints endpoints = context.endpoints();
+    this.endpoint = endpoints == null ? null : endpoints.select();
+    this.url = endpoint == null ? context.url() : UrlBuilder.of(endpoint.baseUrl());
     this.errorMapper = context.errorMapper();
+    this.streamingRead = context.streamingRead();
+    this.coalesce = context.coalescer().coalesce();
+    this.hedgePolicy = context.hedgePolicy();
   }
 
   private DHttpClientRequest(DHttpClientRequest source) {
@@ -80,11 +109,23 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     this.url = source.url.clone();
     this.requestTimeout = source.requestTimeout;
     this.gzip = source.gzip;
+    this.streamingRead = source.streamingRead;
+    this.circuitBreaker = source.circuitBreaker;
+    this.maxConcurrent = source.maxConcurrent;
+    this.rateLimiter = source.rateLimiter;
+    this.coalesce = source.coalesce;
+    this.hedgePolicy = source.hedgePolicy;
+    this.endpoint = source.endpoint;
+    this.endpointChecked = source.endpointChecked;
+    this.urlTemplate = source.urlTemplate;
     this.encodedRequestBody = source.encodedRequestBody;
     this.body = source.body;
+    this.bodyStream = source.bodyStream;
+    this.bodyWriter = source.bodyWriter;
     this.httpRequest = source.httpRequest;
     this.bodyFormEncoded = source.bodyFormEncoded;
     this.loggableResponseBody = source.loggableResponseBody;
+    this.acceptEncoding = source.acceptEncoding;
     this.skipAuthToken = source.skipAuthToken;
     this.suppressLogging = source.suppressLogging;
     this.label = source.label;
@@ -105,6 +146,10 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     }
   }
 
+  DHttpClientContext context() {
+    return context;
+  }
+
   @Override
   public HttpClientRequest clone() {
     return new DHttpClientRequest(this);
@@ -149,6 +194,11 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return label;
   }
 
+  @Override
+  public UrlTemplate urlTemplate() {
+    return urlTemplate;
+  }
+
   @Override
   public HttpClientRequest setAttribute(String key, Object value) {
     if (customAttributes == null) {
@@ -243,6 +293,77 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return this;
   }
 
+  @Override
+  public HttpClientRequest streamingRead(boolean streamingRead) {
+    this.streamingRead = streamingRead;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest circuitBreaker(CircuitBreakerConfig circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest bulkhead(int maxConcurrentRequests) {
+    this.maxConcurrent = maxConcurrentRequests;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest rateLimiter(RateLimiter rateLimiter) {
+    this.rateLimiter = rateLimiter;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest hedge(HedgePolicy hedgePolicy) {
+    this.hedgePolicy = hedgePolicy;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest coalesce(boolean coalesce) {
+    this.coalesce = coalesce;
+    return this;
+  }
+
+  CircuitBreakerConfig circuitBreaker() {
+    return circuitBreaker;
+  }
+
+  int maxConcurrent() {
+    return maxConcurrent;
+  }
+
+  /**
+   * Return the key for circuit breaker, bulkhead and latency metrics being the label, url template path
+   * or otherwise the scheme and host of the url.
+   */
+  String isolationKey() {
+    if (label != null) {
+      return label;
+    }
+    if (urlTemplate != null && urlTemplate.parameterCount() > 0) {
+      // literal only templates keep the host key as for literal paths
+      return urlTemplate.path();
+    }
+    if (isolationKey == null) {
+      isolationKey = hostKey(url.build());
+    }
+    return isolationKey;
+  }
+
+  private static String hostKey(String fullUrl) {
+    final int hostStart = fullUrl.indexOf("://");
+    int end = hostStart + 3;
+    while (hostStart > -1 && end < fullUrl.length() && fullUrl.charAt(end) != '/' && fullUrl.charAt(end) != '?') {
+      end++;
+    }
+    return hostStart == -1 ? fullUrl : fullUrl.substring(0, end);
+  }
+
   @Override
   public HttpClientRequest url(String baseUrl) {
     url.url(baseUrl);
@@ -273,6 +394,34 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return this;
   }
 
+  @Override
+  public HttpClientRequest path(UrlTemplate template) {
+    url.path(template);
+    urlTemplate = template;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest path(UrlTemplate template, Object value) {
+    url.path(template, value);
+    urlTemplate = template;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest path(UrlTemplate template, Object value0, Object value1) {
+    url.path(template, value0, value1);
+    urlTemplate = template;
+    return this;
+  }
+
+  @Override
+  public HttpClientRequest path(UrlTemplate template, Object... values) {
+    url.path(template, values);
+    urlTemplate = template;
+    return this;
+  }
+
   @Override
   public HttpClientRequest matrixParam(String name, String value) {
     url.matrixParam(name, value);
@@ -357,6 +506,24 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return this;
   }
 
+  @Override
+  public HttpClientRequest body(Object bean, Type type, String contentType) {
+    encodedRequestBody = context.write(bean, type, contentType);
+    return this;
+  }
+
+  @Override
+  public <T> HttpClientRequest body(T bean, BodyWriter<T> writer) {
+    encodedRequestBody = writer.write(bean, null);
+    return this;
+  }
+
+  @Override
+  public <T> HttpClientRequest body(T bean, BodyWriter<T> writer, String contentType) {
+    encodedRequestBody = writer.write(bean, contentType);
+    return this;
+  }
+
   @Override
   public HttpClientRequest body(Object bean, Class<?> type, String contentType) {
     encodedRequestBody = context.write(bean, type, contentType);
@@ -366,7 +533,8 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   @Override
   public HttpClientRequest body(String body) {
     this.encodedRequestBody = BodyContent.of(body);
-    this.body = HttpRequest.BodyPublishers.ofString(body);
+    this.body = null;
+    this.bodyStream = null;
     return this;
   }
 
@@ -379,19 +547,26 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   @Override
   public HttpClientRequest body(Supplier<? extends InputStream> streamSupplier) {
     this.body = HttpRequest.BodyPublishers.ofInputStream(streamSupplier);
+    this.bodyStream = streamSupplier;
     return this;
   }
 
   @Override
   public HttpClientRequest body(InputStream stream) {
-    this.body = HttpRequest.BodyPublishers.ofInputStream(() -> stream);
-    return this;
+    return body(() -> stream);
   }
 
   @Override
   public HttpClientRequest body(Path file) {
     try {
       this.body = HttpRequest.BodyPublishers.ofFile(file);
+      this.bodyStream = () -> {
+        try {
+          return Files.newInputStream(file);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      };
       return this;
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("File not found " + file, e);
@@ -401,13 +576,15 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   @Override
   public HttpClientRequest body(HttpRequest.BodyPublisher body) {
     this.body = body;
+    this.bodyStream = null;
     return this;
   }
 
   @Override
   public HttpClientRequest body(OutputStreamBodyWriter writer) {
-    this.body =
-        new OutputStreamBodyPublisher(writer, context.httpClient().executor().orElseThrow());
+    this.bodyWriter = writer;
+    this.body = null;
+    this.bodyStream = null;
     return this;
   }
 
@@ -418,9 +595,17 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   }
 
   private HttpRequest.BodyPublisher body() {
+    if (gzip && bodyStream != null) {
+      // compressed as it is read from the stream rather than buffering the content
+      return new OutputStreamBodyPublisher(GzipUtil.gzip(bodyStream), bodyWriterExecutor());
+    }
     if (body != null) {
       return body;
     }
+    if (bodyWriter != null) {
+      final OutputStreamBodyWriter writer = gzip ? GzipUtil.gzip(bodyWriter) : bodyWriter;
+      return new OutputStreamBodyPublisher(writer, bodyWriterExecutor());
+    }
     if (encodedRequestBody != null) {
       return fromEncodedBody();
     }
@@ -451,9 +636,17 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return builder.toString();
   }
 
+  /**
+   * Return the executor the body writer runs on, the client executor if set otherwise the async executor.
+   */
+  private Executor bodyWriterExecutor() {
+    final var httpClient = context.httpClient();
+    return httpClient == null ? context.asyncExecutor() : httpClient.executor().orElse(context.asyncExecutor());
+  }
+
   private HttpRequest.BodyPublisher fromEncodedBody() {
     if (gzip) {
-      return HttpRequest.BodyPublishers.ofByteArray(GzipUtil.gzip(encodedRequestBody.content()));
+      return GzipUtil.gzipPublisher(encodedRequestBody.content());
     }
     return HttpRequest.BodyPublishers.ofByteArray(encodedRequestBody.content());
   }
@@ -470,6 +663,12 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     if (gzip) {
       requestBuilder.header(CONTENT_ENCODING, "gzip");
     }
+    if (acceptEncoding && !hasHeader(ACCEPT_ENCODING)) {
+      final String encodings = context.acceptEncoding();
+      if (encodings != null) {
+        requestBuilder.header(ACCEPT_ENCODING, encodings);
+      }
+    }
     if (headers != null) {
       for (Map.Entry<String, List<String>> header : headers.entrySet()) {
         for (String value : header.getValue()) {
@@ -479,18 +678,100 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     }
   }
 
-  private HttpRequest.Builder requestBuilder() {
-    if (retryCount == 0) {
+  /**
+   * Return the request builder for an attempt to the given endpoint.
+   */
+  private HttpRequest.Builder requestBuilder(DEndpoints.Endpoint target) {
+    if (retryCount == 0 && target == endpoint) {
       addHeaders(httpRequest);
       return httpRequest;
     }
-    final HttpRequest.Builder retryRequest = retryRequest();
+    final HttpRequest.Builder retryRequest = newRequest(attemptUrl(target));
     addHeaders(retryRequest);
     return retryRequest;
   }
 
-  private HttpRequest.Builder retryRequest() {
+  /**
+   * Return the request builder for a hedged attempt.
+   */
+  private HttpRequest.Builder hedgeRequest(String hedgeUrl) {
+    final HttpRequest.Builder hedgeRequest = newRequest(hedgeUrl);
+    addHeaders(hedgeRequest);
+    return hedgeRequest;
+  }
+
+  /**
+   * Return the url for a hedged attempt (optionally to the alternate base url).
+   */
+  private String hedgeUrl(DEndpoints.Endpoint target) {
+    String currentUrl = attemptUrl(target);
+    final String alternateBaseUrl = hedgePolicy.alternateBaseUrl();
+    final DEndpoints.Endpoint original = endpoint();
+    final String baseUrl = original != null ? original.baseUrl() : context.baseUrl();
+    if (alternateBaseUrl != null && baseUrl != null && currentUrl.startsWith(baseUrl)) {
+      currentUrl = alternateBaseUrl + currentUrl.substring(baseUrl.length());
+    }
+    return currentUrl;
+  }
+
+  /**
+   * Return the url for an attempt replacing the base url when sent to another endpoint.
+   */
+  private String attemptUrl(DEndpoints.Endpoint target) {
     final String currentUrl = url.build();
+    if (target == null || target == endpoint) {
+      return currentUrl;
+    }
+    return target.baseUrl() + currentUrl.substring(endpoint.baseUrl().length());
+  }
+
+  /**
+   * Return the load balanced endpoint of this request or null when the url has been replaced.
+   */
+  private DEndpoints.Endpoint endpoint() {
+    if (endpoint != null && !endpointChecked) {
+      endpointChecked = true;
+      final String currentUrl = url.build();
+      final int length = endpoint.baseUrl().length();
+      if (!currentUrl.startsWith(endpoint.baseUrl())
+        || currentUrl.length() > length && "/?#".indexOf(currentUrl.charAt(length)) == -1) {
+        // the url was replaced via url(String) or an absolute path
+        endpoint = null;
+      }
+    }
+    return endpoint;
+  }
+
+  /**
+   * Return the url for cache and coalescing keys which is the same for all load balanced endpoints.
+   */
+  private String keyUrl() {
+    final String currentUrl = url.build();
+    final DEndpoints.Endpoint original = endpoint();
+    return original == null ? currentUrl : context.baseUrl() + currentUrl.substring(original.baseUrl().length());
+  }
+
+  /**
+   * Select and start the endpoint for an attempt, preferring another endpoint for a retry or hedge.
+   */
+  private DEndpoints.Endpoint startEndpoint(boolean another) {
+    final DEndpoints.Endpoint original = endpoint();
+    if (original == null) {
+      return null;
+    }
+    final DEndpoints endpoints = context.endpoints();
+    final DEndpoints.Endpoint target = another ? endpoints.select(original) : original;
+    endpoints.onStart(target);
+    return target;
+  }
+
+  private void completeEndpoint(DEndpoints.Endpoint target, HttpResponse<?> response, long nanos) {
+    if (target != null) {
+      context.endpoints().onComplete(target, response == null ? -1 : response.statusCode(), nanos);
+    }
+  }
+
+  private HttpRequest.Builder newRequest(String currentUrl) {
     if (VERB_GET.equals(method)) {
       return newGet(currentUrl);
     }
@@ -605,8 +886,8 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     }
   }
 
-  private RequestObserver.Attempt startAttemptObservation() {
-    final RequestObserver.Attempt attempt = requestObservation().startAttempt(this, retryCount);
+  private RequestObserver.Attempt startAttemptObservation(String attemptUrl) {
+    final RequestObserver.Attempt attempt = requestObservation().startAttempt(this, retryCount, attemptUrl);
     return attempt == null ? RequestObserver.Attempt.NOOP : attempt;
   }
 
@@ -622,11 +903,242 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     }
   }
 
+  private boolean hasHeader(String name) {
+    return !headerValues(name).isEmpty();
+  }
+
+  private List<String> headerValues(String name) {
+    if (headers != null) {
+      for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+        if (name.equalsIgnoreCase(entry.getKey())) {
+          return entry.getValue();
+        }
+      }
+    }
+    return List.of();
+  }
+
+  /**
+   * Send the Accept-Encoding header for the registered content decoders (when enabled on
+   * the client) as the client is responsible for decoding the response content.
+   */
+  DHttpClientRequest acceptEncoding() {
+    this.acceptEncoding = true;
+    return this;
+  }
+
+  private <T> T readStream(BodyReader<T> reader, T emptyValue) {
+    acceptEncoding = true;
+    return readStreamContent(sendWith(context.streamingReadHandler()), reader, emptyValue);
+  }
+
+  /**
+   * Read the response content directly from the (decoding) InputStream.
+   * <p>
+   * Error responses are read fully such that the content is available via HttpException.
+   */
+  private <T> T readStreamContent(HttpResponse<InputStream> response, BodyReader<T> reader, T emptyValue) {
+    try (InputStream content = response.body()) {
+      if (response.statusCode() >= 300) {
+        final BodyContent body = BodyContent.of(context.contentType(response), content.readAllBytes());
+        throw mapException(new HttpException(response, context, body));
+      }
+      final PushbackInputStream input = new PushbackInputStream(content, 1);
+      final int first = input.read();
+      if (first == -1) {
+        return emptyValue;
+      }
+      input.unread(first);
+      return reader.read(input, context.contentType(response));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   private void readResponseContent() {
+    acceptEncoding = true;
+    final DResponseCache cache = context.responseCache();
+    if (isCached(cache)) {
+      // the Authorization header from the AuthTokenProvider is part of the key
+      prepareExecution();
+      readCachedContent(cache, cacheKey());
+      return;
+    }
+    final HttpResponse<byte[]> response = sendReadContent();
+    context.afterResponse(this);
+    checkMaybeThrow(response);
+  }
+
+  /**
+   * Send the request and read the content sharing the exchange of identical in-flight
+   * requests when coalescing.
+   */
+  private HttpResponse<byte[]> sendReadContent() {
+    if (!isCoalesced()) {
+      final HttpResponse<byte[]> response = sendWith(HttpResponse.BodyHandlers.ofByteArray());
+      encodedResponseBody = context.readContent(response);
+      return response;
+    }
+    prepareExecution();
+    final long startNanos = System.nanoTime();
+    final DCoalescer.Exchange exchange = context.coalescer().execute(coalesceKey(), this::sendExchange);
+    if (httpResponse != exchange.response()) {
+      // shared the exchange of another request
+      responseTimeNanos = System.nanoTime() - startNanos;
+      httpResponse = exchange.response();
+    }
+    encodedResponseBody = exchange.content();
+    return exchange.response();
+  }
+
+  private DCoalescer.Exchange sendExchange() {
     final HttpResponse<byte[]> response = sendWith(HttpResponse.BodyHandlers.ofByteArray());
-    encodedResponseBody = context.readContent(response);
+    return new DCoalescer.Exchange(response, context.readContent(response));
+  }
+
+  private boolean isCached(DResponseCache cache) {
+    return cache != null && VERB_GET.equals(method) && !hasHeader(IF_NONE_MATCH) && !hasHeader(IF_MODIFIED_SINCE);
+  }
+
+  private boolean isCoalesced() {
+    return coalesce && (VERB_GET.equals(method) || VERB_HEAD.equals(method));
+  }
+
+  private String coalesceKey() {
+    return context.coalescer().key(method, keyUrl(), headers);
+  }
+
+  /**
+   * Return the response cache key such that responses are not shared between requests
+   * with different credentials or accepted content types.
+   */
+  private String cacheKey() {
+    final String keyUrl = keyUrl();
+    final List<String> accept = headerValues(ACCEPT);
+    final List<String> authorization = headerValues(DHttpClientContext.AUTHORIZATION);
+    if (accept.isEmpty() && authorization.isEmpty()) {
+      return keyUrl;
+    }
+    return keyUrl + ' ' + accept + ' ' + authorization;
+  }
+
+  /**
+   * Send async reading the content as bytes sharing the exchange of identical in-flight
+   * requests when coalescing.
+   */
+  CompletableFuture<HttpResponse<byte[]>> performSendAsyncBytes() {
+    if (!isCoalesced()) {
+      return performSendAsync(true, HttpResponse.BodyHandlers.ofByteArray());
+    }
+    loggableResponseBody = true;
+    prepareExecution();
+    final long startNanos = System.nanoTime();
+    final CompletableFuture<HttpResponse<byte[]>> future = context.coalescer()
+      .executeAsync(coalesceKey(), () -> performSendAsync(true, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(response -> new DCoalescer.Exchange(response, context.readContent(response))))
+      .thenApply(exchange -> {
+        if (httpResponse != exchange.response()) {
+          // shared the exchange of another request
+          startAsyncNanos = startNanos;
+          responseTimeNanos = System.nanoTime() - startNanos;
+          httpResponse = exchange.response();
+          context.afterResponse(this);
+        }
+        encodedResponseBody = exchange.content();
+        sharedContent = true;
+        return exchange.response();
+      });
+    return context.completeAsync(future);
+  }
+
+  /**
+   * Read the content from the response cache if fresh, otherwise send the request
+   * (conditional if the cached entry has validators) and cache the response.
+   */
+  private void readCachedContent(DResponseCache cache, String key) {
+    final DCacheEntry entry = cache.get(key);
+    if (entry != null) {
+      final long now = System.currentTimeMillis();
+      if (entry.isFresh(now)) {
+        cache.hit();
+        readFromCache(entry);
+        context.afterResponse(this);
+        return;
+      }
+      if (entry.isStaleWhileRevalidate(now)) {
+        cache.hit();
+        if (entry.startRevalidation()) {
+          revalidateAsync(cache, key, entry);
+        }
+        readFromCache(entry);
+        context.afterResponse(this);
+        return;
+      }
+      conditionalHeaders(entry);
+    }
+    final HttpResponse<byte[]> response = sendReadContent();
+    if (entry != null && response.statusCode() == 304) {
+      cache.revalidated();
+      // metrics and listeners see the 304 exchange
+      context.afterResponse(this);
+      final DCacheEntry updated = entry.revalidated(response.headers(), System.currentTimeMillis());
+      cache.put(key, updated);
+      httpResponse = new DCachedResponse(response.request(), updated);
+      encodedResponseBody = BodyContent.of(updated.contentType(), updated.content());
+      return;
+    }
+    cache.miss();
     context.afterResponse(this);
     checkMaybeThrow(response);
+    final DCacheEntry newEntry = DCacheEntry.of(response, encodedResponseBody, System.currentTimeMillis());
+    if (newEntry != null) {
+      cache.put(key, newEntry);
+    }
+  }
+
+  private void readFromCache(DCacheEntry entry) {
+    httpResponse = new DCachedResponse(httpRequest.build(), entry);
+    encodedResponseBody = BodyContent.of(entry.contentType(), entry.content());
+  }
+
+  private void conditionalHeaders(DCacheEntry entry) {
+    if (entry.etag() != null) {
+      header(IF_NONE_MATCH, entry.etag());
+    }
+    if (entry.lastModified() != null) {
+      header(IF_MODIFIED_SINCE, entry.lastModified());
+    }
+  }
+
+  /**
+   * Revalidate the stale entry in the background (stale-while-revalidate).
+   */
+  private void revalidateAsync(DResponseCache cache, String key, DCacheEntry entry) {
+    final DHttpClientRequest revalidate = new DHttpClientRequest(this);
+    // the copied headers already include the auth token
+    revalidate.skipAuthToken = true;
+    revalidate.conditionalHeaders(entry);
+    // own request builder, this request still builds the response from the shared one
+    revalidate.httpRequest = revalidate.newRequest(revalidate.url.build());
+    revalidate.performSendAsync(false, HttpResponse.BodyHandlers.ofByteArray())
+      .whenComplete((response, error) -> {
+        try {
+          if (response != null) {
+            final long now = System.currentTimeMillis();
+            if (response.statusCode() == 304) {
+              cache.revalidated();
+              cache.put(key, entry.revalidated(response.headers(), now));
+            } else {
+              final DCacheEntry newEntry = DCacheEntry.of(response, context.readContent(response), now);
+              if (newEntry != null) {
+                cache.put(key, newEntry);
+              }
+            }
+          }
+        } finally {
+          entry.endRevalidation();
+        }
+      });
   }
 
   @Override
@@ -653,12 +1165,18 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
 
   @Override
   public <T> T bean(Class<T> type) {
+    if (streamingReadSync()) {
+      return readStream(context.beanReader(type), null);
+    }
     readResponseContent();
     return context.readBean(type, encodedResponseBody);
   }
 
   @Override
   public <T> T bean(Type type) {
+    if (streamingReadSync()) {
+      return readStream(context.beanReader(type), null);
+    }
     readResponseContent();
     return context.readBean(type, encodedResponseBody);
   }
@@ -675,12 +1193,18 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
 
   @Override
   public <T> List<T> list(Class<T> type) {
+    if (streamingReadSync()) {
+      return readStream(context.listReader(type), Collections.emptyList());
+    }
     readResponseContent();
     return context.readList(type, encodedResponseBody);
   }
 
   @Override
   public <T> List<T> list(Type type) {
+    if (streamingReadSync()) {
+      return readStream(context.<T>listReader(type), Collections.emptyList());
+    }
     readResponseContent();
     return context.readList(type, encodedResponseBody);
   }
@@ -705,8 +1229,43 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return stream(context.beanReader(type));
   }
 
-  private <T> Stream<T> stream(BodyReader<T> bodyReader) {
-    final HttpResponse<Stream<String>> res = handler(HttpResponse.BodyHandlers.ofLines());
+  @Override
+  public <T> HttpResponse<T> as(BodyReader<T> reader) {
+    return new HttpWrapperResponse<>(bean(reader), httpResponse);
+  }
+
+  @Override
+  public <T> HttpResponse<List<T>> asList(BodyReader<List<T>> listReader) {
+    return new HttpWrapperResponse<>(list(listReader), httpResponse);
+  }
+
+  @Override
+  public <T> HttpResponse<Stream<T>> asStream(BodyReader<T> reader) {
+    return new HttpWrapperResponse<>(stream(reader), httpResponse);
+  }
+
+  @Override
+  public <T> T bean(BodyReader<T> reader) {
+    if (streamingReadSync()) {
+      return readStream(reader, null);
+    }
+    readResponseContent();
+    return context.readBean(reader, encodedResponseBody);
+  }
+
+  @Override
+  public <T> List<T> list(BodyReader<List<T>> listReader) {
+    if (streamingReadSync()) {
+      return readStream(listReader, Collections.emptyList());
+    }
+    readResponseContent();
+    return context.readList(listReader, encodedResponseBody);
+  }
+
+  @Override
+  public <T> Stream<T> stream(BodyReader<T> bodyReader) {
+    acceptEncoding = true;
+    final HttpResponse<Stream<String>> res = handler(context.linesHandler());
     this.httpResponse = res;
     checkResponse(res);
     return res.body().filter(line -> !line.isEmpty()).map(bodyReader::readBody);
@@ -722,9 +1281,10 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   private <T> HttpResponse<T> sendWith(HttpResponse.BodyHandler<T> responseHandler) {
     prepareExecution();
     try {
-      var res =
-          new InterceptorChain(context.interceptors(), () -> performSend(responseHandler))
-              .proceed(this);
+      final InterceptorChain chain = context.interceptors();
+      final HttpResponse<?> res = chain.isEmpty()
+        ? performSend(responseHandler)
+        : chain.proceed(this, () -> performSend(responseHandler));
       httpResponse = res;
       context.afterResponse(this);
       return (HttpResponse<T>) res;
@@ -734,13 +1294,18 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   }
 
   protected <T> HttpResponse<T> performSend(HttpResponse.BodyHandler<T> responseHandler) {
-    final RequestObserver.Attempt attempt = startAttemptObservation();
-    final HttpRequest.Builder requestBuilder = requestBuilder();
+    if (isHedged()) {
+      return performHedgedSend(responseHandler);
+    }
+    RateLimiter.await(reserveRateLimit(false));
+    final DIsolation.Entry isolation = context.isolation().acquire(this, context.requestObserver());
+    final DEndpoints.Endpoint target = startEndpoint(retryCount > 0);
+    final RequestObserver.Attempt attempt = startAttemptObservation(attemptUrl(target));
     final long startNanos = System.nanoTime();
     HttpResponse<T> response = null;
     RuntimeException error = null;
     try {
-      response = context.send(requestBuilder, responseHandler);
+      response = context.send(requestBuilder(target), responseHandler);
       return response;
     } catch (final RuntimeException e) {
       error = e;
@@ -752,21 +1317,77 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
       } else if (response != null) {
         attempt.onResponse(response);
       }
+      if (isolation != null) {
+        completeIsolation(isolation, response);
+      }
+      completeEndpoint(target, response, responseTimeNanos);
+      if (response != null) {
+        rateLimitResponse(response);
+      }
+    }
+  }
+
+  /**
+   * Reserve a permit from the client and request rate limiters returning the nanos to wait.
+   * <p>
+   * A hedge does not wait for a permit as a delayed hedge is of no use, it fails instead.
+   */
+  private long reserveRateLimit(boolean hedge) {
+    final RateLimiter clientLimiter = context.rateLimiter();
+    if (clientLimiter == null && rateLimiter == null) {
+      return 0;
+    }
+    final long now = System.nanoTime();
+    long waitNanos = 0;
+    if (clientLimiter != null) {
+      waitNanos = reserve(clientLimiter, now, hedge);
+    }
+    if (rateLimiter != null && rateLimiter != clientLimiter) {
+      try {
+        waitNanos = Math.max(waitNanos, reserve(rateLimiter, now, hedge));
+      } catch (final RateLimitExceededException e) {
+        // the request is not sent so give back the client permit
+        if (clientLimiter != null) {
+          clientLimiter.release(now);
+        }
+        throw e;
+      }
+    }
+    return waitNanos;
+  }
+
+  private static long reserve(RateLimiter limiter, long now, boolean hedge) {
+    return hedge ? limiter.reserve(now, 0) : limiter.reserve(now, limiter.maxWaitNanos());
+  }
+
+  /**
+   * Adapt the client and request rate limiters to the rate limit headers of the response.
+   */
+  private void rateLimitResponse(HttpResponse<?> response) {
+    final RateLimiter clientLimiter = context.rateLimiter();
+    if (clientLimiter != null) {
+      clientLimiter.onResponse(response);
+    }
+    if (rateLimiter != null && rateLimiter != clientLimiter) {
+      rateLimiter.onResponse(response);
+    }
+  }
+
+  private static void completeIsolation(DIsolation.Entry isolation, HttpResponse<?> response) {
+    if (response != null) {
+      isolation.onResponse(response.statusCode());
+    } else {
+      isolation.onError();
     }
   }
 
-  @SuppressWarnings("unchecked")
   protected <T> CompletableFuture<HttpResponse<T>> performSendAsync(
       boolean loggable, HttpResponse.BodyHandler<T> responseHandler) {
     loggableResponseBody = loggable;
     prepareExecution();
 
     startAsyncNanos = System.nanoTime();
-    var resultFuture =
-      CompletableFuture.supplyAsync(() ->
-        (HttpResponse<T>)
-          new InterceptorChain(context.interceptors(), () -> performAsyncSend(responseHandler).join())
-            .proceed(this));
+    var resultFuture = sendAsyncWith(responseHandler);
 
     if (errorMapper != null && !isRetry) {
       resultFuture =
@@ -784,23 +1405,145 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
           .thenCompose(Function.identity());
     }
 
-    return resultFuture;
+    return isRetry ? resultFuture : context.completeAsync(resultFuture);
+  }
+
+  /** Send the request via the async interceptors without blocking a thread. */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private <T> CompletableFuture<HttpResponse<T>> sendAsyncWith(HttpResponse.BodyHandler<T> responseHandler) {
+    try {
+      final InterceptorChain chain = context.interceptors();
+      if (chain.isEmpty()) {
+        return performAsyncSend(responseHandler);
+      }
+      return (CompletableFuture) chain.proceedAsync(this, () -> performAsyncSend(responseHandler), context.asyncExecutor());
+    } catch (final RuntimeException e) {
+      return CompletableFuture.failedFuture(e);
+    }
   }
 
   private <T> CompletableFuture<HttpResponse<T>> performAsyncSend(HttpResponse.BodyHandler<T> responseHandler) {
-    final RequestObserver.Attempt attempt = startAttemptObservation();
-    final HttpRequest.Builder requestBuilder = requestBuilder();
-    startAsyncNanos = System.nanoTime();
-    return context.sendAsync(requestBuilder, responseHandler)
+    if (isHedged()) {
+      startAsyncNanos = System.nanoTime();
+      return hedgedSend(responseHandler).thenApply(this::afterAsync);
+    }
+    return sendAttempt(false, responseHandler, null).thenApply(this::afterAsync);
+  }
+
+  private boolean isHedged() {
+    return hedgePolicy != null && (VERB_GET.equals(method) || VERB_HEAD.equals(method));
+  }
+
+  /** Send the hedged request waiting for the first response. */
+  private <T> HttpResponse<T> performHedgedSend(HttpResponse.BodyHandler<T> responseHandler) {
+    final long startNanos = System.nanoTime();
+    startAsyncNanos = startNanos;
+    try {
+      return hedgedSend(responseHandler).join();
+    } catch (final CompletionException e) {
+      final Throwable cause = unwrapFutureError(e);
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new HttpException(499, cause);
+    } finally {
+      responseTimeNanos = System.nanoTime() - startNanos;
+    }
+  }
+
+  /**
+   * Send the initial attempt and hedged attempts after the hedge delay, the first response wins.
+   */
+  private <T> CompletableFuture<HttpResponse<T>> hedgedSend(HttpResponse.BodyHandler<T> responseHandler) {
+    final HedgePolicy policy = hedgePolicy;
+    policy.onRequest();
+    final long delayNanos = policy.delayNanos(context.latencyPercentile(isolationKey(), policy.percentile()));
+    return new DHedgedExchange<T>().start((attempt, exchange) ->
+        sendAttempt(attempt != 0, responseHandler, exchange),
+      policy, delayNanos, context.asyncExecutor());
+  }
+
+  /**
+   * Send an attempt after waiting for the rate limit permit (if rate limited).
+   */
+  private <T> CompletableFuture<HttpResponse<T>> sendAttempt(
+      boolean hedge, HttpResponse.BodyHandler<T> responseHandler, DHedgedExchange<T> hedged) {
+    final long waitNanos;
+    try {
+      waitNanos = reserveRateLimit(hedge);
+    } catch (final HttpException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    if (waitNanos == 0) {
+      return sendPermitted(hedge, responseHandler, hedged);
+    }
+    // wait for the rate limit permit without blocking a thread
+    return CompletableFuture.supplyAsync(() -> null, RateLimiter.delayedExecutor(waitNanos, context.asyncExecutor()))
+      .thenCompose(ignored -> sendPermitted(hedge, responseHandler, hedged));
+  }
+
+  /**
+   * Send an attempt completing the isolation, attempt observation and endpoint.
+   */
+  private <T> CompletableFuture<HttpResponse<T>> sendPermitted(
+      boolean hedge, HttpResponse.BodyHandler<T> responseHandler, DHedgedExchange<T> hedged) {
+    final DIsolation.Entry isolation;
+    try {
+      isolation = context.isolation().acquire(this, context.requestObserver());
+    } catch (final HttpException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    // a hedge to the alternate base url is not load balanced
+    final DEndpoints.Endpoint target = hedge && hedgePolicy.alternateBaseUrl() != null
+      ? null : startEndpoint(hedge || retryCount > 0);
+    final String attemptUrl = hedge ? hedgeUrl(target) : attemptUrl(target);
+    final RequestObserver.Attempt attempt = startAttemptObservation(attemptUrl);
+    final HttpRequest.Builder requestBuilder;
+    try {
+      requestBuilder = hedge ? hedgeRequest(attemptUrl) : requestBuilder(target);
+    } catch (final RuntimeException e) {
+      attempt.onError(e);
+      if (isolation != null) {
+        isolation.onError();
+      }
+      if (target != null) {
+        context.endpoints().onCancel(target);
+      }
+      return CompletableFuture.failedFuture(e);
+    }
+    final long startNanos = System.nanoTime();
+    if (hedged == null) {
+      startAsyncNanos = startNanos;
+    }
+    return context.sendAsync(requestBuilder, responseHandler, hedged)
       .whenComplete((response, error) -> {
-        responseTimeNanos = System.nanoTime() - startAsyncNanos;
+        final long attemptNanos = System.nanoTime() - startNanos;
+        if (hedged == null) {
+          responseTimeNanos = attemptNanos;
+        }
         if (error != null) {
           attempt.onError(unwrapFutureError(error));
         } else if (response != null) {
           attempt.onResponse(response);
         }
-      })
-      .thenApply(this::afterAsync);
+        // cancelled as another attempt won
+        final boolean cancelled = response == null && hedged != null && hedged.isDone();
+        if (isolation != null) {
+          if (cancelled) {
+            isolation.onCancel();
+          } else {
+            completeIsolation(isolation, response);
+          }
+        }
+        if (cancelled && target != null) {
+          context.endpoints().onCancel(target);
+        } else {
+          completeEndpoint(target, response, attemptNanos);
+        }
+        if (response != null) {
+          rateLimitResponse(response);
+        }
+      });
   }
 
   protected <E> HttpResponse<E> afterAsync(HttpResponse<E> response) {
@@ -825,18 +1568,77 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
     return new HttpWrapperResponse<>(context.readList(type, encodedResponseBody), httpResponse);
   }
 
+  protected <E> HttpResponse<E> asyncBean(BodyReader<E> reader, HttpResponse<byte[]> response) {
+    afterAsyncEncoded(response);
+    return new HttpWrapperResponse<>(context.readBean(reader, encodedResponseBody), httpResponse);
+  }
+
+  protected <E> HttpResponse<List<E>> asyncList(BodyReader<List<E>> listReader, HttpResponse<byte[]> response) {
+    afterAsyncEncoded(response);
+    return new HttpWrapperResponse<>(context.readList(listReader, encodedResponseBody), httpResponse);
+  }
+
+  protected <E> HttpResponse<E> asyncStreamBean(Type type, HttpResponse<InputStream> response) {
+    return asyncStreamBean(context.<E>beanReader(type), response);
+  }
+
+  protected <E> HttpResponse<E> asyncStreamBean(BodyReader<E> reader, HttpResponse<InputStream> response) {
+    responseTimeNanos = System.nanoTime() - startAsyncNanos;
+    httpResponse = response;
+    return new HttpWrapperResponse<>(readStreamContent(response, reader, null), httpResponse);
+  }
+
+  protected <E> HttpResponse<List<E>> asyncStreamList(Type type, HttpResponse<InputStream> response) {
+    return asyncStreamList(context.<E>listReader(type), response);
+  }
+
+  protected <E> HttpResponse<List<E>> asyncStreamList(BodyReader<List<E>> listReader, HttpResponse<InputStream> response) {
+    responseTimeNanos = System.nanoTime() - startAsyncNanos;
+    httpResponse = response;
+    return new HttpWrapperResponse<>(readStreamContent(response, listReader, Collections.emptyList()), httpResponse);
+  }
+
+  /**
+   * Return true if the response content should be read via a stream.
+   * <p>
+   * Coalescing shares the buffered content so takes precedence over streaming read.
+   */
+  boolean streamingRead() {
+    return streamingRead && !isCoalesced();
+  }
+
+  /**
+   * Return true if the response content should be read via a stream, the response cache
+   * (used by the synchronous requests) also takes precedence over streaming read.
+   */
+  private boolean streamingReadSync() {
+    return streamingRead() && !isCached(context.responseCache());
+  }
+
   protected <E> HttpResponse<Stream<E>> asyncStream(Type type, HttpResponse<Stream<String>> response) {
+    return asyncStream(context.<E>beanReader(type), response);
+  }
+
+  protected <E> HttpResponse<Stream<E>> asyncStream(BodyReader<E> bodyReader, HttpResponse<Stream<String>> response) {
     responseTimeNanos = System.nanoTime() - startAsyncNanos;
     httpResponse = response;
     checkResponse(response);
-    final BodyReader<E> bodyReader = context.beanReader(type);
     return new HttpWrapperResponse<>(response.body().map(bodyReader::readBody), httpResponse);
   }
 
+  /**
+   * Return the (mapped) HttpException for an async error response.
+   */
+  RuntimeException asyncError(HttpResponse<byte[]> response) {
+    return mapException(new HttpException(context, response));
+  }
+
   private void afterAsyncEncoded(HttpResponse<byte[]> response) {
     responseTimeNanos = System.nanoTime() - startAsyncNanos;
     httpResponse = response;
-    encodedResponseBody = context.readContent(response);
+    if (!sharedContent) {
+      encodedResponseBody = context.readContent(response);
+    }
     checkMaybeThrow(response);
   }
 
@@ -858,13 +1660,15 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
   @Override
   public HttpResponse<String> asString() {
     loggableResponseBody = true;
-    return addMetrics(handler(HttpResponse.BodyHandlers.ofString()));
+    acceptEncoding = true;
+    return addMetrics(handler(context.stringHandler()));
   }
 
   @Override
   public HttpResponse<String> asPlainString() {
     loggableResponseBody = true;
-    final HttpResponse<String> hres = addMetrics(handler(HttpResponse.BodyHandlers.ofString()));
+    acceptEncoding = true;
+    final HttpResponse<String> hres = addMetrics(handler(context.stringHandler()));
     checkResponse(hres);
     return hres;
   }
@@ -886,7 +1690,8 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
 
   @Override
   public HttpResponse<Stream<String>> asLines() {
-    return handler(HttpResponse.BodyHandlers.ofLines());
+    acceptEncoding = true;
+    return handler(context.linesHandler());
   }
 
   private HttpRequest.Builder newReq(String url) {
@@ -993,20 +1798,67 @@ class DHttpClientRequest implements HttpClientRequest, HttpClientResponse {
       return null;
     }
 
+    @Override
+    public String requestBody(int maxBytes) {
+      if (!suppressLogging && encodedRequestBody != null) {
+        return bodyPrefix(encodedRequestBody.content(), maxBytes);
+      }
+      return RequestListener.Event.super.requestBody(maxBytes);
+    }
+
     @Override
     public String responseBody() {
       if (suppressLogging) {
         return "<suppressed response body>";
       }
       if (encodedResponseBody != null) {
-        return context.maxResponseBody(new String(encodedResponseBody.content(), StandardCharsets.UTF_8));
+        return truncate(new String(encodedResponseBody.content(), StandardCharsets.UTF_8), MAX_RESPONSE_BODY);
       }
       if (httpResponse != null && loggableResponseBody) {
         final var responseBody = httpResponse.body();
-        return responseBody == null ? null : context.maxResponseBody(responseBody.toString());
+        if (responseBody instanceof byte[]) {
+          return truncate(new String((byte[]) responseBody, StandardCharsets.UTF_8), MAX_RESPONSE_BODY);
+        }
+        return responseBody == null ? null : truncate(responseBody.toString(), MAX_RESPONSE_BODY);
       }
       return null;
     }
+
+    @Override
+    public String responseBody(int maxBytes) {
+      if (suppressLogging) {
+        return "<suppressed response body>";
+      }
+      if (encodedResponseBody != null) {
+        return bodyPrefix(encodedResponseBody.content(), maxBytes);
+      }
+      if (httpResponse != null && loggableResponseBody) {
+        final var responseBody = httpResponse.body();
+        if (responseBody instanceof byte[]) {
+          return bodyPrefix((byte[]) responseBody, maxBytes);
+        }
+        return responseBody == null ? null : truncate(responseBody.toString(), maxBytes);
+      }
+      return null;
+    }
+  }
+
+  private static String truncate(String body, int maxLength) {
+    return body.length() <= maxLength ? body : body.substring(0, maxLength) + " <truncated> ...";
+  }
+
+  /**
+   * Decode at most maxBytes of the content (not splitting a multi-byte character).
+   */
+  static String bodyPrefix(byte[] content, int maxBytes) {
+    if (content.length <= maxBytes) {
+      return new String(content, StandardCharsets.UTF_8);
+    }
+    int end = maxBytes;
+    while (end > 0 && (content[end] & 0xC0) == 0x80) {
+      end--;
+    }
+    return new String(content, 0, end, StandardCharsets.UTF_8) + " <truncated> ...";
   }
 
   static final class HttpWrapperResponse<B> implements HttpResponse<B> {
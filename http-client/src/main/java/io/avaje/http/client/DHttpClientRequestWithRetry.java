@@ -4,12 +4,15 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /** Extends DHttpClientRequest with retry attempts. */
 final class DHttpClientRequestWithRetry extends DHttpClientRequest {
 
   private final RetryHandler retryHandler;
+  private Duration retryDelay = Duration.ZERO;
 
   DHttpClientRequestWithRetry(
       DHttpClientContext context, Duration requestTimeout, RetryHandler retryHandler) {
@@ -36,7 +39,7 @@ final class DHttpClientRequestWithRetry extends DHttpClientRequest {
         return res;
       }
       retryCount++;
-    } while (retry(res, ex));
+    } while (retry(res, ex) && awaitRetry(res));
 
     if (res == null && ex != null) {
       throw ex;
@@ -70,7 +73,7 @@ final class DHttpClientRequestWithRetry extends DHttpClientRequest {
                 return r;
               });
     }
-    return resultFuture;
+    return context().completeAsync(resultFuture);
   }
 
   protected boolean retry(HttpResponse<?> res, HttpException ex) {
@@ -81,6 +84,42 @@ final class DHttpClientRequestWithRetry extends DHttpClientRequest {
     return retryHandler.isExceptionRetry(retryCount, ex);
   }
 
+  /** Wait for the retry delay on the calling thread returning false if interrupted. */
+  private boolean awaitRetry(HttpResponse<?> res) {
+    // the retryCount was already incremented for the attempt that failed
+    final long delayMillis = nextRetryDelay(retryCount - 1, res);
+    if (delayMillis > 0) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Return the delay in millis for the next attempt given the number of retries already executed. */
+  private long nextRetryDelay(int retries, HttpResponse<?> res) {
+    final Duration delay = retryHandler.retryDelay(retries, retryDelay, res);
+    retryDelay = delay == null ? Duration.ZERO : delay;
+    return retryDelay.toMillis();
+  }
+
+  /** Schedule the next attempt after the retry delay without blocking a thread. */
+  private <T> CompletableFuture<HttpResponse<T>> asyncRetry(
+      HttpResponse<?> res, boolean loggable, HttpResponse.BodyHandler<T> responseHandler) {
+
+    final long delayMillis = nextRetryDelay(retryCount, res);
+    retryCount++;
+    if (delayMillis <= 0) {
+      return asyncwithRetry(loggable, responseHandler);
+    }
+    final Executor delayed = CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS, context().asyncExecutor());
+    return CompletableFuture.supplyAsync(() -> asyncwithRetry(loggable, responseHandler), delayed)
+        .thenCompose(Function.identity());
+  }
+
   private <T> CompletableFuture<HttpResponse<T>> asyncwithRetry(
       boolean loggable, HttpResponse.BodyHandler<T> responseHandler) {
 
@@ -93,8 +132,7 @@ final class DHttpClientRequestWithRetry extends DHttpClientRequest {
                   if (!retryHandler.isExceptionRetry(retryCount, (HttpException) error)) {
                     return CompletableFuture.<HttpResponse<T>>failedFuture(error);
                   }
-                  retryCount++;
-                  return asyncwithRetry(loggable, responseHandler);
+                  return asyncRetry(null, loggable, responseHandler);
                 }
                 return CompletableFuture.<HttpResponse<T>>failedFuture(error);
               }
@@ -105,8 +143,7 @@ final class DHttpClientRequestWithRetry extends DHttpClientRequest {
               if (!retryHandler.isRetry(retryCount, res)) {
                 return CompletableFuture.completedFuture(res);
               }
-              retryCount++;
-              return asyncwithRetry(loggable, responseHandler);
+              return asyncRetry(res, loggable, responseHandler);
             })
         .thenCompose(Function.identity());
   }
@@ -0,0 +1,255 @@
+package io.avaje.http.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.avaje.http.client.CircuitBreakerConfig.State;
+
+/**
+ * Circuit breakers and bulkheads by key.
+ */
+final class DIsolation {
+
+  private final CircuitBreakerConfig circuitBreaker;
+  private final int maxConcurrent;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  DIsolation(CircuitBreakerConfig circuitBreaker, int maxConcurrent) {
+    this.circuitBreaker = circuitBreaker;
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /**
+   * Acquire a permit to send the request returning null when no isolation is configured.
+   * <p>
+   * The returned entry must be completed via {@link Entry#onResponse(int)} or
+   * {@link Entry#onError()} when the attempt completes.
+   *
+   * @throws BulkheadFullException       when the bulkhead is full
+   * @throws CircuitBreakerOpenException when the circuit breaker is open
+   * @throws IllegalStateException       when the key is already used with a different
+   *                                     circuit breaker or bulkhead configuration
+   */
+  Entry acquire(DHttpClientRequest request, RequestObserver observer) {
+    final CircuitBreakerConfig breakerConfig = request.circuitBreaker() != null ? request.circuitBreaker() : circuitBreaker;
+    final int concurrent = request.maxConcurrent() > 0 ? request.maxConcurrent() : maxConcurrent;
+    if (breakerConfig == null && concurrent <= 0) {
+      return null;
+    }
+    final String key = request.isolationKey();
+    final Entry entry = entries.computeIfAbsent(key, k -> new Entry(k, breakerConfig, concurrent, observer));
+    entry.checkConfig(breakerConfig, concurrent);
+    entry.acquire();
+    return entry;
+  }
+
+  /**
+   * Return the circuit breaker state for the given key (null if no circuit breaker).
+   */
+  State state(String key) {
+    final Entry entry = entries.get(key);
+    return entry == null || entry.breaker == null ? null : entry.breaker.state();
+  }
+
+  static final class Entry {
+
+    private final String key;
+    private final CircuitBreakerConfig config;
+    private final int maxConcurrent;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker breaker;
+
+    Entry(String key, CircuitBreakerConfig config, int maxConcurrent, RequestObserver observer) {
+      this.key = key;
+      this.config = config;
+      this.maxConcurrent = maxConcurrent;
+      this.bulkhead = maxConcurrent > 0 ? new Bulkhead(maxConcurrent) : null;
+      this.breaker = config != null ? new CircuitBreaker(key, config, observer) : null;
+    }
+
+    /**
+     * Fail fast when the configuration differs from the one the entry was created with.
+     */
+    void checkConfig(CircuitBreakerConfig requestConfig, int requestMaxConcurrent) {
+      if (requestMaxConcurrent != maxConcurrent || (requestConfig == null ? config != null : !requestConfig.sameAs(config))) {
+        throw new IllegalStateException("Circuit breaker or bulkhead configuration differs from the existing one for key "
+          + key + ", use a different label for requests with a different configuration");
+      }
+    }
+
+    void acquire() {
+      if (bulkhead != null && !bulkhead.tryAcquire()) {
+        throw new BulkheadFullException(key);
+      }
+      if (breaker != null && !breaker.tryAcquire()) {
+        if (bulkhead != null) {
+          bulkhead.release();
+        }
+        throw new CircuitBreakerOpenException(key);
+      }
+    }
+
+    void onResponse(int statusCode) {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+      if (breaker != null) {
+        if (breaker.config.isFailure(statusCode)) {
+          breaker.onFailure();
+        } else {
+          breaker.onSuccess();
+        }
+      }
+    }
+
+    void onError() {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+      if (breaker != null) {
+        breaker.onFailure();
+      }
+    }
+
+    /**
+     * The request was cancelled (a hedged attempt that lost) so not a success or failure.
+     */
+    void onCancel() {
+      if (bulkhead != null) {
+        bulkhead.release();
+      }
+      if (breaker != null) {
+        breaker.onCancel();
+      }
+    }
+  }
+
+  /**
+   * Lock free limit on the number of concurrent requests.
+   */
+  static final class Bulkhead {
+
+    private final int max;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    Bulkhead(int max) {
+      this.max = max;
+    }
+
+    boolean tryAcquire() {
+      int current;
+      do {
+        current = inFlight.get();
+        if (current >= max) {
+          return false;
+        }
+      } while (!inFlight.compareAndSet(current, current + 1));
+      return true;
+    }
+
+    void release() {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  /**
+   * Lock free circuit breaker counting consecutive failures.
+   */
+  static final class CircuitBreaker {
+
+    private final String key;
+    private final CircuitBreakerConfig config;
+    private final RequestObserver observer;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger trials = new AtomicInteger();
+    private final AtomicInteger trialSuccess = new AtomicInteger();
+    private volatile long openUntilNanos;
+
+    CircuitBreaker(String key, CircuitBreakerConfig config, RequestObserver observer) {
+      this.key = key;
+      this.config = config;
+      this.observer = observer;
+      this.openNanos = config.openDuration().toNanos();
+    }
+
+    State state() {
+      return state.get();
+    }
+
+    boolean tryAcquire() {
+      switch (state.get()) {
+        case CLOSED:
+          return true;
+        case OPEN:
+          if (System.nanoTime() - openUntilNanos < 0) {
+            return false;
+          }
+          transition(State.OPEN, State.HALF_OPEN);
+          return tryAcquire();
+        default:
+          final int max = config.halfOpenCalls();
+          return trials.getAndUpdate(n -> n < max ? n + 1 : n) < max;
+      }
+    }
+
+    void onSuccess() {
+      switch (state.get()) {
+        case CLOSED:
+          if (failures.get() != 0) {
+            failures.set(0);
+          }
+          break;
+        case HALF_OPEN:
+          if (trialSuccess.incrementAndGet() >= config.halfOpenCalls()) {
+            failures.set(0);
+            transition(State.HALF_OPEN, State.CLOSED);
+          }
+          break;
+        default:
+          // completion of a request started before the circuit opened
+      }
+    }
+
+    void onCancel() {
+      if (state.get() == State.HALF_OPEN) {
+        // return the trial permit
+        trials.getAndUpdate(n -> n > 0 ? n - 1 : 0);
+      }
+    }
+
+    void onFailure() {
+      switch (state.get()) {
+        case CLOSED:
+          if (failures.incrementAndGet() >= config.failureThreshold()) {
+            open(State.CLOSED);
+          }
+          break;
+        case HALF_OPEN:
+          open(State.HALF_OPEN);
+          break;
+        default:
+          // already open
+      }
+    }
+
+    private void open(State from) {
+      // set before the state change such that other threads see the open period
+      openUntilNanos = System.nanoTime() + openNanos;
+      if (transition(from, State.OPEN)) {
+        trials.set(0);
+        trialSuccess.set(0);
+      }
+    }
+
+    private boolean transition(State from, State to) {
+      if (state.compareAndSet(from, to)) {
+        observer.onCircuitBreakerStateChange(key, from, to);
+        return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package io.avaje.http.client;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The default transport using the JDK HttpClient.
+ */
+final class DJdkTransport implements HttpTransport {
+
+  private final HttpClient httpClient;
+
+  DJdkTransport(HttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  @Override
+  public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+    return httpClient.send(request, bodyHandler);
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+    return httpClient.sendAsync(request, bodyHandler);
+  }
+
+  @Override
+  public void close() {
+    JDK21Functions.closeClient(httpClient);
+  }
+}
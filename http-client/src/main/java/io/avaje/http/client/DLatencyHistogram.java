@@ -0,0 +1,163 @@
+package io.avaje.http.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free log-linear histogram of response times in microseconds.
+ * <p>
+ * Each power of 2 range is split into 16 linear sub-buckets (relative error of about 6%)
+ * with values up to 2^40 micros (about 12 days), using a fixed 592 buckets. Recording
+ * does not allocate.
+ */
+final class DLatencyHistogram {
+
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int MAX_BITS = 40;
+  private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+  static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong totalMicros = new AtomicLong();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Record the response time.
+   */
+  void record(long micros) {
+    final long value = micros < 0 ? 0 : Math.min(micros, MAX_VALUE);
+    counts.incrementAndGet(index(value));
+    totalMicros.addAndGet(value);
+    long max;
+    while (value > (max = maxMicros.get())) {
+      if (maxMicros.compareAndSet(max, value)) {
+        break;
+      }
+    }
+  }
+
+  static int index(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return (shift + 1) * SUB_COUNT + (int) (value >>> shift) - SUB_COUNT;
+  }
+
+  /**
+   * Return the highest value that maps to the given bucket.
+   */
+  static long upperBound(int index) {
+    if (index < SUB_COUNT) {
+      return index;
+    }
+    final int shift = index / SUB_COUNT - 1;
+    final long lower = (long) (SUB_COUNT + index % SUB_COUNT) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  /**
+   * Return the percentile of the recorded values or -1 when fewer than minCount are recorded.
+   * <p>
+   * Reads the live counts without allocating (not an atomic view of all the counts).
+   */
+  long percentile(double percentile, long minCount) {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    if (count < minCount || count == 0) {
+      return -1;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperBound(i), maxMicros.get());
+      }
+    }
+    return maxMicros.get();
+  }
+
+  /**
+   * Return a snapshot optionally resetting the counts.
+   */
+  Snapshot snapshot(boolean reset) {
+    final long[] buckets = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+      count += buckets[i];
+    }
+    final long total = reset ? totalMicros.getAndSet(0) : totalMicros.get();
+    final long max = reset ? maxMicros.getAndSet(0) : maxMicros.get();
+    return new Snapshot(buckets, count, total, max);
+  }
+
+  static final class Snapshot implements HttpClient.Latency {
+
+    private final long[] buckets;
+    private final long count;
+    private final long totalMicros;
+    private final long maxMicros;
+
+    Snapshot(long[] buckets, long count, long totalMicros, long maxMicros) {
+      this.buckets = buckets;
+      this.count = count;
+      this.totalMicros = totalMicros;
+      this.maxMicros = maxMicros;
+    }
+
+    @Override
+    public long count() {
+      return count;
+    }
+
+    @Override
+    public long totalMicros() {
+      return totalMicros;
+    }
+
+    @Override
+    public long maxMicros() {
+      return maxMicros;
+    }
+
+    @Override
+    public long avgMicros() {
+      return count == 0 ? 0 : totalMicros / count;
+    }
+
+    @Override
+    public long percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      final long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+      long seen = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        seen += buckets[i];
+        if (seen >= rank) {
+          return Math.min(upperBound(i), maxMicros);
+        }
+      }
+      return maxMicros;
+    }
+
+    @Override
+    public void forEachBucket(HttpClient.BucketConsumer consumer) {
+      for (int i = 0; i < buckets.length; i++) {
+        if (buckets[i] != 0) {
+          consumer.accept(upperBound(i), buckets[i]);
+        }
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "count:" + count + " avgMicros:" + avgMicros() + " p50:" + percentile(50) + " p99:" + percentile(99) + " maxMicros:" + maxMicros;
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package io.avaje.http.client;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms by request key with a bounded number of keys.
+ */
+final class DLatencyHistograms {
+
+  /** Key used for requests once the maximum number of keys is reached. */
+  static final String OTHER = "_other";
+
+  private static final int MAX_KEYS = 256;
+
+  private final ConcurrentHashMap<String, DLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+  void record(String key, long micros) {
+    DLatencyHistogram histogram = histograms.get(key);
+    if (histogram == null) {
+      histogram = histograms.size() < MAX_KEYS
+        ? histograms.computeIfAbsent(key, k -> new DLatencyHistogram())
+        : histograms.computeIfAbsent(OTHER, k -> new DLatencyHistogram());
+    }
+    histogram.record(micros);
+  }
+
+  /**
+   * Return the percentile response time of the key or -1 when fewer than minCount are recorded.
+   */
+  long percentile(String key, double percentile, long minCount) {
+    final DLatencyHistogram histogram = histograms.get(key);
+    return histogram == null ? -1 : histogram.percentile(percentile, minCount);
+  }
+
+  Map<String, HttpClient.Latency> snapshot(boolean reset) {
+    final Map<String, HttpClient.Latency> snapshot = new TreeMap<>();
+    histograms.forEach((key, histogram) -> snapshot.put(key, histogram.snapshot(reset)));
+    return snapshot;
+  }
+}
@@ -21,6 +21,20 @@ final class DRequestObservers implements RequestObserver {
     return new DObservation(observations);
   }
 
+  @Override
+  public void onMetrics(HttpClient.Metrics metrics) {
+    for (final RequestObserver observer : observers) {
+      observer.onMetrics(metrics);
+    }
+  }
+
+  @Override
+  public void onCircuitBreakerStateChange(String key, CircuitBreakerConfig.State from, CircuitBreakerConfig.State to) {
+    for (final RequestObserver observer : observers) {
+      observer.onCircuitBreakerStateChange(key, from, to);
+    }
+  }
+
   private static final class DObservation implements Observation {
 
     private final Observation[] observations;
@@ -31,9 +45,14 @@ final class DRequestObservers implements RequestObserver {
 
     @Override
     public Attempt startAttempt(HttpClientRequest request, int resendCount) {
+      return startAttempt(request, resendCount, request.url());
+    }
+
+    @Override
+    public Attempt startAttempt(HttpClientRequest request, int resendCount, String url) {
       final Attempt[] attempts = new Attempt[observations.length];
       for (int i = 0; i < observations.length; i++) {
-        final Attempt attempt = observations[i].startAttempt(request, resendCount);
+        final Attempt attempt = observations[i].startAttempt(request, resendCount, url);
         attempts[i] = attempt == null ? Attempt.NOOP : attempt;
       }
       return new DAttempt(attempts);
@@ -0,0 +1,193 @@
+package io.avaje.http.client;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size bounded in-memory response cache with W-TinyLFU style eviction.
+ * <p>
+ * New entries go into a small LRU window. Entries evicted from the window are only
+ * admitted to the main LRU space when they are used more frequently than the entries
+ * they would displace (as estimated by a {@link DFrequencySketch}). Entries evicted or
+ * not admitted are passed to the optional disk tier.
+ * <p>
+ * A ReentrantLock (rather than synchronized) guards the LRU spaces such that virtual
+ * threads waiting on it do not pin their carrier thread.
+ */
+final class DResponseCache {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, DCacheEntry> window = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, DCacheEntry> main = new LinkedHashMap<>(64, 0.75f, true);
+  private final DFrequencySketch sketch;
+  private final DDiskCache disk;
+  private final long windowMaxBytes;
+  private final long mainMaxBytes;
+  private long windowBytes;
+  private long mainBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder revalidated = new LongAdder();
+
+  DResponseCache(ResponseCacheConfig config) {
+    this(config.maxBytes(), config.diskDirectory() == null ? null : new DDiskCache(config.diskDirectory(), config.diskMaxBytes()));
+  }
+
+  DResponseCache(long maxBytes, DDiskCache disk) {
+    this.windowMaxBytes = Math.max(1, maxBytes / 100);
+    this.mainMaxBytes = Math.max(1, maxBytes - windowMaxBytes);
+    this.sketch = new DFrequencySketch((int) Math.min(Integer.MAX_VALUE, maxBytes / 1024));
+    this.disk = disk;
+  }
+
+  /**
+   * Return the cached entry for the key or null.
+   */
+  DCacheEntry get(String key) {
+    DCacheEntry entry;
+    lock.lock();
+    try {
+      sketch.increment(key.hashCode());
+      entry = window.get(key);
+      if (entry == null) {
+        entry = main.get(key);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (entry == null && disk != null) {
+      entry = disk.get(key);
+      if (entry != null) {
+        put(key, entry);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Put the entry into the cache.
+   */
+  void put(String key, DCacheEntry entry) {
+    final List<Map.Entry<String, DCacheEntry>> evicted = new ArrayList<>();
+    lock.lock();
+    try {
+      remove(key);
+      if (entry.weight() > mainMaxBytes) {
+        evicted.add(Map.entry(key, entry));
+      } else {
+        window.put(key, entry);
+        windowBytes += entry.weight();
+        evictWindow(evicted);
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (disk != null) {
+      for (Map.Entry<String, DCacheEntry> evict : evicted) {
+        disk.put(evict.getKey(), evict.getValue());
+      }
+    }
+  }
+
+  private void remove(String key) {
+    final DCacheEntry inWindow = window.remove(key);
+    if (inWindow != null) {
+      windowBytes -= inWindow.weight();
+    }
+    final DCacheEntry inMain = main.remove(key);
+    if (inMain != null) {
+      mainBytes -= inMain.weight();
+    }
+  }
+
+  private void evictWindow(List<Map.Entry<String, DCacheEntry>> evicted) {
+    final Iterator<Map.Entry<String, DCacheEntry>> it = window.entrySet().iterator();
+    while (windowBytes > windowMaxBytes && it.hasNext()) {
+      final Map.Entry<String, DCacheEntry> candidate = it.next();
+      it.remove();
+      windowBytes -= candidate.getValue().weight();
+      if (admit(candidate.getKey(), candidate.getValue().weight(), evicted)) {
+        main.put(candidate.getKey(), candidate.getValue());
+        mainBytes += candidate.getValue().weight();
+      } else {
+        evicted.add(candidate);
+      }
+    }
+  }
+
+  /**
+   * Return true if the candidate is admitted to main evicting victims as needed.
+   */
+  private boolean admit(String key, int weight, List<Map.Entry<String, DCacheEntry>> evicted) {
+    if (mainBytes + weight <= mainMaxBytes) {
+      return true;
+    }
+    final int frequency = sketch.frequency(key.hashCode());
+    // check the victims that would need to be evicted before evicting any of them
+    long freed = 0;
+    final Iterator<Map.Entry<String, DCacheEntry>> check = main.entrySet().iterator();
+    while (mainBytes - freed + weight > mainMaxBytes && check.hasNext()) {
+      final Map.Entry<String, DCacheEntry> victim = check.next();
+      if (sketch.frequency(victim.getKey().hashCode()) >= frequency) {
+        return false;
+      }
+      freed += victim.getValue().weight();
+    }
+    final Iterator<Map.Entry<String, DCacheEntry>> it = main.entrySet().iterator();
+    while (mainBytes + weight > mainMaxBytes && it.hasNext()) {
+      final Map.Entry<String, DCacheEntry> victim = it.next();
+      it.remove();
+      mainBytes -= victim.getValue().weight();
+      evicted.add(victim);
+    }
+    return true;
+  }
+
+  long bytes() {
+    lock.lock();
+    try {
+      return windowBytes + mainBytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  boolean contains(String key) {
+    lock.lock();
+    try {
+      return window.containsKey(key) || main.containsKey(key);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void hit() {
+    hits.increment();
+  }
+
+  void miss() {
+    misses.increment();
+  }
+
+  void revalidated() {
+    revalidated.increment();
+  }
+
+  long hitCount(boolean reset) {
+    return reset ? hits.sumThenReset() : hits.sum();
+  }
+
+  long missCount(boolean reset) {
+    return reset ? misses.sumThenReset() : misses.sum();
+  }
+
+  long revalidatedCount(boolean reset) {
+    return reset ? revalidated.sumThenReset() : revalidated.sum();
+  }
+}
@@ -5,6 +5,16 @@ import java.util.Map;
 
 final class DUrlBuilder implements UrlBuilder {
 
+  /**
+   * Characters that URLEncoder leaves unchanged.
+   */
+  static boolean unreserved(char ch) {
+    return (ch >= 'a' && ch <= 'z')
+      || (ch >= 'A' && ch <= 'Z')
+      || (ch >= '0' && ch <= '9')
+      || ch == '-' || ch == '_' || ch == '.' || ch == '*';
+  }
+
   private final StringBuilder buffer;
   private boolean hasParams;
 
@@ -58,6 +68,30 @@ final class DUrlBuilder implements UrlBuilder {
     return path(val.toString());
   }
 
+  @Override
+  public UrlBuilder path(UrlTemplate template) {
+    template.append(buffer);
+    return this;
+  }
+
+  @Override
+  public UrlBuilder path(UrlTemplate template, Object value) {
+    template.append(buffer, value);
+    return this;
+  }
+
+  @Override
+  public UrlBuilder path(UrlTemplate template, Object value0, Object value1) {
+    template.append(buffer, value0, value1);
+    return this;
+  }
+
+  @Override
+  public UrlBuilder path(UrlTemplate template, Object... values) {
+    template.append(buffer, values);
+    return this;
+  }
+
   private void addQueryParam(String name, String safeValue) {
     buffer.append(hasParams ? '&' : '?');
     hasParams = true;
@@ -0,0 +1,94 @@
+package io.avaje.http.client;
+
+import io.avaje.applog.AppLog;
+
+import java.lang.System.Logger.Level;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warm up connections to the base urls when the client is built.
+ */
+final class DWarmUp {
+
+  private static final System.Logger log = AppLog.getLogger("io.avaje.http.client");
+
+  private DWarmUp() {
+  }
+
+  /**
+   * Send the warm-up requests recording the timings into the client metrics.
+   * <p>
+   * Unless async this waits for the warm-up to complete or timeout.
+   */
+  static CompletableFuture<Void> warmUp(DHttpClientContext context, WarmUpConfig config) {
+    final List<String> baseUrls = context.endpoints() != null
+      ? context.endpoints().baseUrls()
+      : List.of(context.baseUrl());
+
+    // HTTP/2 multiplexes requests over a single connection per host
+    final boolean http2 = context.httpClient().version() == java.net.http.HttpClient.Version.HTTP_2;
+    final int connections = http2 ? 1 : config.connections();
+    final long startNanos = System.nanoTime();
+    final List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+    for (String baseUrl : baseUrls) {
+      if (baseUrl != null && !baseUrl.isEmpty()) {
+        final String url = config.path().isEmpty() ? baseUrl : UrlBuilder.of(baseUrl).path(config.path()).build();
+        for (int i = 0; i < connections; i++) {
+          attempts.add(send(context, config, url));
+        }
+      }
+    }
+    final CompletableFuture<Void> future = CompletableFuture.allOf(attempts.toArray(CompletableFuture<?>[]::new))
+      .thenRun(() -> complete(context, attempts, System.nanoTime() - startNanos));
+
+    if (!config.async()) {
+      try {
+        future.get(config.timeout().toMillis(), TimeUnit.MILLISECONDS);
+      } catch (TimeoutException | ExecutionException e) {
+        log.log(Level.DEBUG, "warm-up did not complete within {0}", config.timeout());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    return future;
+  }
+
+  private static CompletableFuture<Boolean> send(DHttpClientContext context, WarmUpConfig config, String url) {
+    try {
+      final HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+        .method(config.method(), HttpRequest.BodyPublishers.noBody())
+        .timeout(config.timeout())
+        .build();
+
+      // any response means the connection is established and pooled
+      return context.transport()
+        .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        .handle((response, e) -> e == null);
+    } catch (IllegalArgumentException e) {
+      log.log(Level.WARNING, "Invalid warm-up url " + url, e);
+      return CompletableFuture.completedFuture(false);
+    }
+  }
+
+  private static void complete(DHttpClientContext context, List<CompletableFuture<Boolean>> attempts, long elapsedNanos) {
+    int errors = 0;
+    for (CompletableFuture<Boolean> attempt : attempts) {
+      if (!attempt.join()) {
+        errors++;
+      }
+    }
+    final long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+    context.metricsWarmUp(attempts.size() - errors, errors, micros);
+    if (log.isLoggable(Level.DEBUG)) {
+      log.log(Level.DEBUG, "warm-up connections:{0} errors:{1} micros:{2}", attempts.size(), errors, micros);
+    }
+  }
+}
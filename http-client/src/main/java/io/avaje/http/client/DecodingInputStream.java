@@ -0,0 +1,67 @@
+package io.avaje.http.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * InputStream that decodes the underlying content lazily on first use.
+ * <p>
+ * Decoders like {@link java.util.zip.GZIPInputStream} read the header on construction which
+ * would otherwise block the thread that maps the response body subscriber.
+ */
+final class DecodingInputStream extends InputStream {
+
+  /**
+   * Wraps the raw content with a decoding InputStream.
+   */
+  @FunctionalInterface
+  interface Decoder {
+
+    InputStream decode(InputStream source) throws IOException;
+  }
+
+  private final InputStream source;
+  private final Decoder decoder;
+  private InputStream decoded;
+
+  DecodingInputStream(InputStream source, Decoder decoder) {
+    this.source = source;
+    this.decoder = decoder;
+  }
+
+  private InputStream decoded() throws IOException {
+    if (decoded == null) {
+      decoded = decoder.decode(source);
+    }
+    return decoded;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return decoded().read();
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    return decoded().read(b, off, len);
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    return decoded().skip(n);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return decoded == null ? 0 : decoded.available();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (decoded != null) {
+      decoded.close();
+    } else {
+      source.close();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A BodyPublisher that gzip encodes the content on the fly as the subscriber requests it.
+ * <p>
+ * Content is deflated in chunks on demand such that the fully compressed content is never
+ * buffered in memory, and no additional thread is used. The uncompressed content is held
+ * as a byte[], stream content is instead compressed via {@link GzipUtil#gzip(java.util.function.Supplier)}.
+ */
+final class GzipBodyPublisher implements HttpRequest.BodyPublisher {
+
+  private static final int CHUNK_SIZE = 8192;
+  private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+  private final byte[] content;
+
+  GzipBodyPublisher(byte[] content) {
+    this.content = content;
+  }
+
+  @Override
+  public long contentLength() {
+    return -1;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+    subscriber.onSubscribe(new GzipSubscription(subscriber, content));
+  }
+
+  private static final class GzipSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super ByteBuffer> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final long crc;
+    private final int length;
+    private boolean headerSent;
+    private boolean trailerSent;
+    private boolean ended;
+    private volatile boolean done;
+
+    GzipSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, byte[] content) {
+      this.subscriber = subscriber;
+      final CRC32 crc32 = new CRC32();
+      crc32.update(content);
+      this.crc = crc32.getValue();
+      this.length = content.length;
+      this.deflater.setInput(content);
+      this.deflater.finish();
+    }
+
+    @Override
+    public void request(long n) {
+      if (done) {
+        return;
+      }
+      if (n <= 0) {
+        done = true;
+        subscriber.onError(new IllegalArgumentException("non-positive subscription request: " + n));
+      } else {
+        demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      }
+      drainLoop();
+    }
+
+    private void drainLoop() {
+      if (wip.getAndIncrement() != 0) {
+        // re-entrant call from onNext or concurrent call, the active drain loop picks up the demand
+        return;
+      }
+      do {
+        drain();
+      } while (wip.decrementAndGet() != 0);
+    }
+
+    private void drain() {
+      while (!done && demand.get() > 0) {
+        demand.decrementAndGet();
+        final ByteBuffer chunk;
+        try {
+          chunk = nextChunk();
+        } catch (RuntimeException e) {
+          done = true;
+          end();
+          subscriber.onError(e);
+          return;
+        }
+        subscriber.onNext(chunk);
+        if (trailerSent) {
+          done = true;
+          end();
+          subscriber.onComplete();
+          return;
+        }
+      }
+      if (done) {
+        // cancelled or errored
+        end();
+      }
+    }
+
+    /**
+     * Release the deflater, only called from the drain loop such that it is not in use.
+     */
+    private void end() {
+      if (!ended) {
+        ended = true;
+        deflater.end();
+      }
+    }
+
+    private ByteBuffer nextChunk() {
+      if (deflater.finished()) {
+        trailerSent = true;
+        return trailer();
+      }
+      final byte[] buffer = new byte[CHUNK_SIZE];
+      int offset = 0;
+      if (!headerSent) {
+        System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+        offset = HEADER.length;
+        headerSent = true;
+      }
+      while (offset < CHUNK_SIZE && !deflater.finished()) {
+        offset += deflater.deflate(buffer, offset, CHUNK_SIZE - offset);
+      }
+      return ByteBuffer.wrap(buffer, 0, offset);
+    }
+
+    private ByteBuffer trailer() {
+      final ByteBuffer trailer = ByteBuffer.allocate(8);
+      writeInt(trailer, (int) crc);
+      writeInt(trailer, length);
+      return trailer.flip();
+    }
+
+    private static void writeInt(ByteBuffer buffer, int value) {
+      // gzip trailer values are little endian
+      buffer.put((byte) value);
+      buffer.put((byte) (value >> 8));
+      buffer.put((byte) (value >> 16));
+      buffer.put((byte) (value >> 24));
+    }
+
+    @Override
+    public void cancel() {
+      done = true;
+      drainLoop();
+    }
+  }
+}
@@ -3,12 +3,18 @@ package io.avaje.http.client;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
 final class GzipUtil {
+
+  private static final int BUFFER_SIZE = 8192;
+
   private GzipUtil() {}
 
   static byte[] gzip(String content) {
@@ -32,4 +38,40 @@ final class GzipUtil {
       throw new UncheckedIOException("Error while gzip decoding content", e);
     }
   }
+
+  /**
+   * Return a BodyPublisher that gzip encodes the (already in memory) content as it is published.
+   */
+  static HttpRequest.BodyPublisher gzipPublisher(byte[] content) {
+    return new GzipBodyPublisher(content);
+  }
+
+  /**
+   * Return a writer that gzip encodes the content written by the given writer.
+   */
+  static OutputStreamBodyWriter gzip(OutputStreamBodyWriter writer) {
+    return outputStream -> {
+      final var gzip = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+      writer.write(gzip);
+      gzip.finish();
+    };
+  }
+
+  /**
+   * Return a writer that gzip encodes the content read from the given stream.
+   */
+  static OutputStreamBodyWriter gzip(Supplier<? extends InputStream> content) {
+    return gzip(outputStream -> {
+      try (InputStream input = content.get()) {
+        input.transferTo(outputStream);
+      }
+    });
+  }
+
+  /**
+   * Return an InputStream that incrementally decodes the gzip content as it is read.
+   */
+  static InputStream gzipDecode(InputStream content) {
+    return new DecodingInputStream(content, source -> new GZIPInputStream(source, BUFFER_SIZE));
+  }
 }
@@ -0,0 +1,228 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedged requests to reduce tail latency of idempotent GET and HEAD requests.
+ * <p>
+ * When a response has not been received within the hedge delay another attempt is sent
+ * (to the same or an alternate base url). The first response wins and the other attempts
+ * are cancelled. An error only fails the request when no other attempt is in flight.
+ * <p>
+ * The hedge delay adapts to the recorded response times (see {@link HttpClient.Metrics#latency()})
+ * of the request key using the given percentile (default p95) bounded by minDelay and maxDelay.
+ * Until enough response times are recorded for the key the initialDelay is used.
+ * <p>
+ * The hedge budget is shared by all requests using this policy and limits hedged attempts
+ * to a percentage of the requests such that hedging can not double the load on a service
+ * that is slow for everyone.
+ *
+ * <pre>{@code
+ *
+ *   HedgePolicy hedge = HedgePolicy.builder()
+ *     .percentile(95)
+ *     .minDelay(Duration.ofMillis(10))
+ *     .budgetPercent(5)
+ *     .build();
+ *
+ *   Customer customer = client.request()
+ *     .path("customers").path(id)
+ *     .hedge(hedge)
+ *     .GET()
+ *     .bean(Customer.class);
+ *
+ * }</pre>
+ */
+public final class HedgePolicy {
+
+  /** Number of recorded response times required to use the percentile. */
+  static final int MIN_SAMPLES = 20;
+
+  private static final long TOKEN = 100;
+
+  private final double percentile;
+  private final long initialNanos;
+  private final long minNanos;
+  private final long maxNanos;
+  private final int maxHedges;
+  private final String alternateBaseUrl;
+  private final int budgetPercent;
+  private final long budgetCapacity;
+  private final AtomicLong budget;
+
+  private HedgePolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.initialNanos = builder.initialDelay.toNanos();
+    this.minNanos = builder.minDelay.toNanos();
+    this.maxNanos = builder.maxDelay.toNanos();
+    this.maxHedges = builder.maxHedges;
+    this.alternateBaseUrl = builder.alternateBaseUrl;
+    this.budgetPercent = builder.budgetPercent;
+    this.budgetCapacity = TOKEN * builder.budgetBurst;
+    this.budget = new AtomicLong(budgetCapacity);
+  }
+
+  /**
+   * Return a new builder for HedgePolicy.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Return the maximum number of hedged attempts per request.
+   */
+  public int maxHedges() {
+    return maxHedges;
+  }
+
+  /**
+   * Return the base url hedged attempts are sent to (null for the same base url).
+   */
+  public String alternateBaseUrl() {
+    return alternateBaseUrl;
+  }
+
+  /**
+   * Return the hedge delay in nanos given the percentile of the recorded response time
+   * in micros (or -1 when there are not enough recorded response times).
+   */
+  long delayNanos(long percentileMicros) {
+    if (percentileMicros < 0) {
+      return initialNanos;
+    }
+    return Math.max(minNanos, Math.min(maxNanos, percentileMicros * 1000));
+  }
+
+  double percentile() {
+    return percentile;
+  }
+
+  /**
+   * Add to the hedge budget for a request.
+   */
+  void onRequest() {
+    if (budget.get() < budgetCapacity) {
+      budget.accumulateAndGet(budgetPercent, (current, add) -> Math.min(budgetCapacity, current + add));
+    }
+  }
+
+  /**
+   * Return true if the budget allows a hedged attempt.
+   */
+  boolean tryAcquireHedge() {
+    long current;
+    do {
+      current = budget.get();
+      if (current < TOKEN) {
+        return false;
+      }
+    } while (!budget.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  /**
+   * Builder for HedgePolicy.
+   */
+  public static final class Builder {
+
+    private double percentile = 95;
+    private Duration initialDelay = Duration.ofMillis(100);
+    private Duration minDelay = Duration.ofMillis(5);
+    private Duration maxDelay = Duration.ofSeconds(2);
+    private int maxHedges = 1;
+    private String alternateBaseUrl;
+    private int budgetPercent = 10;
+    private int budgetBurst = 10;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the percentile of the recorded response times used as the hedge delay (defaults to 95).
+     */
+    public Builder percentile(double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * Set the hedge delay used until enough response times are recorded (defaults to 100 millis).
+     */
+    public Builder initialDelay(Duration initialDelay) {
+      this.initialDelay = initialDelay;
+      return this;
+    }
+
+    /**
+     * Set the minimum hedge delay (defaults to 5 millis).
+     */
+    public Builder minDelay(Duration minDelay) {
+      this.minDelay = minDelay;
+      return this;
+    }
+
+    /**
+     * Set the maximum hedge delay (defaults to 2 seconds).
+     */
+    public Builder maxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    /**
+     * Set the maximum number of hedged attempts per request (defaults to 1).
+     * <p>
+     * Each further hedged attempt is sent after another hedge delay.
+     */
+    public Builder maxHedges(int maxHedges) {
+      this.maxHedges = maxHedges;
+      return this;
+    }
+
+    /**
+     * Send hedged attempts to this base url rather than the base url of the client.
+     */
+    public Builder alternateBaseUrl(String alternateBaseUrl) {
+      this.alternateBaseUrl = alternateBaseUrl;
+      return this;
+    }
+
+    /**
+     * Set the hedge budget as the percentage of requests that can be hedged (defaults to 10).
+     *
+     * @param budgetPercent The percentage of requests that can be hedged
+     * @param burst         The maximum number of hedged attempts in a burst (defaults to 10)
+     */
+    public Builder budgetPercent(int budgetPercent, int burst) {
+      this.budgetPercent = budgetPercent;
+      this.budgetBurst = burst;
+      return this;
+    }
+
+    /**
+     * Set the hedge budget as the percentage of requests that can be hedged (defaults to 10).
+     */
+    public Builder budgetPercent(int budgetPercent) {
+      this.budgetPercent = budgetPercent;
+      return this;
+    }
+
+    /**
+     * Build and return the HedgePolicy.
+     */
+    public HedgePolicy build() {
+      if (percentile <= 0 || percentile > 100) {
+        throw new IllegalArgumentException("Require 0 < percentile <= 100");
+      }
+      if (minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0 || initialDelay.isNegative()) {
+        throw new IllegalArgumentException("Require 0 <= minDelay <= maxDelay and initialDelay >= 0");
+      }
+      if (maxHedges < 1 || budgetPercent < 1 || budgetPercent > 100 || budgetBurst < 1) {
+        throw new IllegalArgumentException("Require positive maxHedges, budgetPercent (max 100) and burst");
+      }
+      return new HedgePolicy(this);
+    }
+  }
+}
@@ -5,6 +5,7 @@ import java.lang.reflect.Type;
 import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
 import java.util.stream.Stream;
 
 /**
@@ -470,4 +471,94 @@ public interface HttpAsyncResponse {
    */
   <E> CompletableFuture<Stream<E>> stream(Type type);
 
+  /**
+   * Process with the response body read by the given BodyReader.
+   * <p>
+   * The BodyReader is typically obtained once via {@link BodyAdapter#beanReader(Type)}
+   * and reused such that each request skips the lookup of the reader by type.
+   *
+   * @param reader The reader used to convert the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<HttpResponse<E>> as(BodyReader<E> reader);
+
+  /**
+   * Process with the response body read as a list by the given BodyReader
+   * (typically obtained via {@link BodyAdapter#listReader(Type)}).
+   *
+   * @param listReader The reader used to convert the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<HttpResponse<List<E>>> asList(BodyReader<List<E>> listReader);
+
+  /**
+   * Process response as a stream of beans (x-json-stream) read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<HttpResponse<Stream<E>>> asStream(BodyReader<E> reader);
+
+  /**
+   * Process expecting a bean response body read by the given BodyReader.
+   *
+   * @param reader The reader used to convert the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<E> bean(BodyReader<E> reader);
+
+  /**
+   * Process expecting a list of beans response body read by the given BodyReader.
+   *
+   * @param listReader The reader used to convert the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<List<E>> list(BodyReader<List<E>> listReader);
+
+  /**
+   * Process response as a stream of beans (x-json-stream) read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the content
+   * @return The CompletableFuture of the response
+   */
+  <E> CompletableFuture<Stream<E>> stream(BodyReader<E> reader);
+
+  /**
+   * Process response as a back pressured publisher of beans (x-json-stream).
+   * <p>
+   * Typically the response is expected to be {@literal application/x-json-stream}
+   * newline delimited json payload. Each record is read directly from the response
+   * bytes and only as the subscriber requests them, with more response content only
+   * requested from the connection as the buffered content is consumed.
+   * <p>
+   * The request is sent when the subscriber subscribes and only a single subscriber
+   * is supported. If the HTTP statusCode is not in the 2XX range the subscriber
+   * receives a HttpException via {@code onError()}.
+   * <p>
+   * As records are split on the raw content the response is expected to not be
+   * compressed (Accept-Encoding is not sent for this request).
+   *
+   * <pre>{@code
+   *
+   *   Flow.Publisher<Customer> publisher = clientContext.request()
+   *       .path("customers/stream")
+   *       .GET().async()
+   *       .publisher(Customer.class);
+   *
+   *   publisher.subscribe(new Flow.Subscriber<>() {
+   *       ...
+   *     });
+   *
+   * }</pre>
+   *
+   * @param type The bean type to convert the content to
+   * @return The publisher of the beans
+   */
+  <E> Flow.Publisher<E> publisher(Class<E> type);
+
+  /**
+   * The same as {@link #publisher(Class)} but using a generic type.
+   */
+  <E> Flow.Publisher<E> publisher(Type type);
+
 }
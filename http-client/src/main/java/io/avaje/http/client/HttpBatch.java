@@ -0,0 +1,113 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A batch of independent async calls executed with bounded concurrency and an overall deadline.
+ * <p>
+ * Use this for fan-out calls like a lookup per id. Calls are only started when there
+ * is capacity such that at most {@link #maxConcurrency(int)} are in flight, with HTTP/2
+ * these are multiplexed over a single connection. The failure of a call does not fail
+ * the batch but is reported as the error of its {@link Result}.
+ *
+ * <pre>{@code
+ *
+ *   List<HttpBatch.Result<Customer>> results = client.<Customer>batch()
+ *     .maxConcurrency(32)
+ *     .deadline(Duration.ofSeconds(2))
+ *     .addAll(customerIds, id -> client.request()
+ *       .path("customers").path(id)
+ *       .GET()
+ *       .async()
+ *       .bean(Customer.class))
+ *     .execute()
+ *     .join();
+ *
+ * }</pre>
+ *
+ * @param <T> The type of the result of each call
+ */
+public interface HttpBatch<T> {
+
+  /**
+   * Set the maximum number of calls in flight (defaults to 64).
+   */
+  HttpBatch<T> maxConcurrency(int maxConcurrency);
+
+  /**
+   * Set the overall deadline of the batch.
+   * <p>
+   * When the deadline is reached the calls not yet completed are cancelled and their
+   * results have a {@link java.util.concurrent.TimeoutException} error.
+   */
+  HttpBatch<T> deadline(Duration deadline);
+
+  /**
+   * Add a call to the batch. The supplier is invoked when the call is started.
+   * <p>
+   * Typically the supplier sends an async request like
+   * {@code () -> client.request().path("foo").GET().async().bean(Foo.class)} or invokes
+   * a generated client method returning a {@link CompletableFuture}.
+   */
+  HttpBatch<T> add(Supplier<CompletableFuture<T>> call);
+
+  /**
+   * Add a call to the batch for each of the items.
+   *
+   * @param items The items like the ids to look up
+   * @param call  Function that sends the async request for an item
+   */
+  <I> HttpBatch<T> addAll(Collection<I> items, Function<I, CompletableFuture<T>> call);
+
+  /**
+   * Execute the batch returning the results in the order the calls were added.
+   * <p>
+   * The future completes when all the calls have completed or the deadline is reached.
+   */
+  CompletableFuture<List<Result<T>>> execute();
+
+  /**
+   * Return a publisher of the results in the order the calls complete.
+   * <p>
+   * The batch is executed when the (single) subscriber subscribes. Use {@link Result#index()}
+   * to correlate the result with the call.
+   */
+  Flow.Publisher<Result<T>> publisher();
+
+  /**
+   * The result of a call in the batch.
+   *
+   * @param <T> The type of the result value
+   */
+  interface Result<T> {
+
+    /**
+     * Return the index of the call in the order it was added to the batch.
+     */
+    int index();
+
+    /**
+     * Return true if the call completed successfully.
+     */
+    boolean isSuccess();
+
+    /**
+     * Return the value of a successful call (null when the call failed).
+     */
+    T value();
+
+    /**
+     * Return the error of a failed call (null when the call was successful).
+     * <p>
+     * This is typically a {@link HttpException} for an error response or a
+     * {@link java.util.concurrent.TimeoutException} when the deadline was reached.
+     */
+    Throwable error();
+  }
+}
@@ -249,4 +249,56 @@ public interface HttpCallResponse {
    */
   <E> HttpCall<Stream<E>> stream(Type type);
 
+  /**
+   * Process with the response body read by the given BodyReader.
+   * <p>
+   * The BodyReader is typically obtained once via {@link BodyAdapter#beanReader(Type)}
+   * and reused such that each request skips the lookup of the reader by type.
+   *
+   * @param reader The reader used to convert the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<HttpResponse<E>> as(BodyReader<E> reader);
+
+  /**
+   * Process with the response body read as a list by the given BodyReader
+   * (typically obtained via {@link BodyAdapter#listReader(Type)}).
+   *
+   * @param listReader The reader used to convert the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<HttpResponse<List<E>>> asList(BodyReader<List<E>> listReader);
+
+  /**
+   * Process with the response body as a stream of beans read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<HttpResponse<Stream<E>>> asStream(BodyReader<E> reader);
+
+  /**
+   * Process expecting a bean response body read by the given BodyReader.
+   *
+   * @param reader The reader used to convert the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<E> bean(BodyReader<E> reader);
+
+  /**
+   * Process expecting a list of beans response body read by the given BodyReader.
+   *
+   * @param listReader The reader used to convert the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<List<E>> list(BodyReader<List<E>> listReader);
+
+  /**
+   * Process expecting a stream of beans response body read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the content
+   * @return The HttpCall to execute sync or async
+   */
+  <E> HttpCall<Stream<E>> stream(BodyReader<E> reader);
+
 }
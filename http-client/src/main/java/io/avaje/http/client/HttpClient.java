@@ -8,9 +8,11 @@ import java.net.Authenticator;
 import java.net.CookieHandler;
 import java.net.ProxySelector;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * The HTTP client context that we use to build and process requests.
@@ -77,6 +79,24 @@ public interface HttpClient extends AutoCloseable {
    */
   HttpClientRequest request();
 
+  /**
+   * Create a new batch of async calls executed with bounded concurrency.
+   *
+   * <pre>{@code
+   *
+   *   List<HttpBatch.Result<Customer>> results = client.<Customer>batch()
+   *     .deadline(Duration.ofSeconds(2))
+   *     .addAll(customerIds, id -> customerApi.findAsync(id))
+   *     .execute()
+   *     .join();
+   *
+   * }</pre>
+   *
+   * @param <T> The type of the result of each call
+   * @see HttpBatch
+   */
+  <T> HttpBatch<T> batch();
+
   /**
    * Returns a UrlBuilder to build a URL, considering the base URL.
    */
@@ -142,6 +162,31 @@ public interface HttpClient extends AutoCloseable {
      */
     Builder baseUrl(String baseUrl);
 
+    /**
+     * Set multiple base URLs that requests are load balanced across.
+     * <p>
+     * Each request selects the base url with the fewest outstanding requests out of two
+     * chosen at random. A base url with consecutive errors (5xx or IOException) or a
+     * response time that is an outlier compared to the others is ejected for a period.
+     * Retries and hedged requests prefer a different base url.
+     * <p>
+     * Generated clients work unchanged as their requests are built from {@link HttpClient#url()}.
+     *
+     * @param baseUrls The base urls to load balance across
+     */
+    Builder baseUrls(String... baseUrls);
+
+    /**
+     * Set a supplier of the base URLs that requests are load balanced across.
+     * <p>
+     * The supplier is used with service discovery and is read at most once per second.
+     * The health of base urls that remain in the list is retained.
+     *
+     * @param baseUrls The supplier of base urls to load balance across
+     * @see #baseUrls(String...)
+     */
+    Builder baseUrls(Supplier<List<String>> baseUrls);
+
     /**
      * Set the default mapper to be used to transform {@link HttpException} into a different kind of
      * exception. Individual requests can override with their own mapper.
@@ -207,6 +252,121 @@ public interface HttpClient extends AutoCloseable {
      */
     Builder requestLogging(boolean requestLogging);
 
+    /**
+     * Set to true to read response content for {@code bean()} and {@code list()} requests
+     * directly from the response InputStream rather than first buffering it as bytes.
+     * <p>
+     * This reduces peak memory for large responses. Error responses are still read fully
+     * such that the content is available via {@link HttpException}. Individual requests
+     * can override this via {@link HttpClientRequest#streamingRead(boolean)}.
+     * <p>
+     * Streaming read does not apply to GET requests that use the {@link #responseCache(ResponseCacheConfig)}
+     * or to coalesced requests, these read the content as bytes such that it can be shared.
+     *
+     * @param streamingRead Set true to read response content via the InputStream by default
+     */
+    Builder streamingRead(boolean streamingRead);
+
+    /**
+     * Set a circuit breaker applied to all requests.
+     * <p>
+     * A circuit breaker is maintained per key where the key is the request label if set,
+     * otherwise the {@link UrlTemplate} path if used, otherwise the scheme and host of
+     * the url. When open, requests fail fast with {@link CircuitBreakerOpenException}.
+     * Individual requests can override this via {@link HttpClientRequest#circuitBreaker(CircuitBreakerConfig)}.
+     *
+     * @param circuitBreaker The circuit breaker configuration
+     */
+    Builder circuitBreaker(CircuitBreakerConfig circuitBreaker);
+
+    /**
+     * Set the maximum number of concurrent requests per key (same key as the circuit breaker).
+     * <p>
+     * When the limit is reached requests fail fast with {@link BulkheadFullException} rather
+     * than waiting such that a slow target can not tie up all the callers.
+     * Individual requests can override this via {@link HttpClientRequest#bulkhead(int)}.
+     *
+     * @param maxConcurrentRequests The maximum number of concurrent requests per key
+     */
+    Builder bulkhead(int maxConcurrentRequests);
+
+    /**
+     * Set a rate limiter applied to all requests.
+     * <p>
+     * Requests wait for a permit such that the send rate stays under the quota of the
+     * upstream and fail with {@link RateLimitExceededException} when the wait would exceed
+     * the maxWait of the rate limiter. Synchronous requests block waiting and async
+     * requests wait without blocking a thread. Individual requests can additionally be
+     * limited via {@link HttpClientRequest#rateLimiter(RateLimiter)}.
+     *
+     * @param rateLimiter The rate limiter
+     */
+    Builder rateLimiter(RateLimiter rateLimiter);
+
+    /**
+     * Enable caching of GET responses honouring {@code Cache-Control}, {@code ETag}
+     * and {@code Last-Modified}.
+     * <p>
+     * The decoded content of cacheable responses read via {@code bean()}, {@code list()},
+     * {@code asVoid()} or a {@link BodyReader} is cached and shared by all requests of this
+     * client keyed by url. Streaming reads and async requests are not cached.
+     *
+     * @param responseCache The response cache configuration
+     * @see Metrics#cacheHitCount()
+     */
+    Builder responseCache(ResponseCacheConfig responseCache);
+
+    /**
+     * Set the hedge policy for GET and HEAD requests.
+     * <p>
+     * When a response is not received within the hedge delay another attempt is sent and
+     * the first response wins. Individual requests can override this via
+     * {@link HttpClientRequest#hedge(HedgePolicy)}.
+     *
+     * @param hedgePolicy The hedge policy
+     */
+    Builder hedge(HedgePolicy hedgePolicy);
+
+    /**
+     * Warm up the connections to the base url(s) when the client is built.
+     * <p>
+     * A cheap request is sent to each base url such that the TCP connection, TLS handshake
+     * and HTTP/2 negotiation are done before the first real request. This uses the
+     * {@link #version(java.net.http.HttpClient.Version)} of the client to determine if a single
+     * multiplexed HTTP/2 connection or multiple HTTP/1.1 connections are opened. The timings
+     * are reported via {@link Metrics#warmUpMicros()}.
+     *
+     * @param warmUp The warm-up configuration
+     */
+    Builder warmUp(WarmUpConfig warmUp);
+
+    /**
+     * Set true to coalesce concurrent identical GET and HEAD requests onto a single
+     * in-flight exchange. Defaults to false.
+     * <p>
+     * Requests are identical when they have the same method, url and request headers
+     * (see {@link #coalesceKeyHeaders(String...)}). The requests sharing an exchange each
+     * read their own result from the shared response content. This applies to the content
+     * read via {@code bean()}, {@code list()}, {@code asVoid()} and {@link BodyReader}
+     * both sync and async. Individual requests can override this via
+     * {@link HttpClientRequest#coalesce(boolean)}.
+     *
+     * @param coalesce Set true to coalesce identical in-flight GET and HEAD requests
+     */
+    Builder coalesce(boolean coalesce);
+
+    /**
+     * Set the request headers that form part of the key of coalesced requests.
+     * <p>
+     * By default all the headers set on the request are part of the key. Set this when
+     * requests have headers that do not affect the response (like a request id) such that
+     * these requests can still be coalesced. Conditional {@code If-*} headers are always
+     * part of the key.
+     *
+     * @param headerNames The names of the headers included in the key
+     */
+    Builder coalesceKeyHeaders(String... headerNames);
+
     /**
      * Add a request listener. Multiple listeners may be added, when
      * do so they will process events in the order they were added.
@@ -247,12 +407,39 @@ public interface HttpClient extends AutoCloseable {
     /**
      * Duration before token expiry where a background task will refresh the token. Defaults to 5 minutes.
      * <p>
+     * Only a single token refresh is in flight at a time. Requests that find the token missing or
+     * expired wait on that refresh rather than each invoking the {@link AuthTokenProvider}, and
+     * the background refresh does not block the request that triggered it.
+     * <p>
      * Set to null to disable background token refresh.
      *
      * @param backgroundTokenRefresh The duration before token expiry that triggers a background refresh.
      */
     Builder backgroundTokenRefresh(Duration backgroundTokenRefresh);
 
+    /**
+     * Register a content decoder used to decode response content of the given content encoding.
+     * <p>
+     * Decoders for {@code gzip} and {@code deflate} are built in and decoders registered via
+     * {@code META-INF/services/io.avaje.http.client.ContentDecoder} are loaded automatically.
+     * With {@link #acceptEncoding(boolean)} the encodings of all the decoders are sent in the
+     * <code>Accept-Encoding</code> header of requests where the client reads the response content.
+     *
+     * @param contentDecoder The decoder to register (replaces any existing decoder of the same encoding)
+     */
+    Builder contentDecoder(ContentDecoder contentDecoder);
+
+    /**
+     * Set to true to send the <code>Accept-Encoding</code> header listing the encodings of the
+     * content decoders for requests where the client reads the response content (bean, list,
+     * stream, lines, string, void). Defaults to false.
+     * <p>
+     * Requests that explicitly set the <code>Accept-Encoding</code> header are unchanged.
+     *
+     * @param acceptEncoding Set true to negotiate the response content encoding
+     */
+    Builder acceptEncoding(boolean acceptEncoding);
+
     /**
      * Set the underlying HttpClient to use.
      * <p>
@@ -260,6 +447,26 @@ public interface HttpClient extends AutoCloseable {
      */
     Builder client(java.net.http.HttpClient client);
 
+    /**
+     * Set the transport used to send the requests.
+     * <p>
+     * Defaults to the JDK HttpClient. Use {@link LoopbackTransport} to dispatch requests
+     * to a handler in-process (no sockets) to load test or benchmark a client apart from
+     * the network.
+     *
+     * <pre>{@code
+     *
+     *   HttpClient client = HttpClient.builder()
+     *     .baseUrl("http://loopback")
+     *     .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.json("{\"id\":42}")))
+     *     .build();
+     *
+     * }</pre>
+     *
+     * @param transport The transport used to send the requests
+     */
+    Builder transport(HttpTransport transport);
+
     /**
      * Specify a cookie handler to use on the HttpClient. This would override the default cookie handler.
      *
@@ -286,9 +493,42 @@ public interface HttpClient extends AutoCloseable {
      * If not specified a default executor will be used.
      *
      * @see java.net.http.HttpClient.Builder#executor(Executor)
+     * @see #virtualThreads(boolean)
      */
     Builder executor(Executor executor);
 
+    /**
+     * Set false to not use virtual threads by default (defaults to true).
+     * <p>
+     * On JDK 21+ and when no {@link #executor(Executor)} is specified, the underlying
+     * {@link java.net.http.HttpClient} uses a virtual thread per task executor. When a
+     * {@link #client(java.net.http.HttpClient)} without an executor is supplied, async
+     * completion, delayed retries and hedged attempts use a virtual thread per task executor
+     * rather than the common ForkJoinPool. Background token refresh runs on a virtual thread.
+     * <p>
+     * Sync requests run on the calling thread so when called from virtual threads the
+     * client does not pin the carrier thread. The client does not block while holding a
+     * monitor: the response cache uses a ReentrantLock with file IO done outside the lock,
+     * sync retry delays use {@code Thread.sleep()} and coalesced requests wait via
+     * {@code CompletableFuture.join()} which both unmount the virtual thread.
+     * <p>
+     * With JDK 17 or when set to false the JDK HttpClient default executor (a cached
+     * platform thread pool) is used.
+     */
+    Builder virtualThreads(boolean virtualThreads);
+
+    /**
+     * Specify the Executor that async requests complete on.
+     * <p>
+     * Async requests do not block a thread waiting for the response. Without this the
+     * async responses complete on the executor of the underlying {@link java.net.http.HttpClient}.
+     * This executor is also used to schedule delayed retry attempts and to execute interceptors
+     * that only implement the blocking {@link RequestIntercept#intercept}.
+     *
+     * @param completionExecutor The executor async responses complete on
+     */
+    Builder completionExecutor(Executor completionExecutor);
+
     /**
      * Set the proxy to the underlying {@link java.net.http.HttpClient}.
      *
@@ -432,6 +672,115 @@ public interface HttpClient extends AutoCloseable {
      * Return the average response time in microseconds.
      */
     long avgMicros();
+
+    /**
+     * Return the number of times an {@link AuthTokenProvider} was invoked to obtain a new token.
+     */
+    long tokenRefreshCount();
+
+    /**
+     * Return the number of failed attempts to obtain a new token.
+     */
+    long tokenRefreshErrorCount();
+
+    /**
+     * Return the total time in microseconds spent obtaining new tokens.
+     */
+    long tokenRefreshMicros();
+
+    /**
+     * Return the response time histograms by request key.
+     * <p>
+     * The key is the request label if set (generated clients using {@code @CircuitBreaker}
+     * or {@code @Bulkhead} set it to the interface and method name), otherwise the
+     * {@link UrlTemplate} path if used, otherwise the scheme and host of the url.
+     */
+    Map<String, Latency> latency();
+
+    /**
+     * Return the number of GET requests served from the response cache.
+     */
+    long cacheHitCount();
+
+    /**
+     * Return the number of cacheable GET requests not served from the response cache.
+     */
+    long cacheMissCount();
+
+    /**
+     * Return the number of stale cached responses revalidated via a 304 Not Modified.
+     */
+    long cacheRevalidatedCount();
+
+    /**
+     * Return the number of connections warmed up when the client was built.
+     *
+     * @see Builder#warmUp(WarmUpConfig)
+     */
+    long warmUpCount();
+
+    /**
+     * Return the number of warm-up requests that failed.
+     */
+    long warmUpErrorCount();
+
+    /**
+     * Return the time in microseconds taken to warm up the connections.
+     */
+    long warmUpMicros();
+  }
+
+  /**
+   * Snapshot of a response time histogram.
+   * <p>
+   * Response times are recorded into log-linear buckets with a relative error of about 6%.
+   */
+  interface Latency {
+
+    /**
+     * Return the number of responses.
+     */
+    long count();
+
+    /**
+     * Return the total response time in microseconds.
+     */
+    long totalMicros();
+
+    /**
+     * Return the max response time in microseconds.
+     */
+    long maxMicros();
+
+    /**
+     * Return the average response time in microseconds.
+     */
+    long avgMicros();
+
+    /**
+     * Return the response time in microseconds at the given percentile (0 to 100).
+     */
+    long percentile(double percentile);
+
+    /**
+     * Visit each non-empty bucket in ascending order (to export the histogram).
+     */
+    void forEachBucket(BucketConsumer consumer);
+  }
+
+  /**
+   * Consumer of histogram buckets.
+   */
+  @FunctionalInterface
+  interface BucketConsumer {
+
+    /**
+     * Accept a histogram bucket.
+     *
+     * @param upperBoundMicros The inclusive upper bound of the bucket in microseconds
+     * @param count            The number of responses in the bucket
+     */
+    void accept(long upperBoundMicros, long count);
   }
 
   /** Components register Generated Client interface Providers */
@@ -71,6 +71,15 @@ public interface HttpClientRequest extends Cloneable {
    */
   String label();
 
+  /**
+   * Return the precompiled url template added via {@link #path(UrlTemplate, Object...)} or
+   * null when the path was not added via a template.
+   * <p>
+   * Generated clients use a template per client method such that the template provides a
+   * low-cardinality name for the request (for example the OpenTelemetry {@code url.template}).
+   */
+  UrlTemplate urlTemplate();
+
   /**
    * Used to pass custom attribute between {@link RequestIntercept} methods.
    * <p>
@@ -161,12 +170,88 @@ public interface HttpClientRequest extends Cloneable {
 
   /**
    * Set if body content should be gzip encoded.
+   * <p>
+   * The content is compressed as it is sent rather than being compressed into an
+   * intermediate buffer. Body content such as a bean, String or byte[] is held
+   * uncompressed in memory, use an InputStream, Path or {@link OutputStreamBodyWriter}
+   * body to avoid this for large content.
    *
    * @param gzip Set true to gzip encode the body content.
    * @return The request being built
    */
   HttpClientRequest gzip(boolean gzip);
 
+  /**
+   * Set if the response content for {@code bean()} and {@code list()} should be read
+   * directly from the response InputStream rather than first buffering it as bytes.
+   * <p>
+   * This defaults to the setting on {@link HttpClient.Builder#streamingRead(boolean)}. Streaming
+   * read does not apply when the response cache or coalescing is used for the request.
+   *
+   * @param streamingRead Set true to read the response content via the InputStream.
+   * @return The request being built
+   */
+  HttpClientRequest streamingRead(boolean streamingRead);
+
+  /**
+   * Set the circuit breaker for this request overriding the one set on the client.
+   * <p>
+   * The circuit breaker is keyed by label if set, otherwise the {@link UrlTemplate} path
+   * if used, otherwise the scheme and host of the url. All requests for a key must use
+   * the same circuit breaker and bulkhead configuration, a request with a different
+   * configuration fails with IllegalStateException so use a distinct label for it.
+   *
+   * @param circuitBreaker The circuit breaker configuration
+   * @return The request being built
+   */
+  HttpClientRequest circuitBreaker(CircuitBreakerConfig circuitBreaker);
+
+  /**
+   * Set the maximum number of concurrent requests for this request's key overriding
+   * the bulkhead set on the client.
+   * <p>
+   * As with {@link #circuitBreaker(CircuitBreakerConfig)} all requests for a key must use
+   * the same bulkhead configuration.
+   *
+   * @param maxConcurrentRequests The maximum number of concurrent requests
+   * @return The request being built
+   */
+  HttpClientRequest bulkhead(int maxConcurrentRequests);
+
+  /**
+   * Set a rate limiter for this request that applies in addition to the one set on the
+   * client.
+   * <p>
+   * The rate limiter is shared by all the requests it is set on such that for example a
+   * single rate limiter can be used for all the requests to an upstream with a quota.
+   *
+   * @param rateLimiter The rate limiter
+   * @return The request being built
+   */
+  HttpClientRequest rateLimiter(RateLimiter rateLimiter);
+
+  /**
+   * Set if this request is coalesced with concurrent identical GET or HEAD requests
+   * overriding the default set on the client.
+   *
+   * @param coalesce Set true to share the in-flight exchange of identical requests
+   * @return The request being built
+   * @see HttpClient.Builder#coalesce(boolean)
+   */
+  HttpClientRequest coalesce(boolean coalesce);
+
+  /**
+   * Set the hedge policy for this GET or HEAD request overriding the policy set on the client.
+   * <p>
+   * When a response is not received within the hedge delay another attempt is sent and
+   * the first response wins. This applies to both sync and {@link HttpAsyncResponse async}
+   * requests. Use {@code hedge(null)} to not hedge this request.
+   *
+   * @param hedgePolicy The hedge policy or null for no hedging
+   * @return The request being built
+   */
+  HttpClientRequest hedge(HedgePolicy hedgePolicy);
+
   /**
    * Set the URL to use replacing the base URL.
    * <pre>{code
@@ -231,6 +316,45 @@ public interface HttpClientRequest extends Cloneable {
    */
   HttpClientRequest path(Object val);
 
+  /**
+   * Add the path of the precompiled template that has no path parameters.
+   *
+   * @param template The precompiled path template
+   * @return The request being built
+   */
+  HttpClientRequest path(UrlTemplate template);
+
+  /**
+   * Add the path of the precompiled template with the given path parameter value.
+   *
+   * @param template The precompiled path template
+   * @param value The path parameter value (not null)
+   * @return The request being built
+   */
+  HttpClientRequest path(UrlTemplate template, Object value);
+
+  /**
+   * Add the path of the precompiled template with the given path parameter values.
+   *
+   * @param template The precompiled path template
+   * @param value0 The first path parameter value (not null)
+   * @param value1 The second path parameter value (not null)
+   * @return The request being built
+   */
+  HttpClientRequest path(UrlTemplate template, Object value0, Object value1);
+
+  /**
+   * Add the path of the precompiled template with the given path parameter values.
+   * <p>
+   * Templates with one or two path parameters use the fixed arity methods which avoid
+   * allocating the values array.
+   *
+   * @param template The precompiled path template
+   * @param values The path parameter values (not null) in the order of the template placeholders
+   * @return The request being built
+   */
+  HttpClientRequest path(UrlTemplate template, Object... values);
+
   /**
    * Add a matrix parameter to the current path segment.
    *
@@ -355,6 +479,42 @@ public interface HttpClientRequest extends Cloneable {
    */
   HttpClientRequest body(Object bean, Type type);
 
+  /**
+   * Set the body as a bean written by the given BodyWriter using the default content type.
+   * <p>
+   * The BodyWriter is typically obtained once via {@link BodyAdapter#beanWriter(Type)}
+   * and reused such that each request skips the lookup of the writer by type.
+   *
+   * @param bean   The body content as an instance
+   * @param writer The writer used to write the body content
+   * @return The request being built
+   */
+  <T> HttpClientRequest body(T bean, BodyWriter<T> writer);
+
+  /**
+   * Set the body as a bean written by the given BodyWriter with the given content type.
+   * <p>
+   * Used with a {@link NegotiatingBodyAdapter} to write the body using a binary
+   * content type such as {@code application/cbor}.
+   *
+   * @param bean        The body content as an instance
+   * @param writer      The writer used to write the body content
+   * @param contentType The content type to write the body as
+   * @return The request being built
+   */
+  <T> HttpClientRequest body(T bean, BodyWriter<T> writer, String contentType);
+
+  /**
+   * Set the body as a bean with the given content type additionally specifying the
+   * (generic) type that will be used to serialise the content.
+   *
+   * @param bean        The body content as an instance
+   * @param type        The type used by the body content adapter to write the body content
+   * @param contentType The content type to write the body as
+   * @return The request being built
+   */
+  HttpClientRequest body(Object bean, Type type, String contentType);
+
   /**
    * Set the body as a bean with the given content type and additionally specifying
    * the type that will be used to serialise the content (e.g. JsonbAdapter).
@@ -244,6 +244,74 @@ public interface HttpClientResponse {
    */
   <T> Stream<T> stream(Type type);
 
+  /**
+   * Return the response with the body read by the given BodyReader.
+   * <p>
+   * The BodyReader is typically obtained once via {@link BodyAdapter#beanReader(Type)}
+   * and reused such that each request skips the lookup of the reader by type.
+   *
+   * @param reader The reader used to convert the response content
+   * @param <T>    The type that the content is converted to.
+   * @return The response containing the converted body.
+   * @throws HttpException when the response has error status codes
+   */
+  <T> HttpResponse<T> as(BodyReader<T> reader);
+
+  /**
+   * Return the response with the body read as a list by the given BodyReader
+   * (typically obtained via {@link BodyAdapter#listReader(Type)}).
+   *
+   * @param listReader The reader used to convert the response content
+   * @param <T>        The type that the content is converted to.
+   * @return The response containing the converted body.
+   * @throws HttpException when the response has error status codes
+   */
+  <T> HttpResponse<List<T>> asList(BodyReader<List<T>> listReader);
+
+  /**
+   * Return the response with the body as a stream of beans read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the response content
+   * @param <T>    The type that the content is converted to.
+   * @return The response containing the converted body.
+   * @throws HttpException when the response has error status codes
+   */
+  <T> HttpResponse<Stream<T>> asStream(BodyReader<T> reader);
+
+  /**
+   * Return the response as a single bean read by the given BodyReader.
+   * <p>
+   * Unlike {@link #read(BodyReader)} this returns null for empty content and
+   * supports {@link HttpClientRequest#streamingRead(boolean)}.
+   *
+   * @param reader The reader used to convert the response content
+   * @param <T>    The type that the content is converted to.
+   * @return The bean the response is converted into.
+   * @throws HttpException when the response has error status codes
+   */
+  <T> T bean(BodyReader<T> reader);
+
+  /**
+   * Return the response as a list of beans read by the given BodyReader
+   * (typically obtained via {@link BodyAdapter#listReader(Type)}).
+   *
+   * @param listReader The reader used to convert the response content
+   * @param <T>        The type that the content is converted to.
+   * @return The list of beans the response is converted into.
+   * @throws HttpException when the response has error status codes
+   */
+  <T> List<T> list(BodyReader<List<T>> listReader);
+
+  /**
+   * Return the response as a stream of beans read by the given BodyReader.
+   *
+   * @param reader The reader used to convert each line of the response content
+   * @param <T>    The type that the content is converted to.
+   * @return The stream of beans from the response
+   * @throws HttpException when the response has error status codes
+   */
+  <T> Stream<T> stream(BodyReader<T> reader);
+
   /**
    * Return the response with check for 200 range status code.
    * <p>
@@ -98,6 +98,15 @@ public class HttpException extends RuntimeException {
     this.responseAsBytes = true;
   }
 
+  HttpException(HttpResponse<?> httpResponse, DHttpClientContext context, BodyContent body) {
+    super("Http call failed with status: " + httpResponse.statusCode());
+    this.httpResponse = httpResponse;
+    this.statusCode = httpResponse.statusCode();
+    this.context = context;
+    this.responseAsBytes = true;
+    this.body = body;
+  }
+
   private BodyContent readBody() {
     if (body == null) {
       body = context.readErrorContent(responseAsBytes, httpResponse);
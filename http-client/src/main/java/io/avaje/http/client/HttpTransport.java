@@ -0,0 +1,64 @@
+package io.avaje.http.client;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The transport that sends the requests and returns the responses.
+ * <p>
+ * The default transport is the JDK {@link java.net.http.HttpClient}. An alternative transport
+ * can be set via {@link HttpClient.Builder#transport(HttpTransport)} such as the
+ * {@link LoopbackTransport} which dispatches requests to a handler function in-process
+ * (no sockets) for load testing and benchmarking generated clients.
+ * <p>
+ * The requests are fully built including headers, the body publisher and the timeout.
+ * Retry, interceptors, listeners, caching and content decoding are all performed by
+ * the client above the transport.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl("http://loopback")
+ *     .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.ok("hello")))
+ *     .build();
+ *
+ * }</pre>
+ */
+public interface HttpTransport {
+
+  /**
+   * Return a transport that uses the given JDK HttpClient.
+   */
+  static HttpTransport of(java.net.http.HttpClient httpClient) {
+    return new DJdkTransport(httpClient);
+  }
+
+  /**
+   * Send the request blocking until the response is available.
+   *
+   * @param request     The request to send
+   * @param bodyHandler The handler of the response body
+   * @return The response
+   */
+  <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException;
+
+  /**
+   * Send the request asynchronously.
+   * <p>
+   * Cancelling the returned future should cancel the exchange where supported.
+   *
+   * @param request     The request to send
+   * @param bodyHandler The handler of the response body
+   * @return The future of the response
+   */
+  <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler);
+
+  /**
+   * Close the transport releasing any resources. Called when the HttpClient is closed.
+   */
+  default void close() {
+    // do nothing by default
+  }
+}
@@ -1,40 +1,134 @@
 package io.avaje.http.client;
 
 import java.net.http.HttpResponse;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 /**
  * Processing of multiple RequestIntercept.
  *
  * <p>Noting that afterResponse interceptors are processed in reverse order.
+ *
+ * <p>The chain is immutable and created once per client. Each request that has interceptors
+ * to process uses a lightweight index based invocation, and when there are no interceptors
+ * the call is invoked directly.
+ *
+ * <p>Async requests use {@link RequestIntercept#interceptAsync} such that no thread waits on the
+ * response, unless an interceptor only implements the blocking {@code intercept()} in which case
+ * the blocking chain is executed via the completion executor.
  */
-final class InterceptorChain implements RequestIntercept.InterceptChain {
+final class InterceptorChain {
 
-  private final Iterator<RequestIntercept> intercepts;
-  private final Supplier<HttpResponse<?>> callInvocation;
-  private HttpResponse<?> response;
+  private final RequestIntercept[] intercepts;
+  private final boolean blockingAsync;
 
-  InterceptorChain(List<RequestIntercept> interceptors, Supplier<HttpResponse<?>> request) {
-    this.intercepts = List.copyOf(interceptors).iterator();
-    this.callInvocation = request;
+  InterceptorChain(List<RequestIntercept> interceptors) {
+    this.intercepts = interceptors == null ? new RequestIntercept[0] : interceptors.toArray(new RequestIntercept[0]);
+    this.blockingAsync = blockingAsync(intercepts);
   }
 
-  @Override
-  public HttpResponse<?> proceed(HttpClientRequest request) {
-    if (intercepts.hasNext()) {
-      intercepts.next().intercept(request, this);
+  /**
+   * Return true if any interceptor overrides intercept() but not interceptAsync().
+   */
+  private static boolean blockingAsync(RequestIntercept[] intercepts) {
+    for (final RequestIntercept intercept : intercepts) {
+      try {
+        final Class<?> type = intercept.getClass();
+        if (type.getMethod("intercept", HttpClientRequest.class, RequestIntercept.InterceptChain.class).getDeclaringClass() != RequestIntercept.class
+          && type.getMethod("interceptAsync", HttpClientRequest.class, RequestIntercept.AsyncInterceptChain.class).getDeclaringClass() == RequestIntercept.class) {
+          return true;
+        }
+      } catch (NoSuchMethodException e) {
+        return true;
+      }
     }
-    if (response != null) {
-      return response;
+    return false;
+  }
+
+  /**
+   * Return true if there are no interceptors.
+   */
+  boolean isEmpty() {
+    return intercepts.length == 0;
+  }
+
+  /**
+   * Process the interceptors for the request with the given call.
+   */
+  HttpResponse<?> proceed(HttpClientRequest request, Supplier<HttpResponse<?>> call) {
+    if (intercepts.length == 0) {
+      return call.get();
+    }
+    return new Invocation(intercepts, call).proceed(request);
+  }
+
+  /**
+   * Process the interceptors for the async request with the given call.
+   *
+   * @param executor The executor used when an interceptor only supports the blocking chain
+   */
+  @SuppressWarnings("unchecked")
+  CompletableFuture<HttpResponse<?>> proceedAsync(HttpClientRequest request, Supplier<? extends CompletableFuture<? extends HttpResponse<?>>> call, Executor executor) {
+    if (intercepts.length == 0) {
+      return (CompletableFuture<HttpResponse<?>>) call.get();
+    }
+    if (blockingAsync) {
+      return CompletableFuture.supplyAsync(() -> proceed(request, () -> call.get().join()), executor);
+    }
+    return new AsyncInvocation(intercepts, call).proceed(request).toCompletableFuture();
+  }
+
+  private static final class AsyncInvocation implements RequestIntercept.AsyncInterceptChain {
+
+    private final RequestIntercept[] intercepts;
+    private final Supplier<? extends CompletableFuture<? extends HttpResponse<?>>> callInvocation;
+    private int index;
+
+    AsyncInvocation(RequestIntercept[] intercepts, Supplier<? extends CompletableFuture<? extends HttpResponse<?>>> callInvocation) {
+      this.intercepts = intercepts;
+      this.callInvocation = callInvocation;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletionStage<HttpResponse<?>> proceed(HttpClientRequest request) {
+      if (index < intercepts.length) {
+        return intercepts[index++].interceptAsync(request, this);
+      }
+      return (CompletionStage<HttpResponse<?>>) callInvocation.get();
     }
-    setResponse(this.callInvocation.get());
-    return response;
   }
 
-  @Override
-  public void setResponse(HttpResponse<?> response) {
-    this.response = response;
+  private static final class Invocation implements RequestIntercept.InterceptChain {
+
+    private final RequestIntercept[] intercepts;
+    private final Supplier<HttpResponse<?>> callInvocation;
+    private int index;
+    private HttpResponse<?> response;
+
+    Invocation(RequestIntercept[] intercepts, Supplier<HttpResponse<?>> callInvocation) {
+      this.intercepts = intercepts;
+      this.callInvocation = callInvocation;
+    }
+
+    @Override
+    public HttpResponse<?> proceed(HttpClientRequest request) {
+      if (index < intercepts.length) {
+        intercepts[index++].intercept(request, this);
+      }
+      if (response != null) {
+        return response;
+      }
+      setResponse(callInvocation.get());
+      return response;
+    }
+
+    @Override
+    public void setResponse(HttpResponse<?> response) {
+      this.response = response;
+    }
   }
 }
@@ -1,5 +1,6 @@
 package io.avaje.http.client;
 
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,6 +24,7 @@ import tools.jackson.databind.type.CollectionType;
 public final class Jackson3BodyAdapter implements BodyAdapter {
 
   private final ObjectMapper mapper;
+  private final String contentType;
 
   private final ConcurrentHashMap<Type, BodyWriter<?>> beanWriterCache = new ConcurrentHashMap<>();
   private final ConcurrentHashMap<Type, BodyReader<?>> beanReaderCache = new ConcurrentHashMap<>();
@@ -30,12 +32,27 @@ public final class Jackson3BodyAdapter implements BodyAdapter {
 
   /** Create passing the ObjectMapper to use. */
   public Jackson3BodyAdapter(ObjectMapper mapper) {
+    this(mapper, null);
+  }
+
+  /**
+   * Create passing the ObjectMapper and the content type it writes.
+   * <p>
+   * Use this with a Jackson binary dataformat mapper such as {@code CBORMapper},
+   * {@code SmileMapper} or {@code MessagePackMapper} for a binary encoding. Typically
+   * this is registered with a {@link NegotiatingBodyAdapter} alongside a JSON adapter.
+   *
+   * @param mapper      The ObjectMapper to use
+   * @param contentType The content type of the request content written (null for JSON)
+   */
+  public Jackson3BodyAdapter(ObjectMapper mapper, String contentType) {
     this.mapper = mapper;
+    this.contentType = contentType;
   }
 
   /** Create with a ObjectMapper that allows unknown properties and inclusion non empty. */
   public Jackson3BodyAdapter() {
-    this.mapper = new ObjectMapper();
+    this(new ObjectMapper(), null);
   }
 
   @SuppressWarnings("unchecked")
@@ -43,7 +60,7 @@ public final class Jackson3BodyAdapter implements BodyAdapter {
   public <T> BodyWriter<T> beanWriter(Class<?> cls) {
     return (BodyWriter<T>) beanWriterCache.computeIfAbsent(cls, aClass -> {
       try {
-        return new JWriter<>(mapper.writerFor(cls));
+        return new JWriter<>(mapper.writerFor(cls), contentType);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -67,7 +84,7 @@ public final class Jackson3BodyAdapter implements BodyAdapter {
   public <T> BodyWriter<T> beanWriter(Type cls) {
     return (BodyWriter<T>) beanWriterCache.computeIfAbsent(cls, aClass -> {
       try {
-        return new JWriter<>(mapper.writerFor(mapper.getTypeFactory().constructType(cls)));
+        return new JWriter<>(mapper.writerFor(mapper.getTypeFactory().constructType(cls)), contentType);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -134,26 +151,34 @@ public final class Jackson3BodyAdapter implements BodyAdapter {
     public T read(BodyContent bodyContent) {
       return reader.readValue(bodyContent.content());
     }
+
+    @Override
+    public T read(InputStream content) {
+      return reader.readValue(content);
+    }
   }
 
   private static final class JWriter<T> implements BodyWriter<T> {
 
     private final ObjectWriter writer;
+    private final String contentType;
 
-    JWriter(ObjectWriter writer) {
+    JWriter(ObjectWriter writer, String contentType) {
       this.writer = writer;
+      this.contentType = contentType;
     }
 
     @Override
     public BodyContent write(T bean, String contentType) {
       // ignoring the requested contentType and always
-      // writing the body as json content
+      // writing the body as the content type of the mapper
       return write(bean);
     }
 
     @Override
     public BodyContent write(T bean) {
-      return BodyContent.asJson(writer.writeValueAsBytes(bean));
+      final byte[] content = writer.writeValueAsBytes(bean);
+      return contentType == null ? BodyContent.asJson(content) : BodyContent.of(contentType, content);
     }
   }
 }
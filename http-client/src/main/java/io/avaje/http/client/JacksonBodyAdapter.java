@@ -1,6 +1,7 @@
 package io.avaje.http.client;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -30,6 +31,7 @@ import com.fasterxml.jackson.databind.type.CollectionType;
 public final class JacksonBodyAdapter implements BodyAdapter {
 
   private final ObjectMapper mapper;
+  private final String contentType;
 
   private final ConcurrentHashMap<Type, BodyWriter<?>> beanWriterCache = new ConcurrentHashMap<>();
   private final ConcurrentHashMap<Type, BodyReader<?>> beanReaderCache = new ConcurrentHashMap<>();
@@ -39,13 +41,35 @@ public final class JacksonBodyAdapter implements BodyAdapter {
    * Create passing the ObjectMapper to use.
    */
   public JacksonBodyAdapter(ObjectMapper mapper) {
+    this(mapper, null);
+  }
+
+  /**
+   * Create passing the ObjectMapper and the content type it writes.
+   * <p>
+   * Use this with a Jackson binary dataformat mapper such as {@code CBORMapper},
+   * {@code SmileMapper} or {@code MessagePackMapper} for a binary encoding. Typically
+   * this is registered with a {@link NegotiatingBodyAdapter} alongside a JSON adapter.
+   *
+   * <pre>{@code
+   *
+   *   var cbor = new JacksonBodyAdapter(new CBORMapper(), "application/cbor");
+   *
+   * }</pre>
+   *
+   * @param mapper      The ObjectMapper to use
+   * @param contentType The content type of the request content written (null for JSON)
+   */
+  public JacksonBodyAdapter(ObjectMapper mapper, String contentType) {
     this.mapper = mapper;
+    this.contentType = contentType;
   }
 
   /**
    * Create with a ObjectMapper that allows unknown properties and inclusion non empty.
    */
   public JacksonBodyAdapter() {
+    this.contentType = null;
     this.mapper = new ObjectMapper()
       .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
       .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
@@ -58,7 +82,7 @@ public final class JacksonBodyAdapter implements BodyAdapter {
   public <T> BodyWriter<T> beanWriter(Class<?> cls) {
     return (BodyWriter<T>) beanWriterCache.computeIfAbsent(cls, aClass -> {
       try {
-        return new JWriter<>(mapper.writerFor(cls));
+        return new JWriter<>(mapper.writerFor(cls), contentType);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -82,7 +106,7 @@ public final class JacksonBodyAdapter implements BodyAdapter {
   public <T> BodyWriter<T> beanWriter(Type cls) {
     return (BodyWriter<T>) beanWriterCache.computeIfAbsent(cls, aClass -> {
       try {
-        return new JWriter<>(mapper.writerFor(mapper.getTypeFactory().constructType(cls)));
+        return new JWriter<>(mapper.writerFor(mapper.getTypeFactory().constructType(cls)), contentType);
       } catch (Exception e) {
         throw new RuntimeException(e);
       }
@@ -155,27 +179,39 @@ public final class JacksonBodyAdapter implements BodyAdapter {
         throw new UncheckedIOException(e);
       }
     }
+
+    @Override
+    public T read(InputStream content) {
+      try {
+        return reader.readValue(content);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
   }
 
   private static final class JWriter<T> implements BodyWriter<T> {
 
     private final ObjectWriter writer;
+    private final String contentType;
 
-    public JWriter(ObjectWriter writer) {
+    JWriter(ObjectWriter writer, String contentType) {
       this.writer = writer;
+      this.contentType = contentType;
     }
 
     @Override
     public BodyContent write(T bean, String contentType) {
       // ignoring the requested contentType and always
-      // writing the body as json content
+      // writing the body as the content type of the mapper
       return write(bean);
     }
 
     @Override
     public BodyContent write(T bean) {
       try {
-        return BodyContent.asJson(writer.writeValueAsBytes(bean));
+        final byte[] content = writer.writeValueAsBytes(bean);
+        return contentType == null ? BodyContent.asJson(content) : BodyContent.of(contentType, content);
       } catch (JsonProcessingException e) {
         throw new UncheckedIOException(e);
       }
@@ -1,5 +1,6 @@
 package io.avaje.http.client;
 
+import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -93,6 +94,11 @@ public final class JsonbBodyAdapter implements BodyAdapter {
     public T read(BodyContent bodyContent) {
       return reader.fromJson(bodyContent.content());
     }
+
+    @Override
+    public T read(InputStream content) {
+      return reader.fromJson(content);
+    }
   }
 
   private static class JWriter<T> implements BodyWriter<T> {
@@ -0,0 +1,426 @@
+package io.avaje.http.client;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transport that dispatches requests straight to a handler function in-process with no sockets.
+ * <p>
+ * Used to load test and benchmark clients (including generated clients) measuring the client
+ * overhead apart from the network. The request body is read from the request body publisher
+ * and the response body is delivered to the response BodyHandler such that all the ways of
+ * reading the response (bean, list, stream, InputStream etc) behave as with a real server.
+ * <p>
+ * The handler is invoked on the calling thread (or the thread that completes an asynchronously
+ * written request body), for async requests the future is typically already complete when returned.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl("http://loopback")
+ *     .transport(LoopbackTransport.of(request -> {
+ *       if (request.path().equals("/hello")) {
+ *         return Response.ok("hello world");
+ *       }
+ *       return Response.of(404);
+ *     }))
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class LoopbackTransport implements HttpTransport {
+
+  /**
+   * Handler of the loopback requests.
+   */
+  @FunctionalInterface
+  public interface Handler {
+
+    /**
+     * Handle the request returning the response.
+     * <p>
+     * An exception thrown by the handler fails the request as an IOException would.
+     */
+    Response handle(Request request) throws Exception;
+  }
+
+  private final Handler handler;
+
+  private LoopbackTransport(Handler handler) {
+    this.handler = handler;
+  }
+
+  /**
+   * Create a LoopbackTransport that dispatches requests to the given handler.
+   */
+  public static LoopbackTransport of(Handler handler) {
+    return new LoopbackTransport(handler);
+  }
+
+  @Override
+  public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+    try {
+      return sendAsync(request, bodyHandler).get();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  @Override
+  public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+    return readBody(request)
+      .thenCompose(body -> {
+        final Response response = handle(new Request(request, body));
+        final Exchange<T> exchange = new Exchange<>(request, response);
+        final HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(exchange);
+        subscriber.onSubscribe(new BodySubscription(subscriber, response.body));
+        return subscriber.getBody().thenApply(exchange::body);
+      });
+  }
+
+  private Response handle(Request request) {
+    final Response response;
+    try {
+      response = handler.handle(request);
+    } catch (IOException e) {
+      throw new CompletionException(e);
+    } catch (Exception e) {
+      // fail as an IOException would for both send and sendAsync
+      throw new CompletionException(new IOException(e));
+    }
+    if (response == null) {
+      throw new IllegalStateException("Loopback handler returned null for " + request.method() + " " + request.uri());
+    }
+    return response;
+  }
+
+  private static CompletableFuture<byte[]> readBody(HttpRequest request) {
+    final Optional<HttpRequest.BodyPublisher> publisher = request.bodyPublisher();
+    if (publisher.isEmpty() || publisher.get().contentLength() == 0) {
+      return CompletableFuture.completedFuture(Request.EMPTY);
+    }
+    final var collector = new BodyCollector();
+    publisher.get().subscribe(collector);
+    return collector.body;
+  }
+
+  /**
+   * The request as received by the handler.
+   */
+  public static final class Request {
+
+    private static final byte[] EMPTY = {};
+
+    private final HttpRequest request;
+    private final byte[] body;
+
+    private Request(HttpRequest request, byte[] body) {
+      this.request = request;
+      this.body = body;
+    }
+
+    /**
+     * Return the http method.
+     */
+    public String method() {
+      return request.method();
+    }
+
+    /**
+     * Return the full request uri.
+     */
+    public URI uri() {
+      return request.uri();
+    }
+
+    /**
+     * Return the path of the request uri.
+     */
+    public String path() {
+      return request.uri().getPath();
+    }
+
+    /**
+     * Return the raw query of the request uri (or null).
+     */
+    public String query() {
+      return request.uri().getRawQuery();
+    }
+
+    /**
+     * Return the request headers.
+     */
+    public HttpHeaders headers() {
+      return request.headers();
+    }
+
+    /**
+     * Return the first value of the given request header (or null).
+     */
+    public String header(String name) {
+      return request.headers().firstValue(name).orElse(null);
+    }
+
+    /**
+     * Return the request body content (empty when there is no body).
+     */
+    public byte[] body() {
+      return body;
+    }
+
+    /**
+     * Return the request body content as a UTF-8 string.
+     */
+    public String bodyAsString() {
+      return new String(body, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * The response returned by the handler.
+   */
+  public static final class Response {
+
+    private final int statusCode;
+    private final Map<String, List<String>> headers = new LinkedHashMap<>();
+    private byte[] body = Request.EMPTY;
+
+    private Response(int statusCode) {
+      this.statusCode = statusCode;
+    }
+
+    /**
+     * Create a response with the given status code and no body.
+     */
+    public static Response of(int statusCode) {
+      return new Response(statusCode);
+    }
+
+    /**
+     * Create a 200 response with the given plain text body.
+     */
+    public static Response ok(String body) {
+      return new Response(200).contentType("text/plain; charset=utf-8").body(body);
+    }
+
+    /**
+     * Create a 200 response with the given json body.
+     */
+    public static Response json(String body) {
+      return new Response(200).contentType("application/json").body(body);
+    }
+
+    /**
+     * Add a response header.
+     */
+    public Response header(String name, String value) {
+      headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+      return this;
+    }
+
+    /**
+     * Set the Content-Type response header.
+     */
+    public Response contentType(String contentType) {
+      headers.remove("Content-Type");
+      return header("Content-Type", contentType);
+    }
+
+    /**
+     * Set the response body content.
+     */
+    public Response body(byte[] body) {
+      this.body = body;
+      return this;
+    }
+
+    /**
+     * Set the response body content as UTF-8.
+     */
+    public Response body(String body) {
+      return body(body.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Collect the request body content from the body publisher.
+   */
+  private static final class BodyCollector implements Flow.Subscriber<ByteBuffer> {
+
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(ByteBuffer buffer) {
+      if (buffer.hasArray()) {
+        content.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      } else {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        content.writeBytes(bytes);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      body.complete(content.toByteArray());
+    }
+  }
+
+  /**
+   * Deliver the response body content to the response body subscriber in buffers on demand.
+   */
+  private static final class BodySubscription implements Flow.Subscription {
+
+    /**
+     * Deliver the content in buffers of this size as the JDK HttpClient does.
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final HttpResponse.BodySubscriber<?> subscriber;
+    private final byte[] body;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private int position;
+    private volatile boolean done;
+
+    BodySubscription(HttpResponse.BodySubscriber<?> subscriber, byte[] body) {
+      this.subscriber = subscriber;
+      this.body = body;
+    }
+
+    @Override
+    public void request(long n) {
+      if (done) {
+        return;
+      }
+      if (n <= 0) {
+        done = true;
+        subscriber.onError(new IllegalArgumentException("non-positive subscription request: " + n));
+        return;
+      }
+      demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      if (wip.getAndIncrement() != 0) {
+        // re-entrant call from onNext, the active drain loop picks up the demand
+        return;
+      }
+      do {
+        drain();
+      } while (wip.decrementAndGet() != 0);
+    }
+
+    private void drain() {
+      while (!done && position < body.length && demand.get() > 0) {
+        final int length = Math.min(BUFFER_SIZE, body.length - position);
+        final ByteBuffer buffer = ByteBuffer.wrap(body, position, length).slice();
+        position += length;
+        demand.decrementAndGet();
+        subscriber.onNext(List.of(buffer));
+      }
+      if (!done && position == body.length) {
+        done = true;
+        subscriber.onComplete();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      done = true;
+    }
+  }
+
+  /**
+   * The response info given to the BodyHandler and the resulting HttpResponse.
+   */
+  private static final class Exchange<T> implements HttpResponse.ResponseInfo, HttpResponse<T> {
+
+    private final HttpRequest request;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private T body;
+
+    Exchange(HttpRequest request, Response response) {
+      this.request = request;
+      this.statusCode = response.statusCode;
+      this.headers = HttpHeaders.of(response.headers, (name, value) -> true);
+    }
+
+    HttpResponse<T> body(T body) {
+      this.body = body;
+      return this;
+    }
+
+    @Override
+    public int statusCode() {
+      return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+      return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+      return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+      return headers;
+    }
+
+    @Override
+    public T body() {
+      return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+      return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+      return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+      return HttpClient.Version.HTTP_1_1;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher of beans read from a newline delimited json (x-json-stream) response.
+ * <p>
+ * The response content is split into records on the raw ByteBuffers and each record is
+ * read from its bytes via the BodyReader (no intermediate String per line). Records are
+ * only read as the subscriber requests them and more content is only requested from the
+ * response when all the buffered content has been consumed.
+ * <p>
+ * The request is sent when the (single) subscriber subscribes.
+ */
+final class NdJsonPublisher<T> implements Flow.Publisher<T> {
+
+  private final DHttpClientRequest request;
+  private final BodyReader<T> reader;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  NdJsonPublisher(DHttpClientRequest request, BodyReader<T> reader) {
+    this.request = request;
+    this.reader = reader;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(NoopSubscription.INSTANCE);
+      subscriber.onError(new IllegalStateException("Only a single subscriber is supported"));
+      return;
+    }
+    final var records = new RecordSubscription<>(subscriber, reader);
+    subscriber.onSubscribe(records);
+    request
+      .performSendAsync(false, records::bodySubscriber)
+      .whenComplete((response, error) -> {
+        if (error != null) {
+          records.fail(DHttpClientRequest.unwrapFutureError(error));
+        } else if (response.statusCode() >= 300) {
+          records.fail(request.asyncError(response));
+        }
+      });
+  }
+
+  private static final class RecordSubscription<T> implements Flow.Subscription, HttpResponse.BodySubscriber<byte[]> {
+
+    private static final byte[] EMPTY = {};
+
+    private final Flow.Subscriber<? super T> downstream;
+    private final BodyReader<T> reader;
+    private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile Flow.Subscription upstream;
+    private volatile boolean upstreamRequested;
+    private volatile boolean upstreamDone;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    /** Content of a record that spans multiple buffers. */
+    private byte[] partial = EMPTY;
+    private int partialLength;
+
+    RecordSubscription(Flow.Subscriber<? super T> downstream, BodyReader<T> reader) {
+      this.downstream = downstream;
+      this.reader = reader;
+    }
+
+    HttpResponse.BodySubscriber<byte[]> bodySubscriber(HttpResponse.ResponseInfo responseInfo) {
+      if (responseInfo.statusCode() >= 300) {
+        // read the error content for HttpException
+        return HttpResponse.BodySubscribers.ofByteArray();
+      }
+      final String encoding = responseInfo.headers().firstValue("Content-Encoding").orElse("identity");
+      if (!"identity".equals(encoding)) {
+        // records are split on the raw content, Accept-Encoding is not sent for this request
+        fail(new IllegalStateException("Content-Encoding " + encoding + " is not supported for publisher()"));
+        return HttpResponse.BodySubscribers.replacing(null);
+      }
+      return this;
+    }
+
+    void fail(Throwable throwable) {
+      if (error == null) {
+        error = throwable;
+      }
+      upstreamDone = true;
+      drain();
+    }
+
+    @Override
+    public CompletionStage<byte[]> getBody() {
+      return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      upstream = subscription;
+      if (cancelled) {
+        subscription.cancel();
+      } else {
+        drain();
+      }
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+      buffers.addAll(items);
+      upstreamRequested = false;
+      drain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      body.completeExceptionally(throwable);
+      fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      body.complete(null);
+      upstreamDone = true;
+      drain();
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        fail(new IllegalArgumentException("non-positive subscription request: " + n));
+        return;
+      }
+      demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      cancelUpstream(new CancellationException("Publisher subscription cancelled"));
+    }
+
+    /**
+     * Cancel the response content completing the body such that the request completes.
+     */
+    private void cancelUpstream(Throwable cause) {
+      final Flow.Subscription subscription = upstream;
+      if (subscription != null) {
+        subscription.cancel();
+      }
+      body.completeExceptionally(cause);
+    }
+
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      do {
+        if (!terminated) {
+          drainLoop();
+        }
+      } while (wip.decrementAndGet() != 0);
+    }
+
+    private void drainLoop() {
+      try {
+        while (!cancelled && error == null && demand.get() > 0) {
+          final byte[] record = nextRecord();
+          if (record == null) {
+            break;
+          }
+          demand.decrementAndGet();
+          downstream.onNext(reader.read(BodyContent.of(record)));
+        }
+      } catch (RuntimeException e) {
+        error = e;
+        cancelUpstream(e);
+      }
+      if (cancelled) {
+        terminated = true;
+      } else if (error != null) {
+        terminated = true;
+        downstream.onError(error);
+      } else if (upstreamDone && buffers.isEmpty() && partialLength == 0) {
+        terminated = true;
+        downstream.onComplete();
+      } else if (demand.get() > 0 && buffers.isEmpty() && !upstreamDone && !upstreamRequested) {
+        final Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+          upstreamRequested = true;
+          subscription.request(1);
+        }
+      }
+    }
+
+    /**
+     * Return the next complete non-empty record or null if more content is required.
+     */
+    private byte[] nextRecord() {
+      ByteBuffer buffer;
+      while ((buffer = buffers.peek()) != null) {
+        final int start = buffer.position();
+        final int limit = buffer.limit();
+        int pos = start;
+        while (pos < limit && buffer.get(pos) != '\n') {
+          pos++;
+        }
+        if (pos == limit) {
+          // no newline, keep the content and continue with the next buffer
+          append(buffer, limit - start);
+          buffers.poll();
+          continue;
+        }
+        final byte[] record = take(buffer, pos - start);
+        buffer.position(pos + 1);
+        if (!buffer.hasRemaining()) {
+          buffers.poll();
+        }
+        if (record.length > 0) {
+          return record;
+        }
+      }
+      if (upstreamDone && partialLength > 0) {
+        // final record without a trailing newline
+        return take(ByteBuffer.allocate(0), 0);
+      }
+      return null;
+    }
+
+    private void append(ByteBuffer buffer, int length) {
+      if (partialLength + length > partial.length) {
+        partial = Arrays.copyOf(partial, Math.max(partialLength + length, partial.length * 2));
+      }
+      buffer.get(partial, partialLength, length);
+      partialLength += length;
+    }
+
+    /**
+     * Return the record made up of any partial content and the given length of the buffer.
+     */
+    private byte[] take(ByteBuffer buffer, int length) {
+      final int total = partialLength + length;
+      final int end = total > 0 && lastByte(buffer, length) == '\r' ? total - 1 : total;
+      final byte[] record = new byte[end];
+      final int fromPartial = Math.min(partialLength, end);
+      System.arraycopy(partial, 0, record, 0, fromPartial);
+      buffer.get(record, fromPartial, end - fromPartial);
+      partialLength = 0;
+      return record;
+    }
+
+    private byte lastByte(ByteBuffer buffer, int length) {
+      return length > 0 ? buffer.get(buffer.position() + length - 1) : partial[partialLength - 1];
+    }
+  }
+
+  private static final class NoopSubscription implements Flow.Subscription {
+
+    static final NoopSubscription INSTANCE = new NoopSubscription();
+
+    @Override
+    public void request(long n) {
+      // do nothing
+    }
+
+    @Override
+    public void cancel() {
+      // do nothing
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package io.avaje.http.client;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * BodyAdapter that negotiates between a default (typically JSON) adapter and adapters for
+ * other content types such as the binary CBOR, Smile or MessagePack encodings.
+ * <p>
+ * Request content is written using the adapter registered for the requested content type
+ * (for example via {@link HttpClientRequest#body(Object, String)}) and otherwise using the
+ * default adapter. Response content is read using the adapter registered for the response
+ * Content-Type and otherwise using the default adapter. This means that a client can ask
+ * for a binary response via the Accept header and still read a JSON response from a
+ * server that does not support the binary encoding.
+ * <p>
+ * Generated clients send the Accept header and request content type for client methods
+ * with a binary {@code @Produces} and {@code @Consumes}.
+ *
+ * <pre>{@code
+ *
+ *   BodyAdapter bodyAdapter = NegotiatingBodyAdapter.builder(new JsonbBodyAdapter())
+ *     .add("application/cbor", new JacksonBodyAdapter(new CBORMapper(), "application/cbor"))
+ *     .build();
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .bodyAdapter(bodyAdapter)
+ *     .build();
+ *
+ *   Customer customer = client.request()
+ *     .path("customers").path(42)
+ *     .header("Accept", "application/cbor")
+ *     .GET()
+ *     .bean(Customer.class);
+ *
+ * }</pre>
+ */
+public final class NegotiatingBodyAdapter implements BodyAdapter {
+
+  private final BodyAdapter defaultAdapter;
+  private final String[] contentTypes;
+  private final BodyAdapter[] adapters;
+
+  private final ConcurrentHashMap<Type, BodyWriter<?>> beanWriterCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Type, BodyReader<?>> beanReaderCache = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Type, BodyReader<?>> listReaderCache = new ConcurrentHashMap<>();
+
+  private NegotiatingBodyAdapter(Builder builder) {
+    this.defaultAdapter = builder.defaultAdapter;
+    this.contentTypes = builder.contentTypes.toArray(new String[0]);
+    this.adapters = builder.adapters.toArray(new BodyAdapter[0]);
+  }
+
+  /**
+   * Return a builder with the given default adapter that is used when the content type
+   * does not match any of the added adapters.
+   *
+   * @param defaultAdapter The default (typically JSON) adapter
+   */
+  public static Builder builder(BodyAdapter defaultAdapter) {
+    return new Builder(defaultAdapter);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyWriter<T> beanWriter(Class<?> type) {
+    return (BodyWriter<T>) beanWriterCache.computeIfAbsent(type, aClass -> writer(adapter -> adapter.beanWriter(type)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyWriter<T> beanWriter(Type type) {
+    return (BodyWriter<T>) beanWriterCache.computeIfAbsent(type, aType -> writer(adapter -> adapter.beanWriter(type)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyReader<T> beanReader(Class<T> type) {
+    return (BodyReader<T>) beanReaderCache.computeIfAbsent(type, aClass -> reader(adapter -> adapter.beanReader(type)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyReader<T> beanReader(Type type) {
+    return (BodyReader<T>) beanReaderCache.computeIfAbsent(type, aType -> reader(adapter -> adapter.beanReader(type)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyReader<List<T>> listReader(Class<T> type) {
+    return (BodyReader<List<T>>) listReaderCache.computeIfAbsent(type, aClass -> reader(adapter -> adapter.listReader(type)));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> BodyReader<List<T>> listReader(Type type) {
+    return (BodyReader<List<T>>) listReaderCache.computeIfAbsent(type, aType -> reader(adapter -> adapter.listReader(type)));
+  }
+
+  private <T> NWriter<T> writer(Function<BodyAdapter, BodyWriter<T>> lookup) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final BodyWriter<T>[] writers = new BodyWriter[adapters.length];
+    for (int i = 0; i < adapters.length; i++) {
+      writers[i] = lookup.apply(adapters[i]);
+    }
+    return new NWriter<>(lookup.apply(defaultAdapter), writers);
+  }
+
+  private <T> NReader<T> reader(Function<BodyAdapter, BodyReader<T>> lookup) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    final BodyReader<T>[] readers = new BodyReader[adapters.length];
+    for (int i = 0; i < adapters.length; i++) {
+      readers[i] = lookup.apply(adapters[i]);
+    }
+    return new NReader<>(lookup.apply(defaultAdapter), readers);
+  }
+
+  /**
+   * Return the index of the adapter for the given content type or -1 to use the default adapter.
+   */
+  private int indexOf(String contentType) {
+    if (contentType == null) {
+      return -1;
+    }
+    int end = contentType.indexOf(';');
+    if (end == -1) {
+      end = contentType.length();
+    }
+    while (end > 0 && contentType.charAt(end - 1) == ' ') {
+      end--;
+    }
+    for (int i = 0; i < contentTypes.length; i++) {
+      final String type = contentTypes[i];
+      if (type.length() == end && contentType.regionMatches(true, 0, type, 0, end)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private final class NWriter<T> implements BodyWriter<T> {
+
+    private final BodyWriter<T> defaultWriter;
+    private final BodyWriter<T>[] writers;
+
+    NWriter(BodyWriter<T> defaultWriter, BodyWriter<T>[] writers) {
+      this.defaultWriter = defaultWriter;
+      this.writers = writers;
+    }
+
+    @Override
+    public BodyContent write(T bean) {
+      return defaultWriter.write(bean);
+    }
+
+    @Override
+    public BodyContent write(T bean, String contentType) {
+      final int index = indexOf(contentType);
+      return index == -1 ? defaultWriter.write(bean, contentType) : writers[index].write(bean, contentType);
+    }
+  }
+
+  private final class NReader<T> implements BodyReader<T> {
+
+    private final BodyReader<T> defaultReader;
+    private final BodyReader<T>[] readers;
+
+    NReader(BodyReader<T> defaultReader, BodyReader<T>[] readers) {
+      this.defaultReader = defaultReader;
+      this.readers = readers;
+    }
+
+    private BodyReader<T> reader(String contentType) {
+      final int index = indexOf(contentType);
+      return index == -1 ? defaultReader : readers[index];
+    }
+
+    @Override
+    public T read(BodyContent content) {
+      return reader(content.contentType()).read(content);
+    }
+
+    @Override
+    public T readBody(String content) {
+      return defaultReader.readBody(content);
+    }
+
+    @Override
+    public T read(InputStream content) {
+      return defaultReader.read(content);
+    }
+
+    @Override
+    public T read(InputStream content, String contentType) {
+      return reader(contentType).read(content);
+    }
+  }
+
+  /**
+   * Builder for NegotiatingBodyAdapter.
+   */
+  public static final class Builder {
+
+    private final BodyAdapter defaultAdapter;
+    private final List<String> contentTypes = new ArrayList<>();
+    private final List<BodyAdapter> adapters = new ArrayList<>();
+
+    private Builder(BodyAdapter defaultAdapter) {
+      this.defaultAdapter = defaultAdapter;
+    }
+
+    /**
+     * Add an adapter used to read and write content of the given content type.
+     *
+     * @param contentType The content type (without parameters) such as {@code application/cbor}
+     * @param adapter     The adapter for the content type
+     */
+    public Builder add(String contentType, BodyAdapter adapter) {
+      contentTypes.add(contentType);
+      adapters.add(adapter);
+      return this;
+    }
+
+    /**
+     * Build and return the NegotiatingBodyAdapter.
+     */
+    public NegotiatingBodyAdapter build() {
+      if (defaultAdapter == null) {
+        throw new IllegalArgumentException("defaultAdapter is required");
+      }
+      for (int i = 0; i < contentTypes.size(); i++) {
+        final String contentType = contentTypes.get(i);
+        if (contentType == null || contentType.isBlank() || contentType.indexOf(';') > -1) {
+          throw new IllegalArgumentException("Invalid contentType [" + contentType + "], expected a media type without parameters");
+        }
+        if (adapters.get(i) == null) {
+          throw new IllegalArgumentException("adapter for " + contentType + " is required");
+        }
+      }
+      return new NegotiatingBodyAdapter(this);
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request is not executed as the wait for a {@link RateLimiter} permit
+ * would exceed its {@code maxWait}.
+ * <p>
+ * Has a status code of 429 as the request would exceed the rate limit.
+ */
+public final class RateLimitExceededException extends HttpException {
+
+  private final String name;
+
+  RateLimitExceededException(String name, Duration maxWait) {
+    super(429, "Rate limit exceeded for " + name + ", no permit within maxWait " + maxWait);
+    this.name = name;
+  }
+
+  /**
+   * Return the name of the rate limiter.
+   */
+  public String name() {
+    return name;
+  }
+}
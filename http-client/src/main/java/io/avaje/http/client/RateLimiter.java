@@ -0,0 +1,429 @@
+package io.avaje.http.client;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Client side rate limiter that spaces requests to stay under the quota of an upstream.
+ * <p>
+ * This is a smooth token bucket (GCRA) that permits {@code permitsPerSecond} requests per
+ * second evenly spaced with a {@code burst} of requests allowed after being idle. It is
+ * lock free and a request waiting for a permit reserves it such that waiting requests
+ * are released in order at the permitted rate. When the wait for a permit would exceed
+ * {@code maxWait} the request fails with {@link RateLimitExceededException}.
+ * <p>
+ * When {@code adaptive} (the default) the rate is reduced to follow the quota reported by
+ * the upstream via the {@code RateLimit-Remaining} and {@code RateLimit-Reset} headers
+ * (or {@code X-RateLimit-*} or the combined {@code RateLimit} header) and requests are
+ * paused for the {@code Retry-After} of a 429 or 503 response.
+ * <p>
+ * A RateLimiter is shared by all the requests it is set on. Set it on the HttpClient to
+ * limit all requests and/or on a request to additionally limit that request. Generated
+ * clients use the {@code @RateLimit} annotation.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .rateLimiter(RateLimiter.of(20))
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class RateLimiter {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  /**
+   * Epoch seconds are used as reset rather than delta seconds when larger than this.
+   */
+  private static final long EPOCH_SECONDS = 1_000_000_000L;
+
+  private static final long IDLE_NANOS = TimeUnit.DAYS.toNanos(1);
+
+  private final String name;
+  private final double permitsPerSecond;
+  private final int burst;
+  private final Duration maxWait;
+  private final boolean adaptive;
+  private final long intervalNanos;
+  private final long maxWaitNanos;
+
+  /**
+   * The theoretical arrival time of the next permit.
+   */
+  private final AtomicLong arrival;
+
+  /**
+   * The interval reduced by the upstream quota and when that expires.
+   */
+  private volatile long adaptedIntervalNanos;
+  private volatile long adaptedUntilNanos;
+
+  private RateLimiter(Builder builder) {
+    this.name = builder.name;
+    this.permitsPerSecond = builder.permitsPerSecond;
+    this.burst = builder.burst;
+    this.maxWait = builder.maxWait;
+    this.adaptive = builder.adaptive;
+    this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / permitsPerSecond));
+    this.maxWaitNanos = maxWait.toNanos();
+    // idle such that the burst is available
+    this.arrival = new AtomicLong(System.nanoTime() - IDLE_NANOS);
+  }
+
+  /**
+   * Return a new builder for RateLimiter.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Create with the number of permits per second.
+   */
+  public static RateLimiter of(double permitsPerSecond) {
+    return builder().permitsPerSecond(permitsPerSecond).build();
+  }
+
+  /**
+   * Return the name used in exception messages.
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Return the configured permits per second.
+   */
+  public double permitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  /**
+   * Return the number of permits that can be taken in a burst.
+   */
+  public int burst() {
+    return burst;
+  }
+
+  /**
+   * Return the maximum time to wait for a permit.
+   */
+  public Duration maxWait() {
+    return maxWait;
+  }
+
+  /**
+   * Return true if the rate adapts to the rate limit headers of responses.
+   */
+  public boolean adaptive() {
+    return adaptive;
+  }
+
+  /**
+   * Return the current permits per second which is lower than configured when adapted
+   * to the quota reported by the upstream.
+   */
+  public double currentRate() {
+    return (double) NANOS_PER_SECOND / interval(System.nanoTime());
+  }
+
+  /**
+   * Take a permit if available without waiting.
+   *
+   * @return True if a permit was taken
+   */
+  public boolean tryAcquire() {
+    return tryReserve(System.nanoTime(), 0) == 0;
+  }
+
+  /**
+   * Take a permit blocking the calling thread until it is available.
+   *
+   * @throws RateLimitExceededException when the wait would exceed maxWait
+   */
+  public void acquire() {
+    await(reserve(System.nanoTime(), maxWaitNanos));
+  }
+
+  /**
+   * Take a permit returning a future that completes when it is available without
+   * blocking a thread.
+   * <p>
+   * The future fails with {@link RateLimitExceededException} when the wait would
+   * exceed maxWait.
+   */
+  public CompletableFuture<Void> acquireAsync() {
+    try {
+      final long waitNanos = reserve(System.nanoTime(), maxWaitNanos);
+      if (waitNanos == 0) {
+        return CompletableFuture.completedFuture(null);
+      }
+      return CompletableFuture.runAsync(() -> { }, delayedExecutor(waitNanos, null));
+    } catch (final RateLimitExceededException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  /**
+   * Reserve a permit returning the nanos to wait for it (0 for no wait).
+   *
+   * @throws RateLimitExceededException when the wait would exceed the max wait
+   */
+  long reserve(long now, long maxWaitNanos) {
+    final long waitNanos = tryReserve(now, maxWaitNanos);
+    if (waitNanos < 0) {
+      throw new RateLimitExceededException(name, maxWait);
+    }
+    return waitNanos;
+  }
+
+  /**
+   * Reserve a permit returning the nanos to wait for it or -1 when the wait would exceed
+   * the max wait (and no permit is reserved).
+   */
+  long tryReserve(long now, long maxWaitNanos) {
+    final long interval = interval(now);
+    final long tolerance = interval * burst;
+    while (true) {
+      final long current = arrival.get();
+      final long start = Math.max(current, now - tolerance);
+      final long waitNanos = start + interval - now;
+      if (waitNanos > maxWaitNanos) {
+        return -1;
+      }
+      if (arrival.compareAndSet(current, start + interval)) {
+        return Math.max(0, waitNanos);
+      }
+    }
+  }
+
+  /**
+   * Give back a permit reserved via {@link #reserve(long, long)} that will not be used.
+   */
+  void release(long now) {
+    arrival.addAndGet(-interval(now));
+  }
+
+  /**
+   * Return the max wait in nanos.
+   */
+  long maxWaitNanos() {
+    return maxWaitNanos;
+  }
+
+  private long interval(long now) {
+    final long adapted = adaptedIntervalNanos;
+    return adapted > intervalNanos && now - adaptedUntilNanos < 0 ? adapted : intervalNanos;
+  }
+
+  /**
+   * Adapt to the rate limit headers of the response.
+   */
+  void onResponse(HttpResponse<?> response) {
+    if (!adaptive) {
+      return;
+    }
+    final long now = System.nanoTime();
+    final int status = response.statusCode();
+    if (status == 429 || status == 503) {
+      final Duration retryAfter = RetryPolicy.retryAfter(response);
+      if (retryAfter != null) {
+        pause(now + retryAfter.toNanos());
+        return;
+      }
+    }
+    final var headers = response.headers();
+    final String combined = headers.firstValue("RateLimit").orElse(null);
+    if (combined != null) {
+      adapt(now, parseItem(combined, "remaining", "r"), parseItem(combined, "reset", "t"));
+      return;
+    }
+    String remaining = headers.firstValue("RateLimit-Remaining").orElse(null);
+    String reset = headers.firstValue("RateLimit-Reset").orElse(null);
+    if (remaining == null) {
+      remaining = headers.firstValue("X-RateLimit-Remaining").orElse(null);
+      reset = headers.firstValue("X-RateLimit-Reset").orElse(null);
+    }
+    if (remaining != null) {
+      adapt(now, parseLong(remaining), parseLong(reset));
+    } else if (status == 429) {
+      // no guidance from the upstream so back off for a second
+      pause(now + NANOS_PER_SECOND);
+    }
+  }
+
+  /**
+   * Adapt the interval to spread the remaining quota over the time until it resets.
+   */
+  void adapt(long now, long remaining, long resetSeconds) {
+    if (remaining < 0 || resetSeconds < 0) {
+      return;
+    }
+    if (resetSeconds > EPOCH_SECONDS) {
+      resetSeconds = Math.max(0, resetSeconds - System.currentTimeMillis() / 1000);
+    }
+    final long resetNanos = resetSeconds * NANOS_PER_SECOND;
+    if (remaining == 0) {
+      pause(now + resetNanos);
+    } else if (resetNanos / remaining > intervalNanos) {
+      adaptedIntervalNanos = resetNanos / remaining;
+      adaptedUntilNanos = now + resetNanos;
+    } else {
+      adaptedIntervalNanos = 0;
+    }
+  }
+
+  /**
+   * Pause such that no permit is available until the given time.
+   */
+  void pause(long untilNanos) {
+    final long next = untilNanos - intervalNanos;
+    arrival.accumulateAndGet(next, (current, until) -> current - until < 0 ? until : current);
+  }
+
+  private static long parseItem(String header, String name, String shortName) {
+    for (final String item : header.split("[;,]")) {
+      final int eq = item.indexOf('=');
+      if (eq > 0) {
+        final String key = item.substring(0, eq).trim();
+        if (key.equalsIgnoreCase(name) || key.equalsIgnoreCase(shortName)) {
+          return parseLong(item.substring(eq + 1));
+        }
+      }
+    }
+    return -1;
+  }
+
+  private static long parseLong(String value) {
+    if (value == null) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(value.trim());
+    } catch (final NumberFormatException e) {
+      try {
+        // some upstreams use an http date for reset
+        final var date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        return date.toEpochSecond();
+      } catch (final DateTimeParseException ignored) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Block the calling thread for the given nanos.
+   */
+  static void await(long waitNanos) {
+    if (waitNanos <= 0) {
+      return;
+    }
+    final long deadline = System.nanoTime() + waitNanos;
+    long remaining = waitNanos;
+    while (remaining > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.interrupted()) {
+        Thread.currentThread().interrupt();
+        throw new HttpException(499, new InterruptedException("Interrupted waiting for rate limit permit"));
+      }
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  /**
+   * Return an executor that runs tasks after the given delay using the given executor
+   * (or the default async pool when null).
+   */
+  static Executor delayedExecutor(long waitNanos, Executor executor) {
+    return executor == null
+      ? CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS)
+      : CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor);
+  }
+
+  /**
+   * Builder for RateLimiter.
+   */
+  public static final class Builder {
+
+    private String name = "rateLimiter";
+    private double permitsPerSecond;
+    private int burst = 1;
+    private Duration maxWait = Duration.ofSeconds(30);
+    private boolean adaptive = true;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the name used in exception messages. Generated clients use the client
+     * interface and method name.
+     */
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    /**
+     * Set the number of permits (requests) per second. This is required.
+     */
+    public Builder permitsPerSecond(double permitsPerSecond) {
+      this.permitsPerSecond = permitsPerSecond;
+      return this;
+    }
+
+    /**
+     * Set the number of permits that can be taken without waiting after being idle.
+     * Defaults to 1 such that requests are evenly spaced.
+     */
+    public Builder burst(int burst) {
+      this.burst = burst;
+      return this;
+    }
+
+    /**
+     * Set the maximum time to wait for a permit before failing with
+     * {@link RateLimitExceededException}. Defaults to 30 seconds.
+     */
+    public Builder maxWait(Duration maxWait) {
+      this.maxWait = maxWait;
+      return this;
+    }
+
+    /**
+     * Set if the rate adapts to the rate limit headers of responses. Defaults to true.
+     */
+    public Builder adaptive(boolean adaptive) {
+      this.adaptive = adaptive;
+      return this;
+    }
+
+    /**
+     * Build and return the RateLimiter.
+     */
+    public RateLimiter build() {
+      if (!(permitsPerSecond > 0)) {
+        throw new IllegalArgumentException("permitsPerSecond must be greater than 0 but was " + permitsPerSecond);
+      }
+      if (burst < 1) {
+        throw new IllegalArgumentException("burst must be at least 1 but was " + burst);
+      }
+      if (maxWait == null || maxWait.isNegative()) {
+        throw new IllegalArgumentException("maxWait must not be negative but was " + maxWait);
+      }
+      if (name == null) {
+        throw new IllegalArgumentException("name is required");
+      }
+      return new RateLimiter(this);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package io.avaje.http.client;
 
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletionStage;
 
 import com.sun.net.httpserver.HttpExchange;
 
@@ -26,6 +27,26 @@ public interface RequestIntercept {
     afterResponse(chain.proceed(request), request);
   }
 
+  /**
+   * Intercept the asynchronous request.
+   *
+   * <p>This is the non-blocking equivalent of {@link #intercept(HttpClientRequest, InterceptChain)}
+   * used for async requests. It must not block waiting for the response but instead return the
+   * stage from {@link AsyncInterceptChain#proceed(HttpClientRequest)} (or a transformation of it).
+   * To terminate the chain return a completed stage with the response to use.
+   *
+   * <p>Note that when an interceptor overrides {@code intercept()} but not this method the async
+   * requests for the client fall back to executing the interceptors via the blocking chain on the
+   * completion executor.
+   */
+  default CompletionStage<HttpResponse<?>> interceptAsync(HttpClientRequest request, AsyncInterceptChain chain) {
+    beforeRequest(request);
+    return chain.proceed(request).thenApply(response -> {
+      afterResponse(response, request);
+      return response;
+    });
+  }
+
   /** After the response has been received. */
   default void afterResponse(HttpResponse<?> response, HttpClientRequest request) {
     // do nothing by default
@@ -52,4 +73,17 @@ public interface RequestIntercept {
      */
     void setResponse(HttpResponse<?> response);
   }
+
+  /**
+   * Asynchronous filter chain that contains all subsequent filters that are configured, as well
+   * as the final send of the request.
+   */
+  interface AsyncInterceptChain {
+
+    /**
+     * Calls the next interceptor in the chain, or else sends the request if this is the final
+     * filter in the chain, returning the stage that completes with the response.
+     */
+    CompletionStage<HttpResponse<?>> proceed(HttpClientRequest request);
+  }
 }
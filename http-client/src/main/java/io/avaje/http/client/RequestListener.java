@@ -63,5 +63,25 @@ public interface RequestListener {
      */
     String requestBody();
 
+    /**
+     * Return a prefix of the response body of at most {@code maxBytes} bytes of content.
+     * <p>
+     * Only the prefix of the content is decoded such that large bodies are not materialised
+     * as Strings for logging.
+     */
+    default String responseBody(int maxBytes) {
+      return truncate(responseBody(), maxBytes);
+    }
+
+    /**
+     * Return a prefix of the request body of at most {@code maxBytes} bytes of content.
+     */
+    default String requestBody(int maxBytes) {
+      return truncate(requestBody(), maxBytes);
+    }
+
+    private static String truncate(String body, int maxLength) {
+      return body == null || body.length() <= maxLength ? body : body.substring(0, maxLength) + " <truncated> ...";
+    }
   }
 }
@@ -4,11 +4,13 @@ import java.lang.System.Logger.Level;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import io.avaje.applog.AppLog;
 
@@ -27,13 +29,44 @@ import io.avaje.applog.AppLog;
  * Using System.Logger, messages by default go to JUL (Java Util Logging) unless a provider
  * is registered. We can use <em>io.avaje:avaje-slf4j-jpl</em> to have System.Logger
  * messages go to <em>slf4j-api</em>.
+ *
+ * <h3>Sampling</h3>
+ * <p>
+ * To keep request logging on under load use {@link #builder()} to only log a sample of the
+ * requests along with all error responses and slow requests. Only a bounded prefix of the
+ * bodies is decoded and the message is formatted into a reusable per thread buffer such
+ * that requests that are not logged have no allocation.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .requestLogging(false)
+ *     .requestListener(RequestLogger.builder()
+ *       .sampleRate(0.01)
+ *       .slowThreshold(Duration.ofMillis(500))
+ *       .maxBodyBytes(512)
+ *       .build())
+ *     .build();
+ *
+ * }</pre>
  */
 public class RequestLogger implements RequestListener {
 
   private static final System.Logger log = AppLog.getLogger("io.avaje.http.client.RequestLogger");
 
+  /** Buffers that grow beyond this are not retained for reuse. */
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+  private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+  /** The constructors log the full request body and the response body truncated to 1000 characters. */
+  private static final int UNBOUNDED_REQUEST_BODY = -1;
+
   private final String delimiter;
   private final Set<String> suppressedHeaders = new HashSet<>();
+  private final double sampleRate;
+  private final long slowMicros;
+  private final boolean logErrors;
+  private final int maxBodyBytes;
 
   /**
    * Create using the {@literal \n} new line character.
@@ -53,34 +86,73 @@ public class RequestLogger implements RequestListener {
    * Create with a given line delimiter and set of headers to suppress.
    */
   public RequestLogger(String delimiter, Collection<String> suppressedHeaders) {
+    this(delimiter, suppressedHeaders, 1.0, Long.MAX_VALUE, true, UNBOUNDED_REQUEST_BODY);
+  }
+
+  private RequestLogger(String delimiter, Collection<String> suppressedHeaders, double sampleRate,
+                        long slowMicros, boolean logErrors, int maxBodyBytes) {
     this.delimiter = delimiter;
     this.suppressedHeaders.add(DHttpClientContext.AUTHORIZATION);
     this.suppressedHeaders.addAll(suppressedHeaders);
+    this.sampleRate = sampleRate;
+    this.slowMicros = slowMicros;
+    this.logErrors = logErrors;
+    this.maxBodyBytes = maxBodyBytes;
+  }
+
+  /**
+   * Return a builder for a RequestLogger with sampling.
+   */
+  public static Builder builder() {
+    return new Builder();
   }
 
   @Override
   public void response(Event event) {
     if (log.isLoggable(Level.DEBUG)) {
       final HttpResponse<?> response = event.response();
+      final long micros = event.responseTimeMicros();
+      if (!sampled(response.statusCode(), micros)) {
+        return;
+      }
       final HttpRequest request = response.request();
-      long micros = event.responseTimeMicros();
-
-      StringBuilder sb = new StringBuilder();
+      final StringBuilder sb = buffer();
       sb.append("statusCode:").append(response.statusCode())
         .append(" method:").append(request.method())
         .append(" uri:").append(event.uri())
         .append(" timeMicros:").append(micros);
 
       if (log.isLoggable(Level.TRACE)) {
+        final boolean bounded = maxBodyBytes != UNBOUNDED_REQUEST_BODY;
         headers(sb, "req-head: ", request.headers());
-        body(sb, "req-body: ", event.requestBody());
+        body(sb, "req-body: ", bounded ? event.requestBody(maxBodyBytes) : event.requestBody());
         headers(sb, "res-head: ", response.headers());
-        body(sb, "res-body: ", event.responseBody());
+        body(sb, "res-body: ", bounded ? event.responseBody(maxBodyBytes) : event.responseBody());
       }
       log.log(Level.DEBUG, sb.toString());
     }
   }
 
+  /**
+   * Return true if the response should be logged.
+   */
+  boolean sampled(int statusCode, long micros) {
+    if (sampleRate >= 1.0 || logErrors && statusCode >= 400 || micros >= slowMicros) {
+      return true;
+    }
+    return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private static StringBuilder buffer() {
+    StringBuilder sb = BUFFER.get();
+    if (sb.capacity() > MAX_RETAINED_BUFFER) {
+      sb = new StringBuilder(256);
+      BUFFER.set(sb);
+    }
+    sb.setLength(0);
+    return sb;
+  }
+
   private void body(StringBuilder sb, String label, String body) {
     if (body != null) {
       sb.append(delimiter).append(label).append(body);
@@ -96,7 +168,15 @@ public class RequestLogger implements RequestListener {
         if (obfuscate(key)) {
           sb.append(key).append("=<obfuscated>, ");
         } else {
-          sb.append(key).append("=").append(entry.getValue()).append(", ");
+          sb.append(key).append("=[");
+          final List<String> values = entry.getValue();
+          for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+              sb.append(", ");
+            }
+            sb.append(values.get(i));
+          }
+          sb.append("], ");
         }
       }
     }
@@ -105,4 +185,84 @@ public class RequestLogger implements RequestListener {
   boolean obfuscate(String key) {
     return suppressedHeaders.contains(key);
   }
+
+  /**
+   * Builder for a RequestLogger with sampling.
+   */
+  public static final class Builder {
+
+    private String delimiter = "\n";
+    private final Set<String> suppressedHeaders = new HashSet<>();
+    private double sampleRate = 1.0;
+    private Duration slowThreshold;
+    private boolean logErrors = true;
+    private int maxBodyBytes = 1_000;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the line delimiter (defaults to {@literal \n}).
+     */
+    public Builder delimiter(String delimiter) {
+      this.delimiter = delimiter;
+      return this;
+    }
+
+    /**
+     * Add headers to suppress (Authorization is always suppressed).
+     */
+    public Builder suppressHeaders(Collection<String> headers) {
+      this.suppressedHeaders.addAll(headers);
+      return this;
+    }
+
+    /**
+     * Set the fraction of requests to log between 0 and 1 (defaults to 1, all requests).
+     * <p>
+     * Error responses and slow requests are logged regardless of the sample rate. Set
+     * this to 0 to only log errors and slow requests.
+     */
+    public Builder sampleRate(double sampleRate) {
+      this.sampleRate = sampleRate;
+      return this;
+    }
+
+    /**
+     * Always log requests that take longer than this threshold.
+     */
+    public Builder slowThreshold(Duration slowThreshold) {
+      this.slowThreshold = slowThreshold;
+      return this;
+    }
+
+    /**
+     * Set false to not always log error responses (status code 400 and above).
+     * Defaults to true.
+     */
+    public Builder logErrors(boolean logErrors) {
+      this.logErrors = logErrors;
+      return this;
+    }
+
+    /**
+     * Set the maximum bytes of the request and response bodies logged at TRACE level
+     * (defaults to 1000). Only this prefix of the body content is decoded.
+     */
+    public Builder maxBodyBytes(int maxBodyBytes) {
+      this.maxBodyBytes = maxBodyBytes;
+      return this;
+    }
+
+    /**
+     * Build and return the RequestLogger.
+     */
+    public RequestLogger build() {
+      if (sampleRate < 0 || sampleRate > 1 || maxBodyBytes < 0) {
+        throw new IllegalArgumentException("Require 0 <= sampleRate <= 1 and positive maxBodyBytes");
+      }
+      final long slowMicros = slowThreshold == null ? Long.MAX_VALUE : slowThreshold.toNanos() / 1000;
+      return new RequestLogger(delimiter, suppressedHeaders, sampleRate, slowMicros, logErrors, maxBodyBytes);
+    }
+  }
 }
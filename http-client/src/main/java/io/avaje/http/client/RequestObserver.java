@@ -23,6 +23,29 @@ public interface RequestObserver {
    */
   Observation start(HttpClientRequest request);
 
+  /**
+   * Invoked with the metrics taken via {@link HttpClient#metrics(boolean)} with reset true.
+   * <p>
+   * As each of these covers the period since the prior reset this can be used to export
+   * the metrics including the {@link HttpClient.Metrics#latency()} histograms.
+   *
+   * @param metrics The metrics for the period since the prior reset
+   */
+  default void onMetrics(HttpClient.Metrics metrics) {
+    // do nothing by default
+  }
+
+  /**
+   * Invoked when a circuit breaker changes state.
+   *
+   * @param key  The circuit breaker key (request label, url template path or host)
+   * @param from The prior state
+   * @param to   The new state
+   */
+  default void onCircuitBreakerStateChange(String key, CircuitBreakerConfig.State from, CircuitBreakerConfig.State to) {
+    // do nothing by default
+  }
+
   /**
    * Observation of a logical request execution.
    */
@@ -41,6 +64,21 @@ public interface RequestObserver {
      * @return The attempt observer
      */
     Attempt startAttempt(HttpClientRequest request, int resendCount);
+
+    /**
+     * Start observing an actual send attempt to the given url.
+     * <p>
+     * The url differs from {@link HttpClientRequest#url()} when the attempt is sent to another
+     * load balanced base url or to the alternate base url of a hedged request.
+     *
+     * @param request The request about to be sent
+     * @param resendCount The send attempt count where 0 is the first send and 1+ are retries
+     * @param url The url the attempt is sent to
+     * @return The attempt observer
+     */
+    default Attempt startAttempt(HttpClientRequest request, int resendCount, String url) {
+      return startAttempt(request, resendCount);
+    }
   }
 
   /**
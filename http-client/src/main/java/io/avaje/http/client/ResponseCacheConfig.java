@@ -0,0 +1,118 @@
+package io.avaje.http.client;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration of the HTTP response cache.
+ * <p>
+ * When set via {@link HttpClient.Builder#responseCache(ResponseCacheConfig)} the content of
+ * cacheable GET responses read as {@code bean()}, {@code list()}, {@code asVoid()} or via
+ * a {@link BodyReader} is cached honouring {@code Cache-Control} max-age, no-cache, no-store
+ * and stale-while-revalidate. Stale entries with an {@code ETag} or {@code Last-Modified}
+ * are revalidated via {@code If-None-Match} and {@code If-Modified-Since}.
+ * <p>
+ * The in-memory tier is bounded by bytes and uses W-TinyLFU style eviction such that
+ * frequently used entries are not evicted by a burst of entries used once. Optionally
+ * entries evicted from memory are kept in a disk tier using memory mapped files.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .responseCache(ResponseCacheConfig.builder()
+ *       .maxBytes(32 * 1024 * 1024)
+ *       .diskDirectory(Path.of("/tmp/http-cache"))
+ *       .build())
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class ResponseCacheConfig {
+
+  private final long maxBytes;
+  private final Path diskDirectory;
+  private final long diskMaxBytes;
+
+  private ResponseCacheConfig(Builder builder) {
+    this.maxBytes = builder.maxBytes;
+    this.diskDirectory = builder.diskDirectory;
+    this.diskMaxBytes = builder.diskMaxBytes;
+  }
+
+  /**
+   * Return a new builder for ResponseCacheConfig.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Return the maximum bytes of content held in memory.
+   */
+  public long maxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Return the directory of the disk tier (null when there is no disk tier).
+   */
+  public Path diskDirectory() {
+    return diskDirectory;
+  }
+
+  /**
+   * Return the maximum bytes of content held in the disk tier.
+   */
+  public long diskMaxBytes() {
+    return diskMaxBytes;
+  }
+
+  /**
+   * Builder for ResponseCacheConfig.
+   */
+  public static final class Builder {
+
+    private long maxBytes = 16 * 1024 * 1024;
+    private Path diskDirectory;
+    private long diskMaxBytes = 256 * 1024 * 1024;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the maximum bytes of content held in memory (defaults to 16MB).
+     */
+    public Builder maxBytes(long maxBytes) {
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    /**
+     * Set the directory for the disk tier. Without this there is no disk tier.
+     * <p>
+     * Cache files in this directory are removed when the client is built.
+     */
+    public Builder diskDirectory(Path diskDirectory) {
+      this.diskDirectory = diskDirectory;
+      return this;
+    }
+
+    /**
+     * Set the maximum bytes of content held in the disk tier (defaults to 256MB).
+     */
+    public Builder diskMaxBytes(long diskMaxBytes) {
+      this.diskMaxBytes = diskMaxBytes;
+      return this;
+    }
+
+    /**
+     * Build and return the ResponseCacheConfig.
+     */
+    public ResponseCacheConfig build() {
+      if (maxBytes < 1 || diskMaxBytes < 1) {
+        throw new IllegalArgumentException("Require positive maxBytes and diskMaxBytes");
+      }
+      return new ResponseCacheConfig(this);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package io.avaje.http.client;
 
 import java.net.http.HttpResponse;
+import java.time.Duration;
 
 /**
  * Define how retry should occur on a request.
@@ -26,4 +27,22 @@ public interface RetryHandler {
   default boolean isExceptionRetry(int retryCount, HttpException exception) {
     throw exception;
   }
+
+  /**
+   * Return the delay to wait before executing the next retry attempt.
+   * <p>
+   * This is called after {@link #isRetry(int, HttpResponse)} or
+   * {@link #isExceptionRetry(int, HttpException)} returned true. Synchronous requests wait
+   * for the delay on the calling thread while asynchronous requests schedule the next attempt
+   * via {@link java.util.concurrent.CompletableFuture#delayedExecutor} such that no thread
+   * is blocked waiting.
+   *
+   * @param retryCount    The number of retry attempts already executed
+   * @param previousDelay The delay used for the prior retry attempt (ZERO for the first retry)
+   * @param response      The HTTP response or null when the retry is due to an exception
+   * @return The delay before the next attempt, defaults to ZERO
+   */
+  default Duration retryDelay(int retryCount, Duration previousDelay, HttpResponse<?> response) {
+    return Duration.ZERO;
+  }
 }
@@ -0,0 +1,321 @@
+package io.avaje.http.client;
+
+import io.avaje.applog.AppLog;
+
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Retry with exponential backoff, jitter, support for {@code Retry-After} and a retry budget.
+ * <p>
+ * The retry budget is a token bucket shared by all requests using this policy (typically
+ * the whole client). Each retry takes a token and when the bucket is empty requests are not
+ * retried such that retries can not amplify the load on a service that is already failing.
+ *
+ * <pre>{@code
+ *
+ *   RetryPolicy retryPolicy = RetryPolicy.builder()
+ *     .maxRetries(3)
+ *     .baseDelay(Duration.ofMillis(50))
+ *     .maxDelay(Duration.ofSeconds(2))
+ *     .jitter(RetryPolicy.Jitter.DECORRELATED)
+ *     .budget(20, 5)
+ *     .build();
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .retryHandler(retryPolicy)
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class RetryPolicy implements RetryHandler {
+
+  private static final System.Logger log = AppLog.getLogger("io.avaje.http.client");
+
+  /**
+   * The jitter applied to the exponential backoff.
+   */
+  public enum Jitter {
+
+    /**
+     * No jitter, the delay is {@code min(maxDelay, baseDelay * 2^retryCount)}.
+     */
+    NONE,
+
+    /**
+     * The delay is a random value between zero and the exponential backoff.
+     */
+    FULL,
+
+    /**
+     * The delay is a random value between baseDelay and 3 times the previous delay
+     * (capped at maxDelay).
+     */
+    DECORRELATED
+  }
+
+  private final int maxRetries;
+  private final long baseNanos;
+  private final long maxNanos;
+  private final Jitter jitter;
+  private final IntPredicate retryStatus;
+  private final boolean retryExceptions;
+  private final TokenBucket budget;
+
+  private RetryPolicy(Builder builder) {
+    this.maxRetries = builder.maxRetries;
+    this.baseNanos = builder.baseDelay.toNanos();
+    this.maxNanos = builder.maxDelay.toNanos();
+    this.jitter = builder.jitter;
+    this.retryStatus = builder.retryStatus;
+    this.retryExceptions = builder.retryExceptions;
+    this.budget = builder.budgetCapacity > 0 ? new TokenBucket(builder.budgetCapacity, builder.budgetPerSecond) : null;
+  }
+
+  /**
+   * Return a new builder for RetryPolicy.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public boolean isRetry(int retryCount, HttpResponse<?> response) {
+    if (retryCount >= maxRetries || !retryStatus.test(response.statusCode())) {
+      return false;
+    }
+    final Duration retryAfter = retryAfter(response);
+    if (retryAfter != null && retryAfter.toNanos() > maxNanos) {
+      // the server asked for a longer wait than we are willing to do
+      return false;
+    }
+    if (!acquireBudget()) {
+      return false;
+    }
+    if (log.isLoggable(Level.DEBUG)) {
+      log.log(Level.DEBUG, "retry count:{0} status:{1} uri:{2}", retryCount, response.statusCode(), response.uri());
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isExceptionRetry(int retryCount, HttpException exception) {
+    if (!retryExceptions || retryCount >= maxRetries || !(exception.getCause() instanceof IOException)) {
+      throw exception;
+    }
+    if (!acquireBudget()) {
+      throw exception;
+    }
+    if (log.isLoggable(Level.DEBUG)) {
+      log.log(Level.DEBUG, "retry count:{0} exception:{1}", retryCount, exception.getCause());
+    }
+    return true;
+  }
+
+  @Override
+  public Duration retryDelay(int retryCount, Duration previousDelay, HttpResponse<?> response) {
+    if (response != null) {
+      final Duration retryAfter = retryAfter(response);
+      if (retryAfter != null) {
+        return retryAfter;
+      }
+    }
+    return Duration.ofNanos(backoffNanos(retryCount, previousDelay.toNanos()));
+  }
+
+  long backoffNanos(int retryCount, long previousNanos) {
+    switch (jitter) {
+      case FULL:
+        return random(0, exponential(retryCount));
+      case DECORRELATED:
+        final long previous = Math.max(baseNanos, previousNanos);
+        return random(baseNanos, previous > maxNanos / 3 ? maxNanos : previous * 3);
+      default:
+        return exponential(retryCount);
+    }
+  }
+
+  private long exponential(int retryCount) {
+    if (retryCount >= 62 || baseNanos > (maxNanos >> retryCount)) {
+      return maxNanos;
+    }
+    return Math.min(maxNanos, baseNanos << retryCount);
+  }
+
+  private static long random(long origin, long bound) {
+    return bound <= origin ? origin : ThreadLocalRandom.current().nextLong(origin, bound + 1);
+  }
+
+  private boolean acquireBudget() {
+    if (budget == null || budget.tryAcquire(System.nanoTime())) {
+      return true;
+    }
+    log.log(Level.DEBUG, "retry budget exhausted");
+    return false;
+  }
+
+  /**
+   * Return the Retry-After header value as a Duration or null if not present or invalid.
+   * Supports both delay seconds and HTTP-date values.
+   */
+  static Duration retryAfter(HttpResponse<?> response) {
+    final String value = response.headers().firstValue("Retry-After").orElse(null);
+    return value == null ? null : parseRetryAfter(value.trim(), ZonedDateTime.now());
+  }
+
+  static Duration parseRetryAfter(String value, ZonedDateTime now) {
+    if (value.isEmpty()) {
+      return null;
+    }
+    if (Character.isDigit(value.charAt(0))) {
+      try {
+        return Duration.ofSeconds(Long.parseLong(value));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+    try {
+      final Duration delay = Duration.between(now, ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+      return delay.isNegative() ? Duration.ZERO : delay;
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Lock free token bucket using a single "theoretical arrival time" (GCRA).
+   */
+  static final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong arrival;
+
+    TokenBucket(int capacity, double perSecond) {
+      this.intervalNanos = (long) (1_000_000_000L / perSecond);
+      this.toleranceNanos = intervalNanos * capacity;
+      this.arrival = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    boolean tryAcquire(long now) {
+      while (true) {
+        final long current = arrival.get();
+        final long next = Math.max(current, now - toleranceNanos) + intervalNanos;
+        if (next - now > 0) {
+          return false;
+        }
+        if (arrival.compareAndSet(current, next)) {
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * Builder for RetryPolicy.
+   */
+  public static final class Builder {
+
+    private int maxRetries = 3;
+    private Duration baseDelay = Duration.ofMillis(100);
+    private Duration maxDelay = Duration.ofSeconds(10);
+    private Jitter jitter = Jitter.FULL;
+    private IntPredicate retryStatus = status -> status == 429 || status >= 500;
+    private boolean retryExceptions = true;
+    private int budgetCapacity;
+    private double budgetPerSecond;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the maximum number of retry attempts (defaults to 3).
+     */
+    public Builder maxRetries(int maxRetries) {
+      this.maxRetries = maxRetries;
+      return this;
+    }
+
+    /**
+     * Set the base delay of the exponential backoff (defaults to 100 millis).
+     */
+    public Builder baseDelay(Duration baseDelay) {
+      this.baseDelay = baseDelay;
+      return this;
+    }
+
+    /**
+     * Set the maximum delay between attempts (defaults to 10 seconds).
+     * <p>
+     * A response with a {@code Retry-After} longer than this is not retried.
+     */
+    public Builder maxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    /**
+     * Set the jitter applied to the backoff (defaults to FULL).
+     */
+    public Builder jitter(Jitter jitter) {
+      this.jitter = jitter;
+      return this;
+    }
+
+    /**
+     * Set the predicate that determines which response status codes are retried.
+     * <p>
+     * Defaults to retry 429 and 5xx responses.
+     */
+    public Builder retryStatus(IntPredicate retryStatus) {
+      this.retryStatus = retryStatus;
+      return this;
+    }
+
+    /**
+     * Set if requests failing with an IOException (connection reset, timeout etc) are
+     * retried (defaults to true).
+     */
+    public Builder retryExceptions(boolean retryExceptions) {
+      this.retryExceptions = retryExceptions;
+      return this;
+    }
+
+    /**
+     * Set the retry budget shared by all requests using this policy.
+     * <p>
+     * At most {@code capacity} retries can occur in a burst after which retries are
+     * limited to {@code retriesPerSecond}. Without a budget retries are unlimited.
+     *
+     * @param capacity         The maximum number of retry tokens (burst)
+     * @param retriesPerSecond The rate at which retry tokens are replenished
+     */
+    public Builder budget(int capacity, double retriesPerSecond) {
+      if (capacity < 1 || retriesPerSecond <= 0) {
+        throw new IllegalArgumentException("Retry budget capacity and retriesPerSecond must be positive");
+      }
+      this.budgetCapacity = capacity;
+      this.budgetPerSecond = retriesPerSecond;
+      return this;
+    }
+
+    /**
+     * Build and return the RetryPolicy.
+     */
+    public RetryPolicy build() {
+      if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+        throw new IllegalArgumentException("Require 0 <= baseDelay <= maxDelay");
+      }
+      return new RetryPolicy(this);
+    }
+  }
+}
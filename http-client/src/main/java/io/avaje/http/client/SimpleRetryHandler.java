@@ -4,6 +4,7 @@ import io.avaje.applog.AppLog;
 
 import java.lang.System.Logger.Level;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Random;
 
 /**
@@ -50,13 +51,12 @@ public class SimpleRetryHandler implements RetryHandler {
     if (log.isLoggable(Level.DEBUG)) {
       log.log(Level.DEBUG, "retry count:{0} status:{1} uri:{2}", retryCount, response.statusCode(), response.uri());
     }
-    try {
-      int gitter = gitterMillis < 1 ? 0 : random.nextInt(gitterMillis);
-      Thread.sleep(backoffMillis + gitter);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      return false;
-    }
     return true;
   }
+
+  @Override
+  public Duration retryDelay(int retryCount, Duration previousDelay, HttpResponse<?> response) {
+    int gitter = gitterMillis < 1 ? 0 : random.nextInt(gitterMillis);
+    return Duration.ofMillis(backoffMillis + gitter);
+  }
 }
@@ -11,9 +11,16 @@ public interface UrlBuilder extends Cloneable {
 
   /**
    * URL encode the value.
+   * <p>
+   * Values that do not contain any characters requiring encoding are returned as is.
    */
   static String enc(String val) {
-    return URLEncoder.encode(val, StandardCharsets.UTF_8);
+    for (int i = 0; i < val.length(); i++) {
+      if (!DUrlBuilder.unreserved(val.charAt(i))) {
+        return URLEncoder.encode(val, StandardCharsets.UTF_8);
+      }
+    }
+    return val;
   }
 
   /**
@@ -55,6 +62,39 @@ public interface UrlBuilder extends Cloneable {
    */
   UrlBuilder path(Object val);
 
+  /**
+   * Add the path of the template that has no path parameters.
+   */
+  UrlBuilder path(UrlTemplate template);
+
+  /**
+   * Add the path of the template with the given path parameter value.
+   * <p>
+   * Like {@link #path(Object)} the value is not url encoded.
+   *
+   * @throws IllegalArgumentException when the value is null
+   */
+  UrlBuilder path(UrlTemplate template, Object value);
+
+  /**
+   * Add the path of the template with the given path parameter values.
+   * <p>
+   * Like {@link #path(Object)} the values are not url encoded.
+   *
+   * @throws IllegalArgumentException when a value is null
+   */
+  UrlBuilder path(UrlTemplate template, Object value0, Object value1);
+
+  /**
+   * Add the path of the template with the given path parameter values.
+   * <p>
+   * Like {@link #path(Object)} the values are not url encoded. Templates with one or two
+   * path parameters use the fixed arity methods which avoid allocating the values array.
+   *
+   * @throws IllegalArgumentException when a value is null
+   */
+  UrlBuilder path(UrlTemplate template, Object... values);
+
   /**
    * Append a query parameter.
    * <p>
@@ -0,0 +1,164 @@
+package io.avaje.http.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled URL path template with {@code {name}} placeholders for path parameters.
+ * <p>
+ * The literal sections are split out once such that adding the path to a request only
+ * appends the literal sections and the parameter values. Typically these are defined as
+ * static constants by generated clients.
+ *
+ * <pre>{@code
+ *
+ *   static final UrlTemplate HELLO = UrlTemplate.of("hello/{id}/{date}");
+ *
+ *   client.request()
+ *     .path(HELLO, id, date)
+ *     .GET()
+ *     ...
+ *
+ * }</pre>
+ */
+public final class UrlTemplate {
+
+  private final String path;
+  private final String template;
+  private final String[] literals;
+  private final String[] names;
+  private final int literalLength;
+
+  private UrlTemplate(String path, String[] literals, String[] names) {
+    this.path = path;
+    this.template = path.startsWith("/") ? path : "/" + path;
+    this.literals = literals;
+    this.names = names;
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * Create the template from the given path.
+   * <p>
+   * Like {@link UrlBuilder#path(String)} the path is appended with a "/" prefix.
+   *
+   * @param path The path with {@code {name}} placeholders for the path parameters
+   */
+  public static UrlTemplate of(String path) {
+    final List<String> literals = new ArrayList<>();
+    final List<String> names = new ArrayList<>();
+    final var literal = new StringBuilder(path.length() + 1).append('/');
+    int pos = 0;
+    while (pos < path.length()) {
+      final int start = path.indexOf('{', pos);
+      if (start == -1) {
+        break;
+      }
+      final int end = path.indexOf('}', start);
+      if (end == -1) {
+        throw new IllegalArgumentException("Unclosed placeholder in path " + path);
+      }
+      literal.append(path, pos, start);
+      literals.add(literal.toString());
+      names.add(path.substring(start + 1, end));
+      literal.setLength(0);
+      pos = end + 1;
+    }
+    literal.append(path, pos, path.length());
+    literals.add(literal.toString());
+    return new UrlTemplate(path, literals.toArray(new String[0]), names.toArray(new String[0]));
+  }
+
+  /**
+   * Return the path this template was created from.
+   */
+  public String path() {
+    return path;
+  }
+
+  /**
+   * Return the path with a leading "/" such as {@code /customer/{id}}.
+   * <p>
+   * This is relative to the base url and is a low-cardinality name for the request
+   * suitable for use in metrics and traces.
+   */
+  public String template() {
+    return template;
+  }
+
+  /**
+   * Return the number of path parameters.
+   */
+  public int parameterCount() {
+    return literals.length - 1;
+  }
+
+  /**
+   * Append the path of a template without path parameters to the buffer.
+   */
+  void append(StringBuilder buffer) {
+    checkCount(0);
+    buffer.append(literals[0]);
+  }
+
+  /**
+   * Append the path to the buffer with the given parameter value.
+   */
+  void append(StringBuilder buffer, Object value) {
+    checkCount(1);
+    buffer.ensureCapacity(buffer.length() + literalLength + 16);
+    buffer.append(literals[0]);
+    appendValue(buffer, 0, value);
+    buffer.append(literals[1]);
+  }
+
+  /**
+   * Append the path to the buffer with the given parameter values.
+   */
+  void append(StringBuilder buffer, Object value0, Object value1) {
+    checkCount(2);
+    buffer.ensureCapacity(buffer.length() + literalLength + 32);
+    buffer.append(literals[0]);
+    appendValue(buffer, 0, value0);
+    buffer.append(literals[1]);
+    appendValue(buffer, 1, value1);
+    buffer.append(literals[2]);
+  }
+
+  /**
+   * Append the path to the buffer with the given parameter values.
+   */
+  void append(StringBuilder buffer, Object[] values) {
+    checkCount(values.length);
+    buffer.ensureCapacity(buffer.length() + literalLength + 16 * values.length);
+    buffer.append(literals[0]);
+    for (int i = 0; i < values.length; i++) {
+      appendValue(buffer, i, values[i]);
+      buffer.append(literals[i + 1]);
+    }
+  }
+
+  private void checkCount(int count) {
+    if (count != literals.length - 1) {
+      throw new IllegalArgumentException("Expected " + (literals.length - 1) + " path values but got " + count + " for " + path);
+    }
+  }
+
+  private void appendValue(StringBuilder buffer, int index, Object value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null value for path parameter {" + names[index] + "} of " + path);
+    }
+    // append numbers directly without creating intermediate strings
+    if (value instanceof Integer) {
+      buffer.append((int) (Integer) value);
+    } else if (value instanceof Long) {
+      buffer.append((long) (Long) value);
+    } else {
+      buffer.append(value);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package io.avaje.http.client;
+
+import java.time.Duration;
+
+/**
+ * Configuration of connection warm-up when the client is built.
+ * <p>
+ * When set via {@link HttpClient.Builder#warmUp(WarmUpConfig)} a cheap request (by default
+ * {@code HEAD} of the base url) is sent to each base url such that the TCP connection, TLS
+ * handshake and HTTP/2 negotiation are done before the first real request. The response
+ * status is not checked, any response means the connection is established and pooled.
+ * <p>
+ * With HTTP/2 (the default version) requests are multiplexed over a single connection so
+ * a single warm-up request is sent per base url. With HTTP/1.1 {@link Builder#connections(int)}
+ * requests are sent concurrently per base url to open that many pooled connections.
+ * <p>
+ * The warm-up timings are reported via {@link HttpClient.Metrics#warmUpMicros()}.
+ *
+ * <pre>{@code
+ *
+ *   HttpClient client = HttpClient.builder()
+ *     .baseUrl(baseUrl)
+ *     .warmUp(WarmUpConfig.builder()
+ *       .path("health")
+ *       .timeout(Duration.ofSeconds(2))
+ *       .build())
+ *     .build();
+ *
+ * }</pre>
+ */
+public final class WarmUpConfig {
+
+  private final String method;
+  private final String path;
+  private final int connections;
+  private final Duration timeout;
+  private final boolean async;
+
+  private WarmUpConfig(Builder builder) {
+    this.method = builder.method;
+    this.path = builder.path;
+    this.connections = builder.connections;
+    this.timeout = builder.timeout;
+    this.async = builder.async;
+  }
+
+  /**
+   * Return a new builder for WarmUpConfig.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Return the http method of the warm-up request.
+   */
+  public String method() {
+    return method;
+  }
+
+  /**
+   * Return the path of the warm-up request relative to the base url.
+   */
+  public String path() {
+    return path;
+  }
+
+  /**
+   * Return the number of connections to open per base url with HTTP/1.1.
+   */
+  public int connections() {
+    return connections;
+  }
+
+  /**
+   * Return the timeout of the warm-up requests.
+   */
+  public Duration timeout() {
+    return timeout;
+  }
+
+  /**
+   * Return true if the warm-up is done asynchronously after the client is built.
+   */
+  public boolean async() {
+    return async;
+  }
+
+  /**
+   * Builder for WarmUpConfig.
+   */
+  public static final class Builder {
+
+    private String method = "HEAD";
+    private String path = "";
+    private int connections = 1;
+    private Duration timeout = Duration.ofSeconds(5);
+    private boolean async;
+
+    private Builder() {
+    }
+
+    /**
+     * Set the http method of the warm-up request (defaults to HEAD).
+     * <p>
+     * The request has no body so use a method like HEAD, GET or OPTIONS.
+     */
+    public Builder method(String method) {
+      this.method = method;
+      return this;
+    }
+
+    /**
+     * Set the path of the warm-up request relative to the base url (defaults to the base url).
+     * <p>
+     * Use a cheap endpoint like a health check.
+     */
+    public Builder path(String path) {
+      this.path = path;
+      return this;
+    }
+
+    /**
+     * Set the number of connections to open per base url with HTTP/1.1 (defaults to 1).
+     * <p>
+     * This is ignored with HTTP/2 where requests are multiplexed on a single connection.
+     */
+    public Builder connections(int connections) {
+      this.connections = connections;
+      return this;
+    }
+
+    /**
+     * Set the timeout of the warm-up requests (defaults to 5 seconds).
+     * <p>
+     * When not async this is the maximum time {@code build()} waits for the warm-up.
+     */
+    public Builder timeout(Duration timeout) {
+      this.timeout = timeout;
+      return this;
+    }
+
+    /**
+     * Set true to warm up asynchronously after the client is built (defaults to false).
+     * <p>
+     * By default {@code build()} waits for the warm-up to complete (or timeout).
+     */
+    public Builder async(boolean async) {
+      this.async = async;
+      return this;
+    }
+
+    /**
+     * Build and return the WarmUpConfig.
+     */
+    public WarmUpConfig build() {
+      if (connections < 1 || timeout.isNegative() || timeout.isZero()) {
+        throw new IllegalArgumentException("Require positive connections and timeout");
+      }
+      return new WarmUpConfig(this);
+    }
+  }
+}
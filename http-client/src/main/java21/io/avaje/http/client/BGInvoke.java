@@ -1,12 +1,11 @@
 package io.avaje.http.client;
 
-import java.util.concurrent.Executors;
-
 final class BGInvoke {
 
+  /**
+   * Run the task in the background on a virtual thread without waiting for it to complete.
+   */
   static void invoke(Runnable task) {
-    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-      executor.submit(task);
-    }
+    Thread.ofVirtual().name("avaje-http-client-bg").start(task);
   }
 }
@@ -0,0 +1,87 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthTokenRefreshTest extends BaseWebTest {
+
+  static class SlowTokenProvider implements AuthTokenProvider {
+
+    final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public AuthToken obtainToken(HttpClientRequest tokenRequest) {
+      count.incrementAndGet();
+      try {
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return AuthToken.of("token-" + count.get(), Instant.now().plusSeconds(3600));
+    }
+  }
+
+  @Test
+  void concurrentRequests_expectSingleTokenRefresh() throws Exception {
+    var provider = new SlowTokenProvider();
+    var client = HttpClient.builder()
+      .baseUrl(baseUrl)
+      .authTokenProvider(provider)
+      .build();
+
+    var start = new CountDownLatch(1);
+    List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      futures.add(CompletableFuture.supplyAsync(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        return client.request().path("hello/message").GET().asString();
+      }));
+    }
+    start.countDown();
+    for (var future : futures) {
+      assertThat(future.join().statusCode()).isEqualTo(200);
+    }
+
+    assertThat(provider.count.get()).isEqualTo(1);
+    final HttpClient.Metrics metrics = client.metrics();
+    assertThat(metrics.tokenRefreshCount()).isEqualTo(1);
+    assertThat(metrics.tokenRefreshErrorCount()).isEqualTo(0);
+    assertThat(metrics.tokenRefreshMicros()).isGreaterThan(0);
+  }
+
+  @Test
+  void tokenProviderError_expectErrorThenRetryOnNextRequest() {
+    var count = new AtomicInteger();
+    var client = HttpClient.builder()
+      .baseUrl(baseUrl)
+      .authTokenProvider(tokenRequest -> {
+        if (count.incrementAndGet() == 1) {
+          throw new IllegalStateException("token service down");
+        }
+        return AuthToken.of("good", Instant.now().plusSeconds(3600));
+      })
+      .build();
+
+    assertThatThrownBy(() -> client.request().path("hello/message").GET().asString())
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("token service down");
+
+    assertThat(client.request().path("hello/message").GET().asString().statusCode()).isEqualTo(200);
+    assertThat(count.get()).isEqualTo(2);
+    assertThat(client.metrics().tokenRefreshErrorCount()).isEqualTo(1);
+  }
+}
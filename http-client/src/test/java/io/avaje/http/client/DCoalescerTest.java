@@ -0,0 +1,115 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DCoalescerTest {
+
+  final DCoalescer coalescer = new DCoalescer(true, null);
+  final DCoalescer.Exchange exchange = new DCoalescer.Exchange(null, BodyContent.of("hello"));
+
+  @Test
+  void key() {
+    final Map<String, List<String>> headers = Map.of("Accept", List.of("text/plain"));
+    assertThat(coalescer.key("GET", "http://foo/bar", null)).isEqualTo("GET http://foo/bar");
+    assertThat(coalescer.key("GET", "http://foo/bar", headers)).isEqualTo("GET http://foo/bar\naccept:[text/plain]");
+
+    final DCoalescer selected = new DCoalescer(true, Set.of("authorization"));
+    assertThat(selected.key("GET", "http://foo/bar", headers)).isEqualTo("GET http://foo/bar");
+    assertThat(selected.key("GET", "http://foo/bar", Map.of("If-None-Match", List.of("\"a\""))))
+      .isEqualTo("GET http://foo/bar\nif-none-match:[\"a\"]");
+  }
+
+  @Test
+  void executeAsync_shared() {
+    final AtomicInteger exchanges = new AtomicInteger();
+    final CompletableFuture<DCoalescer.Exchange> inFlight = new CompletableFuture<>();
+
+    final var first = coalescer.executeAsync("k", () -> {
+      exchanges.incrementAndGet();
+      return inFlight;
+    });
+    final var second = coalescer.executeAsync("k", () -> {
+      exchanges.incrementAndGet();
+      return new CompletableFuture<>();
+    });
+    assertThat(exchanges).hasValue(1);
+    assertThat(coalescer.inFlight()).isEqualTo(1);
+
+    inFlight.complete(exchange);
+    assertThat(first.join()).isSameAs(exchange);
+    assertThat(second.join()).isSameAs(exchange);
+    assertThat(coalescer.inFlight()).isEqualTo(0);
+
+    // not in flight so performs a new exchange
+    coalescer.executeAsync("k", () -> {
+      exchanges.incrementAndGet();
+      return CompletableFuture.completedFuture(exchange);
+    });
+    assertThat(exchanges).hasValue(2);
+  }
+
+  @Test
+  void execute_joinsInFlight() throws InterruptedException {
+    final CompletableFuture<DCoalescer.Exchange> inFlight = new CompletableFuture<>();
+    coalescer.executeAsync("k", () -> inFlight);
+
+    final AtomicReference<DCoalescer.Exchange> result = new AtomicReference<>();
+    final Thread thread = new Thread(() -> result.set(coalescer.execute("k", () -> {
+      throw new IllegalStateException("not expected");
+    })));
+    thread.start();
+    // wait for the thread to join the in-flight exchange
+    final long deadline = System.nanoTime() + 5_000_000_000L;
+    while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      Thread.onSpinWait();
+    }
+    inFlight.complete(exchange);
+    thread.join(5000);
+    assertThat(result.get()).isSameAs(exchange);
+  }
+
+  @Test
+  void execute_errorShared() {
+    final CompletableFuture<DCoalescer.Exchange> inFlight = new CompletableFuture<>();
+    final var first = coalescer.executeAsync("k", () -> inFlight);
+    final var second = coalescer.executeAsync("k", () -> inFlight);
+
+    inFlight.completeExceptionally(new HttpException(503, "unavailable"));
+    assertThatThrownBy(first::join).hasCauseInstanceOf(HttpException.class);
+    assertThatThrownBy(second::join).hasCauseInstanceOf(HttpException.class);
+    assertThat(coalescer.inFlight()).isEqualTo(0);
+
+    assertThatThrownBy(() -> coalescer.execute("k", () -> {
+      throw new HttpException(500, "error");
+    })).isInstanceOf(HttpException.class);
+    assertThat(coalescer.inFlight()).isEqualTo(0);
+  }
+
+  @Test
+  void execute_errorReleasesKey() {
+    final AtomicReference<CompletableFuture<DCoalescer.Exchange>> waiting = new AtomicReference<>();
+    assertThatThrownBy(() -> coalescer.execute("k", () -> {
+      // joins the in-flight exchange of this leader
+      waiting.set(coalescer.executeAsync("k", CompletableFuture::new));
+      throw new StackOverflowError();
+    })).isInstanceOf(StackOverflowError.class);
+
+    assertThat(coalescer.inFlight()).isEqualTo(0);
+    assertThatThrownBy(() -> waiting.get().join()).hasCauseInstanceOf(StackOverflowError.class);
+
+    assertThatThrownBy(() -> coalescer.executeAsync("k", () -> {
+      throw new AssertionError();
+    }).join()).hasCauseInstanceOf(AssertionError.class);
+    assertThat(coalescer.inFlight()).isEqualTo(0);
+  }
+}
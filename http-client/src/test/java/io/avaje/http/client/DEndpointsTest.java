@@ -0,0 +1,124 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DEndpointsTest {
+
+  private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final DEndpoints endpoints = DEndpoints.of(List.of("http://a", "http://b"));
+
+  @Test
+  void baseUrl() {
+    assertThat(endpoints.baseUrl()).isEqualTo("http://a");
+    assertThatThrownBy(() -> DEndpoints.of(List.of())).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void select_leastOutstanding() {
+    final DEndpoints.Endpoint a = endpoint(endpoints, "http://a");
+    endpoints.onStart(a);
+    endpoints.onStart(a);
+
+    for (int i = 0; i < 20; i++) {
+      assertThat(endpoints.select().baseUrl()).isEqualTo("http://b");
+    }
+    endpoints.onComplete(a, 200, MILLIS);
+    endpoints.onCancel(a);
+    assertThat(a.inFlight()).isZero();
+  }
+
+  @Test
+  void select_excludes() {
+    final DEndpoints.Endpoint b = endpoint(endpoints, "http://b");
+    for (int i = 0; i < 20; i++) {
+      assertThat(endpoints.select(b).baseUrl()).isEqualTo("http://a");
+    }
+  }
+
+  @Test
+  void consecutiveFailures_ejected() {
+    final DEndpoints.Endpoint a = endpoint(endpoints, "http://a");
+    fail(endpoints, a, DEndpoints.FAILURE_THRESHOLD - 1);
+    endpoints.onComplete(a, 200, MILLIS);
+    fail(endpoints, a, DEndpoints.FAILURE_THRESHOLD - 1);
+    assertThat(a.isAvailable(System.nanoTime())).isTrue();
+
+    fail(endpoints, a, 1);
+    assertThat(a.isAvailable(System.nanoTime())).isFalse();
+    for (int i = 0; i < 20; i++) {
+      assertThat(endpoints.select().baseUrl()).isEqualTo("http://b");
+    }
+    // a retry away from the only available endpoint fails open
+    assertThat(endpoints.select(endpoint(endpoints, "http://b")).baseUrl()).isEqualTo("http://b");
+  }
+
+  @Test
+  void ejection_limitedToHalf() {
+    final DEndpoints three = DEndpoints.of(List.of("http://a", "http://b", "http://c"));
+    final DEndpoints.Endpoint a = endpoint(three, "http://a");
+    final DEndpoints.Endpoint b = endpoint(three, "http://b");
+    fail(three, a, DEndpoints.FAILURE_THRESHOLD);
+    fail(three, b, DEndpoints.FAILURE_THRESHOLD);
+
+    final long now = System.nanoTime();
+    assertThat(a.isAvailable(now)).isFalse();
+    assertThat(b.isAvailable(now)).isTrue();
+  }
+
+  @Test
+  void latencyOutlier_ejected() {
+    final DEndpoints four = DEndpoints.of(List.of("http://a", "http://b", "http://c", "http://d"));
+    for (String other : List.of("http://b", "http://c", "http://d")) {
+      record(four, endpoint(four, other), DEndpoints.MIN_SAMPLES, MILLIS);
+    }
+    final DEndpoints.Endpoint a = endpoint(four, "http://a");
+    record(four, a, 31, 100 * MILLIS);
+    assertThat(a.isAvailable(System.nanoTime())).isTrue();
+
+    record(four, a, 1, 100 * MILLIS);
+    assertThat(a.isAvailable(System.nanoTime())).isFalse();
+  }
+
+  @Test
+  void latency_notOutlierWhenSmallDifference() {
+    final DEndpoints four = DEndpoints.of(List.of("http://a", "http://b", "http://c", "http://d"));
+    for (String other : List.of("http://b", "http://c", "http://d")) {
+      record(four, endpoint(four, other), DEndpoints.MIN_SAMPLES, MILLIS);
+    }
+    final DEndpoints.Endpoint a = endpoint(four, "http://a");
+    // 5 times slower but only 4 millis
+    record(four, a, 64, 5 * MILLIS);
+    assertThat(a.isAvailable(System.nanoTime())).isTrue();
+  }
+
+  private static void fail(DEndpoints endpoints, DEndpoints.Endpoint endpoint, int count) {
+    for (int i = 0; i < count; i++) {
+      endpoints.onStart(endpoint);
+      endpoints.onComplete(endpoint, i % 2 == 0 ? 503 : -1, MILLIS);
+    }
+  }
+
+  private static void record(DEndpoints endpoints, DEndpoints.Endpoint endpoint, int count, long nanos) {
+    for (int i = 0; i < count; i++) {
+      endpoints.onStart(endpoint);
+      endpoints.onComplete(endpoint, 200, nanos);
+    }
+  }
+
+  private static DEndpoints.Endpoint endpoint(DEndpoints endpoints, String baseUrl) {
+    for (int i = 0; i < 100; i++) {
+      final DEndpoints.Endpoint endpoint = endpoints.select();
+      if (endpoint.baseUrl().equals(baseUrl)) {
+        return endpoint;
+      }
+    }
+    throw new IllegalStateException(baseUrl);
+  }
+}
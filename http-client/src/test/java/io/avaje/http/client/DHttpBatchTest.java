@@ -0,0 +1,134 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DHttpBatchTest {
+
+  @Test
+  void execute_orderedWithBoundedConcurrency() {
+    final AtomicInteger active = new AtomicInteger();
+    final AtomicInteger maxActive = new AtomicInteger();
+    final List<Integer> ids = IntStream.range(0, 50).boxed().collect(toList());
+
+    final List<HttpBatch.Result<String>> results = new DHttpBatch<String>(ForkJoinPool.commonPool())
+      .maxConcurrency(4)
+      .addAll(ids, id -> {
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        return CompletableFuture.supplyAsync(() -> {
+          sleep(id % 3);
+          active.decrementAndGet();
+          return "r" + id;
+        });
+      })
+      .execute()
+      .join();
+
+    assertThat(results).hasSize(50);
+    for (int i = 0; i < 50; i++) {
+      assertThat(results.get(i).index()).isEqualTo(i);
+      assertThat(results.get(i).value()).isEqualTo("r" + i);
+    }
+    assertThat(maxActive.get()).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  void execute_perItemErrors() {
+    final List<HttpBatch.Result<String>> results = new DHttpBatch<String>(ForkJoinPool.commonPool())
+      .add(() -> CompletableFuture.completedFuture("a"))
+      .add(() -> CompletableFuture.failedFuture(new HttpException(404, "not found")))
+      .add(() -> {
+        throw new IllegalStateException("supplier");
+      })
+      .add(() -> CompletableFuture.completedFuture("d"))
+      .execute()
+      .join();
+
+    assertThat(results).extracting(HttpBatch.Result::isSuccess).containsExactly(true, false, false, true);
+    assertThat(results.get(1).error()).isInstanceOf(HttpException.class);
+    assertThat(results.get(2).error()).isInstanceOf(IllegalStateException.class);
+    assertThat(results.get(3).value()).isEqualTo("d");
+  }
+
+  @Test
+  void execute_empty() {
+    assertThat(new DHttpBatch<String>(ForkJoinPool.commonPool()).execute().join()).isEmpty();
+  }
+
+  @Test
+  void execute_deadline() {
+    final CompletableFuture<String> never = new CompletableFuture<>();
+    final List<HttpBatch.Result<String>> results = new DHttpBatch<String>(ForkJoinPool.commonPool())
+      .maxConcurrency(1)
+      .deadline(Duration.ofMillis(50))
+      .add(() -> CompletableFuture.completedFuture("a"))
+      .add(() -> never)
+      .add(() -> CompletableFuture.completedFuture("not started"))
+      .execute()
+      .orTimeout(5, TimeUnit.SECONDS)
+      .join();
+
+    assertThat(results.get(0).value()).isEqualTo("a");
+    assertThat(results.get(1).error()).isInstanceOf(TimeoutException.class);
+    assertThat(results.get(2).error()).isInstanceOf(TimeoutException.class);
+    assertThat(never).isCancelled();
+  }
+
+  @Test
+  void publisher() throws InterruptedException {
+    final HttpBatch<Integer> batch = new DHttpBatch<Integer>(ForkJoinPool.commonPool())
+      .addAll(List.of(1, 2, 3), CompletableFuture::completedFuture);
+
+    final List<Integer> values = new CopyOnWriteArrayList<>();
+    final CountDownLatch complete = new CountDownLatch(1);
+    batch.publisher().subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(HttpBatch.Result<Integer> item) {
+        values.add(item.value());
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        complete.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+        complete.countDown();
+      }
+    });
+    assertThat(complete.await(5, TimeUnit.SECONDS)).isTrue();
+    final List<Integer> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    assertThat(sorted).containsExactly(1, 2, 3);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -2,13 +2,25 @@ package io.avaje.http.client;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.concurrent.Flow;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 class DHttpClientContextTest {
 
-  private final DHttpClientContext context = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null);
+  private final DHttpClientContext context = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null, new DClientSettings());
 
   @Test
   void gzip_gzipDecode() {
@@ -29,6 +41,191 @@ class DHttpClientContextTest {
     assertThat(new String(decoded2, StandardCharsets.UTF_8)).isEqualTo("HelloThere gzip_contentDecode");
   }
 
+  @Test
+  void gzipPublisher() {
+    final String content = "HelloThere gzipPublisher ".repeat(2000);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final boolean[] complete = new boolean[1];
+
+    GzipUtil.gzipPublisher(content.getBytes(StandardCharsets.UTF_8)).subscribe(new Flow.Subscriber<>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        final byte[] bytes = new byte[item.remaining()];
+        item.get(bytes);
+        out.writeBytes(bytes);
+        subscription.request(1);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        throw new AssertionError(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        complete[0] = true;
+      }
+    });
+
+    assertThat(complete[0]).isTrue();
+    final byte[] decoded = GzipUtil.gzipDecode(out.toByteArray());
+    assertThat(new String(decoded, StandardCharsets.UTF_8)).isEqualTo(content);
+  }
+
+  @Test
+  void gzipPublisher_cancel() {
+    final List<ByteBuffer> chunks = new ArrayList<>();
+    final Flow.Subscription[] subscription = new Flow.Subscription[1];
+
+    GzipUtil.gzipPublisher("HelloThere gzipPublisher_cancel ".repeat(2000).getBytes(StandardCharsets.UTF_8)).subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription sub) {
+        subscription[0] = sub;
+        sub.request(1);
+      }
+
+      @Override
+      public void onNext(ByteBuffer item) {
+        chunks.add(item);
+        subscription[0].cancel();
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        throw new AssertionError(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        throw new AssertionError("not expected");
+      }
+    });
+
+    // no more content after cancel (and the deflater has been released)
+    subscription[0].request(1);
+    assertThat(chunks).hasSize(1);
+  }
+
+  @Test
+  void gzipDecode_inputStream() throws IOException {
+    final byte[] asBytes = GzipUtil.gzip("HelloThere gzipDecode_inputStream");
+    try (InputStream decoded = GzipUtil.gzipDecode(new ByteArrayInputStream(asBytes))) {
+      assertThat(new String(decoded.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("HelloThere gzipDecode_inputStream");
+    }
+  }
+
+  @Test
+  void deflate_contentDecode() throws IOException {
+    final byte[] content = "HelloThere deflate_contentDecode".getBytes(StandardCharsets.UTF_8);
+    assertThat(context.decodeContent("deflate", deflate(content, false))).isEqualTo(content);
+    // raw deflate without the zlib wrapper
+    assertThat(context.decodeContent("deflate", deflate(content, true))).isEqualTo(content);
+  }
+
+  private static byte[] deflate(byte[] content, boolean nowrap) throws IOException {
+    final var out = new ByteArrayOutputStream();
+    try (var deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap))) {
+      deflate.write(content);
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  void contentDecoders_registered() {
+    final ContentDecoder reverse = new ContentDecoder() {
+      @Override
+      public String encoding() {
+        return "reverse";
+      }
+
+      @Override
+      public InputStream decode(InputStream content) throws IOException {
+        final byte[] bytes = content.readAllBytes();
+        for (int i = 0, j = bytes.length - 1; i < j; i++, j--) {
+          final byte tmp = bytes[i];
+          bytes[i] = bytes[j];
+          bytes[j] = tmp;
+        }
+        return new ByteArrayInputStream(bytes);
+      }
+    };
+    final var decoders = new DContentDecoders(List.of(reverse), true);
+    final var ctx = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null, new DClientSettings().contentDecoders(decoders));
+
+    assertThat(ctx.acceptEncoding()).isEqualTo("gzip, deflate, reverse");
+    assertThat(ctx.decodeContent("reverse", "olleH".getBytes(StandardCharsets.UTF_8))).isEqualTo("Hello".getBytes(StandardCharsets.UTF_8));
+    assertThat(ctx.decodeContent("unknown", "olleH".getBytes(StandardCharsets.UTF_8))).isEqualTo("olleH".getBytes(StandardCharsets.UTF_8));
+    // not negotiated by default
+    assertThat(context.acceptEncoding()).isNull();
+  }
+
+  @Test
+  void acceptEncoding_optIn() {
+    final List<String> sent = new ArrayList<>();
+    final LoopbackTransport transport = LoopbackTransport.of(request -> {
+      sent.add(request.header("Accept-Encoding"));
+      return LoopbackTransport.Response.ok("ok");
+    });
+    final HttpClient defaultClient = HttpClient.builder().baseUrl("http://loopback").requestLogging(false).transport(transport).build();
+    final HttpClient negotiating = HttpClient.builder().baseUrl("http://loopback").requestLogging(false).transport(transport)
+      .acceptEncoding(true)
+      .build();
+
+    defaultClient.request().path("a").GET().asString();
+    negotiating.request().path("a").GET().asString();
+    // an explicit header is sent unchanged
+    defaultClient.request().path("a").header("Accept-Encoding", "gzip").GET().asString();
+
+    assertThat(sent).containsExactly(null, "gzip, deflate", "gzip");
+    defaultClient.close();
+    negotiating.close();
+  }
+
+  @Test
+  void contentDecoders_serviceLoadSkipsFailed() {
+    final ContentDecoder identity = new ContentDecoder() {
+      @Override
+      public String encoding() {
+        return "x-identity";
+      }
+
+      @Override
+      public InputStream decode(InputStream content) {
+        return content;
+      }
+    };
+    final Iterator<ContentDecoder> iterator = new Iterator<>() {
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        if (index == 0) {
+          index++;
+          throw new ServiceConfigurationError("provider not found");
+        }
+        return index < 3;
+      }
+
+      @Override
+      public ContentDecoder next() {
+        if (index++ == 1) {
+          throw new ServiceConfigurationError("provider could not be instantiated");
+        }
+        return identity;
+      }
+    };
+
+    assertThat(DContentDecoders.serviceLoad(iterator)).containsExactly(identity);
+  }
+
   @Test
   void build_basic() {
 
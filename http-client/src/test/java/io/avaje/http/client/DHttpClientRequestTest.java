@@ -10,7 +10,7 @@ import org.junit.jupiter.api.Test;
 
 class DHttpClientRequestTest {
 
-  final DHttpClientContext context = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null);
+  final DHttpClientContext context = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null, new DClientSettings());
 
   @Test
   void suppressLogging_listenerEvent_expect_suppressedPayloadContent() {
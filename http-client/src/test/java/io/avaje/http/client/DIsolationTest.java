@@ -0,0 +1,162 @@
+package io.avaje.http.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.avaje.http.client.CircuitBreakerConfig.State;
+
+class DIsolationTest {
+
+  final DHttpClientContext context = new DHttpClientContext(null, null, null, null, null, null, null, null, null, null, null, new DClientSettings());
+
+  private final List<String> stateChanges = new ArrayList<>();
+
+  private final RequestObserver observer = new RequestObserver() {
+    @Override
+    public Observation start(HttpClientRequest request) {
+      return Observation.NOOP;
+    }
+
+    @Override
+    public void onCircuitBreakerStateChange(String key, State from, State to) {
+      stateChanges.add(key + ":" + from + "->" + to);
+    }
+  };
+
+  private DHttpClientRequest request(String label) {
+    final DHttpClientRequest request = new DHttpClientRequest(context, Duration.ZERO);
+    request.url("http://localhost:8889").label(label);
+    return request;
+  }
+
+  @Test
+  void acquire_notConfigured_expectNull() {
+    final DIsolation isolation = new DIsolation(null, 0);
+    assertThat(isolation.acquire(request("a"), observer)).isNull();
+  }
+
+  @Test
+  void circuitBreaker_opensAfterConsecutiveFailures() {
+    final DIsolation isolation = new DIsolation(CircuitBreakerConfig.of(2, Duration.ofMinutes(1)), 0);
+
+    isolation.acquire(request("a"), observer).onResponse(500);
+    isolation.acquire(request("a"), observer).onResponse(200);
+    isolation.acquire(request("a"), observer).onResponse(503);
+    assertThat(isolation.state("a")).isEqualTo(State.CLOSED);
+
+    isolation.acquire(request("a"), observer).onError();
+    assertThat(isolation.state("a")).isEqualTo(State.OPEN);
+    assertThat(stateChanges).containsExactly("a:CLOSED->OPEN");
+
+    assertThatThrownBy(() -> isolation.acquire(request("a"), observer))
+      .isInstanceOf(CircuitBreakerOpenException.class)
+      .hasFieldOrPropertyWithValue("statusCode", 503)
+      .hasFieldOrPropertyWithValue("key", "a");
+
+    // other keys are not affected
+    isolation.acquire(request("b"), observer).onResponse(200);
+    assertThat(isolation.state("b")).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void circuitBreaker_halfOpen() {
+    final DIsolation isolation = new DIsolation(CircuitBreakerConfig.of(1, Duration.ZERO), 0);
+
+    isolation.acquire(request("a"), observer).onResponse(500);
+    assertThat(isolation.state("a")).isEqualTo(State.OPEN);
+
+    // open duration elapsed, single trial request allowed
+    final DIsolation.Entry trial = isolation.acquire(request("a"), observer);
+    assertThat(isolation.state("a")).isEqualTo(State.HALF_OPEN);
+    assertThatThrownBy(() -> isolation.acquire(request("a"), observer))
+      .isInstanceOf(CircuitBreakerOpenException.class);
+
+    trial.onResponse(500);
+    assertThat(isolation.state("a")).isEqualTo(State.OPEN);
+
+    isolation.acquire(request("a"), observer).onResponse(200);
+    assertThat(isolation.state("a")).isEqualTo(State.CLOSED);
+    assertThat(stateChanges).containsExactly(
+      "a:CLOSED->OPEN", "a:OPEN->HALF_OPEN", "a:HALF_OPEN->OPEN", "a:OPEN->HALF_OPEN", "a:HALF_OPEN->CLOSED");
+  }
+
+  @Test
+  void bulkhead() {
+    final DIsolation isolation = new DIsolation(null, 2);
+
+    final DIsolation.Entry first = isolation.acquire(request("a"), observer);
+    isolation.acquire(request("a"), observer);
+    assertThatThrownBy(() -> isolation.acquire(request("a"), observer))
+      .isInstanceOf(BulkheadFullException.class)
+      .hasFieldOrPropertyWithValue("key", "a");
+
+    first.onResponse(200);
+    assertThat(isolation.acquire(request("a"), observer)).isNotNull();
+  }
+
+  @Test
+  void requestOverride() {
+    final DIsolation isolation = new DIsolation(null, 0);
+    final DHttpClientRequest request = request("a");
+    request.bulkhead(1);
+
+    isolation.acquire(request, observer);
+    assertThatThrownBy(() -> isolation.acquire(request, observer))
+      .isInstanceOf(BulkheadFullException.class);
+  }
+
+  @Test
+  void conflictingConfig_failsFast() {
+    final DIsolation isolation = new DIsolation(null, 0);
+    final DHttpClientRequest first = request("a");
+    first.bulkhead(2);
+    isolation.acquire(first, observer);
+
+    final DHttpClientRequest other = request("a");
+    other.bulkhead(3);
+    assertThatThrownBy(() -> isolation.acquire(other, observer))
+      .isInstanceOf(IllegalStateException.class);
+
+    final DHttpClientRequest breaker = request("a");
+    breaker.bulkhead(2).circuitBreaker(CircuitBreakerConfig.of(2, Duration.ofMinutes(1)));
+    assertThatThrownBy(() -> isolation.acquire(breaker, observer))
+      .isInstanceOf(IllegalStateException.class);
+
+    // the same configuration or a different key is fine
+    final DHttpClientRequest same = request("a");
+    same.bulkhead(2);
+    assertThat(isolation.acquire(same, observer)).isNotNull();
+    other.label("b");
+    assertThat(isolation.acquire(other, observer)).isNotNull();
+  }
+
+  @Test
+  void circuitBreakerConfig_sameAs() {
+    assertThat(CircuitBreakerConfig.of(2, Duration.ofMinutes(1)).sameAs(CircuitBreakerConfig.of(2, Duration.ofMinutes(1)))).isTrue();
+    assertThat(CircuitBreakerConfig.of(2, Duration.ofMinutes(1)).sameAs(CircuitBreakerConfig.of(3, Duration.ofMinutes(1)))).isFalse();
+  }
+
+  @Test
+  void isolationKey() {
+    assertThat(request("myLabel").isolationKey()).isEqualTo("myLabel");
+
+    final DHttpClientRequest templated = new DHttpClientRequest(context, Duration.ZERO);
+    templated.url("http://localhost:8889").path(UrlTemplate.of("customer/{id}"), 42);
+    assertThat(templated.isolationKey()).isEqualTo("customer/{id}");
+
+    final DHttpClientRequest literalTemplate = new DHttpClientRequest(context, Duration.ZERO);
+    literalTemplate.url("http://localhost:8889").path(UrlTemplate.of("customer"));
+    assertThat(literalTemplate.isolationKey()).isEqualTo("http://localhost:8889");
+    assertThat(literalTemplate.urlTemplate().template()).isEqualTo("/customer");
+
+    final DHttpClientRequest plain = new DHttpClientRequest(context, Duration.ZERO);
+    plain.url("http://localhost:8889").path("customer").queryParam("a", "b");
+    assertThat(plain.isolationKey()).isEqualTo("http://localhost:8889");
+  }
+}
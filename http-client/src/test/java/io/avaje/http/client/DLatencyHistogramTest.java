@@ -0,0 +1,69 @@
+package io.avaje.http.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class DLatencyHistogramTest {
+
+  @Test
+  void index_upperBound() {
+    for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1000, 123_456, 1L << 39}) {
+      final int index = DLatencyHistogram.index(value);
+      assertThat(DLatencyHistogram.upperBound(index)).isGreaterThanOrEqualTo(value);
+      if (index > 0) {
+        assertThat(DLatencyHistogram.upperBound(index - 1)).isLessThan(value);
+      }
+    }
+    assertThat(DLatencyHistogram.index((1L << 40) - 1)).isEqualTo(DLatencyHistogram.BUCKETS - 1);
+  }
+
+  @Test
+  void percentile() {
+    final DLatencyHistogram histogram = new DLatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    final HttpClient.Latency latency = histogram.snapshot(false);
+    assertThat(latency.count()).isEqualTo(1000);
+    assertThat(latency.maxMicros()).isEqualTo(1000);
+    assertThat(latency.avgMicros()).isEqualTo(500);
+    // within the 6% relative error of the buckets
+    assertThat(latency.percentile(50)).isBetween(500L, 530L);
+    assertThat(latency.percentile(99)).isBetween(990L, 1000L);
+    assertThat(latency.percentile(100)).isEqualTo(1000);
+  }
+
+  @Test
+  void snapshot_reset() {
+    final DLatencyHistogram histogram = new DLatencyHistogram();
+    histogram.record(10);
+    histogram.record(10);
+    histogram.record(2000);
+
+    final List<String> buckets = new ArrayList<>();
+    final HttpClient.Latency first = histogram.snapshot(true);
+    first.forEachBucket((upper, count) -> buckets.add(upper + ":" + count));
+    assertThat(buckets).containsExactly("10:2", "2047:1");
+
+    final HttpClient.Latency second = histogram.snapshot(false);
+    assertThat(second.count()).isEqualTo(0);
+    assertThat(second.maxMicros()).isEqualTo(0);
+    assertThat(second.percentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  void histograms_boundedKeys() {
+    final DLatencyHistograms histograms = new DLatencyHistograms();
+    for (int i = 0; i < 300; i++) {
+      histograms.record("key" + i, 100);
+    }
+    final Map<String, HttpClient.Latency> snapshot = histograms.snapshot(false);
+    assertThat(snapshot).hasSize(257);
+    assertThat(snapshot.get(DLatencyHistograms.OTHER).count()).isEqualTo(44);
+  }
+}
@@ -3,6 +3,9 @@ package io.avaje.http.client;
 import org.junit.jupiter.api.Test;
 
 import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -15,13 +18,13 @@ class DRequestInterceptorsTest {
   @Test
   void intercept_reverse_after() {
 
-    new InterceptorChain(
-            asList(new One(), new Two()),
+    new InterceptorChain(asList(new One(), new Two()))
+        .proceed(
+            mock(HttpClientRequest.class),
             () -> {
               buffer.append("call|");
               return mock(HttpResponse.class);
-            })
-        .proceed(mock(HttpClientRequest.class));
+            });
 
     assertThat(buffer.toString()).isEqualTo("oneBefore|twoBefore|call|twoAfter|oneAfter|");
   }
@@ -29,13 +32,13 @@ class DRequestInterceptorsTest {
   @Test
   void intercept_abort() {
 
-    new InterceptorChain(
-            asList(new One(), new Skip(), new Two()),
+    new InterceptorChain(asList(new One(), new Skip(), new Two()))
+        .proceed(
+            mock(HttpClientRequest.class),
             () -> {
               buffer.append("call|");
               return mock(HttpResponse.class);
-            })
-        .proceed(mock(HttpClientRequest.class));
+            });
 
     assertThat(buffer.toString()).isEqualTo("oneBefore|skip|oneAfter|");
   }
@@ -43,17 +46,101 @@ class DRequestInterceptorsTest {
   @Test
   void intercept_noProceed() {
 
-    new InterceptorChain(
-            asList(new One(), new PassThrough(), new Two()),
+    new InterceptorChain(asList(new One(), new PassThrough(), new Two()))
+        .proceed(
+            mock(HttpClientRequest.class),
             () -> {
               buffer.append("call|");
               return mock(HttpResponse.class);
-            })
-        .proceed(mock(HttpClientRequest.class));
+            });
 
     assertThat(buffer.toString()).isEqualTo("oneBefore|pass|call|oneAfter|");
   }
 
+  @Test
+  void intercept_empty() {
+    final HttpResponse<?> response = mock(HttpResponse.class);
+    final InterceptorChain chain = new InterceptorChain(List.of());
+
+    assertThat(chain.isEmpty()).isTrue();
+    assertThat(chain.proceed(mock(HttpClientRequest.class), () -> response)).isSameAs(response);
+  }
+
+  @Test
+  void intercept_chainReused() {
+    final InterceptorChain chain = new InterceptorChain(asList(new One(), new Two()));
+    chain.proceed(mock(HttpClientRequest.class), () -> mock(HttpResponse.class));
+    chain.proceed(mock(HttpClientRequest.class), () -> mock(HttpResponse.class));
+
+    assertThat(buffer.toString()).isEqualTo("oneBefore|twoBefore|twoAfter|oneAfter|oneBefore|twoBefore|twoAfter|oneAfter|");
+  }
+
+  @Test
+  void interceptAsync_reverse_after() {
+    final CompletableFuture<HttpResponse<?>> call = new CompletableFuture<>();
+    final CompletableFuture<HttpResponse<?>> result = new InterceptorChain(asList(new One(), new Two()))
+      .proceedAsync(mock(HttpClientRequest.class), () -> {
+        buffer.append("call|");
+        return call;
+      }, Runnable::run);
+
+    // the chain does not wait on the response
+    assertThat(result).isNotDone();
+    assertThat(buffer.toString()).isEqualTo("oneBefore|twoBefore|call|");
+
+    final HttpResponse<?> response = mock(HttpResponse.class);
+    call.complete(response);
+    assertThat(result).isCompletedWithValue(response);
+    assertThat(buffer.toString()).isEqualTo("oneBefore|twoBefore|call|twoAfter|oneAfter|");
+  }
+
+  @Test
+  void interceptAsync_abort() {
+    final HttpResponse<?> response = mock(HttpResponse.class);
+    final CompletableFuture<HttpResponse<?>> result = new InterceptorChain(asList(new One(), new AsyncSkip(response), new Two()))
+      .proceedAsync(mock(HttpClientRequest.class), () -> {
+        buffer.append("call|");
+        final HttpResponse<?> called = mock(HttpResponse.class);
+        return CompletableFuture.completedFuture(called);
+      }, Runnable::run);
+
+    assertThat(result).isCompletedWithValue(response);
+    assertThat(buffer.toString()).isEqualTo("oneBefore|skip|oneAfter|");
+  }
+
+  @Test
+  void interceptAsync_blockingIntercept_expect_executor() {
+    final StringBuilder executed = new StringBuilder();
+    final CompletableFuture<HttpResponse<?>> result = new InterceptorChain(asList(new One(), new Skip(), new Two()))
+      .proceedAsync(mock(HttpClientRequest.class), () -> {
+        buffer.append("call|");
+        final HttpResponse<?> called = mock(HttpResponse.class);
+        return CompletableFuture.completedFuture(called);
+      }, command -> {
+        executed.append("executor|");
+        command.run();
+      });
+
+    assertThat(result).isDone();
+    assertThat(executed.toString()).isEqualTo("executor|");
+    assertThat(buffer.toString()).isEqualTo("oneBefore|skip|oneAfter|");
+  }
+
+  private class AsyncSkip implements RequestIntercept {
+
+    private final HttpResponse<?> response;
+
+    AsyncSkip(HttpResponse<?> response) {
+      this.response = response;
+    }
+
+    @Override
+    public CompletionStage<HttpResponse<?>> interceptAsync(HttpClientRequest request, AsyncInterceptChain chain) {
+      buffer.append("skip|");
+      return CompletableFuture.completedFuture(response);
+    }
+  }
+
   private class One implements RequestIntercept {
 
     @Override
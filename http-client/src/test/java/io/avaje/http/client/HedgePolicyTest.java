@@ -0,0 +1,232 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgePolicyTest {
+
+  @Test
+  void delayNanos() {
+    final HedgePolicy policy = HedgePolicy.builder()
+      .initialDelay(Duration.ofMillis(50))
+      .minDelay(Duration.ofMillis(10))
+      .maxDelay(Duration.ofMillis(200))
+      .build();
+
+    assertThat(policy.delayNanos(-1)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+    assertThat(policy.delayNanos(2_000)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+    assertThat(policy.delayNanos(30_000)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(30));
+    assertThat(policy.delayNanos(900_000)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+  }
+
+  @Test
+  void budget() {
+    final HedgePolicy policy = HedgePolicy.builder().budgetPercent(50, 2).build();
+
+    assertThat(policy.tryAcquireHedge()).isTrue();
+    assertThat(policy.tryAcquireHedge()).isTrue();
+    assertThat(policy.tryAcquireHedge()).isFalse();
+    // each request adds half a hedge
+    policy.onRequest();
+    assertThat(policy.tryAcquireHedge()).isFalse();
+    policy.onRequest();
+    assertThat(policy.tryAcquireHedge()).isTrue();
+    for (int i = 0; i < 100; i++) {
+      policy.onRequest();
+    }
+    // capped at the burst
+    assertThat(policy.tryAcquireHedge()).isTrue();
+    assertThat(policy.tryAcquireHedge()).isTrue();
+    assertThat(policy.tryAcquireHedge()).isFalse();
+  }
+
+  @Test
+  void build_invalid() {
+    assertThatThrownBy(() -> HedgePolicy.builder().percentile(0).build()).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HedgePolicy.builder().maxHedges(0).build()).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> HedgePolicy.builder().minDelay(Duration.ofSeconds(5)).build()).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void exchange_hedgeWins() {
+    final HedgePolicy policy = HedgePolicy.builder().build();
+    final List<CompletableFuture<HttpResponse<byte[]>>> attempts = new ArrayList<>();
+    final DHedgedExchange<byte[]> exchange = new DHedgedExchange<>();
+
+    final var result = exchange.start((attempt, hedged) -> {
+      final CompletableFuture<HttpResponse<byte[]>> future = new CompletableFuture<>();
+      hedged.register(future);
+      attempts.add(future);
+      return future;
+    }, policy, 0, Runnable::run);
+
+    // with zero delay the hedge is started immediately
+    assertThat(attempts).hasSize(2);
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/hedge")).build();
+    final HttpResponse<byte[]> response = new DCachedResponse(request, new DCacheEntry(new byte[0], null, null, null, 0, 0));
+    attempts.get(1).complete(response);
+
+    assertThat(result.join()).isSameAs(response);
+    assertThat(attempts.get(0)).isCancelled();
+  }
+
+  @Test
+  void exchange_losingBodyClosed() {
+    final HedgePolicy policy = HedgePolicy.builder().build();
+    final List<CompletableFuture<HttpResponse<InputStream>>> attempts = new ArrayList<>();
+
+    final var result = new DHedgedExchange<InputStream>().start((attempt, hedged) -> {
+      final CompletableFuture<HttpResponse<InputStream>> future = new CompletableFuture<>();
+      attempts.add(future);
+      return future;
+    }, policy, 0, Runnable::run);
+
+    final AtomicBoolean winnerClosed = new AtomicBoolean();
+    final AtomicBoolean loserClosed = new AtomicBoolean();
+    attempts.get(1).complete(inputStreamResponse(winnerClosed));
+    attempts.get(0).complete(inputStreamResponse(loserClosed));
+
+    assertThat(result.join().body()).isNotNull();
+    assertThat(winnerClosed.get()).isFalse();
+    assertThat(loserClosed.get()).isTrue();
+  }
+
+  @Test
+  void exchange_winCancelsHedgeTimers() throws InterruptedException {
+    final HedgePolicy policy = HedgePolicy.builder().maxHedges(2).build();
+    final List<CompletableFuture<HttpResponse<byte[]>>> attempts = new ArrayList<>();
+    final AtomicInteger executed = new AtomicInteger();
+
+    final var result = new DHedgedExchange<byte[]>().start((attempt, hedged) -> {
+      final CompletableFuture<HttpResponse<byte[]>> future = new CompletableFuture<>();
+      attempts.add(future);
+      return future;
+    }, policy, TimeUnit.MILLISECONDS.toNanos(20), command -> {
+      executed.incrementAndGet();
+      command.run();
+    });
+
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/hedge")).build();
+    attempts.get(0).complete(new DCachedResponse(request, new DCacheEntry(new byte[0], null, null, null, 0, 0)));
+    assertThat(result).isDone();
+
+    Thread.sleep(100);
+    // the pending hedges never fire
+    assertThat(executed.get()).isEqualTo(0);
+    assertThat(attempts).hasSize(1);
+  }
+
+  @Test
+  void exchange_errorWhenAllFail() {
+    final HedgePolicy policy = HedgePolicy.builder().build();
+    final List<CompletableFuture<HttpResponse<byte[]>>> attempts = new ArrayList<>();
+
+    final var result = new DHedgedExchange<byte[]>().start((attempt, hedged) -> {
+      final CompletableFuture<HttpResponse<byte[]>> future = new CompletableFuture<>();
+      attempts.add(future);
+      return future;
+    }, policy, 0, Runnable::run);
+
+    attempts.get(0).completeExceptionally(new HttpException(499, "first"));
+    assertThat(result).isNotDone();
+    attempts.get(1).completeExceptionally(new HttpException(499, "second"));
+    assertThatThrownBy(result::join).hasCauseInstanceOf(HttpException.class);
+  }
+
+  @Test
+  void exchange_noHedgeWhenNoBudget() {
+    final HedgePolicy policy = HedgePolicy.builder().budgetPercent(1, 1).build();
+    assertThat(policy.tryAcquireHedge()).isTrue();
+
+    final List<CompletableFuture<HttpResponse<byte[]>>> attempts = new ArrayList<>();
+    new DHedgedExchange<byte[]>().start((attempt, hedged) -> {
+      final CompletableFuture<HttpResponse<byte[]>> future = new CompletableFuture<>();
+      attempts.add(future);
+      return future;
+    }, policy, 0, Runnable::run);
+
+    assertThat(attempts).hasSize(1);
+  }
+
+  private static HttpResponse<InputStream> inputStreamResponse(AtomicBoolean closed) {
+    final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost/hedge")).build();
+    final InputStream body = new ByteArrayInputStream(new byte[0]) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+    return new InputStreamResponse(request, body);
+  }
+
+  private static final class InputStreamResponse implements HttpResponse<InputStream> {
+
+    private final HttpRequest request;
+    private final InputStream body;
+
+    InputStreamResponse(HttpRequest request, InputStream body) {
+      this.request = request;
+      this.body = body;
+    }
+
+    @Override
+    public int statusCode() {
+      return 200;
+    }
+
+    @Override
+    public HttpRequest request() {
+      return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<InputStream>> previousResponse() {
+      return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+      return HttpHeaders.of(Map.of(), (name, value) -> true);
+    }
+
+    @Override
+    public InputStream body() {
+      return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+      return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+      return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+      return HttpClient.Version.HTTP_1_1;
+    }
+  }
+}
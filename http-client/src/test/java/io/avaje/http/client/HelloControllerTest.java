@@ -445,6 +445,82 @@ class HelloControllerTest extends BaseWebTest {
     assertThat(first).isEqualTo("{\"id\":1, \"name\":\"one\"}");
   }
 
+  @Test
+  void async_publisher() throws ExecutionException, InterruptedException {
+    final CompletableFuture<List<SimpleData>> future = new CompletableFuture<>();
+    final List<SimpleData> data = new ArrayList<>();
+
+    clientContext.request()
+      .path("hello/stream")
+      .GET()
+      .async().publisher(SimpleData.class)
+      .subscribe(new Flow.Subscriber<>() {
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          this.subscription = subscription;
+          subscription.request(1);
+        }
+
+        @Override
+        public void onNext(SimpleData item) {
+          data.add(item);
+          subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          future.complete(data);
+        }
+      });
+
+    assertThat(future.get()).hasSize(4);
+    assertThat(data.get(0).id).isEqualTo(1);
+    assertThat(data.get(0).name).isEqualTo("one");
+  }
+
+  @Test
+  void async_publisher_notFound() {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    clientContext.request()
+      .path("this-path-does-not-exist")
+      .GET()
+      .async().publisher(SimpleData.class)
+      .subscribe(new Flow.Subscriber<>() {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+          subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SimpleData item) {
+          // not expected
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+          future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+          future.complete(null);
+        }
+      });
+
+    final ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    final HttpException httpException = (HttpException) e.getCause();
+    assertThat(httpException.statusCode()).isEqualTo(404);
+    assertThat(httpException.bodyAsString()).isEqualTo("Endpoint GET /this-path-does-not-exist not found");
+  }
+
   @Test
   void get_helloMessage() {
 
@@ -456,6 +532,102 @@ class HelloControllerTest extends BaseWebTest {
     assertThat(hres.statusCode()).isEqualTo(200);
   }
 
+  @Test
+  void get_helloMessage_latency() {
+    clientContext.request()
+      .label("hello_latency")
+      .path("hello").path("message")
+      .GET().asString();
+
+    final HttpClient.Latency latency = clientContext.metrics(true).latency().get("hello_latency");
+    assertThat(latency.count()).isEqualTo(1);
+    assertThat(latency.maxMicros()).isGreaterThan(0);
+    assertThat(latency.percentile(99)).isEqualTo(latency.maxMicros());
+
+    assertThat(clientContext.metrics().latency().get("hello_latency").count()).isEqualTo(0);
+  }
+
+  @Test
+  void get_helloMessage_hedged() throws Exception {
+    final HedgePolicy hedge = HedgePolicy.builder()
+      .initialDelay(Duration.ZERO)
+      .minDelay(Duration.ZERO)
+      .build();
+
+    final String body = clientContext.request()
+      .hedge(hedge)
+      .path("hello").path("message")
+      .GET().asString().body();
+    assertThat(body).contains("hello world");
+
+    final String asyncBody = clientContext.request()
+      .hedge(hedge)
+      .path("hello").path("message")
+      .GET().async().asString()
+      .get().body();
+    assertThat(asyncBody).contains("hello world");
+  }
+
+  @Test
+  void get_helloMessage_baseUrls() throws Exception {
+    final HttpClient client = HttpClient.builder()
+      .baseUrls(baseUrl, "http://127.0.0.1:8889")
+      .build();
+
+    for (int i = 0; i < 4; i++) {
+      final String body = client.request()
+        .path("hello").path("message")
+        .GET().asString().body();
+      assertThat(body).contains("hello world");
+    }
+    final String asyncBody = client.request()
+      .path("hello").path("message")
+      .GET().async().asString()
+      .get().body();
+    assertThat(asyncBody).contains("hello world");
+  }
+
+  @Test
+  void warmUp() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl(baseUrl)
+      .version(java.net.http.HttpClient.Version.HTTP_1_1)
+      .warmUp(WarmUpConfig.builder().method("GET").path("hello/message").connections(2).build())
+      .build();
+
+    final HttpClient.Metrics metrics = client.metrics();
+    assertThat(metrics.warmUpCount()).isEqualTo(2);
+    assertThat(metrics.warmUpErrorCount()).isEqualTo(0);
+    assertThat(metrics.warmUpMicros()).isGreaterThan(0);
+    // warm-up requests are not included in the request metrics
+    assertThat(metrics.totalCount()).isEqualTo(0);
+
+    final HttpClient unreachable = HttpClient.builder()
+      .baseUrl("http://localhost:1")
+      .warmUp(WarmUpConfig.builder().build())
+      .build();
+    assertThat(unreachable.metrics().warmUpErrorCount()).isEqualTo(1);
+  }
+
+  @Test
+  void batch() {
+    final List<HttpBatch.Result<Integer>> results = clientContext.<Integer>batch()
+      .maxConcurrency(4)
+      .deadline(Duration.ofSeconds(10))
+      .addAll(List.of("message", "message", "doesNotExist", "message"), path -> clientContext.request()
+        .path("hello").path(path)
+        .GET().async().asVoid()
+        .thenApply(HttpResponse::statusCode))
+      .execute()
+      .join();
+
+    assertThat(results).hasSize(4);
+    assertThat(results.get(0).value()).isEqualTo(200);
+    assertThat(results.get(2).isSuccess()).isFalse();
+    assertThat(results.get(2).error()).isInstanceOf(HttpException.class);
+    assertThat(results.get(3).value()).isEqualTo(200);
+  }
+
   @Test
   void asByteArray() {
     final HttpResponse<byte[]> hres = clientContext.request()
@@ -756,6 +928,54 @@ class HelloControllerTest extends BaseWebTest {
     assertThat(body).hasSize(2);
   }
 
+  @Test
+  void get_hello_returningListOfBeans_streamingRead() throws ExecutionException, InterruptedException {
+    final List<HelloDto> helloDtos = clientContext.request()
+      .streamingRead(true)
+      .path("hello")
+      .GET().list(HelloDto.class);
+
+    assertThat(helloDtos).hasSize(2);
+
+    final HttpResponse<List<HelloDto>> res = clientContext.request()
+      .streamingRead(true)
+      .path("hello")
+      .GET().async().asList(HelloDto.class).get();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).hasSize(2);
+  }
+
+  @Test
+  void get_hello_returningListOfBeans_boundReader() throws ExecutionException, InterruptedException {
+    final BodyReader<List<HelloDto>> listReader = clientContext.bodyAdapter().listReader(HelloDto.class);
+
+    assertThat(clientContext.request().path("hello").GET().list(listReader)).hasSize(2);
+    assertThat(clientContext.request().path("hello").streamingRead(true).GET().list(listReader)).hasSize(2);
+    assertThat(clientContext.request().path("hello").GET().async().list(listReader).get()).hasSize(2);
+    assertThat(clientContext.request().path("hello").GET().call().list(listReader).execute()).hasSize(2);
+
+    final HttpResponse<List<HelloDto>> res = clientContext.request()
+      .path("hello")
+      .GET().call().asList(listReader).async().get();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).hasSize(2);
+  }
+
+  @Test
+  void post_bean_boundWriter() {
+    final BodyWriter<HelloDto> writer = clientContext.bodyAdapter().beanWriter(HelloDto.class);
+
+    final HttpResponse<Void> res = clientContext.request()
+      .path("hello/savebean/foo")
+      .body(new HelloDto(12, "rob", "other"), writer)
+      .POST()
+      .asDiscarding();
+
+    assertThat(res.statusCode()).isEqualTo(201);
+  }
+
   @Test
   void callList() {
     final List<HelloDto> helloDtos = clientContext.request()
@@ -831,6 +1051,20 @@ class HelloControllerTest extends BaseWebTest {
     }
   }
 
+  @Test
+  void get_bean_404_streamingRead() {
+    final HttpException e = assertThrows(HttpException.class, () ->
+      clientContext.request()
+        .streamingRead(true)
+        .path("does-not-exist")
+        .GET()
+        .bean(HelloDto.class));
+
+    assertThat(e.statusCode()).isEqualTo(404);
+    assertThat(e.contentType()).isPresent().get().isEqualTo("text/plain");
+    assertThat(e.bodyAsString()).isEqualTo("Endpoint GET /does-not-exist not found");
+  }
+
   @Test
   void singleBodyAdapter_returningBean() {
     var mapper = JsonMapper.builder().build();
@@ -0,0 +1,135 @@
+package io.avaje.http.client;
+
+import io.avaje.http.client.LoopbackTransport.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoopbackTransportTest {
+
+  private final AtomicInteger requests = new AtomicInteger();
+
+  private final HttpClient client = HttpClient.builder()
+    .baseUrl("http://loopback")
+    .bodyAdapter(new JacksonBodyAdapter())
+    .requestLogging(false)
+    .transport(LoopbackTransport.of(request -> {
+      requests.incrementAndGet();
+      switch (request.path()) {
+        case "/hello":
+          return Response.ok("hello " + request.query());
+        case "/echo":
+          return Response.json(request.bodyAsString()).header("X-Method", request.method());
+        case "/beans":
+          return Response.json("[{\"id\":1},{\"id\":2}]");
+        case "/stream":
+          return Response.of(200).contentType("application/x-json-stream").body("{\"id\":1}\n{\"id\":2}\n");
+        case "/gunzip":
+          return Response.ok(new String(GzipUtil.gzipDecode(request.body()), StandardCharsets.UTF_8));
+        case "/fail":
+          throw new IOException("boom");
+        case "/illegal":
+          throw new IllegalStateException("bad");
+        default:
+          return Response.of(404).body("not found");
+      }
+    }))
+    .build();
+
+  @AfterEach
+  void close() {
+    client.close();
+  }
+
+  @Test
+  void asString() {
+    final HttpResponse<String> res = client.request().path("hello").queryParam("name", "rob").GET().asString();
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.body()).isEqualTo("hello name=rob");
+    assertThat(res.headers().firstValue("Content-Type")).contains("text/plain; charset=utf-8");
+  }
+
+  @Test
+  void body_bean_async() {
+    final HttpResponse<Map> res = client.request().path("echo").body(Map.of("id", 42)).POST().as(Map.class);
+    assertThat(res.body()).containsEntry("id", 42);
+    assertThat(res.headers().firstValue("X-Method")).contains("POST");
+
+    final Map<?, ?> async = client.request().path("echo").body(Map.of("id", 43)).PUT().async().bean(Map.class).join();
+    assertThat(async.get("id")).isEqualTo(43);
+  }
+
+  @Test
+  void list_stream_inputStream() throws IOException {
+    assertThat(client.request().path("beans").GET().list(Map.class)).hasSize(2);
+    assertThat(client.request().path("beans").streamingRead(true).GET().list(Map.class)).hasSize(2);
+    try (Stream<Map> stream = client.request().path("stream").GET().stream(Map.class)) {
+      assertThat(stream.map(m -> m.get("id")).collect(Collectors.toList())).containsExactly(1, 2);
+    }
+    try (InputStream is = client.request().path("beans").GET().asInputStream().body()) {
+      assertThat(is.readAllBytes()).hasSize(19);
+    }
+  }
+
+  @Test
+  void gzip_streamBody() {
+    final String content = "gzip_streamBody ".repeat(1000);
+    final String res = client.request().path("gunzip")
+      .body(() -> new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))
+      .gzip(true)
+      .POST()
+      .asString()
+      .body();
+    assertThat(res).isEqualTo(content);
+  }
+
+  @Test
+  void errorResponse() {
+    assertThatThrownBy(() -> client.request().path("missing").GET().asVoid())
+      .isInstanceOfSatisfying(HttpException.class, e -> {
+        assertThat(e.statusCode()).isEqualTo(404);
+        assertThat(e.bodyAsString()).isEqualTo("not found");
+      });
+  }
+
+  @Test
+  void handlerException() {
+    assertThatThrownBy(() -> client.request().path("fail").GET().asString())
+      .isInstanceOfSatisfying(HttpException.class, e -> assertThat(e.getCause()).isInstanceOf(IOException.class));
+
+    final List<Object> errors = new ArrayList<>();
+    client.request().path("fail").GET().async().asString()
+      .whenComplete((r, e) -> errors.add(e))
+      .exceptionally(e -> null)
+      .join();
+    assertThat(errors).hasSize(1);
+    assertThat(requests.get()).isEqualTo(2);
+  }
+
+  @Test
+  void handlerRuntimeException_asIOException() {
+    assertThatThrownBy(() -> client.request().path("illegal").GET().asString())
+      .isInstanceOfSatisfying(HttpException.class, e -> assertThat(e.getCause()).isInstanceOf(IOException.class));
+
+    assertThatThrownBy(() -> client.request().path("illegal").GET().async().asString().join())
+      .isInstanceOfSatisfying(CompletionException.class, e -> {
+        assertThat(e.getCause()).isInstanceOf(HttpException.class);
+        assertThat(e.getCause().getCause()).isInstanceOf(IOException.class);
+      });
+  }
+}
@@ -0,0 +1,154 @@
+package io.avaje.http.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.avaje.http.client.LoopbackTransport.Response;
+
+class NdJsonPublisherTest {
+
+  private final HttpClient client = HttpClient.builder()
+    .baseUrl("http://loopback")
+    .bodyAdapter(new JacksonBodyAdapter())
+    .requestLogging(false)
+    // a request that never completes would hold the only permit
+    .bulkhead(1)
+    .transport(LoopbackTransport.of(request -> {
+      final String body = "/malformed".equals(request.path())
+        ? "{\"id\":1}\nnot-json\n" + records(3, RECORDS)
+        : records(1, RECORDS);
+      return Response.of(200).contentType("application/x-json-stream").body(body);
+    }))
+    .build();
+
+  /**
+   * Enough records that the content is delivered in multiple buffers.
+   */
+  private static final int RECORDS = 5_000;
+
+  private static String records(int from, int to) {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = from; i <= to; i++) {
+      sb.append("{\"id\":").append(i).append("}\n");
+    }
+    return sb.toString();
+  }
+
+  @AfterEach
+  void close() {
+    client.close();
+  }
+
+  @Test
+  void subscriberCancel_completesRequest() throws Exception {
+    final List<Object> ids = new CopyOnWriteArrayList<>();
+    final CompletableFuture<Void> cancelled = new CompletableFuture<>();
+
+    publisher("stream").subscribe(new Flow.Subscriber<>() {
+      private Flow.Subscription subscription;
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(Map item) {
+        ids.add(item.get("id"));
+        subscription.cancel();
+        cancelled.complete(null);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        cancelled.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        cancelled.completeExceptionally(new AssertionError("not expected after cancel"));
+      }
+    });
+
+    cancelled.get(5, TimeUnit.SECONDS);
+    assertThat(ids).containsExactly(1);
+    assertNextRequestExecutes();
+  }
+
+  @Test
+  void malformedRecord_completesRequest() throws Exception {
+    final List<Object> ids = new CopyOnWriteArrayList<>();
+    final CompletableFuture<Throwable> failed = new CompletableFuture<>();
+
+    publisher("malformed").subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(Map item) {
+        ids.add(item.get("id"));
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        failed.complete(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        failed.completeExceptionally(new AssertionError("expected onError"));
+      }
+    });
+
+    assertThat(failed.get(5, TimeUnit.SECONDS)).isNotNull();
+    assertThat(ids).containsExactly(1);
+    assertNextRequestExecutes();
+  }
+
+  private Flow.Publisher<Map> publisher(String path) {
+    return client.request().path(path).GET().async().publisher(Map.class);
+  }
+
+  /**
+   * The bulkhead permit is only released when the previous request completed.
+   */
+  private void assertNextRequestExecutes() throws Exception {
+    final List<Object> ids = new CopyOnWriteArrayList<>();
+    final CompletableFuture<Void> complete = new CompletableFuture<>();
+    publisher("stream").subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+
+      @Override
+      public void onNext(Map item) {
+        ids.add(item.get("id"));
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+        complete.completeExceptionally(throwable);
+      }
+
+      @Override
+      public void onComplete() {
+        complete.complete(null);
+      }
+    });
+    complete.get(5, TimeUnit.SECONDS);
+    assertThat(ids).hasSize(RECORDS);
+  }
+}
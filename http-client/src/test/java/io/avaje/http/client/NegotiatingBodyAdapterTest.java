@@ -0,0 +1,121 @@
+package io.avaje.http.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.avaje.http.client.LoopbackTransport.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NegotiatingBodyAdapterTest {
+
+  private static final String CBOR = "application/cbor";
+
+  private final CBORMapper cborMapper = new CBORMapper();
+  private final ObjectMapper jsonMapper = new ObjectMapper();
+
+  private final NegotiatingBodyAdapter bodyAdapter = NegotiatingBodyAdapter.builder(new JacksonBodyAdapter(jsonMapper))
+    .add(CBOR, new JacksonBodyAdapter(cborMapper, CBOR))
+    .build();
+
+  private final HttpClient client = HttpClient.builder()
+    .baseUrl("http://loopback")
+    .bodyAdapter(bodyAdapter)
+    .requestLogging(false)
+    .transport(LoopbackTransport.of(request -> {
+      final String contentType = request.header("Content-Type");
+      final Map<?, ?> body = CBOR.equals(contentType)
+        ? cborMapper.readValue(request.body(), Map.class)
+        : jsonMapper.readValue(request.body(), Map.class);
+
+      final String accept = request.header("Accept");
+      if (accept != null && accept.contains(CBOR)) {
+        return Response.of(200).contentType(CBOR).body(cborMapper.writeValueAsBytes(body));
+      }
+      return Response.json(jsonMapper.writeValueAsString(body));
+    }))
+    .build();
+
+  @AfterEach
+  void close() {
+    client.close();
+  }
+
+  @Test
+  void write_byContentType() {
+    final BodyWriter<Object> writer = bodyAdapter.beanWriter(Map.class);
+
+    final BodyContent cbor = writer.write(Map.of("id", 42), CBOR);
+    assertThat(cbor.contentType()).isEqualTo(CBOR);
+    assertThat(cbor.content()).isNotEqualTo(writer.write(Map.of("id", 42)).content());
+
+    assertThat(writer.write(Map.of("id", 42), "application/json").contentType()).startsWith("application/json");
+    assertThat(writer.write(Map.of("id", 42)).contentType()).startsWith("application/json");
+  }
+
+  @Test
+  void read_byContentType() throws Exception {
+    final BodyReader<Map> reader = bodyAdapter.beanReader(Map.class);
+
+    final byte[] cbor = cborMapper.writeValueAsBytes(Map.of("id", 42));
+    assertThat(reader.read(BodyContent.of("application/cbor; charset=x", cbor))).containsEntry("id", 42);
+    assertThat(reader.read(BodyContent.asJson("{\"id\":43}".getBytes()))).containsEntry("id", 43);
+    assertThat(reader.readBody("{\"id\":44}")).containsEntry("id", 44);
+  }
+
+  @Test
+  void readersAndWriters_cached() {
+    assertThat(bodyAdapter.beanReader(Map.class)).isSameAs(bodyAdapter.beanReader(Map.class));
+    assertThat(bodyAdapter.listReader(Map.class)).isSameAs(bodyAdapter.listReader(Map.class));
+    assertThat(bodyAdapter.beanWriter(Map.class)).isSameAs(bodyAdapter.beanWriter(Map.class));
+  }
+
+  @Test
+  void cborRequest_cborResponse() {
+    final Map<?, ?> res = client.request()
+      .path("echo")
+      .header("Accept", CBOR)
+      .body(Map.of("id", 42), Map.class, CBOR)
+      .POST()
+      .bean(Map.class);
+
+    assertThat(res.get("id")).isEqualTo(42);
+  }
+
+  @Test
+  void cborAccept_jsonFallbackResponse() {
+    final Map<?, ?> res = client.request()
+      .path("echo")
+      .header("Accept", "application/json")
+      .body(Map.of("id", 43), Map.class, CBOR)
+      .POST()
+      .bean(Map.class);
+
+    assertThat(res.get("id")).isEqualTo(43);
+  }
+
+  @Test
+  void cborResponse_streamingRead() {
+    final Map<?, ?> res = client.request()
+      .path("echo")
+      .header("Accept", CBOR)
+      .body(Map.of("id", 44))
+      .streamingRead(true)
+      .POST()
+      .bean(Map.class);
+
+    assertThat(res.get("id")).isEqualTo(44);
+  }
+
+  @Test
+  void build_invalidContentType() {
+    assertThatThrownBy(() -> NegotiatingBodyAdapter.builder(new JacksonBodyAdapter())
+      .add("application/cbor; q=1", new JacksonBodyAdapter(cborMapper, CBOR))
+      .build())
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
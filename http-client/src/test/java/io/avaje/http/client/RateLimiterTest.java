@@ -0,0 +1,201 @@
+package io.avaje.http.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.avaje.http.client.LoopbackTransport.Response;
+
+class RateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+  private static final long MAX_WAIT = TimeUnit.MINUTES.toNanos(1);
+
+  @Test
+  void reserve_evenlySpaced() {
+    final RateLimiter limiter = RateLimiter.of(10);
+    final long now = System.nanoTime();
+
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(0);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(SECOND / 10);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(2 * SECOND / 10);
+    // the reserved permits are released over time
+    assertThat(limiter.reserve(now + SECOND, MAX_WAIT)).isEqualTo(0);
+  }
+
+  @Test
+  void reserve_burst() {
+    final RateLimiter limiter = RateLimiter.builder().permitsPerSecond(10).burst(3).build();
+    final long now = System.nanoTime();
+
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(0);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(0);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(0);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(SECOND / 10);
+  }
+
+  @Test
+  void reserve_exceedsMaxWait() {
+    final RateLimiter limiter = RateLimiter.builder().name("api").permitsPerSecond(1).build();
+    final long now = System.nanoTime();
+
+    assertThat(limiter.reserve(now, 0)).isEqualTo(0);
+    assertThat(limiter.tryReserve(now, SECOND / 2)).isEqualTo(-1);
+    assertThatThrownBy(() -> limiter.reserve(now, SECOND / 2))
+      .isInstanceOf(RateLimitExceededException.class)
+      .hasFieldOrPropertyWithValue("statusCode", 429)
+      .hasFieldOrPropertyWithValue("name", "api");
+    // no permit was taken by the failed reservations
+    assertThat(limiter.reserve(now, SECOND)).isEqualTo(SECOND);
+  }
+
+  @Test
+  void tryAcquire() {
+    final RateLimiter limiter = RateLimiter.of(0.1);
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+  }
+
+  @Test
+  void adapt_remainingOverReset() {
+    final RateLimiter limiter = RateLimiter.of(100);
+    final long now = System.nanoTime();
+
+    // 5 remaining over 10 seconds
+    limiter.adapt(now, 5, 10);
+    assertThat(limiter.currentRate()).isEqualTo(0.5);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(0);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(2 * SECOND);
+
+    // plenty remaining, back to the configured rate
+    limiter.adapt(now, 10_000, 10);
+    assertThat(limiter.currentRate()).isEqualTo(100);
+  }
+
+  @Test
+  void adapt_noneRemaining_pausesUntilReset() {
+    final RateLimiter limiter = RateLimiter.of(100);
+    final long now = System.nanoTime();
+
+    limiter.adapt(now, 0, 3);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(3 * SECOND);
+  }
+
+  @Test
+  void adapt_notAdaptive() {
+    final RateLimiter limiter = RateLimiter.builder().permitsPerSecond(1).adaptive(false).build();
+    final HttpClient client = client(limiter, Response.of(429).header("Retry-After", "60"));
+
+    assertThat(send(client)).isEqualTo(429);
+    // the Retry-After was ignored
+    assertThat(limiter.tryReserve(System.nanoTime(), SECOND)).isBetween(0L, SECOND);
+    client.close();
+  }
+
+  @Test
+  void pause_doesNotMoveBack() {
+    final RateLimiter limiter = RateLimiter.of(1);
+    final long now = System.nanoTime();
+
+    limiter.pause(now + 5 * SECOND);
+    limiter.pause(now + SECOND);
+    assertThat(limiter.reserve(now, MAX_WAIT)).isEqualTo(5 * SECOND);
+  }
+
+  @Test
+  void client_retryAfter_pausesRequests() {
+    final RateLimiter limiter = RateLimiter.builder()
+      .permitsPerSecond(100)
+      .maxWait(Duration.ofMillis(100))
+      .build();
+
+    final HttpClient client = client(limiter, Response.of(429).header("Retry-After", "30"));
+
+    assertThat(send(client)).isEqualTo(429);
+
+    assertThatThrownBy(() -> client.request().path("a").GET().asString())
+      .isInstanceOf(RateLimitExceededException.class);
+    assertThatThrownBy(() -> client.request().path("a").GET().async().asString().join())
+      .isInstanceOf(CompletionException.class)
+      .hasCauseInstanceOf(RateLimitExceededException.class);
+    client.close();
+  }
+
+  @Test
+  void client_rateLimitHeaders_adapt() {
+    final RateLimiter limiter = RateLimiter.of(100);
+    final HttpClient client = client(limiter, Response.ok("ok").header("RateLimit", "limit=100, remaining=4, reset=2"));
+
+    assertThat(send(client)).isEqualTo(200);
+    assertThat(limiter.currentRate()).isEqualTo(2);
+    client.close();
+  }
+
+  @Test
+  void request_rateLimiter_async() {
+    final RateLimiter limiter = RateLimiter.of(20);
+    final HttpClient client = client(null, Response.ok("ok"));
+
+    final long start = System.nanoTime();
+    for (int i = 0; i < 3; i++) {
+      final var res = client.request().path("a").rateLimiter(limiter).GET().async().asString().join();
+      assertThat(res.statusCode()).isEqualTo(200);
+    }
+    // the second and third requests waited 50 millis each
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    client.close();
+  }
+
+  @Test
+  void request_rateLimitExceeded_releasesClientPermit() {
+    final RateLimiter clientLimiter = RateLimiter.builder().permitsPerSecond(1).maxWait(Duration.ofSeconds(10)).build();
+    final RateLimiter requestLimiter = RateLimiter.builder().name("req").permitsPerSecond(1).maxWait(Duration.ZERO).build();
+    final HttpClient client = client(clientLimiter, Response.ok("ok"));
+
+    assertThat(client.request().path("a").rateLimiter(requestLimiter).GET().asString().statusCode()).isEqualTo(200);
+    assertThatThrownBy(() -> client.request().path("a").rateLimiter(requestLimiter).GET().asString())
+      .isInstanceOf(RateLimitExceededException.class)
+      .hasFieldOrPropertyWithValue("name", "req");
+
+    // only the permit of the first request is taken from the client limiter
+    assertThat(clientLimiter.tryReserve(System.nanoTime(), MAX_WAIT)).isBetween(0L, SECOND);
+    client.close();
+  }
+
+  @Test
+  void acquireAsync() {
+    final RateLimiter limiter = RateLimiter.of(20);
+    limiter.acquire();
+    final long start = System.nanoTime();
+    limiter.acquireAsync().join();
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(40));
+  }
+
+  @Test
+  void build_invalid() {
+    assertThatThrownBy(() -> RateLimiter.builder().build())
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RateLimiter.builder().permitsPerSecond(1).burst(0).build())
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RateLimiter.builder().permitsPerSecond(1).maxWait(Duration.ofSeconds(-1)).build())
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static HttpClient client(RateLimiter limiter, Response response) {
+    return HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .rateLimiter(limiter)
+      .transport(LoopbackTransport.of(request -> response))
+      .build();
+  }
+
+  private static int send(HttpClient client) {
+    return client.request().path("a").GET().asString().statusCode();
+  }
+}
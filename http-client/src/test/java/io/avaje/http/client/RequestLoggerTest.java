@@ -2,6 +2,10 @@ package io.avaje.http.client;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class RequestLoggerTest {
@@ -13,4 +17,77 @@ class RequestLoggerTest {
     assertTrue(requestLogger.obfuscate("Authorization"));
     assertFalse(requestLogger.obfuscate("Foo"));
   }
+
+  @Test
+  void sampled_default_all() {
+    assertTrue(requestLogger.sampled(200, 1));
+  }
+
+  @Test
+  void sampled_errorsAndSlowOnly() {
+    final RequestLogger logger = RequestLogger.builder()
+      .sampleRate(0)
+      .slowThreshold(Duration.ofMillis(100))
+      .build();
+
+    assertFalse(logger.sampled(200, 99_999));
+    assertTrue(logger.sampled(200, 100_000));
+    assertTrue(logger.sampled(404, 1));
+    assertTrue(logger.sampled(500, 1));
+  }
+
+  @Test
+  void sampled_rate() {
+    final RequestLogger logger = RequestLogger.builder()
+      .sampleRate(0.1)
+      .logErrors(false)
+      .build();
+
+    int count = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (logger.sampled(500, 1)) {
+        count++;
+      }
+    }
+    assertTrue(count > 500 && count < 1500, "count " + count);
+  }
+
+  @Test
+  void builder_invalid() {
+    assertThrows(IllegalArgumentException.class, () -> RequestLogger.builder().sampleRate(2).build());
+  }
+
+  @Test
+  void bodyPrefix() {
+    final byte[] content = "héllo world".getBytes(StandardCharsets.UTF_8);
+    assertEquals("héllo world", DHttpClientRequest.bodyPrefix(content, 100));
+    assertEquals("hél <truncated> ...", DHttpClientRequest.bodyPrefix(content, 4));
+    // do not split the 2 byte é
+    assertEquals("h <truncated> ...", DHttpClientRequest.bodyPrefix(content, 2));
+  }
+
+  @Test
+  void event_legacyBodies_truncateResponseCharsOnly() {
+    final String requestBody = "é".repeat(2_000);
+    final String responseBody = "é".repeat(1_500);
+    final AtomicReference<String> loggedRequest = new AtomicReference<>();
+    final AtomicReference<String> loggedResponse = new AtomicReference<>();
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .bodyAdapter(new JacksonBodyAdapter())
+      .requestLogging(false)
+      .requestListener(event -> {
+        loggedRequest.set(event.requestBody());
+        loggedResponse.set(event.responseBody());
+      })
+      .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.json('"' + responseBody + '"')))
+      .build();
+
+    client.request().path("hello").body(requestBody).POST().bean(String.class);
+
+    // the request body is not truncated and the response body is truncated at 1000 characters
+    assertEquals(requestBody, loggedRequest.get());
+    assertEquals('"' + "é".repeat(999) + " <truncated> ...", loggedResponse.get());
+    client.close();
+  }
 }
@@ -88,6 +88,42 @@ class RequestObserverTest extends BaseWebTest {
     assertThat(observer.errors).isEmpty();
   }
 
+  @Test
+  void retryToAnotherBaseUrl_observesAttemptUrl() {
+    final List<String> attemptUrls = Collections.synchronizedList(new ArrayList<>());
+    final RequestObserver observer = request -> new RequestObserver.Observation() {
+      @Override
+      public RequestObserver.Attempt startAttempt(HttpClientRequest attemptRequest, int resendCount) {
+        throw new AssertionError("expected the attempt url");
+      }
+
+      @Override
+      public RequestObserver.Attempt startAttempt(HttpClientRequest attemptRequest, int resendCount, String url) {
+        attemptUrls.add(url);
+        return RequestObserver.Attempt.NOOP;
+      }
+    };
+    final AtomicInteger counter = new AtomicInteger();
+    final HttpClient client = HttpClient.builder()
+      .baseUrls("http://one", "http://two")
+      .requestLogging(false)
+      .requestObserver(observer)
+      .retryHandler(new SimpleRetryHandler(2, 1))
+      .transport(LoopbackTransport.of(request -> counter.incrementAndGet() == 1
+        ? LoopbackTransport.Response.of(500)
+        : LoopbackTransport.Response.ok("ok")))
+      .build();
+
+    final HttpResponse<String> response = client.request().path("hello").GET().asString();
+
+    assertThat(response.body()).isEqualTo("ok");
+    assertThat(attemptUrls).hasSize(2);
+    assertThat(attemptUrls.get(0)).endsWith("/hello");
+    assertThat(attemptUrls.get(1)).endsWith("/hello");
+    // the retry is sent to the other base url
+    assertThat(attemptUrls.get(0)).isNotEqualTo(attemptUrls.get(1));
+  }
+
   private HttpClient client(RequestObserver observer, RetryHandler retryHandler) {
     final HttpClient.Builder builder = HttpClient.builder()
       .baseUrl(baseUrl)
@@ -0,0 +1,255 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest extends BaseWebTest {
+
+  private static final BodyReader<String> UTF8 = new BodyReader<>() {
+    @Override
+    public String read(BodyContent content) {
+      return content.contentAsUtf8();
+    }
+
+    @Override
+    public String readBody(String content) {
+      return content;
+    }
+  };
+
+  @Test
+  void get_revalidatedViaETag() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl(baseUrl)
+      .responseCache(ResponseCacheConfig.builder().maxBytes(1024 * 1024).build())
+      .build();
+
+    final String first = client.request().path("hello/cached").GET().asString().body();
+    assertThat(first).startsWith("cached ");
+
+    // asString() is not cached, the read(BodyReader) is
+    final String second = client.request().path("hello/cached").GET().read(UTF8);
+    assertThat(second).isNotEqualTo(first);
+    final HttpResponse<Void> third = client.request().path("hello/cached").GET().asVoid();
+    assertThat(third.statusCode()).isEqualTo(200);
+    final String fourth = client.request().path("hello/cached").GET().read(UTF8);
+    assertThat(fourth).isEqualTo(second);
+
+    final HttpClient.Metrics metrics = client.metrics();
+    assertThat(metrics.cacheMissCount()).isEqualTo(1);
+    assertThat(metrics.cacheRevalidatedCount()).isEqualTo(2);
+    assertThat(metrics.cacheHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  void get_keyedByAuthorizationAndAccept() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .responseCache(ResponseCacheConfig.builder().maxBytes(1024 * 1024).build())
+      .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.ok(request.header("Authorization") + " " + request.header("Accept"))
+        .header("Cache-Control", "max-age=60")))
+      .build();
+
+    assertThat(get(client, "Bearer a", "text/plain")).isEqualTo("Bearer a text/plain");
+    assertThat(get(client, "Bearer b", "text/plain")).isEqualTo("Bearer b text/plain");
+    assertThat(get(client, "Bearer a", "application/json")).isEqualTo("Bearer a application/json");
+    final long totalCount = client.metrics().totalCount();
+    assertThat(get(client, "Bearer a", "text/plain")).isEqualTo("Bearer a text/plain");
+
+    final HttpClient.Metrics metrics = client.metrics();
+    assertThat(metrics.cacheMissCount()).isEqualTo(3);
+    assertThat(metrics.cacheHitCount()).isEqualTo(1);
+    // the cache hit is included in the response metrics
+    assertThat(metrics.totalCount()).isEqualTo(totalCount + 1);
+    client.close();
+  }
+
+  @Test
+  void get_revalidated_listenerAndMetricsSee304() {
+    final List<Integer> statusCodes = new ArrayList<>();
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .requestListener(event -> statusCodes.add(event.response().statusCode()))
+      .responseCache(ResponseCacheConfig.builder().maxBytes(1024 * 1024).build())
+      .transport(LoopbackTransport.of(request -> "\"v1\"".equals(request.header("If-None-Match"))
+        ? LoopbackTransport.Response.of(304).header("ETag", "\"v1\"")
+        : LoopbackTransport.Response.ok("hi").header("ETag", "\"v1\"").header("Cache-Control", "max-age=0")))
+      .build();
+
+    final long startCount = client.metrics().totalCount();
+    assertThat(client.request().path("hello").GET().read(UTF8)).isEqualTo("hi");
+    final List<Integer> missCodes = new ArrayList<>(statusCodes);
+    final long missCount = client.metrics().totalCount() - startCount;
+    statusCodes.clear();
+
+    assertThat(client.request().path("hello").GET().read(UTF8)).isEqualTo("hi");
+
+    // the 304 is seen by listeners and metrics as the 200 of the cache miss was
+    final HttpClient.Metrics metrics = client.metrics();
+    assertThat(metrics.cacheRevalidatedCount()).isEqualTo(1);
+    assertThat(missCodes).isNotEmpty().containsOnly(200);
+    assertThat(statusCodes).hasSameSizeAs(missCodes).containsOnly(304);
+    assertThat(metrics.totalCount() - startCount).isEqualTo(2 * missCount);
+    assertThat(metrics.errorCount()).isEqualTo(0);
+    client.close();
+  }
+
+  @Test
+  void get_streamingRead_usesCache() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .responseCache(ResponseCacheConfig.builder().maxBytes(1024 * 1024).build())
+      .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.ok("hi")
+        .header("Cache-Control", "max-age=60")))
+      .build();
+
+    assertThat(client.request().path("hello").streamingRead(true).GET().bean(UTF8)).isEqualTo("hi");
+    assertThat(client.request().path("hello").streamingRead(true).GET().bean(UTF8)).isEqualTo("hi");
+
+    // the response cache takes precedence over streaming read
+    assertThat(client.metrics().cacheMissCount()).isEqualTo(1);
+    assertThat(client.metrics().cacheHitCount()).isEqualTo(1);
+    assertThat(client.metrics().responseBytes()).isEqualTo(2);
+    client.close();
+  }
+
+  @Test
+  void streamingRead_responseBytes() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .streamingRead(true)
+      .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.ok("hello")))
+      .build();
+
+    assertThat(client.request().path("hello").GET().bean(UTF8)).isEqualTo("hello");
+    assertThat(client.request().path("hello").GET().async().bean(UTF8).join()).isEqualTo("hello");
+    assertThat(client.metrics().responseBytes()).isEqualTo(10);
+    client.close();
+  }
+
+  @Test
+  void get_privateNotCached() {
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .responseCache(ResponseCacheConfig.builder().maxBytes(1024 * 1024).build())
+      .transport(LoopbackTransport.of(request -> LoopbackTransport.Response.ok("hi")
+        .header("Cache-Control", "private, max-age=60")))
+      .build();
+
+    assertThat(get(client, "Bearer a", "text/plain")).isEqualTo("hi");
+    assertThat(get(client, "Bearer a", "text/plain")).isEqualTo("hi");
+    assertThat(client.metrics().cacheMissCount()).isEqualTo(2);
+    assertThat(client.metrics().cacheHitCount()).isEqualTo(0);
+    client.close();
+  }
+
+  private static String get(HttpClient client, String authorization, String accept) {
+    return client.request()
+      .header("Authorization", authorization)
+      .header("Accept", accept)
+      .path("hello")
+      .GET()
+      .read(UTF8);
+  }
+
+  @Test
+  void entry_maxAge() {
+    final long now = 1_000_000L;
+    final DCacheEntry entry = DCacheEntry.of(headers(Map.of("Cache-Control", List.of("public, max-age=60, stale-while-revalidate=30"), "ETag", List.of("\"a\""))), BodyContent.of("text/plain", "hi"), now);
+
+    assertThat(entry).isNotNull();
+    assertThat(entry.isFresh(now + 59_000)).isTrue();
+    assertThat(entry.isFresh(now + 60_000)).isFalse();
+    assertThat(entry.isStaleWhileRevalidate(now + 89_000)).isTrue();
+    assertThat(entry.isStaleWhileRevalidate(now + 90_000)).isFalse();
+    assertThat(entry.etag()).isEqualTo("\"a\"");
+
+    final DCacheEntry revalidated = entry.revalidated(HttpHeaders.of(Map.of("Cache-Control", List.of("max-age=10")), (k, v) -> true), now + 100_000);
+    assertThat(revalidated.isFresh(now + 109_000)).isTrue();
+    assertThat(revalidated.etag()).isEqualTo("\"a\"");
+    assertThat(revalidated.content()).isEqualTo(entry.content());
+  }
+
+  @Test
+  void entry_notCacheable() {
+    final BodyContent content = BodyContent.of("text/plain", "hi");
+    assertThat(DCacheEntry.of(headers(Map.of("Cache-Control", List.of("no-store, max-age=60"))), content, 0)).isNull();
+    assertThat(DCacheEntry.of(headers(Map.of("Cache-Control", List.of("max-age=60"), "Vary", List.of("Authorization"))), content, 0)).isNull();
+    assertThat(DCacheEntry.of(headers(Map.of()), content, 0)).isNull();
+    assertThat(DCacheEntry.of(headers(Map.of("Cache-Control", List.of("private, max-age=60"))), content, 0)).isNull();
+    // no-cache with a validator is cached but always revalidated
+    final DCacheEntry noCache = DCacheEntry.of(headers(Map.of("Cache-Control", List.of("no-cache"), "ETag", List.of("\"b\""))), content, 0);
+    assertThat(noCache).isNotNull();
+    assertThat(noCache.isFresh(0)).isFalse();
+  }
+
+  @Test
+  void cache_admitsFrequentlyUsed() {
+    final DResponseCache cache = new DResponseCache(100 * 200, null);
+    final DCacheEntry entry = entry(new byte[72]);
+
+    for (int i = 0; i < 90; i++) {
+      cache.put("hot" + i, entry);
+      cache.get("hot" + i);
+      cache.get("hot" + i);
+    }
+    // a scan of entries used once does not evict the frequently used ones
+    for (int i = 0; i < 1000; i++) {
+      cache.put("scan" + i, entry);
+    }
+    int hot = 0;
+    for (int i = 0; i < 90; i++) {
+      if (cache.contains("hot" + i)) {
+        hot++;
+      }
+    }
+    assertThat(hot).isGreaterThan(80);
+    assertThat(cache.bytes()).isLessThanOrEqualTo(100 * 200);
+  }
+
+  @Test
+  void cache_diskTier(@TempDir Path directory) {
+    final DDiskCache disk = new DDiskCache(directory, 10_000);
+    final DResponseCache cache = new DResponseCache(1000, disk);
+    final DCacheEntry entry = new DCacheEntry(new byte[600], "application/json", "\"c\"", null, 5, 10);
+
+    cache.put("a", entry);
+    cache.put("b", entry);
+    // b is not admitted to memory as it is not used more frequently than a
+    assertThat(cache.contains("b")).isFalse();
+    assertThat(disk.bytes()).isGreaterThan(0);
+
+    final DCacheEntry fromDisk = disk.get("b");
+    assertThat(fromDisk).isNotNull();
+    assertThat(fromDisk.content()).hasSize(600);
+    assertThat(fromDisk.contentType()).isEqualTo("application/json");
+    assertThat(fromDisk.etag()).isEqualTo("\"c\"");
+    assertThat(fromDisk.lastModified()).isNull();
+    assertThat(fromDisk.freshUntil()).isEqualTo(5);
+    assertThat(fromDisk.staleUntil()).isEqualTo(10);
+    assertThat(disk.get("unknown")).isNull();
+    assertThat(cache.get("b")).isNotNull();
+  }
+
+  private static DCacheEntry entry(byte[] content) {
+    return new DCacheEntry(content, "text/plain", "\"e\"", null, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  private static HttpHeaders headers(Map<String, List<String>> headers) {
+    return HttpHeaders.of(headers, (k, v) -> true);
+  }
+}
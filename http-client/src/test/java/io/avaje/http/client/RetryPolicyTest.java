@@ -0,0 +1,111 @@
+package io.avaje.http.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RetryPolicyTest {
+
+  private static final long MILLIS = 1_000_000L;
+
+  @Test
+  void backoff_noJitter() {
+    RetryPolicy policy = RetryPolicy.builder()
+      .baseDelay(Duration.ofMillis(10))
+      .maxDelay(Duration.ofMillis(100))
+      .jitter(RetryPolicy.Jitter.NONE)
+      .build();
+
+    assertThat(policy.backoffNanos(0, 0)).isEqualTo(10 * MILLIS);
+    assertThat(policy.backoffNanos(1, 0)).isEqualTo(20 * MILLIS);
+    assertThat(policy.backoffNanos(3, 0)).isEqualTo(80 * MILLIS);
+    assertThat(policy.backoffNanos(4, 0)).isEqualTo(100 * MILLIS);
+    assertThat(policy.backoffNanos(100, 0)).isEqualTo(100 * MILLIS);
+  }
+
+  @Test
+  void backoff_fullJitter() {
+    RetryPolicy policy = RetryPolicy.builder()
+      .baseDelay(Duration.ofMillis(10))
+      .maxDelay(Duration.ofMillis(100))
+      .jitter(RetryPolicy.Jitter.FULL)
+      .build();
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.backoffNanos(2, 0)).isBetween(0L, 40 * MILLIS);
+      assertThat(policy.backoffNanos(10, 0)).isBetween(0L, 100 * MILLIS);
+    }
+  }
+
+  @Test
+  void backoff_decorrelatedJitter() {
+    RetryPolicy policy = RetryPolicy.builder()
+      .baseDelay(Duration.ofMillis(10))
+      .maxDelay(Duration.ofMillis(100))
+      .jitter(RetryPolicy.Jitter.DECORRELATED)
+      .build();
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(policy.backoffNanos(0, 0)).isBetween(10 * MILLIS, 30 * MILLIS);
+      assertThat(policy.backoffNanos(1, 20 * MILLIS)).isBetween(10 * MILLIS, 60 * MILLIS);
+      assertThat(policy.backoffNanos(5, 90 * MILLIS)).isBetween(10 * MILLIS, 100 * MILLIS);
+    }
+  }
+
+  @Test
+  void parseRetryAfter() {
+    ZonedDateTime now = ZonedDateTime.of(2015, 10, 21, 7, 28, 0, 0, ZoneOffset.UTC);
+
+    assertThat(RetryPolicy.parseRetryAfter("120", now)).isEqualTo(Duration.ofSeconds(120));
+    assertThat(RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:30 GMT", now)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:27:00 GMT", now)).isEqualTo(Duration.ZERO);
+    assertThat(RetryPolicy.parseRetryAfter("junk", now)).isNull();
+    assertThat(RetryPolicy.parseRetryAfter("", now)).isNull();
+  }
+
+  @Test
+  void budget() {
+    RetryPolicy.TokenBucket bucket = new RetryPolicy.TokenBucket(3, 1);
+    long now = System.nanoTime();
+
+    assertThat(bucket.tryAcquire(now)).isTrue();
+    assertThat(bucket.tryAcquire(now)).isTrue();
+    assertThat(bucket.tryAcquire(now)).isTrue();
+    assertThat(bucket.tryAcquire(now)).isFalse();
+
+    // one token replenished per second
+    assertThat(bucket.tryAcquire(now + 1_000 * MILLIS)).isTrue();
+    assertThat(bucket.tryAcquire(now + 1_000 * MILLIS)).isFalse();
+  }
+
+  @Test
+  void build_invalidDelay() {
+    assertThatThrownBy(() -> RetryPolicy.builder().baseDelay(Duration.ofSeconds(2)).maxDelay(Duration.ofSeconds(1)).build())
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void send_attemptsUpToMaxRetries() {
+    final AtomicInteger attempts = new AtomicInteger();
+    final HttpClient client = HttpClient.builder()
+      .baseUrl("http://loopback")
+      .requestLogging(false)
+      .retryHandler(new SimpleRetryHandler(3, 0))
+      .transport(LoopbackTransport.of(request -> {
+        attempts.incrementAndGet();
+        return LoopbackTransport.Response.of(503);
+      }))
+      .build();
+
+    assertThat(client.request().path("a").GET().asDiscarding().statusCode()).isEqualTo(503);
+    // the retry count includes the initial attempt
+    assertThat(attempts).hasValue(3);
+    client.close();
+  }
+}
@@ -3,6 +3,7 @@ package io.avaje.http.client;
 import org.junit.jupiter.api.Test;
 
 import java.net.http.HttpResponse;
+import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -32,6 +33,39 @@ class RetryTest extends BaseWebTest {
     performGetRequestAndAssert(myIntercept, clientContext);
   }
 
+  @Test
+  void retryPolicyTest() {
+    final MyIntercept myIntercept = new MyIntercept();
+    final HttpClient clientContext = initClientWithRetry(myIntercept, retryPolicy());
+    performGetRequestAndAssert(myIntercept, clientContext);
+  }
+
+  @Test
+  void retryPolicyAsyncTest() {
+    final MyIntercept myIntercept = new MyIntercept();
+    final HttpClient clientContext = initClientWithRetry(myIntercept, retryPolicy());
+
+    HttpResponse<String> res = clientContext.request()
+      .label("http_client_hello_retry")
+      .path("hello/retry")
+      .GET()
+      .async().asString()
+      .join();
+
+    assertThat(res.body()).isEqualTo("All good at 3rd attempt");
+    assertThat(myIntercept.counter).isEqualTo(1);
+  }
+
+  private static RetryPolicy retryPolicy() {
+    return RetryPolicy.builder()
+      .maxRetries(4)
+      .baseDelay(Duration.ofMillis(5))
+      .maxDelay(Duration.ofMillis(50))
+      .jitter(RetryPolicy.Jitter.DECORRELATED)
+      .budget(10, 10)
+      .build();
+  }
+
   private void performGetRequestAndAssert(MyIntercept myIntercept, HttpClient clientContext) {
     HttpResponse<String> res = clientContext.request()
       .label("http_client_hello_retry")
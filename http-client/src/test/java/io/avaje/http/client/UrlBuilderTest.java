@@ -12,6 +12,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class UrlBuilderTest {
 
@@ -37,6 +38,49 @@ class UrlBuilderTest {
       .path(98L).build()).isEqualTo("https://foo/" + uuid + "/42/2020-05-12/98");
   }
 
+  @Test
+  void path_template() {
+    UUID uuid = UUID.randomUUID();
+    UrlTemplate template = UrlTemplate.of("hello/{id}/{uuid}/more/{date}");
+    assertThat(template.parameterCount()).isEqualTo(3);
+    assertThat(foo().path(template, 42, uuid, LocalDate.of(2020, 5, 12)).queryParam("a", "b").build())
+      .isEqualTo("https://foo/hello/42/" + uuid + "/more/2020-05-12?a=b");
+  }
+
+  @Test
+  void path_template_single() {
+    assertThat(foo().path(UrlTemplate.of("{id}"), 98L).build()).isEqualTo("https://foo/98");
+  }
+
+  @Test
+  void path_template_fixedArity() {
+    assertThat(foo().path(UrlTemplate.of("customer")).build()).isEqualTo("https://foo/customer");
+    assertThat(foo().path(UrlTemplate.of("customer/{id}/order/{orderId}"), 42, "a1").build())
+      .isEqualTo("https://foo/customer/42/order/a1");
+    assertThatThrownBy(() -> foo().path(UrlTemplate.of("customer/{id}"), 1, 2))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void path_template_nullValue() {
+    assertThatThrownBy(() -> foo().path(UrlTemplate.of("customer/{id}"), (Object) null))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("{id}");
+    assertThatThrownBy(() -> foo().path(UrlTemplate.of("customer/{id}/order/{orderId}"), 42, null))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("{orderId}");
+    assertThatThrownBy(() -> foo().path(UrlTemplate.of("{a}/{b}/{c}"), 1, null, 3))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("{b}");
+  }
+
+  @Test
+  void enc() {
+    String safe = "safe-Value_1.2*";
+    assertThat(UrlBuilder.enc(safe)).isSameAs(safe);
+    assertThat(UrlBuilder.enc("a b&c/d")).isEqualTo("a+b%26c%2Fd");
+  }
+
   @Test
   void matrixParam() {
     final String url = foo().path("bar").matrixParam("a", "one").matrixParam("b", "two")
@@ -48,6 +48,11 @@ public class HelloController$Route extends AvajeJavalinPlugin {
       ctx.result(controller.basicAuth(authorization));
     });
 
+    routes.get("/hello/cached", ctx -> {
+      ctx.status(200);
+      controller.cached(ctx);
+    });
+
     routes.get("/hello/stream", ctx -> {
       ctx.status(200);
       controller.stream(ctx);
@@ -24,6 +24,7 @@ import static java.util.Objects.requireNonNull;
 class HelloController {
 
   private int retryCounter;
+  private int cachedCounter;
 
   @Produces(MediaType.TEXT_PLAIN)
   @Get("message")
@@ -51,6 +52,19 @@ class HelloController {
     return "NotExpected: " + authorization;
   }
 
+  @Get("cached")
+  void cached(Context context) {
+    // max-age=0 with an ETag such that each request is revalidated
+    context.header("Cache-Control", "max-age=0");
+    context.header("ETag", "\"v1\"");
+    if ("\"v1\"".equals(context.header("If-None-Match"))) {
+      context.status(304);
+      return;
+    }
+    cachedCounter++;
+    context.contentType("text/plain").result("cached " + cachedCounter);
+  }
+
   @Get("stream")
   void stream(Context context) {
     // simulate x-json-stream response
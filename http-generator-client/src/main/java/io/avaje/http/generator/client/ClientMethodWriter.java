@@ -6,6 +6,7 @@ import static io.avaje.http.generator.core.ProcessingContext.typeElement;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,6 +19,10 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.util.ElementFilter;
 
+import io.avaje.http.api.Bulkhead;
+import io.avaje.http.api.CircuitBreaker;
+import io.avaje.http.api.RateLimit;
+import io.avaje.http.api.Coalesce;
 import io.avaje.http.api.SuppressLogging;
 import io.avaje.http.generator.core.APContext;
 import io.avaje.http.generator.core.Append;
@@ -38,6 +43,10 @@ import io.avaje.prism.GenerateUtils;
 /** Write code to register Web route for a given controller method. */
 @GenerateUtils
 @GeneratePrism(SuppressLogging.class)
+@GeneratePrism(CircuitBreaker.class)
+@GeneratePrism(Bulkhead.class)
+@GeneratePrism(RateLimit.class)
+@GeneratePrism(Coalesce.class)
 final class ClientMethodWriter {
   private static final KnownResponse KNOWN_RESPONSE = new KnownResponse();
   private static final String BODY_HANDLER = "java.net.http.HttpResponse.BodyHandler";
@@ -59,7 +68,19 @@ final class ClientMethodWriter {
   private final Map<String, String> segmentPropertyMap;
   private final Set<String> propertyConstants;
   private final List<Entry<String, String>> presetHeaders;
+  private final String urlTemplate;
+  private String urlTemplateConstant;
+  private final Optional<CircuitBreakerPrism> circuitBreaker;
+  private final Optional<BulkheadPrism> bulkhead;
+  private final Optional<RateLimitPrism> methodRateLimit;
+  private final Optional<RateLimitPrism> clientRateLimit;
+  private final Optional<CoalescePrism> coalesce;
+  private String circuitBreakerConstant;
+  private String rateLimiterConstant;
   private boolean suppressLogging;
+  private final List<Binding> bindings = new ArrayList<>();
+  private Binding responseBinding;
+  private Binding bodyBinding;
 
   ClientMethodWriter(MethodReader method, Append writer, Set<String> propertyConstants) {
     this.method = method;
@@ -76,6 +97,18 @@ final class ClientMethodWriter {
         .filter(Segment::isProperty)
         .collect(toMap(Segment::name, s -> Util.sanitizeName(s.name()).toUpperCase()));
     this.propertyConstants = propertyConstants;
+    this.circuitBreaker =
+      CircuitBreakerPrism.getOptionalOn(method.element())
+        .or(() -> CircuitBreakerPrism.getOptionalOn(method.element().getEnclosingElement()));
+    this.bulkhead =
+      BulkheadPrism.getOptionalOn(method.element())
+        .or(() -> BulkheadPrism.getOptionalOn(method.element().getEnclosingElement()));
+    this.methodRateLimit = RateLimitPrism.getOptionalOn(method.element());
+    this.clientRateLimit = RateLimitPrism.getOptionalOn(method.element().getEnclosingElement());
+    this.coalesce =
+      CoalescePrism.getOptionalOn(method.element())
+        .or(() -> CoalescePrism.getOptionalOn(method.element().getEnclosingElement()));
+    this.urlTemplate = urlTemplate(method.pathSegments().segments());
     var element = method.element();
 
     this.presetHeaders =
@@ -92,6 +125,11 @@ final class ClientMethodWriter {
         .map(s -> s.split(":", 2))
         .filter(a -> a.length == 2)
         .map(a -> Map.entry(a[0].trim(), a[1].trim())).collect(toList());
+
+    for (MethodParam param : method.params()) {
+      checkBodyHandler(param);
+    }
+    initBindings();
   }
 
   void addImportTypes(ControllerReader reader) {
@@ -115,12 +153,187 @@ final class ClientMethodWriter {
     if (useConfig && !segmentPropertyMap.isEmpty()) {
       reader.addImportType("io.avaje.config.Config");
     }
+    if (urlTemplate != null) {
+      reader.addImportType("io.avaje.http.client.UrlTemplate");
+    }
+    if (circuitBreaker.isPresent()) {
+      reader.addImportType("io.avaje.http.client.CircuitBreakerConfig");
+    }
+    if (methodRateLimit.isPresent() || clientRateLimit.isPresent()) {
+      reader.addImportType("io.avaje.http.client.RateLimiter");
+    }
+    if (responseBinding != null) {
+      reader.addImportType("io.avaje.http.client.BodyReader");
+    }
+    if (bodyBinding != null) {
+      reader.addImportType("io.avaje.http.client.BodyWriter");
+    }
   }
 
-  private void methodStart(Append writer) {
-    for (MethodParam param : method.params()) {
-      checkBodyHandler(param);
+  /**
+   * Bind the BodyReader and BodyWriter for generic response and body types such that the
+   * generated client builds the Type once (static constant) and the reader or writer once
+   * per client instance (on first use) rather than per request.
+   */
+  private void initBindings() {
+    final UType type = responseType();
+    if (type != null) {
+      final var mainType = type.mainType();
+      final var param0 = type.param0();
+      if (isList(mainType)) {
+        responseBinding = readerBinding(param0, true);
+      } else if (isStream(mainType)) {
+        responseBinding = readerBinding(param0, false);
+      } else if (isHttpResponse(mainType)) {
+        if (bodyHandlerParam == null) {
+          final String paramMain = param0.mainType();
+          if (isList(paramMain)) {
+            responseBinding = readerBinding(param0.param0(), true);
+          } else if (isStream(paramMain)) {
+            responseBinding = readerBinding(param0.param0(), false);
+          } else {
+            responseBinding = readerBinding(param0, false);
+          }
+        }
+      } else {
+        responseBinding = readerBinding(type, false);
+      }
+    }
+    for (final MethodParam param : method.params()) {
+      if (param.paramType() == ParamType.BODY) {
+        if (!directBodyType(param.utype().full())) {
+          final UType bodyType = UType.parse(param.element().asType());
+          if (isBindable(bodyType)) {
+            bodyBinding = binding(bodyType, "Writer", "BodyWriter<" + bodyType.shortType() + ">", "beanWriter");
+          }
+        }
+        break;
+      }
+    }
+  }
+
+  /**
+   * Return the type that the response content is read as, or null for void and known responses.
+   */
+  private UType responseType() {
+    if (returnType.kind() == TypeKind.VOID || KNOWN_RESPONSE.get(returnType.full()) != null) {
+      return null;
     }
+    final var mainType = returnType.mainType();
+    if (COMPLETABLE_FUTURE.equals(mainType) || HTTP_CALL.equals(mainType)) {
+      return returnType.param0();
+    }
+    return returnType;
+  }
+
+  private Binding readerBinding(UType type, boolean list) {
+    if (!isBindable(type)) {
+      return null;
+    }
+    return list
+      ? binding(type, "Reader", "BodyReader<List<" + type.shortType() + ">>", "listReader")
+      : binding(type, "Reader", "BodyReader<" + type.shortType() + ">", "beanReader");
+  }
+
+  private Binding binding(UType type, String suffix, String fieldType, String adapterMethod) {
+    final String name = method.simpleName();
+    final String constant = uniqueConstant("TYPE_" + upperSnakeCase(name) + ("Writer".equals(suffix) ? "_BODY" : ""));
+    final var binding = new Binding(type, constant, uniqueConstant(name + suffix), fieldType, adapterMethod);
+    bindings.add(binding);
+    return binding;
+  }
+
+  private static boolean isBindable(UType type) {
+    return type.isGeneric() && (useInject || useJsonb || useJackson);
+  }
+
+  /**
+   * Write the instance fields holding the bound BodyReader and BodyWriter.
+   */
+  void writeBindingFields(Append writer) {
+    for (final Binding binding : bindings) {
+      writer.append("  private volatile %s %s;", binding.fieldType, binding.field).eol();
+    }
+  }
+
+  /**
+   * Write the methods that bind the BodyReader and BodyWriter on first use such that
+   * constructing the client does not depend on the body adapter.
+   */
+  void writeBindingMethods(Append writer) {
+    for (final Binding binding : bindings) {
+      writer.append("  private %s %s() {", binding.fieldType, binding.field).eol();
+      writer.append("    %s bound = this.%s;", binding.fieldType, binding.field).eol();
+      writer.append("    if (bound == null) {").eol();
+      writer.append("      bound = client.bodyAdapter().%s(%s);", binding.adapterMethod, binding.constant).eol();
+      writer.append("      this.%s = bound;", binding.field).eol();
+      writer.append("    }").eol();
+      writer.append("    return bound;").eol();
+      writer.append("  }").eol().eol();
+    }
+  }
+
+  /**
+   * Return the path as a precompiled url template or null when the path is empty or has
+   * property, matrix or absolute url segments.
+   * <p>
+   * Literal only paths are also templates such that every client method has a constant
+   * low-cardinality url template (used by tracing for span names).
+   */
+  private static String urlTemplate(Set<PathSegments.Segment> segments) {
+    if (segments.isEmpty()) {
+      return null;
+    }
+    final var template = new StringBuilder();
+    for (var segment : segments) {
+      if (segment.isProperty() || segment.matrixKeys() != null && !segment.matrixKeys().isEmpty()) {
+        return null;
+      }
+      if (template.length() > 0) {
+        template.append("/");
+      }
+      if (segment.isLiteral()) {
+        final String literal = segment.literalSection();
+        if (template.length() == 0 && (literal.startsWith("http:") || literal.startsWith("https:"))) {
+          return null;
+        }
+        template.append(literal);
+      } else {
+        template.append("{").append(segment.name()).append("}");
+      }
+    }
+    return template.toString();
+  }
+
+  private String uniqueConstant(String name) {
+    String constant = name;
+    int counter = 1;
+    while (!propertyConstants.add(constant)) {
+      constant = name + "_" + counter++;
+    }
+    return constant;
+  }
+
+  /**
+   * Escape the value for use in a generated string literal.
+   */
+  private static String escape(String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  private static String upperSnakeCase(String name) {
+    final var sb = new StringBuilder(name.length() + 4);
+    for (int i = 0; i < name.length(); i++) {
+      final char ch = name.charAt(i);
+      if (Character.isUpperCase(ch) && i > 0) {
+        sb.append('_');
+      }
+      sb.append(Character.toUpperCase(ch));
+    }
+    return sb.toString();
+  }
+
+  private void methodStart(Append writer) {
     method.checkArgumentNames();
 
     writer.append("  // %s %s", webMethod, method.webMethodPath()).eol();
@@ -134,6 +347,38 @@ final class ClientMethodWriter {
       writer.append(getProperty).append("\"%s\");", k).eol();
     });
 
+    if (urlTemplate != null) {
+      urlTemplateConstant = uniqueConstant("URL_" + upperSnakeCase(method.simpleName()));
+      writer.append("  private static final UrlTemplate %s = UrlTemplate.of(\"%s\");", urlTemplateConstant, escape(urlTemplate)).eol();
+    }
+
+    circuitBreaker.ifPresent(p -> {
+      circuitBreakerConstant = uniqueConstant("CIRCUIT_BREAKER_" + upperSnakeCase(method.simpleName()));
+      writer.append("  private static final CircuitBreakerConfig %s = CircuitBreakerConfig.builder()", circuitBreakerConstant).eol();
+      writer.append("    .failureThreshold(%s)", p.failureThreshold()).eol();
+      writer.append("    .openDuration(java.time.Duration.of(%sL, java.time.temporal.ChronoUnit.%s))", p.openDuration(), p.chronoUnit()).eol();
+      writer.append("    .halfOpenCalls(%s)", p.halfOpenCalls()).eol();
+      writer.append("    .build();").eol();
+    });
+
+    final String clientName = method.element().getEnclosingElement().getSimpleName().toString();
+    if (methodRateLimit.isPresent()) {
+      rateLimiterConstant = uniqueConstant("RATE_LIMITER_" + upperSnakeCase(method.simpleName()));
+      writeRateLimiter(methodRateLimit.get(), clientName + "." + method.simpleName());
+    } else if (clientRateLimit.isPresent()) {
+      // shared by all the methods of the client
+      rateLimiterConstant = "RATE_LIMITER";
+      if (propertyConstants.add(rateLimiterConstant)) {
+        writeRateLimiter(clientRateLimit.get(), clientName);
+      }
+    }
+
+    for (final Binding binding : bindings) {
+      writer.append("  private static final java.lang.reflect.Type %s = ", binding.constant);
+      writeGenericType(binding.type);
+      writer.append(";").eol();
+    }
+
     writer.append("  @Override").eol();
     AnnotationUtil.writeAnnotations(writer, method.element(), "  ");
     writer.append("  public %s%s %s(", methodGenericParams, returnType.shortType(), method.simpleName());
@@ -192,11 +437,46 @@ final class ClientMethodWriter {
     writeBeanParams(pathSegments);
     writeFormParams(pathSegments);
     timeout.ifPresent(this::writeTimeout);
+    writeIsolation();
+    writeCoalesce();
     writeBody();
     writeErrorMapper();
     writeEnd();
   }
 
+  private void writeRateLimiter(RateLimitPrism p, String name) {
+    writer.append("  private static final RateLimiter %s = RateLimiter.builder()", rateLimiterConstant).eol();
+    writer.append("    .name(\"%s\")", name).eol();
+    writer.append("    .permitsPerSecond(%s)", p.value()).eol();
+    writer.append("    .burst(%s)", p.burst()).eol();
+    writer.append("    .maxWait(java.time.Duration.of(%sL, java.time.temporal.ChronoUnit.%s))", p.maxWait(), p.chronoUnit()).eol();
+    writer.append("    .adaptive(%s)", p.adaptive()).eol();
+    writer.append("    .build();").eol();
+  }
+
+  private void writeIsolation() {
+    if (rateLimiterConstant != null) {
+      writer.append("      .rateLimiter(%s)", rateLimiterConstant).eol();
+    }
+    if (circuitBreaker.isEmpty() && bulkhead.isEmpty()) {
+      return;
+    }
+    // key the circuit breaker and bulkhead by client interface and method
+    final String shortName = method.element().getEnclosingElement().getSimpleName().toString();
+    writer.append("      .label(\"%s.%s\")", shortName, method.simpleName()).eol();
+    if (circuitBreakerConstant != null) {
+      writer.append("      .circuitBreaker(%s)", circuitBreakerConstant).eol();
+    }
+    bulkhead.ifPresent(p -> writer.append("      .bulkhead(%s)", p.value()).eol());
+  }
+
+  private void writeCoalesce() {
+    final String verb = webMethod.name();
+    if (coalesce.isPresent() && ("GET".equals(verb) || "HEAD".equals(verb))) {
+      writer.append("      .coalesce(%s)", coalesce.get().value()).eol();
+    }
+  }
+
   private void writeTimeout(RequestTimeoutPrism p) {
     writer.append("      .requestTimeout(of(%s, %s))", p.value(), p.chronoUnit()).eol();
   }
@@ -239,7 +519,9 @@ final class ClientMethodWriter {
   private void writeResponse(UType type) {
     final var mainType = type.mainType();
     final var param1 = type.param0();
-    if (isList(mainType)) {
+    if (responseBinding != null) {
+      writer.append(".%s(%s());", responseMethod(mainType, param1), responseBinding.field).eol();
+    } else if (isList(mainType)) {
       writer.append(".list(");
       writeGeneric(param1);
       writer.append(");").eol();
@@ -271,7 +553,33 @@ final class ClientMethodWriter {
     }
   }
 
+  /**
+   * Return the response method used with the bound reader.
+   */
+  private String responseMethod(String mainType, UType param0) {
+    if (isList(mainType)) {
+      return "list";
+    } else if (isStream(mainType)) {
+      return "stream";
+    } else if (!isHttpResponse(mainType)) {
+      return "bean";
+    } else if (isList(param0.mainType())) {
+      return "asList";
+    } else if (isStream(param0.mainType())) {
+      return "asStream";
+    }
+    return "as";
+  }
+
   void writeGeneric(UType type) {
+    if (isBindable(type)) {
+      writeGenericType(type);
+    } else {
+      writer.append("%s.class", Util.shortName(type.mainType()));
+    }
+  }
+
+  private void writeGenericType(UType type) {
     if (type.isGeneric() && useInject) {
       writer.append("new GenericType<%s>() {}.type()", type.shortType());
     } else if (type.isGeneric() && useJsonb) {
@@ -339,7 +647,12 @@ final class ClientMethodWriter {
       }
     }
     presetHeaders.forEach(e ->
-      writer.append("      .header(\"%s\", \"%s\")", e.getKey(), e.getValue().replace("\\", "\\\\")).eol());
+      writer.append("      .header(\"%s\", \"%s\")", e.getKey(), escape(e.getValue())).eol());
+    final String produces = method.produces();
+    if (Util.isBinaryMediaType(produces)) {
+      // prefer the binary content with fallback to JSON
+      writer.append("      .header(\"Accept\", \"%s, application/json;q=0.9\")", produces).eol();
+    }
   }
 
   private void writeBeanParams(PathSegments segments) {
@@ -387,9 +700,14 @@ final class ClientMethodWriter {
         var type = param.utype().full();
         if (directBodyType(type)) {
           writer.append("      .body(%s)", param.name()).eol();
+        } else if (bodyBinding != null) {
+          writer.append("      .body(%s, %s()", param.name(), bodyBinding.field);
+          writeBodyContentType();
+          writer.append(")").eol();
         } else {
           writer.append("      .body(%s, ", param.name());
           writeGeneric(UType.parse(param.element().asType()));
+          writeBodyContentType();
           writer.append(")").eol();
         }
         return;
@@ -397,6 +715,16 @@ final class ClientMethodWriter {
     }
   }
 
+  /**
+   * Write the binary (CBOR, Smile, MessagePack) content type of the request body.
+   */
+  private void writeBodyContentType() {
+    final String consumes = method.binaryConsumes();
+    if (consumes != null) {
+      writer.append(", \"%s\"", consumes);
+    }
+  }
+
   private void writeErrorMapper() {
     method.throwsList().stream()
       .map(ProcessingContext::asElement)
@@ -430,6 +758,10 @@ final class ClientMethodWriter {
   }
 
   private void writePaths(Set<PathSegments.Segment> segments) {
+    if (urlTemplateConstant != null) {
+      writeUrlTemplate(segments);
+      return;
+    }
     if (!segments.isEmpty()) {
       writer.append("      ");
     }
@@ -468,6 +800,16 @@ final class ClientMethodWriter {
     }
   }
 
+  private void writeUrlTemplate(Set<PathSegments.Segment> segments) {
+    writer.append("      .path(%s", urlTemplateConstant);
+    for (var segment : segments) {
+      if (!segment.isLiteral()) {
+        writer.append(", ").append(segment.name());
+      }
+    }
+    writer.append(")").eol();
+  }
+
   private void writeLiteral(StringBuilder combinedLiterals) {
     String path =
         combinedLiterals.toString().replace("http:/", "http://").replace("https:/", "https://");
@@ -497,4 +839,24 @@ final class ClientMethodWriter {
     return "java.net.http.HttpResponse".equals(type0);
   }
 
+  /**
+   * A static Type constant with the BodyReader or BodyWriter bound to it per client instance.
+   */
+  private static final class Binding {
+
+    private final UType type;
+    private final String constant;
+    private final String field;
+    private final String fieldType;
+    private final String adapterMethod;
+
+    Binding(UType type, String constant, String field, String fieldType, String adapterMethod) {
+      this.type = type;
+      this.constant = constant;
+      this.field = field;
+      this.fieldType = fieldType;
+      this.adapterMethod = adapterMethod;
+    }
+  }
+
 }
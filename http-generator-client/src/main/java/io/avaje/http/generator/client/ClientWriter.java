@@ -49,6 +49,10 @@ final class ClientWriter extends BaseControllerWriter {
   }
 
   private void readMethods() {
+    for (final MethodReader method : reader.methods()) {
+      // the generated binding methods must not clash with the client methods
+      propertyConstants.add(method.simpleName());
+    }
     for (final MethodReader method : reader.methods()) {
       if (method.isWebMethod()) {
         final var methodWriter = new ClientMethodWriter(method, writer, propertyConstants);
@@ -84,11 +88,18 @@ final class ClientWriter extends BaseControllerWriter {
     var access = packagePrivate ? "" : "public ";
     writer.append("%sfinal class %s%s implements %s, AutoCloseable {", access, shortName, suffix, shortName).eol().eol();
 
-    writer.append("  private final HttpClient client;").eol().eol();
+    writer.append("  private final HttpClient client;").eol();
+    for (final ClientMethodWriter methodWriter : methodList) {
+      methodWriter.writeBindingFields(writer);
+    }
+    writer.eol();
 
     writer.append("  %s%s%s(HttpClient client) {", access, shortName, suffix).eol();
     writer.append("    this.client = client;").eol();
     writer.append("  }").eol().eol();
+    for (final ClientMethodWriter methodWriter : methodList) {
+      methodWriter.writeBindingMethods(writer);
+    }
   }
 
 }
@@ -1,11 +1,16 @@
 package io.avaje.http.generator.client.clients;
 
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
+import io.avaje.http.api.Bulkhead;
+import io.avaje.http.api.CircuitBreaker;
 import io.avaje.http.api.Client;
+import io.avaje.http.api.Coalesce;
 import io.avaje.http.api.Get;
 import io.avaje.http.api.Headers;
+import io.avaje.http.api.RateLimit;
 import io.avaje.http.api.SuppressLogging;
 
 @Client
@@ -18,10 +23,14 @@ public interface TitanFall {
   Titan titanFall();
 
   @Get("/masterpiece")
+  @CircuitBreaker(failureThreshold = 3, openDuration = 10)
+  @Bulkhead(10)
   Map<String, List<Titan>> titanFall2();
 
 
   @Get("/${titan}/copium")
+  @Coalesce
+  @RateLimit(value = 2.5, burst = 5, maxWait = 500, chronoUnit = ChronoUnit.MILLIS)
   @Headers("      Accept    :   applicaton/json")
   Titan titanFall3();
 }
\ No newline at end of file
@@ -53,6 +53,8 @@ public final class ControllerReader {
   private final boolean html;
   /** Set true via {@code @ContentCache} to indicate use of Templating content cache */
   private boolean hasContentCache;
+  /** Set true when a method negotiates binary request or response content via a BodyCodec */
+  private boolean hasBodyCodec;
   private boolean methodHasValid;
 
   /**
@@ -228,6 +230,14 @@ public final class ControllerReader {
     return hasContentCache;
   }
 
+  /**
+   * Return true if a method negotiates binary (CBOR, Smile, MessagePack) request or
+   * response content such that a BodyCodec is injected into the generated route.
+   */
+  public boolean hasBodyCodec() {
+    return hasBodyCodec;
+  }
+
   public TypeElement beanType() {
     return beanType;
   }
@@ -304,6 +314,16 @@ public final class ControllerReader {
   private void deriveIncludeValidation() {
     methodHasValid = anyMethodHasValid();
     hasContentCache = anyMethodHasContentCache();
+    hasBodyCodec = platform().supportsBodyCodec() && anyMethodHasBinaryContent();
+  }
+
+  private boolean anyMethodHasBinaryContent() {
+    for (final MethodReader method : methods) {
+      if (method.isWebMethod() && (method.binaryProduces() != null || method.binaryConsumes() != null)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   private boolean anyMethodHasValid() {
@@ -43,6 +43,7 @@ public class ElementReader {
   private boolean isParamCollection;
   private boolean isParamMap;
   private final Set<String> imports = new HashSet<>();
+  private String binaryBody;
 
   private final List<String> validationGroups = new ArrayList<>();
 
@@ -301,6 +302,10 @@ public class ElementReader {
     }
   }
 
+  void binaryBody(String mediaType) {
+    this.binaryBody = mediaType;
+  }
+
   void addImports(ControllerReader bean) {
     bean.addImportTypes(imports);
   }
@@ -397,7 +402,11 @@ public class ElementReader {
 
     if (typeHandler == null || paramType == ParamType.BODY) {
       // this is a body (POST, PATCH)
-      writer.append(platform().bodyAsClass(type));
+      if (binaryBody != null) {
+        writeBinaryBody(writer);
+      } else {
+        writer.append(platform().bodyAsClass(type));
+      }
 
     } else if (isParamCollection && specialParam) {
       if (hasParamDefault()) {
@@ -427,6 +436,17 @@ public class ElementReader {
     return true;
   }
 
+  /**
+   * Read the body via the BodyCodec when the Content-Type matches otherwise as JSON.
+   */
+  private void writeBinaryBody(Append writer) {
+    writer.append("BodyCodec.matches(");
+    platform().writeReadParameter(writer, ParamType.HEADER, "Content-Type");
+    writer.append(", \"%s\")", binaryBody).eol();
+    writer.append("%s      ? bodyCodec.read(\"%s\", %s, %s.class)", platform().indent(), binaryBody, platform().bodyAsClass(UType.parse("byte[]")), Util.shortName(type.mainType())).eol();
+    writer.append("%s      : %s", platform().indent(), platform().bodyAsClass(type));
+  }
+
   private void writeForm(Append writer, String shortType, String varName, ParamType defaultParamType) {
     final TypeElement formBeanType = typeElement(rawType);
     final BeanParamReader form = new BeanParamReader(formBeanType, varName, shortType, defaultParamType);
@@ -60,7 +60,7 @@ public final class JsonBUtil {
         .filter(m -> m.webMethod() instanceof CoreWebMethod)
         .filter(m -> m.webMethod() != CoreWebMethod.FILTER)
         .filter(m -> !"byte[]".equals(m.returnType().toString()))
-        .filter(m -> m.produces() == null || m.produces().toLowerCase().contains("json"))
+        .filter(m -> m.produces() == null || m.produces().toLowerCase().contains("json") || m.binaryProduces() != null)
         .forEach(
             methodReader -> {
               if (!methodReader.isErrorMethod()) {
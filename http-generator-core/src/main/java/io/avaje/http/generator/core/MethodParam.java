@@ -19,6 +19,13 @@ public class MethodParam {
     elementParam.writeCtxGet(writer, segments);
   }
 
+  /**
+   * Read the body using the BodyCodec when the request Content-Type matches the given media type.
+   */
+  void binaryBody(String mediaType) {
+    elementParam.binaryBody(mediaType);
+  }
+
   public void addImports(ControllerReader bean) {
     elementParam.addImports(bean);
   }
@@ -27,6 +27,12 @@ import io.swagger.v3.oas.models.Operation;
 
 public class MethodReader {
 
+  private static final Set<String> RAW_BODY_TYPES = Set.of("byte[]", "java.lang.String", "java.io.InputStream");
+  private static final Set<String> NON_NEGOTIATED_TYPES = Set.of(
+    "java.util.stream.Stream",
+    "java.util.concurrent.CompletableFuture",
+    "java.util.concurrent.CompletionStage");
+
   private final ControllerReader bean;
   private final ExecutableElement element;
   private final boolean isVoid;
@@ -346,6 +352,9 @@ public class MethodReader {
       final UType type = Util.parse(typeMirror.toString());
       final MethodParam param = new MethodParam(annotatedParameters.get(i), type, rawType, defaultParamType, formMarker);
       params.add(param);
+      if (param.isBody() && binaryConsumes() != null && platform().supportsBodyCodec()) {
+        initBinaryBody(p, param);
+      }
 
       if (CoreWebMethod.GET.equals(webMethod) && isBodyParam(param)) {
         logError(p, MessageFormat.format("Unsure how to populate {0} parameter for this @Get request. " +
@@ -357,6 +366,19 @@ public class MethodReader {
     }
   }
 
+  private void initBinaryBody(VariableElement p, MethodParam param) {
+    final UType type = param.utype();
+    if (RAW_BODY_TYPES.contains(type.full())) {
+      // raw content is passed through as is
+      return;
+    }
+    if (type.isGeneric()) {
+      logError(p, "Generic body type " + type.shortType() + " is not supported with @Consumes(\"" + binaryConsumes() + "\")");
+      return;
+    }
+    param.binaryBody(binaryConsumes());
+  }
+
   private static boolean isBodyParam(MethodParam param) {
     return param.isBody()
       && !"java.util.Map".equals(param.utype().mainType())
@@ -421,6 +443,35 @@ public class MethodReader {
     return consumesAnnotation;
   }
 
+  /**
+   * Return the binary media type (CBOR, Smile, MessagePack) of the response that is
+   * negotiated with JSON via the Accept header or null when the response is not negotiated.
+   */
+  public String binaryProduces() {
+    final String produces = produces();
+    if (!Util.isBinaryMediaType(produces) || isVoid) {
+      return null;
+    }
+    final UType type = UType.parse(returnType());
+    if (RAW_BODY_TYPES.contains(type.full())
+      || isAssignable2Interface(type.mainType(), "io.avaje.http.api.StreamingOutput")
+      || NON_NEGOTIATED_TYPES.contains(type.mainType())) {
+      return null;
+    }
+    return produces;
+  }
+
+  /**
+   * Return the binary media type (CBOR, Smile, MessagePack) of the request body that is
+   * negotiated with JSON via the Content-Type header or null when the body is not negotiated.
+   */
+  public String binaryConsumes() {
+    return consumesAnnotation
+      .map(ConsumesPrism::value)
+      .filter(Util::isBinaryMediaType)
+      .orElse(null);
+  }
+
   public List<SecurityRequirementPrism> securityRequirements() {
     return securityRequirements;
   }
@@ -24,6 +24,14 @@ public interface PlatformAdapter {
   /** Return true if body is passed as a method parameter. */
   boolean isBodyMethodParam();
 
+  /**
+   * Return true if the generated routes inject a {@code BodyCodec} to negotiate binary
+   * (CBOR, Smile, MessagePack) request and response content with JSON.
+   */
+  default boolean supportsBodyCodec() {
+    return false;
+  }
+
   /** Return whitespace indent for setting parameter values. */
   String indent();
 
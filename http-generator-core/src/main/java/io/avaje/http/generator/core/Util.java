@@ -290,6 +290,18 @@ public final class Util {
       .equals(String.class.getTypeName());
   }
 
+  /**
+   * Return true if the media type is a binary encoding (CBOR, Smile, MessagePack) that
+   * is negotiated with JSON via a BodyCodec.
+   */
+  public static boolean isBinaryMediaType(String mediaType) {
+    if (mediaType == null) {
+      return false;
+    }
+    final String lower = mediaType.toLowerCase();
+    return lower.contains("cbor") || lower.contains("smile") || lower.contains("msgpack");
+  }
+
   public static boolean nullMarked(Element e) {
     if (e == null || NullUnmarkedPrism.isPresent(e)) {
       return false;
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class UtilTest {
 
@@ -193,6 +195,16 @@ public class UtilTest {
     assertThat(Util.name("Map<String,Person>")).isEqualTo("mapStringPerson");
   }
 
+  @Test
+  void isBinaryMediaType() {
+    assertTrue(Util.isBinaryMediaType("application/cbor"));
+    assertTrue(Util.isBinaryMediaType("application/x-jackson-smile"));
+    assertTrue(Util.isBinaryMediaType("application/msgpack"));
+    assertFalse(Util.isBinaryMediaType("application/json"));
+    assertFalse(Util.isBinaryMediaType("application/octet-stream"));
+    assertFalse(Util.isBinaryMediaType(null));
+  }
+
   @Test
   void trimAnnotations() {
     assertEquals("java.lang.String", Util.trimAnnotations("java.lang.String"));
@@ -153,6 +153,8 @@ final class ControllerMethodWriter {
         writer.append("    var %s = req.content().inputStream();", method.bodyName()).eol();
       } else if ("String".equals(bodyType)) {
         writer.append("    var %s = req.content().as(String.class);", method.bodyName()).eol();
+      } else if (binaryBody()) {
+        writeBinaryBody();
       } else if (useJsonB) {
         final String fieldName = fieldNameOfBody();
         writer.append("    var %s = %sJsonType.fromJson(req.content().inputStream());", method.bodyName(), fieldName).eol();
@@ -271,6 +273,7 @@ final class ControllerMethodWriter {
           writeContextReturn(indent, streamingResponse(uType));
           writeStreamingOutputReturn(indent);
         }
+        case ResponseMode.Binary -> writeBinaryReturn(indent, uType);
         default -> {
           writeContextReturn(indent, streamingResponse(uType));
           if (responseMode == ResponseMode.InputStream) {
@@ -310,6 +313,7 @@ final class ControllerMethodWriter {
   enum ResponseMode {
     Void,
     Json,
+    Binary,
     Jstachio,
     Templating,
     InputStream,
@@ -327,6 +331,9 @@ final class ControllerMethodWriter {
     if (isStreamingOutput(method.returnType())) {
       return ResponseMode.StreamingOutput;
     }
+    if (method.binaryProduces() != null) {
+      return ResponseMode.Binary;
+    }
     if (producesJson()) {
       return ResponseMode.Json;
     }
@@ -358,6 +365,54 @@ final class ControllerMethodWriter {
     return isAssignable2Interface(type.toString(), "java.io.InputStream");
   }
 
+  /**
+   * Write the binary content when accepted by the client otherwise fallback to JSON.
+   */
+  private void writeBinaryReturn(String indent, UType uType) {
+    final String produces = method.binaryProduces();
+    writer.append(indent).append("res.header(HeaderNames.VARY, \"Accept\");").eol();
+    writer.append(indent).append("if (BodyCodec.accepts(req.headers().value(HeaderNames.ACCEPT).orElse(null), \"%s\")) {", produces).eol();
+    writer.append(indent).append("  res.headers().contentType(MediaTypes.create(\"%s\"));", produces).eol();
+    writer.append(indent).append("  res.send(bodyCodec.write(\"%s\", result));", produces).eol();
+    writer.append(indent).append("} else {").eol();
+    writer.append(indent).append("  res.headers().contentType(MediaTypes.APPLICATION_JSON);").eol();
+    if (useJsonB && !disabledDirectWrites()) {
+      writer.append(indent).append("  %sJsonType.toJson(result, JsonOutput.of(res));", uType.shortName()).eol();
+    } else {
+      writer.append(indent).append("  res.send(result);").eol();
+    }
+    writer.append(indent).append("}").eol();
+  }
+
+  private boolean binaryBody() {
+    if (method.binaryConsumes() == null) {
+      return false;
+    }
+    return method.params().stream()
+      .filter(MethodParam::isBody)
+      .map(MethodParam::utype)
+      .anyMatch(type -> !type.isGeneric() && !"byte[]".equals(type.full()));
+  }
+
+  /**
+   * Read the body via the BodyCodec when the Content-Type matches otherwise as JSON.
+   */
+  private void writeBinaryBody() {
+    final String consumes = method.binaryConsumes();
+    final UType type = method.params().stream()
+      .filter(MethodParam::isBody)
+      .findFirst()
+      .orElseThrow()
+      .utype();
+    writer.append("    var %s = BodyCodec.matches(req.headers().value(HeaderNames.CONTENT_TYPE).orElse(null), \"%s\")", method.bodyName(), consumes).eol();
+    writer.append("      ? bodyCodec.read(\"%s\", req.content().as(byte[].class), %s.class)", consumes, type.full()).eol();
+    if (useJsonB) {
+      writer.append("      : %sJsonType.fromJson(req.content().inputStream());", type.shortName()).eol();
+    } else {
+      writer.append("      : req.content().as(%s.class);", type.full()).eol();
+    }
+  }
+
   private void defaultHelidonBodyContent() {
     method.params().stream()
         .filter(MethodParam::isBody)
@@ -63,6 +63,9 @@ class ControllerWriter extends BaseControllerWriter {
         reader.addImportType("io.avaje.htmx.nima.TemplateContentCache");
       }
     }
+    if (reader.hasBodyCodec()) {
+      reader.addImportType("io.avaje.http.api.BodyCodec");
+    }
   }
 
   private static String jsonOutputType() {
@@ -152,6 +155,9 @@ class ControllerWriter extends BaseControllerWriter {
         writer.append("  private final TemplateContentCache contentCache;").eol();
       }
     }
+    if (reader.hasBodyCodec()) {
+      writer.append("  private final BodyCodec bodyCodec;").eol();
+    }
 
     for (final UType type : jsonTypes.values()) {
       if (!isInputStream(type.full())) {
@@ -177,6 +183,9 @@ class ControllerWriter extends BaseControllerWriter {
     if (instrumentContext) {
       writer.append(", RequestContextResolver resolver");
     }
+    if (reader.hasBodyCodec()) {
+      writer.append(", BodyCodec bodyCodec");
+    }
 
     writer.append(") {").eol();
     writer.append("    this.%s = %s;", controllerName, controllerName).eol();
@@ -192,6 +201,9 @@ class ControllerWriter extends BaseControllerWriter {
     if (instrumentContext) {
       writer.append("    this.resolver = resolver;").eol();
     }
+    if (reader.hasBodyCodec()) {
+      writer.append("    this.bodyCodec = bodyCodec;").eol();
+    }
 
     if (useJsonB) {
       for (final UType type : jsonTypes.values()) {
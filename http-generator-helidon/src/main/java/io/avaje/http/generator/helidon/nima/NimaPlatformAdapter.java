@@ -40,6 +40,11 @@ class NimaPlatformAdapter implements PlatformAdapter {
     return true;
   }
 
+  @Override
+  public boolean supportsBodyCodec() {
+    return true;
+  }
+
   @Override
   public String bodyAsClass(UType uType) {
     return "body";
@@ -154,6 +154,15 @@ class ControllerMethodWriter {
 
   private void writeContextReturn(final String resultVariableName) {
     var produces = method.produces();
+    final String binaryProduces = method.binaryProduces();
+    if (binaryProduces != null) {
+      // binary content when accepted by the client otherwise fallback to JSON
+      writer.append("      ctx.header(\"Vary\", \"Accept\");").eol();
+      writer.append("      if (BodyCodec.accepts(ctx.header(\"Accept\"), \"%s\")) {", binaryProduces).eol();
+      writer.append("        ctx.contentType(\"%s\").result(bodyCodec.write(\"%s\", %s));", binaryProduces, binaryProduces, resultVariableName).eol();
+      writer.append("      } else {").eol();
+      produces = null;
+    }
 
     if (useJstachio && produces == null) {
       produces = MediaType.TEXT_HTML.getValue();
@@ -201,5 +210,8 @@ class ControllerMethodWriter {
     } else {
       writer.append("      ctx.contentType(\"%s\").result(%s);", produces, resultVariableName);
     }
+    if (binaryProduces != null) {
+      writer.eol().append("      }");
+    }
   }
 }
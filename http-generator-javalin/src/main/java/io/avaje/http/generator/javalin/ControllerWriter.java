@@ -43,6 +43,9 @@ class ControllerWriter extends BaseControllerWriter {
     } else {
       reader.addImportType("io.javalin.Javalin");
     }
+    if (reader.hasBodyCodec()) {
+      reader.addImportType("io.avaje.http.api.BodyCodec");
+    }
   }
 
   void write() {
@@ -112,6 +115,10 @@ class ControllerWriter extends BaseControllerWriter {
       writer.append("  private final RequestContextResolver resolver;").eol();
     }
 
+    if (reader.hasBodyCodec()) {
+      writer.append("  private final BodyCodec bodyCodec;").eol();
+    }
+
     for (final UType type : jsonTypes.values()) {
       final var typeString = PrimitiveUtil.wrap(type.shortType()).replace(",", ", ");
       writer.append("  private final JsonType<%s> %sJsonType;", typeString, type.shortName()).eol();
@@ -128,6 +135,9 @@ class ControllerWriter extends BaseControllerWriter {
     if (instrumentContext) {
       writer.append(", RequestContextResolver resolver");
     }
+    if (reader.hasBodyCodec()) {
+      writer.append(", BodyCodec bodyCodec");
+    }
     writer.append(") {").eol();
     writer.append("    this.%s = %s;", controllerName, controllerName).eol();
     if (reader.isIncludeValidator()) {
@@ -136,6 +146,9 @@ class ControllerWriter extends BaseControllerWriter {
     if (instrumentContext) {
       writer.append("    this.resolver = resolver;").eol();
     }
+    if (reader.hasBodyCodec()) {
+      writer.append("    this.bodyCodec = bodyCodec;").eol();
+    }
     if (useJsonB) {
       for (final UType type : jsonTypes.values()) {
         JsonBUtil.writeJsonbType(type, writer);
@@ -34,6 +34,11 @@ class JavalinAdapter implements PlatformAdapter {
     return false;
   }
 
+  @Override
+  public boolean supportsBodyCodec() {
+    return true;
+  }
+
   @Override
   public String bodyAsClass(UType type) {
     if ("java.io.InputStream".equals(type.full())) {
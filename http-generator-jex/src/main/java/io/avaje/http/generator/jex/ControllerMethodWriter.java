@@ -103,6 +103,7 @@ class ControllerMethodWriter {
   enum ResponseMode {
     Void,
     Json,
+    Binary,
     Text,
     Jstachio,
     Templating,
@@ -121,6 +122,9 @@ class ControllerMethodWriter {
     if (isStreamingOutput(method.returnType())) {
       return ResponseMode.StreamingOutput;
     }
+    if (method.binaryProduces() != null) {
+      return ResponseMode.Binary;
+    }
     if (producesJson()) {
       return ResponseMode.Json;
     }
@@ -300,6 +304,7 @@ class ControllerMethodWriter {
     switch (responseMode) {
       case Void -> {}
       case Json -> writeJsonReturn(produces, indent);
+      case Binary -> writeBinaryReturn(produces, indent);
       case Text -> writer.append("ctx.text(%s);", resultVariable);
       case Templating -> writer.append("ctx.html(%s);", resultVariable);
       case StreamingOutput -> writeStreamingOutputReturn(produces, resultVariable, indent);
@@ -315,6 +320,20 @@ class ControllerMethodWriter {
     writer.append(indent).append("}");
   }
 
+  /**
+   * Write the binary content when accepted by the client otherwise fallback to JSON.
+   */
+  private void writeBinaryReturn(String produces, String indent) {
+    writer.append("ctx.header(\"Vary\", \"Accept\");").eol();
+    writer.append(indent).append("if (BodyCodec.accepts(ctx.header(\"Accept\"), \"%s\")) {", produces).eol();
+    writer.append(indent).append("  ctx.contentType(\"%s\").write(bodyCodec.write(\"%s\", result));", produces, produces).eol();
+    writer.append(indent).append("} else {").eol();
+    writer.append(indent).append("  ");
+    writeJsonReturn(null, indent + "  ");
+    writer.eol();
+    writer.append(indent).append("}");
+  }
+
   private void writeJsonReturn(String produces, String indent) {
     var uType = UType.parse(method.returnType());
     boolean streaming = useJsonB && streamingContent(uType);
@@ -42,6 +42,9 @@ class ControllerWriter extends BaseControllerWriter {
         reader.addImportType("io.avaje.jex.htmx.TemplateContentCache");
       }
     }
+    if (reader.hasBodyCodec()) {
+      reader.addImportType("io.avaje.http.api.BodyCodec");
+    }
   }
 
   void write() {
@@ -111,6 +114,10 @@ class ControllerWriter extends BaseControllerWriter {
       }
     }
 
+    if (reader.hasBodyCodec()) {
+      writer.append("  private final BodyCodec bodyCodec;").eol();
+    }
+
     for (final UType type : jsonTypes.values()) {
       final var typeString = PrimitiveUtil.wrap(type.shortType()).replace(",", ", ");
       writer.append("  private final JsonType<%s> %sJsonType;", typeString, type.shortName()).eol();
@@ -134,6 +141,9 @@ class ControllerWriter extends BaseControllerWriter {
         writer.append(", TemplateContentCache contentCache");
       }
     }
+    if (reader.hasBodyCodec()) {
+      writer.append(", BodyCodec bodyCodec");
+    }
     writer.append(") {").eol();
     writer.append("    this.%s = %s;", controllerName, controllerName).eol();
     if (reader.isIncludeValidator()) {
@@ -148,6 +158,9 @@ class ControllerWriter extends BaseControllerWriter {
         writer.append("    this.contentCache = contentCache;").eol();
       }
     }
+    if (reader.hasBodyCodec()) {
+      writer.append("    this.bodyCodec = bodyCodec;").eol();
+    }
     if (useJsonB) {
       for (final UType type : jsonTypes.values()) {
         JsonBUtil.writeJsonbType(type, writer);
@@ -31,6 +31,11 @@ class JexAdapter implements PlatformAdapter {
     return false;
   }
 
+  @Override
+  public boolean supportsBodyCodec() {
+    return true;
+  }
+
   @Override
   public String bodyAsClass(UType type) {
     if ("java.io.InputStream".equals(type.full())) {
@@ -8,6 +8,7 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
@@ -59,6 +60,13 @@ interface JunkApi {
   HttpCall<List<Repo>> callList();
   @Post
   HttpCall<Stream<Repo>> callStream();
+
+  @Post("generic")
+  List<Map<String, Repo>> listGeneric(List<Repo> repos);
+  @Post("generic")
+  CompletableFuture<HttpResponse<List<Map<String, Repo>>>> cfGeneric(Map<String, Repo> repos);
+  @Post("generic")
+  HttpCall<Map<String, List<Repo>>> callGeneric();
   // -------
 
   // @Post CompletableFuture<Void> cfVoidErr();
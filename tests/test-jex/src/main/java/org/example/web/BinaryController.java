@@ -0,0 +1,27 @@
+package org.example.web;
+
+import io.avaje.http.api.Consumes;
+import io.avaje.http.api.Controller;
+import io.avaje.http.api.Get;
+import io.avaje.http.api.MediaType;
+import io.avaje.http.api.Path;
+import io.avaje.http.api.Post;
+import io.avaje.http.api.Produces;
+
+@Controller
+@Path("binary")
+@Produces(MediaType.APPLICATION_CBOR)
+@Consumes(MediaType.APPLICATION_CBOR)
+public class BinaryController {
+
+  @Get("{id}")
+  HelloDto get(int id) {
+    return new HelloDto(id, "binary");
+  }
+
+  @Post
+  HelloDto post(HelloDto dto) {
+    dto.id++;
+    return dto;
+  }
+}
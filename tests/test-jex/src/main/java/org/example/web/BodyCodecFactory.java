@@ -0,0 +1,28 @@
+package org.example.web;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.avaje.http.api.BodyCodec;
+import io.avaje.inject.Bean;
+import io.avaje.inject.Factory;
+
+import java.io.IOException;
+
+@Factory
+public class BodyCodecFactory {
+
+  @Bean
+  BodyCodec bodyCodec() {
+    final CBORMapper mapper = new CBORMapper();
+    return new BodyCodec() {
+      @Override
+      public <T> T read(String mediaType, byte[] content, Class<T> type) throws IOException {
+        return mapper.readValue(content, type);
+      }
+
+      @Override
+      public byte[] write(String mediaType, Object value) throws IOException {
+        return mapper.writeValueAsBytes(value);
+      }
+    };
+  }
+}
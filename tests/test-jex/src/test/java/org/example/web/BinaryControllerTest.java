@@ -0,0 +1,81 @@
+package org.example.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import io.avaje.http.api.MediaType;
+import io.avaje.http.client.BodyContent;
+import io.avaje.http.client.HttpClient;
+
+class BinaryControllerTest extends BaseWebTest {
+
+  static final CBORMapper cborMapper = new CBORMapper();
+
+  final HttpClient client = client();
+
+  @Test
+  void get_json() {
+    HttpResponse<String> res = client.request()
+      .path("binary/42")
+      .GET()
+      .asString();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.headers().firstValue("Content-Type").orElseThrow()).startsWith("application/json");
+    assertThat(res.headers().firstValue("Vary").orElseThrow()).isEqualTo("Accept");
+    assertThat(res.body()).contains("\"id\":42").contains("\"name\":\"binary\"");
+  }
+
+  @Test
+  void get_cbor() throws IOException {
+    HttpResponse<byte[]> res = client.request()
+      .path("binary/42")
+      .header("Accept", MediaType.APPLICATION_CBOR)
+      .GET()
+      .asByteArray();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.headers().firstValue("Content-Type").orElseThrow()).startsWith(MediaType.APPLICATION_CBOR);
+    assertThat(res.headers().firstValue("Vary").orElseThrow()).isEqualTo("Accept");
+    HelloDto dto = cborMapper.readValue(res.body(), HelloDto.class);
+    assertThat(dto.id).isEqualTo(42);
+    assertThat(dto.name).isEqualTo("binary");
+  }
+
+  @Test
+  void post_json() {
+    HttpResponse<String> res = client.request()
+      .path("binary")
+      .header("Content-Type", "application/json")
+      .body("{\"id\":1,\"name\":\"json\"}")
+      .POST()
+      .asString();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.headers().firstValue("Content-Type").orElseThrow()).startsWith("application/json");
+    assertThat(res.body()).contains("\"id\":2").contains("\"name\":\"json\"");
+  }
+
+  @Test
+  void post_cbor() throws IOException {
+    HelloDto body = new HelloDto(1, "cbor");
+    HttpResponse<byte[]> res = client.request()
+      .path("binary")
+      .header("Accept", MediaType.APPLICATION_CBOR)
+      .body(BodyContent.of(MediaType.APPLICATION_CBOR, cborMapper.writeValueAsBytes(body)))
+      .POST()
+      .asByteArray();
+
+    assertThat(res.statusCode()).isEqualTo(200);
+    assertThat(res.headers().firstValue("Content-Type").orElseThrow()).startsWith(MediaType.APPLICATION_CBOR);
+    HelloDto dto = cborMapper.readValue(res.body(), HelloDto.class);
+    assertThat(dto.id).isEqualTo(2);
+    assertThat(dto.name).isEqualTo("cbor");
+  }
+}